@@ -1,3 +1,9 @@
+import java.awt.RenderingHints
+import java.awt.image.BufferedImage
+import java.io.File
+import java.util.concurrent.TimeUnit
+import javax.imageio.ImageIO
+
 plugins {
     alias(libs.plugins.android.application)
 }
@@ -31,6 +37,181 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    buildFeatures {
+        // 调试日志通过 BuildConfig.DEBUG 控制，release 包中不输出
+        buildConfig = true
+    }
+    testOptions {
+        // Robolectric 测试需要真实的资源 (布局、主题)
+        unitTests.isIncludeAndroidResources = true
+    }
+}
+
+/**
+ * 封面 / 头像资源的构建时转码
+ *
+ * 原图放在 src/main/images (不再直接打进 APK)，构建时生成到 build/generated/res/imageVariants：
+ * 1.  每张原图转码成同名 WebP (cover_1、avatar_1)，作为全屏封面和大尺寸头像使用。
+ * 2.  按宽度 (封面) 或边长 (头像) 生成缩小的档位，例如 cover_1_w360、avatar_1_s48，只生成比原图小的档位。
+ * 3.  档位列表写入 values/image_variants.xml，运行时由 ImageVariants 读取并选择不小于显示尺寸的最小档位。
+ * 4.  在 build/reports/imageVariants/sizes.txt 中输出转码前后的体积对比。
+ *
+ * WebP 编码使用 libwebp 的 cwebp 命令 (可通过 gradle 属性 cwebp.path 指定路径)。
+ * 找不到 cwebp 时退回输出缩小后的 PNG 并给出警告：档位仍然生效，只是 APK 体积收益变小。
+ */
+abstract class GenerateImageVariantsTask : DefaultTask() {
+
+    @get:InputDirectory
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val sourceDir: DirectoryProperty
+
+    @get:Input
+    abstract val coverWidths: ListProperty<Int>
+
+    @get:Input
+    abstract val avatarSizes: ListProperty<Int>
+
+    @get:Input
+    abstract val coverQuality: Property<Int>
+
+    @get:Input
+    abstract val avatarQuality: Property<Int>
+
+    @get:Input
+    abstract val cwebpPath: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputDir: DirectoryProperty
+
+    @get:OutputFile
+    abstract val reportFile: RegularFileProperty
+
+    @TaskAction
+    fun generate() {
+        val out = outputDir.get().asFile
+        out.deleteRecursively()
+        // nodpi：按原始像素使用，不随屏幕密度缩放
+        val drawableDir = File(out, "drawable-nodpi").apply { mkdirs() }
+        val valuesDir = File(out, "values").apply { mkdirs() }
+        val tmpDir = temporaryDir.apply { listFiles()?.forEach { it.delete() } }
+        val cwebp = cwebpPath.get().takeIf { isExecutable(it) }
+        if (cwebp == null) {
+            logger.warn("cwebp not found (${cwebpPath.get()}), image variants are written as PNG")
+        }
+
+        val report = StringBuilder()
+        var sourceTotal = 0L
+        var outputTotal = 0L
+        val sources = sourceDir.get().asFile.listFiles { f -> f.extension == "png" }.orEmpty().sortedBy { it.name }
+        for (source in sources) {
+            val name = source.nameWithoutExtension
+            val isCover = name.startsWith("cover_")
+            val image = ImageIO.read(source) ?: throw GradleException("cannot read ${source.path}")
+            val quality = if (isCover) coverQuality.get() else avatarQuality.get()
+
+            // (资源名, 目标尺寸)：原尺寸 + 各个更小的档位
+            val targets = mutableListOf(name to image)
+            if (isCover) {
+                coverWidths.get().filter { it < image.width }.forEach { w ->
+                    targets += "${name}_w$w" to scale(image, w, Math.round(image.height * w / image.width.toFloat()))
+                }
+            } else {
+                avatarSizes.get().filter { it < image.width }.forEach { s ->
+                    targets += "${name}_s$s" to scale(image, s, Math.round(image.height * s / image.width.toFloat()))
+                }
+            }
+
+            sourceTotal += source.length()
+            report.append(String.format("%-16s %4dx%-4d %9d B\n", source.name, image.width, image.height, source.length()))
+            for ((resName, scaled) in targets) {
+                val png = File(tmpDir, "$resName.png")
+                ImageIO.write(scaled, "png", png)
+                val result = if (cwebp != null) {
+                    val webp = File(drawableDir, "$resName.webp")
+                    encodeWebp(cwebp, png, webp, quality)
+                    webp
+                } else {
+                    png.copyTo(File(drawableDir, png.name), overwrite = true)
+                }
+                outputTotal += result.length()
+                report.append(String.format("  -> %-20s %4dx%-4d %9d B\n", result.name, scaled.width, scaled.height, result.length()))
+            }
+        }
+        report.append(String.format("source total %d B, variants total %d B (%.1f%%)\n",
+                sourceTotal, outputTotal, if (sourceTotal > 0) outputTotal * 100.0 / sourceTotal else 0.0))
+
+        File(valuesDir, "image_variants.xml").writeText(buildString {
+            append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n")
+            append("<!-- 由 generateImageVariants 生成，请勿手动修改 -->\n<resources>\n")
+            append(integerArray("cover_variant_widths", coverWidths.get()))
+            append(integerArray("avatar_variant_sizes", avatarSizes.get()))
+            append("</resources>\n")
+        })
+
+        reportFile.get().asFile.apply { parentFile.mkdirs() }.writeText(report.toString())
+        logger.lifecycle("Image variants: ${sources.size} sources, $sourceTotal B -> $outputTotal B")
+    }
+
+    private fun integerArray(name: String, values: List<Int>): String =
+        "    <integer-array name=\"$name\">\n" +
+                values.sorted().joinToString("") { "        <item>$it</item>\n" } +
+                "    </integer-array>\n"
+
+    /** 逐级减半后再缩放到目标尺寸，避免一次大比例缩小造成的锯齿 */
+    private fun scale(source: BufferedImage, width: Int, height: Int): BufferedImage {
+        var current = source
+        while (current.width / 2 >= width) {
+            current = draw(current, current.width / 2, current.height / 2)
+        }
+        return draw(current, width, height)
+    }
+
+    private fun draw(source: BufferedImage, width: Int, height: Int): BufferedImage {
+        val target = BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+        val g = target.createGraphics()
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC)
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY)
+        g.drawImage(source, 0, 0, width, height, null)
+        g.dispose()
+        return target
+    }
+
+    private fun encodeWebp(cwebp: String, input: File, output: File, quality: Int) {
+        val process = ProcessBuilder(cwebp, "-quiet", "-mt", "-q", quality.toString(), "-m", "6",
+                input.absolutePath, "-o", output.absolutePath)
+            .redirectErrorStream(true)
+            .start()
+        val log = process.inputStream.bufferedReader().readText()
+        if (!process.waitFor(2, TimeUnit.MINUTES) || process.exitValue() != 0) {
+            throw GradleException("cwebp failed for ${input.name}: $log")
+        }
+    }
+
+    private fun isExecutable(command: String): Boolean = try {
+        val process = ProcessBuilder(command, "-version").redirectErrorStream(true).start()
+        process.inputStream.readBytes()
+        process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0
+    } catch (e: Exception) {
+        false
+    }
+}
+
+val generateImageVariants = tasks.register<GenerateImageVariantsTask>("generateImageVariants") {
+    sourceDir.set(layout.projectDirectory.dir("src/main/images"))
+    // 封面档位覆盖常见屏幕下瀑布流卡片的宽度 (两列)；头像档位对应 16dp / 36dp 在 xxhdpi 附近的尺寸
+    coverWidths.set(listOf(360, 540, 720))
+    avatarSizes.set(listOf(48, 96))
+    coverQuality.set(80)
+    avatarQuality.set(90)
+    cwebpPath.set(providers.gradleProperty("cwebp.path").orElse("cwebp"))
+    outputDir.set(layout.buildDirectory.dir("generated/res/imageVariants"))
+    reportFile.set(layout.buildDirectory.file("reports/imageVariants/sizes.txt"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.res?.addGeneratedSourceDirectory(generateImageVariants, GenerateImageVariantsTask::outputDir)
+    }
 }
 
 dependencies {
@@ -41,16 +222,26 @@ dependencies {
     implementation("com.google.android.material:material:1.10.0")
 
     testImplementation(libs.junit)
+    testImplementation("androidx.arch.core:core-testing:2.2.0")
+    // Android 自带的 org.json 在本地单元测试中只是空实现，需要引入真实的实现
+    testImplementation("org.json:json:20231013")
+    testImplementation(libs.okhttp.mockwebserver)
+    testImplementation(libs.robolectric)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 
     // ExoPlayer (核心 + ui)
     implementation(libs.media3.exoplayer)
     implementation("androidx.media3:media3-ui:1.3.1")
+    implementation(libs.media3.datasource.okhttp)
 
     // Glide
     implementation("com.github.bumptech.glide:glide:4.15.1")
     annotationProcessor("com.github.bumptech.glide:compiler:4.15.1")
+    implementation("com.github.bumptech.glide:okhttp3-integration:4.15.1")
+
+    // 全局共享的 HTTP 客户端 (Glide 和 ExoPlayer 共用)
+    implementation(libs.okhttp)
 
     // RecyclerView / ViewPager2 / ConstraintLayout 都通常已经有
     implementation("androidx.recyclerview:recyclerview:1.3.0")
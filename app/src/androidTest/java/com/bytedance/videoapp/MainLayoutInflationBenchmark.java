@@ -0,0 +1,104 @@
+package com.bytedance.videoapp;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewStub;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 首页布局基准测试：对比冷启动时只 inflate "推荐" 页 (其余页面为 ViewStub) 与
+ * 全部页面一次性 inflate (原来的行为) 的 inflate 耗时和 View 数量。结果见 logcat 中的 MainLayoutInflationBenchmark。
+ */
+@RunWith(AndroidJUnit4.class)
+public class MainLayoutInflationBenchmark {
+
+    private static final String TAG = "MainLayoutInflationBenchmark";
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 10;
+    private static final int[] STUBS = {R.id.stub_me, R.id.stub_follow, R.id.stub_mall};
+
+    @Test
+    public void stubs_inflateIntoOriginalIds() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            View root = inflate(context(), false);
+            assertNull(root.findViewById(R.id.group_me));
+            assertNull(root.findViewById(R.id.layout_follow));
+            assertNull(root.findViewById(R.id.layout_mall));
+
+            inflateStubs(root);
+            assertNotNull(root.findViewById(R.id.group_me));
+            assertNotNull(root.findViewById(R.id.iv_me_avatar));
+            assertNotNull(root.findViewById(R.id.layout_follow));
+            assertNotNull(root.findViewById(R.id.layout_mall));
+        });
+    }
+
+    @Test
+    public void benchmark_startupInflation() {
+        Context context = context();
+        long[] lazyNs = new long[1];
+        long[] eagerNs = new long[1];
+        int[] lazyViews = new int[1];
+        int[] eagerViews = new int[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                View lazy = inflate(context, false);
+                long lazyElapsed = SystemClock.elapsedRealtimeNanos() - start;
+                start = SystemClock.elapsedRealtimeNanos();
+                View eager = inflate(context, true);
+                long eagerElapsed = SystemClock.elapsedRealtimeNanos() - start;
+                if (round >= WARMUP_ROUNDS) {
+                    lazyNs[0] += lazyElapsed;
+                    eagerNs[0] += eagerElapsed;
+                }
+                lazyViews[0] = countViews(lazy);
+                eagerViews[0] = countViews(eager);
+            }
+        });
+        Log.i(TAG, "activity_main inflate: lazy " + lazyNs[0] / ROUNDS / 1000 + " us / " + lazyViews[0]
+                + " views, eager " + eagerNs[0] / ROUNDS / 1000 + " us / " + eagerViews[0] + " views");
+        assertTrue("lazy " + lazyViews[0] + " views, eager " + eagerViews[0], lazyViews[0] < eagerViews[0]);
+    }
+
+    private static View inflate(Context context, boolean eager) {
+        View root = LayoutInflater.from(context).inflate(R.layout.activity_main, null, false);
+        if (eager) inflateStubs(root);
+        return root;
+    }
+
+    private static void inflateStubs(View root) {
+        for (int id : STUBS) {
+            ((ViewStub) root.findViewById(id)).inflate();
+        }
+    }
+
+    private static int countViews(View view) {
+        if (view instanceof ViewStub) return 0;
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    private static Context context() {
+        return new ContextThemeWrapper(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_Videoapp);
+    }
+}
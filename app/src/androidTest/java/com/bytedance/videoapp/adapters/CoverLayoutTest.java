@@ -0,0 +1,108 @@
+package com.bytedance.videoapp.adapters;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.image.ImageOptions;
+import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 瀑布流布局稳定性测试：卡片高度在绑定时由封面宽高比确定，
+ * 滑动过程中封面陆续加载完成也不应再触发 RecyclerView 重新布局。
+ */
+@RunWith(AndroidJUnit4.class)
+public class CoverLayoutTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int SCROLL_STEPS = 20;
+    private static final int SCROLL_STEP_PX = 600;
+    private static final long IMAGE_WAIT_MS = 300;
+
+    private static final int[] COVERS = {R.drawable.cover_1, R.drawable.cover_2, R.drawable.cover_3,
+            R.drawable.cover_4, R.drawable.cover_5};
+    private static final int[] AVATARS = {R.drawable.avatar_1, R.drawable.avatar_2, R.drawable.avatar_3,
+            R.drawable.avatar_4, R.drawable.avatar_5};
+
+    @Test
+    public void scrolling_doesNotRelayoutWhenCoversArrive() throws Exception {
+        Context context = new ContextThemeWrapper(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_Videoapp);
+        RecyclerView[] holder = new RecyclerView[1];
+
+        runOnMain(() -> {
+            RecyclerView recyclerView = new RecyclerView(context);
+            StaggeredGridLayoutManager layoutManager = new StaggeredGridLayoutManager(
+                    ImageOptions.GRID_SPAN_COUNT, StaggeredGridLayoutManager.VERTICAL);
+            layoutManager.setGapStrategy(StaggeredGridLayoutManager.GAP_HANDLING_NONE);
+            recyclerView.setLayoutManager(layoutManager);
+            VideoListAdapter adapter = new VideoListAdapter();
+            adapter.setData(sampleFeed(200));
+            recyclerView.setAdapter(adapter);
+            layout(recyclerView);
+            holder[0] = recyclerView;
+        });
+        RecyclerView recyclerView = holder[0];
+        waitForImages();
+        runOnMain(() -> {
+            if (recyclerView.isLayoutRequested()) layout(recyclerView);
+        });
+
+        // 模拟逐帧滑动：每一步之后等待封面加载，如果有人请求了布局就执行一次并计数
+        int relayouts = 0;
+        for (int step = 0; step < SCROLL_STEPS; step++) {
+            runOnMain(() -> recyclerView.scrollBy(0, SCROLL_STEP_PX));
+            waitForImages();
+            boolean[] requested = new boolean[1];
+            runOnMain(() -> {
+                requested[0] = recyclerView.isLayoutRequested();
+                if (requested[0]) layout(recyclerView);
+            });
+            if (requested[0]) relayouts++;
+        }
+
+        assertEquals("layout passes triggered while scrolling", 0, relayouts);
+        runOnMain(() -> {
+            View first = recyclerView.getChildAt(0);
+            assertNotNull(first);
+            assertTrue(first.getHeight() > 0);
+        });
+    }
+
+    private static void layout(RecyclerView recyclerView) {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static void waitForImages() throws InterruptedException {
+        Thread.sleep(IMAGE_WAIT_MS);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
+    private static void runOnMain(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+
+    private static VideoColumnStore.Snapshot sampleFeed(int count) {
+        VideoColumnStore store = new VideoColumnStore();
+        for (int i = 0; i < count; i++) {
+            store.append(new VideoBean(i, "标题 " + i, "作者" + (i % 7), i * 1000L,
+                    COVERS[i % COVERS.length], 0, AVATARS[i % AVATARS.length]));
+        }
+        return store.snapshot();
+    }
+}
@@ -0,0 +1,186 @@
+package com.bytedance.videoapp.adapters;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.image.ImageOptions;
+import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * ViewHolder 预加载基准测试：分别统计首页瀑布流和详情页 (纵向整页列表) 的首次布局帧、首次滑动帧
+ * 在主线程上的耗时，对比同步 inflate (原来的行为) 与使用预加载缓存池两种情况。
+ * 结果见 logcat 中的 ViewHolderPrewarmBenchmark。
+ */
+@RunWith(AndroidJUnit4.class)
+public class ViewHolderPrewarmBenchmark {
+
+    private static final String TAG = "ViewHolderPrewarmBenchmark";
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int CARD_COUNT = 10;
+    private static final int PAGE_COUNT = 4;
+    private static final long PREWARM_TIMEOUT_MS = 5000;
+
+    private static final int[] COVERS = {R.drawable.cover_1, R.drawable.cover_2, R.drawable.cover_3,
+            R.drawable.cover_4, R.drawable.cover_5};
+    private static final int[] AVATARS = {R.drawable.avatar_1, R.drawable.avatar_2, R.drawable.avatar_3,
+            R.drawable.avatar_4, R.drawable.avatar_5};
+
+    @Test
+    public void benchmark_gridFirstFrames() throws Exception {
+        Context context = context();
+        long[] cold = firstFrames(() -> gridList(context, null));
+        ViewHolderPrewarmer prewarmer = prewarmed(context, R.layout.item_video_card, CARD_COUNT);
+        long[] warm = firstFrames(() -> gridList(context, prewarmer));
+        Log.i(TAG, "grid first layout: sync " + cold[0] / 1000 + " us, prewarmed " + warm[0] / 1000
+                + " us; first scroll: sync " + cold[1] / 1000 + " us, prewarmed " + warm[1] / 1000 + " us");
+        assertTrue("prewarmed first layout " + warm[0] + " ns, sync " + cold[0] + " ns", warm[0] < cold[0]);
+    }
+
+    @Test
+    public void benchmark_pagerFirstFrames() throws Exception {
+        Context context = context();
+        long[] cold = firstFrames(() -> pagerList(context, null));
+        ViewHolderPrewarmer prewarmer = prewarmed(context, R.layout.item_video_full, PAGE_COUNT);
+        long[] warm = firstFrames(() -> pagerList(context, prewarmer));
+        Log.i(TAG, "pager first layout: sync " + cold[0] / 1000 + " us, prewarmed " + warm[0] / 1000
+                + " us; first swipe: sync " + cold[1] / 1000 + " us, prewarmed " + warm[1] / 1000 + " us");
+        assertTrue("prewarmed first layout " + warm[0] + " ns, sync " + cold[0] + " ns", warm[0] < cold[0]);
+    }
+
+    @Test
+    public void prewarmedViews_areTakenByAdapter() throws Exception {
+        Context context = context();
+        ViewHolderPrewarmer prewarmer = prewarmed(context, R.layout.item_video_full, PAGE_COUNT);
+        RecyclerView[] list = new RecyclerView[1];
+        runOnMain(() -> list[0] = pagerList(context, prewarmer));
+        runOnMain(() -> {
+            // 准备好的页面已经全部转换为缓存池中的 ViewHolder
+            assertEquals(0, prewarmer.readyCount(R.layout.item_video_full));
+            assertEquals(PAGE_COUNT, list[0].getRecycledViewPool().getRecycledViewCount(0));
+            layout(list[0]);
+            View page = list[0].getChildAt(0);
+            assertNotNull(page);
+            assertEquals(HEIGHT, page.getHeight());
+            prewarmer.detach(R.layout.item_video_full, list[0]);
+            prewarmer.release(R.layout.item_video_full);
+        });
+    }
+
+    /**
+     * 返回 [首次布局耗时, 首次滑动一屏耗时]，单位纳秒。列表在主线程上创建，创建过程不计入。
+     */
+    private static long[] firstFrames(ListFactory factory) throws Exception {
+        RecyclerView[] list = new RecyclerView[1];
+        long[] result = new long[2];
+        runOnMain(() -> list[0] = factory.create());
+        runOnMain(() -> {
+            long start = SystemClock.elapsedRealtimeNanos();
+            layout(list[0]);
+            result[0] = SystemClock.elapsedRealtimeNanos() - start;
+        });
+        runOnMain(() -> {
+            long start = SystemClock.elapsedRealtimeNanos();
+            list[0].scrollBy(0, HEIGHT);
+            result[1] = SystemClock.elapsedRealtimeNanos() - start;
+        });
+        runOnMain(() -> {
+            // 还原为未预加载的状态，保证下一次测量的同步 inflate 不会取到预加载的 View
+            ViewHolderPrewarmer prewarmer = ViewHolderPrewarmer.getInstance(list[0].getContext());
+            prewarmer.detach(R.layout.item_video_card, list[0]);
+            prewarmer.detach(R.layout.item_video_full, list[0]);
+            prewarmer.release(R.layout.item_video_card);
+            prewarmer.release(R.layout.item_video_full);
+        });
+        return result;
+    }
+
+    private static RecyclerView gridList(Context context, ViewHolderPrewarmer prewarmer) {
+        RecyclerView recyclerView = new RecyclerView(context);
+        StaggeredGridLayoutManager layoutManager = new StaggeredGridLayoutManager(
+                ImageOptions.GRID_SPAN_COUNT, StaggeredGridLayoutManager.VERTICAL);
+        layoutManager.setGapStrategy(StaggeredGridLayoutManager.GAP_HANDLING_NONE);
+        recyclerView.setLayoutManager(layoutManager);
+        VideoListAdapter adapter = new VideoListAdapter();
+        adapter.setData(sampleFeed(100));
+        recyclerView.setAdapter(adapter);
+        if (prewarmer != null) prewarmer.attach(R.layout.item_video_card, recyclerView, adapter, 0);
+        return recyclerView;
+    }
+
+    private static RecyclerView pagerList(Context context, ViewHolderPrewarmer prewarmer) {
+        RecyclerView recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        VideoPagerAdapter adapter = new VideoPagerAdapter(sampleFeed(20), context);
+        recyclerView.setAdapter(adapter);
+        if (prewarmer != null) prewarmer.attach(R.layout.item_video_full, recyclerView, adapter, 0);
+        return recyclerView;
+    }
+
+    /**
+     * 触发预加载并等待 inflate 完成。
+     */
+    private static ViewHolderPrewarmer prewarmed(Context context, int layout, int count) throws Exception {
+        ViewHolderPrewarmer[] prewarmer = new ViewHolderPrewarmer[1];
+        runOnMain(() -> {
+            prewarmer[0] = ViewHolderPrewarmer.getInstance(context);
+            if (layout == R.layout.item_video_full) {
+                prewarmer[0].prewarmOnMainThread(layout, count);
+            } else {
+                prewarmer[0].prewarm(layout, count);
+            }
+        });
+        long deadline = SystemClock.uptimeMillis() + PREWARM_TIMEOUT_MS;
+        int[] ready = new int[1];
+        do {
+            Thread.sleep(20);
+            runOnMain(() -> ready[0] = prewarmer[0].readyCount(layout));
+        } while (ready[0] < count && SystemClock.uptimeMillis() < deadline);
+        assertEquals("prewarmed views for " + layout, count, ready[0]);
+        return prewarmer[0];
+    }
+
+    private static void layout(RecyclerView recyclerView) {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static void runOnMain(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+
+    private static Context context() {
+        return new ContextThemeWrapper(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_Videoapp);
+    }
+
+    private static VideoColumnStore.Snapshot sampleFeed(int count) {
+        VideoColumnStore store = new VideoColumnStore();
+        for (int i = 0; i < count; i++) {
+            store.append(new VideoBean(i, "标题 " + i, "作者" + (i % 7), i * 1000L,
+                    COVERS[i % COVERS.length], 0, AVATARS[i % AVATARS.length]));
+        }
+        return store.snapshot();
+    }
+
+    private interface ListFactory {
+        RecyclerView create();
+    }
+}
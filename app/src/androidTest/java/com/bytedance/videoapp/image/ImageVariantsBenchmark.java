@@ -0,0 +1,127 @@
+package com.bytedance.videoapp.image;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bytedance.videoapp.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * 图片档位基准测试：输出 APK 体积、内置图片资源体积，以及瀑布流卡片每次绑定解码封面的耗时
+ * (全尺寸原图降采样 vs 构建时生成的档位)。结果见 logcat 中的 ImageVariantsBenchmark。
+ */
+@RunWith(AndroidJUnit4.class)
+public class ImageVariantsBenchmark {
+
+    private static final String TAG = "ImageVariantsBenchmark";
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 10;
+
+    private static final int[] COVERS = {R.drawable.cover_1, R.drawable.cover_2, R.drawable.cover_3,
+            R.drawable.cover_4, R.drawable.cover_5};
+    private static final int[] AVATARS = {R.drawable.avatar_1, R.drawable.avatar_2, R.drawable.avatar_3,
+            R.drawable.avatar_4, R.drawable.avatar_5};
+
+    @Test
+    public void variantSelection_picksSmallestBucketThatFits() {
+        int[] buckets = {360, 540, 720};
+        assertEquals(0, ImageVariants.bucketFor(buckets, 100));
+        assertEquals(0, ImageVariants.bucketFor(buckets, 360));
+        assertEquals(1, ImageVariants.bucketFor(buckets, 361));
+        assertEquals(2, ImageVariants.bucketFor(buckets, 720));
+        assertEquals(-1, ImageVariants.bucketFor(buckets, 1080));
+
+        Resources resources = context().getResources();
+        assertEquals(R.drawable.cover_1, ImageVariants.cover(resources, R.drawable.cover_1, 4096));
+        int grid = ImageVariants.cover(resources, R.drawable.cover_1, 400);
+        assertNotEquals(R.drawable.cover_1, grid);
+        assertEquals("cover_1_w540", resources.getResourceEntryName(grid));
+        int avatar = ImageVariants.avatar(resources, R.drawable.avatar_1, 48);
+        assertEquals("avatar_1_s48", resources.getResourceEntryName(avatar));
+    }
+
+    @Test
+    public void benchmark_apkSizeAndGridDecodeTime() {
+        Context context = context();
+        Resources resources = context.getResources();
+        int cardWidth = ImageOptions.gridCardWidth(context);
+
+        long apkBytes = new File(context.getApplicationInfo().sourceDir).length();
+        long fullBytes = 0;
+        long gridBytes = 0;
+        for (int cover : COVERS) {
+            fullBytes += resourceBytes(resources, cover);
+            gridBytes += resourceBytes(resources, ImageVariants.cover(resources, cover, cardWidth));
+        }
+        long avatarBytes = 0;
+        for (int avatar : AVATARS) {
+            avatarBytes += resourceBytes(resources, avatar);
+        }
+        Log.i(TAG, "apk " + apkBytes + " B, covers full " + fullBytes + " B, covers grid " + gridBytes
+                + " B, avatars " + avatarBytes + " B");
+
+        long fullNs = decodeNsPerBind(resources, COVERS, cardWidth, false);
+        long variantNs = decodeNsPerBind(resources, COVERS, cardWidth, true);
+        Log.i(TAG, "grid bind decode (card " + cardWidth + "px): full-size " + fullNs / 1000 + " us, variant "
+                + variantNs / 1000 + " us");
+
+        assertTrue("grid variants should be smaller than full-size covers", gridBytes < fullBytes);
+        assertTrue("variant decode " + variantNs + " ns, full-size " + fullNs + " ns", variantNs < fullNs);
+    }
+
+    /**
+     * 模拟一次卡片绑定的解码：按卡片宽度计算采样率 (与 Glide AT_MOST 一致，采样后不小于卡片宽度的最大 2 的幂)，
+     * 以 RGB_565 解码后再缩放到卡片宽度。
+     */
+    private static long decodeNsPerBind(Resources resources, int[] covers, int cardWidth, boolean useVariant) {
+        long total = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            for (int cover : covers) {
+                int resId = useVariant ? ImageVariants.cover(resources, cover, cardWidth) : cover;
+                long start = System.nanoTime();
+                BitmapFactory.Options bounds = new BitmapFactory.Options();
+                bounds.inJustDecodeBounds = true;
+                BitmapFactory.decodeResource(resources, resId, bounds);
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inPreferredConfig = Bitmap.Config.RGB_565;
+                options.inSampleSize = 1;
+                while (bounds.outWidth / (options.inSampleSize * 2) >= cardWidth) {
+                    options.inSampleSize *= 2;
+                }
+                Bitmap decoded = BitmapFactory.decodeResource(resources, resId, options);
+                Bitmap scaled = Bitmap.createScaledBitmap(decoded, cardWidth,
+                        Math.round(decoded.getHeight() * cardWidth / (float) decoded.getWidth()), true);
+                long elapsed = System.nanoTime() - start;
+                if (scaled != decoded) decoded.recycle();
+                scaled.recycle();
+                if (round >= WARMUP_ROUNDS) total += elapsed;
+            }
+        }
+        return total / ((long) ROUNDS * covers.length);
+    }
+
+    private static long resourceBytes(Resources resources, int resId) {
+        try (AssetFileDescriptor fd = resources.openRawResourceFd(resId)) {
+            return fd.getLength();
+        } catch (Exception e) {
+            throw new AssertionError("cannot open resource " + resId, e);
+        }
+    }
+
+    private static Context context() {
+        return InstrumentationRegistry.getInstrumentation().getTargetContext();
+    }
+}
@@ -0,0 +1,126 @@
+package com.bytedance.videoapp.view;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.fragment.app.FragmentActivity;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bytedance.videoapp.MainActivity;
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.adapters.ViewHolderPrewarmer;
+import com.bytedance.videoapp.model.CommentBean;
+import com.bytedance.videoapp.repository.CommentRepository;
+import com.bytedance.videoapp.repository.VideoRepository;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 评论区打开耗时基准测试：统计从打开到列表首次绘制的耗时，对比每次打开都新建弹窗 (原来的行为)
+ * 与复用同一个预先创建好的弹窗、只替换数据两种情况。评论已经预取，两者都不包含网络请求。
+ * 结果见 logcat 中的 CommentSheetOpenBenchmark。
+ */
+@RunWith(AndroidJUnit4.class)
+public class CommentSheetOpenBenchmark {
+
+    private static final String TAG = "CommentSheetOpenBenchmark";
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUNDS = 8;
+    private static final long[] VIDEO_IDS = {101L, 102L, 103L};
+    private static final long DRAW_TIMEOUT_MS = 3000;
+    private static final long PREWARM_WAIT_MS = 1000;
+
+    @Test
+    public void benchmark_openToFirstDraw() throws Exception {
+        prefetchComments();
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            FragmentActivity[] activity = new FragmentActivity[1];
+            scenario.onActivity(a -> activity[0] = a);
+
+            long cold = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                CommentBottomSheet[] sheet = new CommentBottomSheet[1];
+                runOnMain(() -> sheet[0] = new CommentBottomSheet());
+                long elapsed = open(activity[0], sheet[0], VIDEO_IDS[round % VIDEO_IDS.length]);
+                runOnMain(() -> {
+                    sheet[0].release();
+                    // 丢弃释放后补充的条目，下一次仍然从头创建
+                    ViewHolderPrewarmer.getInstance(activity[0]).release(R.layout.item_comment);
+                });
+                if (round >= WARMUP_ROUNDS) cold += elapsed;
+            }
+
+            CommentBottomSheet[] reused = new CommentBottomSheet[1];
+            runOnMain(() -> {
+                reused[0] = new CommentBottomSheet();
+                reused[0].prewarm(activity[0]);
+            });
+            // 等待评论条目在后台准备完成
+            Thread.sleep(PREWARM_WAIT_MS);
+            long warm = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                // 每次打开不同的视频，包含替换数据的开销
+                long elapsed = open(activity[0], reused[0], VIDEO_IDS[round % VIDEO_IDS.length]);
+                if (round >= WARMUP_ROUNDS) warm += elapsed;
+            }
+            runOnMain(() -> reused[0].release());
+
+            Log.i(TAG, "open to first draw: new sheet " + cold / ROUNDS / 1000 + " us, reused "
+                    + warm / ROUNDS / 1000 + " us");
+            assertTrue("reused " + warm / ROUNDS + " ns, new " + cold / ROUNDS + " ns", warm < cold);
+        }
+    }
+
+    /**
+     * 打开评论区并等待首次绘制，然后关闭。返回打开到首次绘制的耗时 (纳秒)。
+     */
+    private static long open(FragmentActivity activity, CommentBottomSheet sheet, long videoId)
+            throws Exception {
+        long[] before = new long[1];
+        runOnMain(() -> {
+            before[0] = sheet.getLastOpenToDrawNs();
+            sheet.show(activity, videoId);
+        });
+        long deadline = SystemClock.uptimeMillis() + DRAW_TIMEOUT_MS;
+        long[] elapsed = new long[1];
+        do {
+            Thread.sleep(10);
+            runOnMain(() -> elapsed[0] = sheet.getLastOpenToDrawNs());
+        } while (elapsed[0] == before[0] && SystemClock.uptimeMillis() < deadline);
+        assertNotEquals("sheet was not drawn", before[0], elapsed[0]);
+        runOnMain(sheet::dismissNow);
+        return elapsed[0];
+    }
+
+    private static void prefetchComments() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(VIDEO_IDS.length);
+        for (long videoId : VIDEO_IDS) {
+            CommentRepository.getInstance().fetchComments(videoId, 0,
+                    new VideoRepository.DataCallback<List<CommentBean>>() {
+                        @Override
+                        public void onSuccess(List<CommentBean> data) {
+                            latch.countDown();
+                        }
+
+                        @Override
+                        public void onError(String msg) {
+                            fail(msg);
+                        }
+                    });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    private static void runOnMain(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+}
@@ -1,46 +1,61 @@
 package com.bytedance.videoapp;
 
-import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
+import android.view.ViewStub;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.lifecycle.ViewModelProvider;
 import androidx.media3.common.util.UnstableApi;
 import androidx.recyclerview.widget.RecyclerView;
-import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
-import com.bytedance.videoapp.adapters.VideoListAdapter;
-import com.bytedance.videoapp.view.VideoDetailActivity;
-import com.bytedance.videoapp.viewmodel.VideoViewModel;
+import com.bytedance.videoapp.adapters.ViewHolderPrewarmer;
+import com.bytedance.videoapp.image.CoverAspectRatios;
+import com.bytedance.videoapp.repository.BundledCoverHashes;
+import com.bytedance.videoapp.repository.CommentOutbox;
+import com.bytedance.videoapp.repository.FeedTab;
+import com.bytedance.videoapp.repository.LikeStore;
+import com.bytedance.videoapp.repository.SeenVideoFilter;
+import com.bytedance.videoapp.repository.VideoRepository;
+import com.bytedance.videoapp.view.FeedTabController;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.tabs.TabLayout;
 
+import java.util.EnumMap;
+
 /**
  * 应用主页面 (首页)
  * <p>
  * 职责:
  * 1.  作为应用的入口 Activity。
  * 2.  管理主要的UI布局，包括顶部的 TabLayout 和底部的 BottomNavigationView。
- * 3.  使用 RecyclerView 以瀑布流形式展示视频列表。
- * 4.  通过 ViewModel 获取和观察视频数据，并将其提交给 Adapter。
- * 5.  实现下拉刷新和上拉加载更多的功能。
- * 6.  处理用户交互，如点击视频项跳转到详情页。
+ * 3.  顶部每个频道 (推荐 / 关注 / 商城) 由一个 {@link FeedTabController} 负责，各自拥有列表、
+ *     ViewModel 和数据仓库；切换频道只切换显示，内容和滚动位置原样保留。
+ * 4.  "关注"、"商城" 频道和 "我" 页面在首次显示时才创建。
  */
 @UnstableApi
 public class MainActivity extends AppCompatActivity {
 
-    private RecyclerView recyclerView;
-    private VideoListAdapter adapter;
-    private View groupHome, groupMe, layoutFollow, layoutMall;
+    // 空闲时预先 inflate 的首页卡片数量 (首屏两列卡片加上滑动时进入屏幕的一行)
+    private static final int PREWARM_CARD_COUNT = 10;
+    // 空闲时为详情页预先 inflate 的全屏页面数量 (当前页、前后各一页的预加载，以及滑动时进入的一页)
+    private static final int PREWARM_PAGE_COUNT = 4;
+
+    private View groupHome;
+    // "我" 页面在首次显示时才从 ViewStub inflate，之前为 null；inflate 后一直保留
+    @Nullable
+    private View groupMe;
+    private ViewStub stubMe, stubFollow, stubMall;
     private TabLayout tabLayout;
     private BottomNavigationView bottomNav;
-    private VideoViewModel viewModel;
-    private SwipeRefreshLayout swipeRefreshLayout;
+
+    // 已经创建的频道页面，"推荐" 在启动时创建，其余在首次切换时创建
+    private final EnumMap<FeedTab, FeedTabController> feedTabs = new EnumMap<>(FeedTab.class);
+    private FeedTabController currentTab;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -50,73 +65,86 @@ public class MainActivity extends AppCompatActivity {
 
         // 遵循单一职责原则，将初始化逻辑拆分到不同方法中
         initViews();
-        initRecyclerView();
+        initSeenFilter();
+        initCommentOutbox();
+        initCoverRatios();
+        initRecommendTab();
+        initPrewarm();
         initTabLayout();
         initBottomNavigation();
-        initViewModel();
-        initRefreshLayout();
-        initScrollListener();
     }
 
     /**
      * 初始化基础视图组件的引用。
+     * 冷启动时只 inflate "推荐" 页，其余页面以 ViewStub 占位。
      */
     private void initViews() {
         groupHome = findViewById(R.id.group_home);
-        groupMe = findViewById(R.id.group_me);
-        layoutFollow = findViewById(R.id.layout_follow);
-        layoutMall = findViewById(R.id.layout_mall);
+        stubMe = findViewById(R.id.stub_me);
+        stubFollow = findViewById(R.id.stub_follow);
+        stubMall = findViewById(R.id.stub_mall);
     }
 
     /**
-     * 初始化 RecyclerView，包括布局管理器、Adapter 和点击事件。
+     * 首次使用时 inflate ViewStub 对应的页面，之后直接返回已经创建的页面 (页面状态随之保留)。
      */
-    private void initRecyclerView() {
-        recyclerView = findViewById(R.id.recyclerView);
-        
-        // 设置布局管理器：2列垂直瀑布流
-        StaggeredGridLayoutManager layoutManager = new StaggeredGridLayoutManager(
-                2, 
-                StaggeredGridLayoutManager.VERTICAL
-        );
-        // 防止 item 因为重用而发生位置交换
-        layoutManager.setGapStrategy(StaggeredGridLayoutManager.GAP_HANDLING_NONE);
-        recyclerView.setLayoutManager(layoutManager);
+    private static View inflateOnce(@Nullable View inflated, ViewStub stub) {
+        return inflated != null ? inflated : stub.inflate();
+    }
 
-        // 初始化Adapter
-        adapter = new VideoListAdapter();
-        recyclerView.setAdapter(adapter);
+    /**
+     * 创建 "推荐" 频道，它的列表直接写在 activity_main.xml 中。
+     */
+    private void initRecommendTab() {
+        currentTab = new FeedTabController(this, FeedTab.RECOMMEND,
+                findViewById(R.id.swipeRefreshLayout), findViewById(R.id.recyclerView));
+        feedTabs.put(FeedTab.RECOMMEND, currentTab);
+        currentTab.show();
+    }
 
-        // 设置列表项的点击事件
-        adapter.setOnItemClickListener((video, position) -> {
-            Intent intent = new Intent(MainActivity.this, VideoDetailActivity.class);
-            // 传递视频在列表中的位置，方便详情页直接定位
-            intent.putExtra("pos", position);
-            // 【关键优化】传递封面图资源ID，让详情页可以立刻显示封面，避免加载视频时出现黑屏
-            intent.putExtra("cover_res_id", video.coverResId);
-            startActivity(intent);
-            // 去掉 Activity 默认的切换动画，实现无缝切换的效果
-            overridePendingTransition(0, 0);
-        });
+    /**
+     * 获取频道页面，"关注" 和 "商城" 在首次调用时从 ViewStub inflate 并创建。
+     */
+    private FeedTabController feedTab(FeedTab tab) {
+        FeedTabController controller = feedTabs.get(tab);
+        if (controller == null) {
+            View root = (tab == FeedTab.FOLLOW ? stubFollow : stubMall).inflate();
+            RecyclerView list = root.findViewById(tab == FeedTab.FOLLOW ? R.id.recycler_follow : R.id.recycler_mall);
+            controller = new FeedTabController(this, tab, (SwipeRefreshLayout) root, list);
+            feedTabs.put(tab, controller);
+        }
+        return controller;
     }
 
     /**
-     * 初始化顶部的 TabLayout。
+     * 在主线程空闲时于后台 inflate 首页卡片；详情页的全屏页面包含 PlayerView (SurfaceView)，
+     * 只在主线程空闲时逐个 inflate。"推荐" 列表接入自己的卡片缓存池，首次布局和首次滚动时直接复用。
+     */
+    private void initPrewarm() {
+        ViewHolderPrewarmer prewarmer = ViewHolderPrewarmer.getInstance(this);
+        prewarmer.prewarm(R.layout.item_video_card, PREWARM_CARD_COUNT);
+        prewarmer.prewarmOnMainThread(R.layout.item_video_full, PREWARM_PAGE_COUNT);
+        FeedTabController recommend = feedTabs.get(FeedTab.RECOMMEND);
+        prewarmer.attach(R.layout.item_video_card, recommend.getRecyclerView(), recommend.getAdapter(), 0);
+    }
+
+    /**
+     * 初始化顶部的 TabLayout，顺序与 {@link FeedTab} 一致。
      */
     private void initTabLayout() {
         tabLayout = findViewById(R.id.tabLayout);
-        tabLayout.addTab(tabLayout.newTab().setText("商城"));
-        tabLayout.addTab(tabLayout.newTab().setText("关注"));
-        tabLayout.addTab(tabLayout.newTab().setText("推荐"));
+        for (FeedTab feedTab : FeedTab.values()) {
+            tabLayout.addTab(tabLayout.newTab().setText(feedTab.title).setTag(feedTab));
+        }
 
         // 默认选中"推荐"tab
-        tabLayout.getTabAt(2).select();
+        tabLayout.getTabAt(FeedTab.RECOMMEND.ordinal()).select();
 
         tabLayout.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
             @Override
             public void onTabSelected(TabLayout.Tab tab) {
-                if (tab.getText() != null) {
-                    handleTabSelection(tab.getText().toString());
+                if (tab.getTag() instanceof FeedTab) {
+                    handleTabSelection((FeedTab) tab.getTag());
                 }
             }
             @Override
@@ -149,22 +177,15 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * 根据顶部Tab的选择，切换显示不同的内容区域。
+     * 根据顶部Tab的选择，切换显示对应频道。
+     * 旧频道只是隐藏 (记下滚动位置)，新频道已有数据时直接显示，不会重新请求。
      */
-    private void handleTabSelection(String tabText) {
-        // 先隐藏所有内容
-        recyclerView.setVisibility(View.GONE);
-        layoutFollow.setVisibility(View.GONE);
-        layoutMall.setVisibility(View.GONE);
-
-        // 根据选中的tab显示对应内容
-        if ("商城".equals(tabText)) {
-            layoutMall.setVisibility(View.VISIBLE);
-        } else if ("关注".equals(tabText)) {
-            layoutFollow.setVisibility(View.VISIBLE);
-        } else { // "推荐"
-            recyclerView.setVisibility(View.VISIBLE);
-        }
+    private void handleTabSelection(FeedTab tab) {
+        FeedTabController next = feedTab(tab);
+        if (next == currentTab) return;
+        currentTab.hide();
+        currentTab = next;
+        currentTab.show();
     }
 
     /**
@@ -172,7 +193,7 @@ public class MainActivity extends AppCompatActivity {
      */
     private void showHomeGroup() {
         groupHome.setVisibility(View.VISIBLE);
-        groupMe.setVisibility(View.GONE);
+        if (groupMe != null) groupMe.setVisibility(View.GONE);
     }
 
     /**
@@ -180,102 +201,70 @@ public class MainActivity extends AppCompatActivity {
      */
     private void showMeGroup() {
         groupHome.setVisibility(View.GONE);
+        groupMe = inflateOnce(groupMe, stubMe);
         groupMe.setVisibility(View.VISIBLE);
     }
 
     /**
-     * 初始化 ViewModel 并设置数据观察者。
-     * 这是 MVVM 架构中 View 层与 ViewModel 层交互的核心。
+     * 为"推荐"频道的数据仓库挂载"已看视频"过滤器，跨会话去除重复视频。
+     * 必须在 ViewModel 首次加载之前调用。
      */
-    private void initViewModel() {
-        // 获取 ViewModel 实例。ViewModel的生命周期比Activity更长，能在屏幕旋转后保留数据。
-        viewModel = new ViewModelProvider(this).get(VideoViewModel.class);
-
-        // 观察【完整视频列表】的变化
-        viewModel.videoList.observe(this, videoBeans -> {
-            // 当ViewModel中的数据获取成功并通过 postValue 更新时，此回调会自动执行
-            if (videoBeans != null) {
-                // 将新数据提交给 Adapter 进行全量刷新
-                adapter.setData(videoBeans);
-            }
-        });
-
-        // 观察【追加视频列表】的变化
-        viewModel.appendedVideos.observe(this, appended -> {
-            // 此 LiveData 专门用于上拉加载更多
-            if (appended != null) {
-                // 使用增量更新，避免列表跳动，提供更好的用户体验
-                adapter.appendData(appended);
-            }
-        });
-
-        // 触发 ViewModel 首次加载数据（如果数据尚未加载）
-        viewModel.ensureFirstLoad();
+    private void initSeenFilter() {
+        VideoRepository.getInstance(FeedTab.RECOMMEND).setSeenFilter(SeenVideoFilter.getInstance(this));
     }
 
-
     /**
-     * 初始化下拉刷新功能 (SwipeRefreshLayout)。
+     * 启动评论发件箱：在后台加载上次进程被杀时还没发送完的评论并继续发送。
      */
-    private void initRefreshLayout() {
-        swipeRefreshLayout = findViewById(R.id.swipeRefreshLayout);
-        swipeRefreshLayout.setColorSchemeResources(android.R.color.holo_blue_light); // 设置刷新圈圈的颜色
-
-        // 监听用户的下拉手势
-        swipeRefreshLayout.setOnRefreshListener(() -> {
-            // 当用户下拉时，通知 ViewModel 执行刷新操作
-            viewModel.refresh();
-        });
-
-        // 观察 ViewModel 中的刷新状态
-        viewModel.isRefreshing.observe(this, isRefreshing -> {
-            // 根据 ViewModel 的状态，控制刷新圈圈的显示与隐藏
-            swipeRefreshLayout.setRefreshing(isRefreshing);
-        });
+    private void initCommentOutbox() {
+        CommentOutbox.getInstance(this);
     }
 
-
     /**
-     * 初始化 RecyclerView 的滚动监听，用于实现上拉加载更多（无限滚动）。
+     * 在后台读取所有内置封面的宽高比，首页卡片绑定时直接命中缓存，主线程不读取图片。
      */
-    private void initScrollListener() {
-        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
-            @Override
-            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
-                super.onScrolled(recyclerView, dx, dy);
-
-                // 只在向下滑动时处理 (dy > 0)
-                if (dy > 0) {
-                    StaggeredGridLayoutManager layoutManager =
-                            (StaggeredGridLayoutManager) recyclerView.getLayoutManager();
-                    if (layoutManager == null) return;
+    private void initCoverRatios() {
+        CoverAspectRatios.preload(getResources(), BundledCoverHashes.covers());
+    }
 
-                    // 获取瀑布流所有列中，最后可见的 item 的位置
-                    int[] lastVisiblePositions = layoutManager.findLastVisibleItemPositions(null);
-                    int lastVisibleItemPosition = getLastVisibleItem(lastVisiblePositions);
-                    int totalItemCount = layoutManager.getItemCount();
+    /**
+     * 页面重建前把当前频道的滚动位置交给 ViewModel (隐藏的频道在隐藏时已经保存)。
+     */
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        currentTab.saveScrollState();
+    }
 
-                    // 触发加载的阈值：如果列表底部剩余的可滚动项少于4个，就开始预加载
-                    if (totalItemCount > 0 && lastVisibleItemPosition >= totalItemCount - 4) {
-                        viewModel.loadMore();
-                    }
-                }
-            }
-        });
+    /**
+     * 页面进入后台时持久化已看记录并同步点赞状态，保证进程被回收后依然生效。
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        SeenVideoFilter.getInstance(this).saveAsync();
+        LikeStore.getInstance(this).flushNow();
     }
 
     /**
-     * 辅助方法：从StaggeredGridLayout的多个 lastVisiblePositions 中获取最大值。
-     * @param lastVisiblePositions 每列的最后一个可见项位置数组
-     * @return 最大的位置值
+     * 进入后台后内存紧张时，丢弃为详情页准备的页面 (每页都包含一个 PlayerView)。
      */
-    private int getLastVisibleItem(int[] lastVisiblePositions) {
-        int max = 0;
-        for (int value : lastVisiblePositions) {
-            if (value > max) {
-                max = value;
-            }
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            ViewHolderPrewarmer.getInstance(this).release(R.layout.item_video_full);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // 缓存池中的卡片属于本页面的 Adapter，需要随页面一起释放
+        ViewHolderPrewarmer.getInstance(this).detach(R.layout.item_video_card,
+                feedTabs.get(FeedTab.RECOMMEND).getRecyclerView());
+        for (FeedTabController controller : feedTabs.values()) {
+            controller.release();
         }
-        return max;
     }
 }
@@ -0,0 +1,31 @@
+package com.bytedance.videoapp.adapters;
+
+import android.widget.TextView;
+
+import com.bytedance.videoapp.R;
+
+/**
+ * 绑定辅助方法
+ * <p>
+ * 重新绑定同一条数据时 (例如 notifyItemChanged、滑出后又滑回)，大部分字段并没有变化。
+ * 这里记录每个控件上一次设置的文本实例，相同时直接跳过，不再触发 TextView 的文本替换和重新测量。
+ * 展示用字符串都来自模型或 {@link com.bytedance.videoapp.utils.DisplayFormatter} 的缓存，
+ * 内容相同即为同一个实例，因此按引用比较即可。
+ */
+final class BindHelper {
+
+    // 绑定 null 文本时记录的标记，与 "从未绑定" (tag 为 null) 区分开
+    private static final Object NULL_TEXT = new Object();
+
+    private BindHelper() {}
+
+    /**
+     * 仅在文本实例变化时调用 {@link TextView#setText}。
+     */
+    static void setText(TextView view, CharSequence text) {
+        Object bound = text != null ? text : NULL_TEXT;
+        if (view.getTag(R.id.tag_bound_text) == bound) return;
+        view.setTag(R.id.tag_bound_text, bound);
+        view.setText(text);
+    }
+}
@@ -1,17 +1,26 @@
 package com.bytedance.videoapp.adapters;
 
+import android.annotation.SuppressLint;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.image.AvatarCache;
 import com.bytedance.videoapp.model.CommentBean;
+import com.bytedance.videoapp.utils.DisplayFormatter;
+import com.bytedance.videoapp.utils.IndexedTreeList;
+import com.bytedance.videoapp.utils.PrecomputedTextCache;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 评论列表的 RecyclerView 适配器。
@@ -19,18 +28,85 @@ import java.util.List;
  * 职责:
  * 1.  为评论区的 RecyclerView 提供每一条评论的视图 (ViewHolder)。
  * 2.  将评论数据 (CommentBean) 绑定到每个列表项上。
- * 3.  提供在列表顶部添加新评论的功能。
+ * 3.  提供在列表顶部添加新评论、在列表末尾追加一页评论、切换视频时整体替换数据的功能；
+ *     乐观显示的新评论发表成功后换成正式ID和时间，失败时移除。
+ * 4.  批量刷新相对时间文案 ("5分钟前")，只局部重绑日期控件。
+ * 5.  楼中楼：有回复的一级评论下方显示一个展开行，点击后按需加载并插入回复，收起后恢复为回复数。
+ * <p>
+ * 列表按行展开 (一级评论、回复、展开行)，行保存在 {@link IndexedTreeList} 中：
+ * 热门视频有数万行时，在头部插入新评论、在中间展开/收起回复都是 O(log n)，
+ * 并且只发出对应范围的插入/删除通知，其余行不会重新绑定。
  */
 public class CommentAdapter extends RecyclerView.Adapter<CommentAdapter.ViewHolder> {
 
-    private List<CommentBean> mData;
+    // 行类型：一级评论 (与预加载的缓存池使用同一个类型)、回复、回复的展开/收起行
+    public static final int TYPE_COMMENT = 0;
+    public static final int TYPE_REPLY = 1;
+    public static final int TYPE_MORE = 2;
+
+    // 每次点击展开时最多插入的回复条数
+    private static final int REPLY_EXPAND_STEP = 10;
+
+    // 局部刷新的 payload：只更新相对时间
+    private static final Object PAYLOAD_RELATIVE_TIME = new Object();
+    // 局部刷新的 payload：只更新展开行的状态
+    private static final Object PAYLOAD_REPLY_STATE = new Object();
+
+    private IndexedTreeList<Row> rows = new IndexedTreeList<>();
+    // 评论内容的预计算排版结果，为 null 时直接使用原文本
+    private final PrecomputedTextCache contentTexts;
+    // 正在加载回复的展开行，key 为所属的一级评论
+    private final Map<CommentBean, Row> pendingReplies = new IdentityHashMap<>();
+    private OnLoadRepliesListener repliesListener;
+    private RecyclerView recyclerView;
+
+    /**
+     * 列表中的一行。
+     */
+    private static final class Row {
+        final int type;
+        // 一级评论行、回复行对应的评论；展开行所属的一级评论
+        final CommentBean comment;
+        // 展开行的回复状态，其余行为 null
+        final Replies replies;
+
+        Row(int type, CommentBean comment, @Nullable Replies replies) {
+            this.type = type;
+            this.comment = comment;
+            this.replies = replies;
+        }
+    }
+
+    /**
+     * 一级评论的回复状态。已经加载的回复在收起后依然保留，再次展开时不会重复请求。
+     */
+    private static final class Replies {
+        final List<CommentBean> loaded = new ArrayList<>();
+        // 当前插入在列表中的回复条数
+        int shown;
+        boolean loading;
+        // 数据源已经没有更多回复 (实际条数可能少于回复数)
+        boolean exhausted;
+        // "展开 N 条回复" 的文案，首次绑定时生成，之后重新绑定复用同一个实例 (BindHelper 会跳过 setText)
+        String expandLabel;
+    }
 
     /**
      * 构造函数
      * @param data 初始评论数据列表
      */
     public CommentAdapter(List<CommentBean> data) {
-        this.mData = data;
+        this(data, null);
+    }
+
+    /**
+     * 构造函数
+     * @param data         初始评论数据列表
+     * @param contentTexts 评论内容的预计算缓存 (样式为 TextAppearance.Videoapp.CommentContent)
+     */
+    public CommentAdapter(List<CommentBean> data, @Nullable PrecomputedTextCache contentTexts) {
+        this.contentTexts = contentTexts;
+        if (data != null) rows.addAll(toRows(data));
     }
 
     /**
@@ -38,50 +114,342 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentAdapter.ViewHold
      * @param bean 要添加的评论对象
      */
     public void addComment(CommentBean bean) {
-        if (mData != null) {
-            // 在数据列表的第一个位置插入新评论
-            mData.add(0, bean);
-            // 通知适配器在位置0插入了一个新项，这会有动画效果
-            notifyItemInserted(0);
+        // 在第一个位置插入新评论 (O(log n))
+        rows.add(0, new Row(TYPE_COMMENT, bean, null));
+        // 通知适配器在位置0插入了一个新项，这会有动画效果
+        notifyItemInserted(0);
+    }
+
+    /**
+     * 乐观显示的评论发表成功：换成服务端的正式ID和时间，只局部刷新时间文案。
+     * @param local  列表中乐观显示的评论
+     * @param posted 服务端返回的评论
+     */
+    public void reconcileComment(CommentBean local, CommentBean posted) {
+        int position = positionOfLocal(local);
+        if (position == RecyclerView.NO_POSITION) return;
+        local.id = posted.id;
+        local.createTime = posted.createTime;
+        notifyItemChanged(position, PAYLOAD_RELATIVE_TIME);
+    }
+
+    /**
+     * 移除一条乐观显示、但最终发表失败的评论。
+     */
+    public void removeComment(CommentBean local) {
+        int position = positionOfLocal(local);
+        if (position == RecyclerView.NO_POSITION) return;
+        rows.remove(position);
+        notifyItemRemoved(position);
+    }
+
+    /**
+     * 替换全部评论 (评论区复用时切换到另一个视频)。已创建的 ViewHolder 回到缓存池中继续复用。
+     * @param data 新视频的评论
+     */
+    @SuppressLint("NotifyDataSetChanged")
+    public void setComments(List<CommentBean> data) {
+        rows = new IndexedTreeList<>();
+        rows.addAll(toRows(data));
+        // 上一个视频正在加载的回复返回后会被忽略
+        pendingReplies.clear();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * 在列表末尾追加一页评论 (上拉加载更多)。
+     * @param page 新加载的评论
+     */
+    public void appendComments(List<CommentBean> page) {
+        if (page.isEmpty()) return;
+        int start = rows.size();
+        List<Row> added = toRows(page);
+        rows.addAll(start, added);
+        notifyItemRangeInserted(start, added.size());
+    }
+
+    /**
+     * 设置加载回复的监听器。展开行需要更多回复时回调，加载完成后调用 {@link #onRepliesLoaded}。
+     */
+    public void setOnLoadRepliesListener(OnLoadRepliesListener listener) {
+        this.repliesListener = listener;
+    }
+
+    /**
+     * 回复加载完成：保存到对应的展开行，如果展开行还在列表中则立即插入。
+     * @param root    一级评论
+     * @param replies 新加载的回复，为空表示已经没有更多回复
+     */
+    public void onRepliesLoaded(CommentBean root, List<CommentBean> replies) {
+        Row more = pendingReplies.remove(root);
+        if (more == null) return; // 期间已经切换了视频
+        more.replies.loading = false;
+        if (replies.isEmpty()) more.replies.exhausted = true;
+        more.replies.loaded.addAll(replies);
+        int position = positionOf(more);
+        if (position == RecyclerView.NO_POSITION) return;
+        if (replies.isEmpty()) {
+            notifyItemChanged(position, PAYLOAD_REPLY_STATE);
+        } else {
+            expand(position);
         }
     }
 
+    /**
+     * 回复加载失败：恢复展开行，用户可以再次点击重试。
+     */
+    public void onRepliesFailed(CommentBean root) {
+        Row more = pendingReplies.remove(root);
+        if (more == null) return;
+        more.replies.loading = false;
+        int position = positionOf(more);
+        if (position != RecyclerView.NO_POSITION) notifyItemChanged(position, PAYLOAD_REPLY_STATE);
+    }
+
+    /**
+     * 刷新快照时钟，并在展示结果可能变化时局部刷新所有条目的时间文案。
+     * 适合由定时器每分钟调用一次，整批条目共享同一个"现在"。
+     */
+    public void refreshRelativeTimes() {
+        if (DisplayFormatter.refreshClock() && getItemCount() > 0) {
+            notifyItemRangeChanged(0, getItemCount(), PAYLOAD_RELATIVE_TIME);
+        }
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return rows.get(position).type;
+    }
+
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_comment, parent, false);
-        return new ViewHolder(view);
+        if (viewType == TYPE_MORE) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_comment_more, parent, false);
+            MoreViewHolder holder = new MoreViewHolder(view);
+            holder.tvExpand.setOnClickListener(v -> {
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) expand(position);
+            });
+            holder.tvCollapse.setOnClickListener(v -> {
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) collapse(position);
+            });
+            return holder;
+        }
+
+        // 优先使用空闲时在后台 inflate 好的条目
+        View view = ViewHolderPrewarmer.getInstance(parent.getContext())
+                .take(R.layout.item_comment, parent.getContext());
+        if (view == null) {
+            view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_comment, parent, false);
+        }
+        CommentViewHolder holder = new CommentViewHolder(view);
+        holder.precomputedContent = contentTexts != null && contentTexts.matches(holder.tvContent);
+        if (viewType == TYPE_REPLY) {
+            // 回复与一级评论使用同一个布局，只是整体缩进到一级评论昵称的位置
+            view.setPaddingRelative(view.getResources().getDimensionPixelSize(R.dimen.comment_reply_indent),
+                    view.getPaddingTop(), view.getPaddingEnd(), view.getPaddingBottom());
+        }
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        CommentBean bean = mData.get(position);
-        
+        Row row = rows.get(position);
+        if (holder instanceof MoreViewHolder) {
+            bindMore((MoreViewHolder) holder, row);
+            return;
+        }
+        CommentViewHolder commentHolder = (CommentViewHolder) holder;
+        CommentBean bean = row.comment;
+
         // --- 数据绑定 ---
-        holder.tvName.setText(bean.authorName);
-        holder.tvContent.setText(bean.content);
-        holder.tvDate.setText(bean.date);
-        holder.tvLikeCount.setText(bean.likeCount);
-        
-        // 使用 Glide 加载头像
-        Glide.with(holder.itemView.getContext())
-                .load(bean.avatarResId)
-                .circleCrop() // 应用圆形裁剪
-                .into(holder.ivAvatar);
+        // 展示字符串都来自模型或缓存，重新绑定相同内容时直接跳过
+        BindHelper.setText(commentHolder.tvName, bean.authorName);
+        // 评论内容使用后台预计算好的排版结果，绑定时不再测量文字
+        BindHelper.setText(commentHolder.tvContent,
+                commentHolder.precomputedContent ? contentTexts.getOrOriginal(bean.content) : bean.content);
+        BindHelper.setText(commentHolder.tvDate, DisplayFormatter.formatRelativeTime(bean.createTime));
+        BindHelper.setText(commentHolder.tvLikeCount, DisplayFormatter.formatCount(bean.likeCount));
+
+        // 头像直接从共享缓存中取已经裁剪好的圆形 Bitmap
+        AvatarCache.getInstance(holder.itemView.getContext()).bind(commentHolder.ivAvatar, bean.avatarResId,
+                commentHolder.ivAvatar.getLayoutParams().width);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (holder instanceof MoreViewHolder) {
+            // 展开行本身很轻，任何局部刷新都直接完整绑定
+            bindMore((MoreViewHolder) holder, rows.get(position));
+            return;
+        }
+        if (payloads.isEmpty() || !payloads.contains(PAYLOAD_RELATIVE_TIME)) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        // 只有时间需要更新，跳过头像加载等开销较大的完整绑定
+        BindHelper.setText(((CommentViewHolder) holder).tvDate,
+                DisplayFormatter.formatRelativeTime(rows.get(position).comment.createTime));
     }
 
     @Override
     public int getItemCount() {
-        return mData == null ? 0 : mData.size();
+        return rows.size();
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        this.recyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        this.recyclerView = null;
+    }
+
+    private void bindMore(MoreViewHolder holder, Row row) {
+        Replies replies = row.replies;
+        if (replies.loading) {
+            holder.tvExpand.setVisibility(View.VISIBLE);
+            BindHelper.setText(holder.tvExpand, "加载中...");
+        } else if (replies.shown == 0) {
+            holder.tvExpand.setVisibility(View.VISIBLE);
+            if (replies.expandLabel == null) {
+                replies.expandLabel = "展开 " + DisplayFormatter.formatCount(row.comment.replyCount) + " 条回复";
+            }
+            BindHelper.setText(holder.tvExpand, replies.expandLabel);
+        } else if (hasMoreReplies(row)) {
+            holder.tvExpand.setVisibility(View.VISIBLE);
+            BindHelper.setText(holder.tvExpand, "展开更多回复");
+        } else {
+            holder.tvExpand.setVisibility(View.GONE);
+        }
+        holder.tvCollapse.setVisibility(replies.shown > 0 && !replies.loading ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * 点击展开行：已经加载的回复直接插入到展开行之前，不够时请求下一页。
+     * @param position 展开行的位置
+     */
+    private void expand(int position) {
+        Row more = rows.get(position);
+        Replies replies = more.replies;
+        if (replies.loading) return;
+        int available = replies.loaded.size() - replies.shown;
+        if (available > 0) {
+            int count = Math.min(available, REPLY_EXPAND_STEP);
+            List<Row> inserted = new ArrayList<>(count);
+            for (int i = replies.shown; i < replies.shown + count; i++) {
+                inserted.add(new Row(TYPE_REPLY, replies.loaded.get(i), null));
+            }
+            // 在中间插入 (O(count + log n))，只通知插入的范围和展开行本身
+            rows.addAll(position, inserted);
+            replies.shown += count;
+            notifyItemRangeInserted(position, count);
+            notifyItemChanged(position + count, PAYLOAD_REPLY_STATE);
+        } else if (hasMoreReplies(more) && repliesListener != null) {
+            replies.loading = true;
+            pendingReplies.put(more.comment, more);
+            notifyItemChanged(position, PAYLOAD_REPLY_STATE);
+            repliesListener.onLoadReplies(more.comment, replies.loaded.size());
+        }
+    }
+
+    /**
+     * 点击收起：删除展开行之前插入的所有回复，展开行恢复为显示回复数。已加载的回复保留。
+     * @param position 展开行的位置
+     */
+    private void collapse(int position) {
+        Replies replies = rows.get(position).replies;
+        int count = replies.shown;
+        if (count == 0) return;
+        int start = position - count;
+        rows.removeRange(start, position);
+        replies.shown = 0;
+        notifyItemRangeRemoved(start, count);
+        notifyItemChanged(start, PAYLOAD_REPLY_STATE);
+    }
+
+    private static boolean hasMoreReplies(Row more) {
+        Replies replies = more.replies;
+        return !replies.exhausted && replies.loaded.size() < more.comment.replyCount
+                || replies.shown < replies.loaded.size();
+    }
+
+    /**
+     * 查找某一行当前的位置。回复返回时展开行一般还在屏幕上，先只检查屏幕上的行；
+     * 已经滑出屏幕时才遍历整个列表 (O(n))，这种情况很少。
+     */
+    private int positionOf(Row row) {
+        if (recyclerView == null) return RecyclerView.NO_POSITION;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && rows.get(position) == row) return position;
+        }
+        int index = rows.indexOf(row);
+        return index >= 0 ? index : RecyclerView.NO_POSITION;
     }
 
     /**
-     * ViewHolder 定义，持有每个评论项的所有UI组件引用。
+     * 查找本地刚发表的一级评论的位置。它们总是插在列表顶部，从头开始找很快就能找到；
+     * 调用方只对确实显示在列表中的评论调用。
      */
-    static class ViewHolder extends RecyclerView.ViewHolder {
+    private int positionOfLocal(CommentBean local) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).comment == local) return i;
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * 把一页一级评论展开为行：每条评论一行，有回复的评论后面再跟一个展开行。
+     */
+    private static List<Row> toRows(List<CommentBean> comments) {
+        List<Row> result = new ArrayList<>(comments.size() * 2);
+        for (CommentBean bean : comments) {
+            result.add(new Row(TYPE_COMMENT, bean, null));
+            if (bean.replyCount > 0) {
+                result.add(new Row(TYPE_MORE, bean, new Replies()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 加载回复的监听器。
+     */
+    public interface OnLoadRepliesListener {
+        /**
+         * @param root      需要加载回复的一级评论
+         * @param fromIndex 已经加载的回复条数，从这里继续加载
+         */
+        void onLoadReplies(CommentBean root, int fromIndex);
+    }
+
+    /**
+     * 所有行的 ViewHolder 基类。
+     */
+    abstract static class ViewHolder extends RecyclerView.ViewHolder {
+        ViewHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    /**
+     * 一级评论和回复的 ViewHolder，持有每个评论项的所有UI组件引用。
+     */
+    static class CommentViewHolder extends ViewHolder {
         TextView tvName, tvContent, tvDate, tvLikeCount;
         ImageView ivAvatar;
-        ViewHolder(View itemView) {
+        // 评论内容 TextView 的排版参数与预计算结果一致，可以直接使用
+        boolean precomputedContent;
+
+        CommentViewHolder(View itemView) {
             super(itemView);
             tvName = itemView.findViewById(R.id.tv_name);
             tvContent = itemView.findViewById(R.id.tv_content);
@@ -90,4 +458,17 @@ public class CommentAdapter extends RecyclerView.Adapter<CommentAdapter.ViewHold
             ivAvatar = itemView.findViewById(R.id.iv_avatar);
         }
     }
+
+    /**
+     * 展开/收起行的 ViewHolder。
+     */
+    static class MoreViewHolder extends ViewHolder {
+        final TextView tvExpand, tvCollapse;
+
+        MoreViewHolder(View itemView) {
+            super(itemView);
+            tvExpand = itemView.findViewById(R.id.tv_expand);
+            tvCollapse = itemView.findViewById(R.id.tv_collapse);
+        }
+    }
 }
@@ -0,0 +1,109 @@
+package com.bytedance.videoapp.adapters;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bytedance.videoapp.repository.LiveCounters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 列表与实时计数之间的桥接
+ * <p>
+ * 职责:
+ * 1.  记录每个已绑定的 ViewHolder 对应的视频，绑定到新视频时切换订阅，回收时释放订阅；
+ *     已绑定的 ViewHolder 包括屏幕上的和预取/缓存的，也就是"可见或即将可见"的视频。
+ * 2.  每帧收到变化的视频ID后，只对绑定了这些视频的 ViewHolder 发出带 {@link #PAYLOAD_COUNTS} 的局部刷新，
+ *     Adapter 收到该 payload 时只更新计数控件，不重新绑定整项。
+ * <p>
+ * 重新绑定同一个视频时只做一次线性查找 (已绑定的 ViewHolder 只有十几个)，不分配对象。
+ */
+final class LiveCountBinder implements LiveCounters.Listener {
+
+    /** 只有计数变化的局部刷新 */
+    static final Object PAYLOAD_COUNTS = new Object();
+
+    private final RecyclerView.Adapter<?> adapter;
+    private final LiveCounters counters;
+    // 已订阅的 ViewHolder 及其视频ID，两者下标一一对应
+    private final List<RecyclerView.ViewHolder> holders = new ArrayList<>();
+    private long[] videoIds = new long[16];
+
+    LiveCountBinder(RecyclerView.Adapter<?> adapter, LiveCounters counters) {
+        this.adapter = adapter;
+        this.counters = counters;
+        counters.addListener(this);
+    }
+
+    /**
+     * 绑定数据时调用：holder 之前绑定的是其他视频时切换订阅，同一个视频时什么也不做。
+     */
+    void bind(RecyclerView.ViewHolder holder, long videoId) {
+        int index = holders.indexOf(holder);
+        if (index >= 0) {
+            if (videoIds[index] == videoId) return;
+            counters.release(videoIds[index]);
+        } else {
+            index = holders.size();
+            holders.add(holder);
+            if (index == videoIds.length) videoIds = Arrays.copyOf(videoIds, index * 2);
+        }
+        videoIds[index] = videoId;
+        counters.retain(videoId);
+    }
+
+    /**
+     * ViewHolder 被回收时调用，释放它的订阅。
+     */
+    void unbind(RecyclerView.ViewHolder holder) {
+        int index = holders.indexOf(holder);
+        if (index < 0) return;
+        counters.release(videoIds[index]);
+        // 用最后一项填补空位
+        int last = holders.size() - 1;
+        holders.set(index, holders.get(last));
+        videoIds[index] = videoIds[last];
+        holders.remove(last);
+    }
+
+    /**
+     * 页面销毁时调用，释放全部订阅并停止接收计数变化。
+     */
+    void release() {
+        counters.removeListener(this);
+        for (int i = 0; i < holders.size(); i++) {
+            counters.release(videoIds[i]);
+        }
+        holders.clear();
+    }
+
+    /**
+     * @return payloads 中是否只有计数变化
+     */
+    static boolean isCountsOnly(List<Object> payloads) {
+        if (payloads.isEmpty()) return false;
+        for (int i = 0; i < payloads.size(); i++) {
+            if (payloads.get(i) != PAYLOAD_COUNTS) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void onCountersChanged(long[] changedIds, int count) {
+        for (int i = 0; i < holders.size(); i++) {
+            if (!contains(changedIds, count, videoIds[i])) continue;
+            int position = holders.get(i).getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                adapter.notifyItemChanged(position, PAYLOAD_COUNTS);
+            }
+        }
+    }
+
+    private static boolean contains(long[] ids, int count, long id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) return true;
+        }
+        return false;
+    }
+}
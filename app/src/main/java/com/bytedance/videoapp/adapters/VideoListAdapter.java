@@ -1,5 +1,6 @@
 package com.bytedance.videoapp.adapters;
 
+import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,9 +12,19 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.bytedance.videoapp.R;
-import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.image.AvatarCache;
+import com.bytedance.videoapp.image.BlankCoverMonitor;
+import com.bytedance.videoapp.image.CoverAspectRatios;
+import com.bytedance.videoapp.image.CoverPlaceholders;
+import com.bytedance.videoapp.image.CoverPreloader;
+import com.bytedance.videoapp.image.ImageOptions;
+import com.bytedance.videoapp.image.ImageVariants;
+import com.bytedance.videoapp.repository.LikeStore;
+import com.bytedance.videoapp.repository.LiveCounters;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+import com.bytedance.videoapp.utils.DisplayFormatter;
+import com.bytedance.videoapp.view.AspectRatioImageView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -21,20 +32,34 @@ import java.util.List;
  * <p>
  * 职责:
  * 1.  为首页的 RecyclerView 提供视频卡片视图 (ViewHolder)。
- * 2.  将视频数据 (VideoBean) 绑定到每个卡片视图上，包括封面、标题、作者等。
- * 3.  管理数据列表，提供全量刷新 (setData) 和增量更新 (appendData) 的方法。
+ * 2.  将视频数据绑定到每个卡片视图上，包括封面、标题、作者等。
+ *     数据是仓库列式存储的不可变快照，绑定时通过一个复用的 {@link VideoColumnStore.Row} 按列读取。
+ * 3.  管理数据快照，提供全量刷新 (setData) 和增量更新 (appendData) 的方法。
  * 4.  处理列表项的点击事件，并通过回调接口通知外部 (Activity)。
+ * 5.  已绑定的卡片订阅 {@link LiveCounters} 的实时点赞数，每帧最多一次局部刷新点赞数。
  */
-public class VideoListAdapter extends RecyclerView.Adapter<VideoListAdapter.VideoViewHolder> {
+public class VideoListAdapter extends RecyclerView.Adapter<VideoListAdapter.VideoViewHolder>
+        implements CoverPreloader.CoverSource {
 
-    private List<VideoBean> mData = new ArrayList<>();
+    private VideoColumnStore.Snapshot mData = VideoColumnStore.Snapshot.EMPTY;
+    // 绑定和点击时复用的行视图，随快照一起更换
+    private VideoColumnStore.Row mRow = mData.row();
     private OnItemClickListener mListener;
+    // 持有的 RecyclerView，预加载时用它的 Context 选择与绑定一致的封面档位
+    private RecyclerView mRecyclerView;
+    // 实时点赞数，只订阅已绑定的卡片
+    private final LiveCounters mLiveCounters = LiveCounters.getInstance();
+    private final LiveCountBinder mLiveCountBinder = new LiveCountBinder(this, mLiveCounters);
 
     /**
      * 列表项点击事件的回调接口。
      */
     public interface OnItemClickListener {
-        void onItemClick(VideoBean video, int position);
+        /**
+         * @param video     被点击的条目 (复用的行视图，只在回调期间有效)
+         * @param coverView 被点击卡片的封面 View，用于把已解码的封面交接给详情页
+         */
+        void onItemClick(VideoColumnStore.Row video, int position, ImageView coverView);
     }
 
     /**
@@ -46,37 +71,51 @@ public class VideoListAdapter extends RecyclerView.Adapter<VideoListAdapter.Vide
     }
 
     /**
-     * 设置并刷新整个列表的数据。此方法会清空旧数据。
-     * @param list 新的视频数据列表
+     * 设置并刷新整个列表的数据。此方法会替换旧数据。
+     * @param snapshot 新的数据快照
      */
-    public void setData(List<VideoBean> list) {
-        mData.clear();
-        if (list != null) {
-            mData.addAll(list);
-        }
+    public void setData(VideoColumnStore.Snapshot snapshot) {
+        mData = snapshot != null ? snapshot : VideoColumnStore.Snapshot.EMPTY;
+        mRow = mData.row();
         // 使用 notifyDataSetChanged() 进行全量刷新。适用于初次加载或下拉刷新。
         notifyDataSetChanged();
     }
 
     /**
      * 在列表末尾追加数据。
-     * @param list 要追加的视频数据列表
+     * @param snapshot 追加之后的完整快照 (以当前数据为前缀)，超出当前条目数的部分即为新增的条目
      */
-    public void appendData(List<VideoBean> list) {
-        if (list == null || list.isEmpty()) return;
+    public void appendData(VideoColumnStore.Snapshot snapshot) {
+        if (snapshot == null || snapshot.size() <= mData.size()) return;
         int start = mData.size();
-        mData.addAll(list);
+        mData = snapshot;
+        mRow = mData.row();
         // 使用 notifyItemRangeInserted() 进行增量更新，可以获得更好的性能和动画效果，
         // 避免了列表的整体闪烁和位置跳动。适用于上拉加载更多。
-        notifyItemRangeInserted(start, list.size());
+        notifyItemRangeInserted(start, snapshot.size() - start);
     }
 
     @NonNull
     @Override
     public VideoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_video_card, parent, false);
-        return new VideoViewHolder(view);
+        // 优先使用空闲时在后台 inflate 好的卡片
+        View view = ViewHolderPrewarmer.getInstance(parent.getContext())
+                .take(R.layout.item_video_card, parent.getContext());
+        if (view == null) {
+            view = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_video_card, parent, false);
+        }
+        VideoViewHolder holder = new VideoViewHolder(view);
+        // 点击监听在创建 ViewHolder 时设置一次，绑定时不再创建任何对象。
+        // 点击发生时通过 holder.getBindingAdapterPosition() 获取 item 在适配器中的最新位置，
+        // 可以避免因数据变动导致的 ViewHolder 位置与数据不一致的问题。
+        view.setOnClickListener(v -> {
+            int adapterPosition = holder.getBindingAdapterPosition();
+            if (mListener != null && adapterPosition != RecyclerView.NO_POSITION) {
+                mListener.onItemClick(mRow.moveTo(adapterPosition), adapterPosition, holder.ivCover);
+            }
+        });
+        return holder;
     }
 
     @Override
@@ -85,56 +124,112 @@ public class VideoListAdapter extends RecyclerView.Adapter<VideoListAdapter.Vide
             return;
         }
 
-        VideoBean video = mData.get(position);
-        if (video == null) {
-            return;
-        }
+        VideoColumnStore.Row video = mRow.moveTo(position);
 
         // --- 数据绑定 ---
-        holder.tvTitle.setText(video.title != null ? video.title : "");
-        holder.tvAuthor.setText(video.author != null ? "@" + video.author : "");
-        holder.tvLike.setText(video.likeCount != null ? video.likeCount : "0");
+        // 展示字符串都来自缓存，重新绑定相同内容时不产生任何对象分配
+        BindHelper.setText(holder.tvTitle, video.title() != null ? video.title() : "");
+        BindHelper.setText(holder.tvAuthor, DisplayFormatter.formatHandle(video.author()));
+        bindLikeCount(holder, video);
+        mLiveCountBinder.bind(holder, video.id());
 
         // 使用 Glide 加载网络或本地图片资源
-        Glide.with(holder.itemView.getContext())
-                .load(video.coverResId)
-                .into(holder.ivCover);
-
-        Glide.with(holder.itemView.getContext())
-                .load(video.avatarResId)
-                .circleCrop() // 应用圆形裁剪
-                .into(holder.ivAvatar);
-
-        // --- 事件绑定 ---
-        holder.itemView.setOnClickListener(v -> {
-            // 使用 holder.getBindingAdapterPosition() 获取 item 在适配器中的最新位置，
-            // 这是一个更安全的选择，可以避免因数据变动导致的 ViewHolder 位置与数据不一致的问题。
-            int adapterPosition = holder.getBindingAdapterPosition();
-            if (mListener != null && adapterPosition != RecyclerView.NO_POSITION) {
-                mListener.onItemClick(mData.get(adapterPosition), adapterPosition);
-            }
-        });
+        // 封面按卡片宽度降采样并使用 RGB_565 解码；头像按显示尺寸裁剪成圆形
+        Context context = holder.itemView.getContext();
+        int coverModel = ImageVariants.gridCover(context, video.coverResId()); // 选择不小于卡片宽度的最小档位
+        // 先按封面宽高比确定卡片高度，图片到达后不再触发重新布局。
+        // 每次绑定都重新设置：首次绑定时比例可能还没读到 (暂用默认比例)，之后的绑定会纠正过来，
+        // 比例不变时 setAspectRatio 什么也不做
+        holder.ivCover.setAspectRatio(CoverAspectRatios.get(context.getResources(), video.coverResId()));
+        if (holder.boundCoverModel != coverModel) {
+            holder.boundCoverModel = coverModel;
+            BlankCoverMonitor.markLoading(holder.ivCover);
+            Glide.with(context)
+                    .load(coverModel)
+                    .apply(ImageOptions.gridCover(context))
+                    .placeholder(CoverPlaceholders.get(context.getResources(), video.coverHash())) // 加载完成前显示模糊占位图
+                    .listener(BlankCoverMonitor.COVER_LOADED) // 真正的封面送达时打标记，供空白帧统计区分占位图
+                    .into(holder.ivCover);
+        }
+
+        // 头像直接从共享缓存中取已经裁剪好的圆形 Bitmap
+        AvatarCache.getInstance(context).bind(holder.ivAvatar, video.avatarResId(),
+                holder.ivAvatar.getLayoutParams().width);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VideoViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // 实时计数变化只更新点赞数
+        if (LiveCountBinder.isCountsOnly(payloads) && position >= 0 && position < mData.size()) {
+            bindLikeCount(holder, mRow.moveTo(position));
+            return;
+        }
+        onBindViewHolder(holder, position);
+    }
+
+    /**
+     * 点赞数包含当前用户尚未同步的点赞变化和实时推送的增量。
+     */
+    private void bindLikeCount(VideoViewHolder holder, VideoColumnStore.Row video) {
+        long likeCount = LikeStore.getInstance(holder.itemView.getContext()).likeCount(video.id(), video.likeCount())
+                + mLiveCounters.likeDelta(video.id());
+        BindHelper.setText(holder.tvLike, DisplayFormatter.formatCount(likeCount));
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull VideoViewHolder holder) {
+        super.onViewRecycled(holder);
+        mLiveCountBinder.unbind(holder);
+    }
+
+    /**
+     * 页面销毁时调用，释放所有卡片的实时计数订阅。
+     */
+    public void release() {
+        mLiveCountBinder.release();
     }
 
     @Override
     public int getItemCount() {
-        return mData != null ? mData.size() : 0;
+        return mData.size();
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mRecyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        mRecyclerView = null;
+    }
+
+    @Override
+    public Object getCoverModel(int position) {
+        if (position < 0 || position >= getItemCount() || mRecyclerView == null) return null;
+        // 必须与绑定时加载的档位一致，否则预加载的结果无法命中
+        return ImageVariants.gridCover(mRecyclerView.getContext(), mData.coverResId(position));
     }
 
     /**
      * ViewHolder 定义，持有每个视频卡片的所有UI组件引用，以避免重复调用 findViewById。
      */
     static class VideoViewHolder extends RecyclerView.ViewHolder {
-        final ImageView ivCover;
-        final ImageView ivAvatar;
+        final AspectRatioImageView ivCover;
+        final AspectRatioImageView ivAvatar;
         final TextView tvTitle;
         final TextView tvAuthor;
         final TextView tvLike;
+        // 当前封面请求的 model，相同时重新绑定跳过 Glide 请求
+        int boundCoverModel;
 
         VideoViewHolder(@NonNull View itemView) {
             super(itemView);
             ivCover = itemView.findViewById(R.id.iv_cover);
             ivAvatar = itemView.findViewById(R.id.iv_avatar);
+            ivAvatar.setAspectRatio(1f); // 头像为正方形，尺寸固定
             tvTitle = itemView.findViewById(R.id.tv_title);
             tvAuthor = itemView.findViewById(R.id.tv_author);
             tvLike = itemView.findViewById(R.id.tv_like);
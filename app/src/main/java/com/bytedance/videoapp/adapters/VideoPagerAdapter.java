@@ -1,9 +1,5 @@
 package com.bytedance.videoapp.adapters;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.view.GestureDetector;
@@ -16,7 +12,6 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.media3.common.Player;
 import androidx.media3.common.util.UnstableApi;
 import androidx.recyclerview.widget.RecyclerView;
@@ -25,29 +20,56 @@ import androidx.media3.exoplayer.ExoPlayer;
 import androidx.media3.ui.PlayerView;
 
 import com.bumptech.glide.Glide;
+import com.bytedance.videoapp.image.AvatarCache;
+import com.bytedance.videoapp.image.BlankCoverMonitor;
+import com.bytedance.videoapp.image.CoverPlaceholders;
+import com.bytedance.videoapp.image.CoverPreloader;
+import com.bytedance.videoapp.image.ImageOptions;
+import com.bytedance.videoapp.image.ImageVariants;
 import com.bytedance.videoapp.player.PlayerManager;
-import com.bytedance.videoapp.model.VideoBean;
 import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.repository.CommentRepository;
+import com.bytedance.videoapp.repository.LikeStore;
+import com.bytedance.videoapp.repository.LiveCounters;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+import com.bytedance.videoapp.utils.DisplayFormatter;
+import com.bytedance.videoapp.utils.PrecomputedTextCache;
+import com.bytedance.videoapp.view.HeartBurstView;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /**
  * 视频详情页的 ViewPager2 适配器
  * <p>
  * 职责:
  * 1.  为 ViewPager2 提供每个视频页面的视图 (ViewHolder)。
- * 2.  绑定视频的基本信息，如标题、作者、封面图等。
+ * 2.  绑定视频的基本信息，如标题、作者、封面图等。数据是仓库列式存储的不可变快照，
+ *     绑定时通过一个复用的 {@link VideoColumnStore.Row} 按列读取。
  * 3.  **核心职责**: 管理全局唯一的 ExoPlayer 实例与 ViewHolder 的动态绑定(attach)和解绑(detach)。
  * 4.  监听播放器事件（如第一帧渲染），并通知 Activity 以实现复杂的UI同步（如解决黑屏问题）。
  * 5.  处理用户交互，如单击暂停/播放、双击点赞等。
+ * 6.  点赞状态和点赞数来自 {@link LikeStore}：点赞按钮和双击交给 Activity 写入，写入后只刷新对应页面的点赞控件。
+ * 7.  已绑定的页面订阅 {@link LiveCounters} 的实时点赞数/评论数，每帧最多一次局部刷新计数控件。
  */
 @UnstableApi
-public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.VideoViewHolder> {
+public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.VideoViewHolder>
+        implements CoverPreloader.CoverSource {
 
-    private List<VideoBean> mData = new ArrayList<>();
+    // 评论数尚未加载时显示的文案
+    private static final String COMMENT_COUNT_PLACEHOLDER = "评论";
+
+    private final VideoColumnStore.Snapshot mData;
+    // 绑定和事件处理时复用的行视图
+    private final VideoColumnStore.Row mRow;
     private final ExoPlayer player;
+    // 标题的预计算排版结果
+    private final PrecomputedTextCache titleTexts;
+    // 当前用户的点赞状态
+    private final LikeStore likes;
+    // 实时点赞数/评论数
+    private final LiveCounters liveCounters;
+    private final LiveCountBinder liveCountBinder;
 
     // 记录当前播放器附着(attach)的 ViewHolder 位置。-1表示未附着。
     private int attachedPosition = -1;
@@ -55,139 +77,259 @@ public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.Vi
     private Player.Listener renderListener;
     // 持有的 RecyclerView 实例，用于安全地查找 ViewHolder
     private RecyclerView recyclerView;
+    // 所有页面共用的手势和按钮点击处理器
+    private final PageGestureHandler gestureHandler = new PageGestureHandler();
+    private final View.OnClickListener actionClickListener = this::onActionClick;
 
     /**
      * 构造函数
-     * @param data 视频数据列表
+     * @param data 视频数据快照
      * @param context 上下文
      */
-    public VideoPagerAdapter(List<VideoBean> data, android.content.Context context) {
-        if (data != null) this.mData = new ArrayList<>(data);
+    public VideoPagerAdapter(VideoColumnStore.Snapshot data, android.content.Context context) {
+        this.mData = data != null ? data : VideoColumnStore.Snapshot.EMPTY;
+        this.mRow = mData.row();
         // 从 PlayerManager 获取全局唯一的播放器实例
         this.player = PlayerManager.getInstance(context).getPlayer();
+        // 标题在后台预先完成测量 (首页到达时一般已经预计算过，这里补上未命中的)
+        this.titleTexts = PrecomputedTextCache.forStyle(context, R.style.TextAppearance_Videoapp_VideoTitle);
+        this.likes = LikeStore.getInstance(context);
+        this.liveCounters = LiveCounters.getInstance();
+        this.liveCountBinder = new LiveCountBinder(this, liveCounters);
+        List<CharSequence> titles = new ArrayList<>(mData.size());
+        for (int i = 0; i < mData.size(); i++) titles.add(mData.title(i));
+        titleTexts.warm(titles);
     }
 
+    @SuppressLint("ClickableViewAccessibility")
     @NonNull
     @Override
     public VideoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_video_full, parent, false);
-        return new VideoViewHolder(view);
+        // 优先使用首页空闲时在主线程 inflate 好的页面
+        View view = ViewHolderPrewarmer.getInstance(parent.getContext())
+                .take(R.layout.item_video_full, parent.getContext());
+        if (view == null) {
+            view = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_video_full, parent, false);
+        }
+        VideoViewHolder holder = new VideoViewHolder(view);
+        holder.precomputedTitle = titleTexts.matches(holder.tvTitle);
+        // 监听器只在创建 ViewHolder 时设置一次，所有页面共用同一组处理器，
+        // 事件发生时再解析所在的 ViewHolder 和位置，绑定过程不创建任何对象。
+        holder.itemView.setOnTouchListener(gestureHandler);
+        holder.ivLike.setOnClickListener(actionClickListener);
+        holder.ivAvatar.setOnClickListener(actionClickListener);
+        holder.ivFollow.setOnClickListener(actionClickListener);
+        holder.ivComment.setOnClickListener(actionClickListener);
+        return holder;
     }
 
-    @SuppressLint("ClickableViewAccessibility")
     @Override
     public void onBindViewHolder(@NonNull VideoViewHolder holder, int position) {
         // 标准的数据绑定流程
         if (position < 0 || position >= mData.size()) return;
 
-        VideoBean video = mData.get(position);
-        holder.tvTitle.setText(video.title);
-        holder.tvAuthor.setText("@" + video.author);
+        VideoColumnStore.Row video = mRow.moveTo(position);
+        // 标题使用后台预计算好的排版结果，绑定时不再测量文字
+        BindHelper.setText(holder.tvTitle,
+                holder.precomputedTitle ? titleTexts.getOrOriginal(video.title()) : video.title());
+        BindHelper.setText(holder.tvAuthor, DisplayFormatter.formatHandle(video.author()));
 
         // 关键：在绑定时，总是先显示封面图。这能防止快速滑动时出现黑屏。
         holder.ivCover.setVisibility(View.VISIBLE);
-        Glide.with(holder.itemView.getContext())
-                .load(video.coverResId)
-                .into(holder.ivCover);
-
-        Glide.with(holder.itemView.getContext())
-                .load(video.avatarResId)
-                .circleCrop()
-                .into(holder.ivAvatar);
-
-        holder.tvLikeCount.setText(video.likeCount);
-        holder.tvCommentCount.setText("289"); // 模拟数据
-
-        // --- 手势处理 ---
-        GestureDetector gestureDetector = new GestureDetector(holder.itemView.getContext(),
-                new GestureDetector.SimpleOnGestureListener() {
-                    @Override
-                    public boolean onDown(@NonNull MotionEvent e) {
-                        return true; // 必须返回true，后续手势才能被识别
-                    }
+        Context context = holder.itemView.getContext();
+        int coverModel = ImageVariants.fullScreenCover(context, video.coverResId());
+        if (holder.boundCoverModel != coverModel) {
+            holder.boundCoverModel = coverModel;
+            BlankCoverMonitor.markLoading(holder.ivCover);
+            Glide.with(context)
+                    .load(coverModel)
+                    .apply(ImageOptions.fullScreenCover(context))
+                    .placeholder(CoverPlaceholders.get(context.getResources(), video.coverHash())) // 加载完成前显示模糊占位图
+                    .listener(BlankCoverMonitor.COVER_LOADED) // 真正的封面送达时打标记，供空白帧统计区分占位图
+                    .into(holder.ivCover);
+        }
 
-                    // 处理单击事件：播放/暂停
-                    @Override
-                    public boolean onSingleTapConfirmed(@NonNull MotionEvent e) {
-                        int currentPos = holder.getBindingAdapterPosition();
-                        if (currentPos == RecyclerView.NO_POSITION) return false;
-
-                        // 只有当播放器正附着在当前 ViewHolder 上时，才响应播放/暂停操作
-                        if (attachedPosition == currentPos) {
-                            if (player.isPlaying()) {
-                                player.pause();
-                                holder.ivPlayIcon.setVisibility(View.VISIBLE);
-                                holder.ivPlayIcon.animate().scaleX(1f).scaleY(1f).start();
-                            } else {
-                                player.play();
-                                holder.ivPlayIcon.animate().scaleX(0f).scaleY(0f)
-                                        .withEndAction(() -> holder.ivPlayIcon.setVisibility(View.GONE)).start();
-                            }
-                        }
-                        return true;
-                    }
+        // 头像直接从共享缓存中取已经裁剪好的圆形 Bitmap
+        AvatarCache.getInstance(context).bind(holder.ivAvatar, video.avatarResId(),
+                holder.ivAvatar.getLayoutParams().width);
+
+        bindLikeState(holder, video);
+        bindCommentCount(holder, video);
+        liveCountBinder.bind(holder, video.id());
+    }
 
-                    // 处理双击事件：点赞
-                    @Override
-                    public boolean onDoubleTap(@NonNull MotionEvent e) {
-                        int currentPos = holder.getBindingAdapterPosition();
-                        if (currentPos == RecyclerView.NO_POSITION) return false;
+    @Override
+    public void onBindViewHolder(@NonNull VideoViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // 实时计数变化只更新点赞数和评论数
+        if (LiveCountBinder.isCountsOnly(payloads) && position >= 0 && position < mData.size()) {
+            VideoColumnStore.Row video = mRow.moveTo(position);
+            bindLikeState(holder, video);
+            bindCommentCount(holder, video);
+            return;
+        }
+        onBindViewHolder(holder, position);
+    }
 
-                        showLoveAnim(holder.rootView, e.getRawX(), e.getRawY());
-                        holder.ivLike.setImageResource(R.drawable.ic_heart_red);
+    /**
+     * 点赞图标和点赞数 (包含本地尚未同步的点赞)。
+     * 图标是按 selected 状态切换的 selector (ic_heart_selector)，这里只设置 selected：
+     * 状态不变时 setSelected 什么也不做，变化时只切换 drawable 状态，不会重新加载图片资源。
+     */
+    private void bindLikeState(VideoViewHolder holder, VideoColumnStore.Row video) {
+        holder.ivLike.setSelected(likes.isLiked(video.id()));
+        long likeCount = likes.likeCount(video.id(), video.likeCount()) + liveCounters.likeDelta(video.id());
+        BindHelper.setText(holder.tvLikeCount, DisplayFormatter.formatCount(likeCount));
+    }
 
-                        if (doubleClickLikeListener != null) {
-                            VideoBean currentVideo = mData.get(currentPos);
-                            doubleClickLikeListener.onDoubleClickLike(currentVideo, currentPos);
-                        }
-                        return true;
-                    }
-                });
-
-        holder.itemView.setOnTouchListener((v, event) -> gestureDetector.onTouchEvent(event));
-
-        // --- 其他点击事件 ---
-        // 在 ViewHolder 中设置监听器时，应始终从 getBindingAdapterPosition() 获取当前项的最新位置，
-        // 以避免因 ViewHolder 复用而导致的数据错乱问题。
-        holder.ivLike.setOnClickListener(v -> {
-            v.setSelected(!v.isSelected());
-            if (v.isSelected()) {
-                ((ImageView)v).setImageResource(R.drawable.ic_heart_red);
-                v.animate().scaleX(1.2f).scaleY(1.2f).setDuration(100).withEndAction(()->
-                        v.animate().scaleX(1f).scaleY(1f).start()
-                ).start();
-            } else {
-                ((ImageView)v).setImageResource(R.drawable.ic_heart_white);
+    /**
+     * 某个视频的点赞状态变化后，更新屏幕上对应页面的点赞控件 (不重新绑定整页)。
+     * @param videoId 视频ID
+     */
+    public void refreshLikeState(long videoId) {
+        if (recyclerView == null) return;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            int position = holder.getBindingAdapterPosition();
+            if (holder instanceof VideoViewHolder && position != RecyclerView.NO_POSITION
+                    && mData.id(position) == videoId) {
+                bindLikeState((VideoViewHolder) holder, mRow.moveTo(position));
             }
-        });
-
-        holder.ivAvatar.setOnClickListener(v -> {
-            int currentPos = holder.getBindingAdapterPosition();
-            if(currentPos != RecyclerView.NO_POSITION) {
-                v.animate().scaleX(0.9f).scaleY(0.9f).setDuration(100).withEndAction(() -> {
-                    v.animate().scaleX(1f).scaleY(1f).start();
-                    Toast.makeText(v.getContext(), "点击了作者: " + mData.get(currentPos).author, Toast.LENGTH_SHORT).show();
-                }).start();
+        }
+    }
+
+    /**
+     * 评论数来自评论仓库 (加上实时推送的增量)，预取完成之前显示占位文案。
+     */
+    private void bindCommentCount(VideoViewHolder holder, VideoColumnStore.Row video) {
+        long count = CommentRepository.getInstance().getCommentCount(video.id());
+        BindHelper.setText(holder.tvCommentCount, count >= 0
+                ? DisplayFormatter.formatCount(count + liveCounters.commentDelta(video.id()))
+                : COMMENT_COUNT_PLACEHOLDER);
+    }
+
+    /**
+     * 某个视频的评论预取完成后，更新屏幕上对应页面的评论数 (只改这一个控件，不重新绑定整页)。
+     * @param videoId 视频ID
+     */
+    public void refreshCommentCount(long videoId) {
+        if (recyclerView == null) return;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            int position = holder.getBindingAdapterPosition();
+            if (holder instanceof VideoViewHolder && position != RecyclerView.NO_POSITION
+                    && mData.id(position) == videoId) {
+                bindCommentCount((VideoViewHolder) holder, mRow.moveTo(position));
             }
-        });
+        }
+    }
 
-        holder.ivFollow.setOnClickListener(v -> {
-            int currentPos = holder.getBindingAdapterPosition();
-            if(currentPos != RecyclerView.NO_POSITION) {
-                v.animate().scaleX(0f).scaleY(0f).setDuration(200).start();
-                Toast.makeText(v.getContext(), "关注了作者: " + mData.get(currentPos).author, Toast.LENGTH_SHORT).show();
+    /**
+     * 所有页面共用的手势处理：单击播放/暂停，双击点赞。
+     * <p>
+     * 同一时刻只有一个页面在接收触摸事件，因此只需要一个 {@link GestureDetector}。
+     * 按下时记录被触摸的 ViewHolder，手势识别完成时再从它获取最新的位置。
+     */
+    private final class PageGestureHandler extends GestureDetector.SimpleOnGestureListener
+            implements View.OnTouchListener {
+
+        private GestureDetector detector;
+        private VideoViewHolder touchedHolder;
+
+        @SuppressLint("ClickableViewAccessibility")
+        @Override
+        public boolean onTouch(View v, MotionEvent event) {
+            if (recyclerView == null) return false;
+            if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                RecyclerView.ViewHolder holder = recyclerView.findContainingViewHolder(v);
+                touchedHolder = holder instanceof VideoViewHolder ? (VideoViewHolder) holder : null;
             }
-        });
+            if (detector == null) {
+                detector = new GestureDetector(v.getContext(), this);
+            }
+            return detector.onTouchEvent(event);
+        }
 
-        holder.ivComment.setOnClickListener(v -> {
-            int currentPos = holder.getBindingAdapterPosition();
-            if(currentPos != RecyclerView.NO_POSITION) {
-                if (commentListener != null) {
-                    commentListener.onCommentClick(mData.get(currentPos));
+        @Override
+        public boolean onDown(@NonNull MotionEvent e) {
+            return true; // 必须返回true，后续手势才能被识别
+        }
+
+        // 处理单击事件：播放/暂停
+        @Override
+        public boolean onSingleTapConfirmed(@NonNull MotionEvent e) {
+            VideoViewHolder holder = touchedHolder;
+            int currentPos = holder != null ? holder.getBindingAdapterPosition() : RecyclerView.NO_POSITION;
+            if (currentPos == RecyclerView.NO_POSITION) return false;
+
+            // 只有当播放器正附着在当前 ViewHolder 上时，才响应播放/暂停操作
+            if (attachedPosition == currentPos) {
+                if (player.isPlaying()) {
+                    player.pause();
+                    holder.ivPlayIcon.setVisibility(View.VISIBLE);
+                    holder.ivPlayIcon.animate().scaleX(1f).scaleY(1f).start();
+                } else {
+                    player.play();
+                    holder.ivPlayIcon.animate().scaleX(0f).scaleY(0f)
+                            .withEndAction(() -> holder.ivPlayIcon.setVisibility(View.GONE)).start();
                 }
             }
-        });
+            return true;
+        }
+
+        // 处理双击事件：点赞
+        @Override
+        public boolean onDoubleTap(@NonNull MotionEvent e) {
+            VideoViewHolder holder = touchedHolder;
+            int currentPos = holder != null ? holder.getBindingAdapterPosition() : RecyclerView.NO_POSITION;
+            if (currentPos == RecyclerView.NO_POSITION) return false;
+
+            // 事件坐标相对于页面根布局，粒子层与根布局重合，可直接使用
+            holder.heartBurst.burst(e.getX(), e.getY());
+
+            if (doubleClickLikeListener != null) {
+                doubleClickLikeListener.onDoubleClickLike(mData.id(currentPos), currentPos);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 所有页面共用的按钮点击处理 (点赞、头像、关注、评论)。
+     * 点击发生时才通过 getBindingAdapterPosition() 获取当前项的最新位置，
+     * 以避免因 ViewHolder 复用而导致的数据错乱问题。
+     */
+    private void onActionClick(View v) {
+        int id = v.getId();
+        RecyclerView.ViewHolder holder = recyclerView != null ? recyclerView.findContainingViewHolder(v) : null;
+        int currentPos = holder != null ? holder.getBindingAdapterPosition() : RecyclerView.NO_POSITION;
+        if (currentPos == RecyclerView.NO_POSITION) return;
+        long videoId = mData.id(currentPos);
+
+        if (id == R.id.iv_like) {
+            if (likeClickListener != null) {
+                likeClickListener.onLikeClick(videoId, currentPos);
+            }
+            // 状态已经由 Activity 写入并刷新，变为点赞时播放放大动画
+            if (likes.isLiked(videoId)) {
+                v.animate().scaleX(1.2f).scaleY(1.2f).setDuration(100).withEndAction(() ->
+                        v.animate().scaleX(1f).scaleY(1f).start()
+                ).start();
+            }
+        } else if (id == R.id.iv_avatar) {
+            String author = mData.author(currentPos);
+            v.animate().scaleX(0.9f).scaleY(0.9f).setDuration(100).withEndAction(() -> {
+                v.animate().scaleX(1f).scaleY(1f).start();
+                Toast.makeText(v.getContext(), "点击了作者: " + author, Toast.LENGTH_SHORT).show();
+            }).start();
+        } else if (id == R.id.iv_follow) {
+            v.animate().scaleX(0f).scaleY(0f).setDuration(200).start();
+            Toast.makeText(v.getContext(), "关注了作者: " + mData.author(currentPos), Toast.LENGTH_SHORT).show();
+        } else if (id == R.id.iv_comment) {
+            if (commentListener != null) {
+                commentListener.onCommentClick(videoId);
+            }
+        }
     }
 
     /**
@@ -213,19 +355,30 @@ public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.Vi
     }
 
     /** 评论区点击接口 */
-    public interface OnCommentClickListener { void onCommentClick(VideoBean video); }
+    public interface OnCommentClickListener { void onCommentClick(long videoId); }
     private OnCommentClickListener commentListener;
     public void setOnCommentClickListener(OnCommentClickListener listener) { this.commentListener = listener; }
 
+    /** 点赞按钮点击接口 */
+    public interface OnLikeClickListener { void onLikeClick(long videoId, int position); }
+    private OnLikeClickListener likeClickListener;
+    public void setOnLikeClickListener(OnLikeClickListener listener) { this.likeClickListener = listener; }
+
     /** 双击点赞接口 */
-    public interface OnDoubleClickLikeListener { void onDoubleClickLike(VideoBean video, int position); }
+    public interface OnDoubleClickLikeListener { void onDoubleClickLike(long videoId, int position); }
     private OnDoubleClickLikeListener doubleClickLikeListener;
     public void setDoubleClickLikeListener(OnDoubleClickLikeListener listener) { this.doubleClickLikeListener = listener; }
 
 
     @Override
     public int getItemCount() {
-        return mData != null ? mData.size() : 0;
+        return mData.size();
+    }
+
+    @Override
+    public Object getCoverModel(int position) {
+        if (position < 0 || position >= getItemCount() || recyclerView == null) return null;
+        return ImageVariants.fullScreenCover(recyclerView.getContext(), mData.coverResId(position));
     }
 
     /**
@@ -234,6 +387,7 @@ public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.Vi
     @Override
     public void onViewRecycled(@NonNull VideoViewHolder holder) {
         super.onViewRecycled(holder);
+        liveCountBinder.unbind(holder);
         // 如果被回收的 ViewHolder 正好是当前播放器附着的那个
         if (holder.playerView.getPlayer() == player && holder.getBindingAdapterPosition() == attachedPosition) {
             // 解绑播放器，并将 attachedPosition 重置
@@ -242,6 +396,13 @@ public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.Vi
         }
     }
 
+    /**
+     * 页面销毁时调用，释放所有页面的实时计数订阅。
+     */
+    public void release() {
+        liveCountBinder.release();
+    }
+
     /**
      * 将播放器内核 (ExoPlayer) 附加到指定位置的 ViewHolder 上。
      * 这是整个类的核心逻辑。
@@ -302,58 +463,6 @@ public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.Vi
         }
     }
 
-    /**
-     * 在指定位置动态添加并展示爱心动画。
-     * @param parentView 动画的父容器
-     * @param x 点击的屏幕绝对 x 坐标
-     * @param y 点击的屏幕绝对 y 坐标
-     */
-    private void showLoveAnim(ViewGroup parentView, float x, float y) {
-        Context context = parentView.getContext();
-        // 1. 动态创建一个 ImageView
-        ImageView loveIv = new ImageView(context);
-        loveIv.setImageResource(R.drawable.ic_heart_red);
-
-        // 2. 设置爱心的大小
-        int size = (int) (100 * context.getResources().getDisplayMetrics().density);
-        ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(size, size);
-        loveIv.setLayoutParams(params);
-
-        // 3. 计算精准位置
-        int[] parentLocation = new int[2];
-        parentView.getLocationOnScreen(parentLocation);
-        float relativeX = x - parentLocation[0];
-        float relativeY = y - parentLocation[1];
-        loveIv.setX(relativeX - size / 2f);
-        loveIv.setY(relativeY - size / 2f);
-
-        // 4. 添加到父布局
-        parentView.addView(loveIv);
-
-        // 5. 准备动画
-        AnimatorSet animatorSet = new AnimatorSet();
-        float randomRotate = new Random().nextInt(60) - 30;
-        ObjectAnimator scaleX = ObjectAnimator.ofFloat(loveIv, "scaleX", 0.8f, 1.2f, 1f);
-        ObjectAnimator scaleY = ObjectAnimator.ofFloat(loveIv, "scaleY", 0.8f, 1.2f, 1f);
-        ObjectAnimator rotate = ObjectAnimator.ofFloat(loveIv, "rotation", 0f, randomRotate);
-        ObjectAnimator alpha = ObjectAnimator.ofFloat(loveIv, "alpha", 1f, 1f, 0f);
-        ObjectAnimator translationY = ObjectAnimator.ofFloat(loveIv, "translationY",
-                loveIv.getTranslationY(), loveIv.getTranslationY() - 150f);
-        animatorSet.playTogether(scaleX, scaleY, rotate, alpha, translationY);
-        animatorSet.setDuration(800);
-
-        // 6. 动画结束后移除 View，防止内存溢出
-        animatorSet.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-                parentView.removeView(loveIv);
-            }
-        });
-
-        animatorSet.start();
-    }
-
     /**
      * ViewHolder 定义，持有每个视频页面的所有UI组件引用。
      */
@@ -362,7 +471,11 @@ public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.Vi
         final ImageView ivCover;
         final TextView tvTitle, tvAuthor, tvLikeCount, tvCommentCount;
         final ImageView ivPlayIcon, ivLike, ivComment, ivShare, ivFollow, ivAvatar;
-        final ConstraintLayout rootView;
+        final HeartBurstView heartBurst;
+        // 当前封面请求的 model，相同时重新绑定跳过 Glide 请求
+        int boundCoverModel;
+        // 标题 TextView 的排版参数与预计算结果一致，可以直接使用
+        boolean precomputedTitle;
 
         VideoViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -378,7 +491,7 @@ public class VideoPagerAdapter extends RecyclerView.Adapter<VideoPagerAdapter.Vi
             ivShare = itemView.findViewById(R.id.iv_share);
             ivFollow = itemView.findViewById(R.id.iv_follow);
             ivAvatar = itemView.findViewById(R.id.iv_avatar);
-            rootView = itemView.findViewById(R.id.root_view);
+            heartBurst = itemView.findViewById(R.id.heart_burst);
         }
     }
 }
@@ -0,0 +1,313 @@
+package com.bytedance.videoapp.adapters;
+
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.appcompat.widget.AppCompatImageView;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bytedance.videoapp.R;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 列表项预加载器 (单例)
+ * <p>
+ * 全屏视频页 (item_video_full，包含 PlayerView) 和首页卡片 (item_video_card) 的布局较重，
+ * 原来在 onCreateViewHolder 中同步 inflate，详情页的前几次滑动和首页的首次滚动都会因此卡顿。
+ * 这里在主线程空闲时提前完成 inflate：
+ * 1.  {@link #prewarm} 用于普通布局，在主线程下一次空闲时开始，在后台线程中逐个 inflate，
+ *     完成后回到主线程暂存。后台 inflate 失败时，改为每次空闲时在主线程 inflate 一个。
+ *     {@link #prewarmOnMainThread} 用于包含 SurfaceView (PlayerView) 等必须在主线程创建的布局，
+ *     只在主线程空闲时每次 inflate 一个。
+ * 2.  {@link #attach} 为每个接入的列表创建它自己的 {@link RecyclerView.RecycledViewPool}，
+ *     容量按该布局的预加载数量设置。已经准备好的和之后到达的 View 直接通过该列表的 Adapter
+ *     创建成 ViewHolder 放入它的池中，列表首次布局时从池中取出，只需要绑定。
+ * 3.  Adapter 在 onCreateViewHolder 中先通过 {@link #take} 取已经 inflate 好的 View，没有时再同步 inflate。
+ * <p>
+ * 预加载的 View 使用各自的 {@link MutableContextWrapper} 创建，被取出时再切换到实际使用它的 Activity，
+ * 因此可以在首页空闲时为详情页提前准备页面。ViewHolder 上的监听器属于创建它的 Adapter，
+ * 缓存池不会在列表之间共享；列表销毁时必须调用 {@link #detach} 清空它的缓存池，随后会重新预加载。
+ */
+public final class ViewHolderPrewarmer {
+
+    private static final String TAG = "ViewHolderPrewarmer";
+
+    private static volatile ViewHolderPrewarmer sInstance;
+
+    private final Context themedContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final LayoutInflater baseInflater;
+    private final ViewGroup layoutParent;
+
+    // 每个布局：目标数量、已 inflate 未使用的 View、正在 inflate 的数量、接入的列表及其缓存池
+    private final SparseArray<Slot> slots = new SparseArray<>();
+
+    private ViewHolderPrewarmer(Context context) {
+        themedContext = new ContextThemeWrapper(context.getApplicationContext(), R.style.Theme_Videoapp);
+        baseInflater = LayoutInflater.from(themedContext);
+        // 只用于生成列表项的 LayoutParams，不会挂载任何 View
+        layoutParent = new FrameLayout(themedContext);
+    }
+
+    @MainThread
+    public static ViewHolderPrewarmer getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (ViewHolderPrewarmer.class) {
+                if (sInstance == null) {
+                    sInstance = new ViewHolderPrewarmer(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 在主线程空闲时，于后台线程为布局提前准备 count 个 View (已有或正在准备的数量计算在内)。
+     * 只用于不含 SurfaceView 等必须在主线程创建的 View 的普通布局。
+     */
+    @MainThread
+    public void prewarm(@LayoutRes int layout, int count) {
+        Slot slot = slot(layout);
+        slot.target = Math.max(slot.target, count);
+        scheduleFill(layout, slot);
+    }
+
+    /**
+     * 与 {@link #prewarm} 相同，但只在主线程空闲时 inflate，每次空闲一个。
+     * 用于包含 SurfaceView (PlayerView) 的布局，这类 View 不能在后台线程创建。
+     */
+    @MainThread
+    public void prewarmOnMainThread(@LayoutRes int layout, int count) {
+        slot(layout).mainThreadOnly = true;
+        prewarm(layout, count);
+    }
+
+    /**
+     * 为列表创建它自己的缓存池。已经准备好的 View 立刻通过 adapter 创建成 ViewHolder 放入池中，
+     * 之后到达的也会直接放入池中，直到 {@link #detach}。同一个列表重复接入时替换原来的缓存池。
+     */
+    @MainThread
+    public void attach(@LayoutRes int layout, RecyclerView recyclerView,
+                       RecyclerView.Adapter<?> adapter, int viewType) {
+        Slot slot = slot(layout);
+        detach(layout, recyclerView);
+        Owner owner = new Owner(recyclerView, adapter, viewType);
+        owner.pool.setMaxRecycledViews(viewType, Math.max(slot.target, 1));
+        recyclerView.setRecycledViewPool(owner.pool);
+        slot.owners.add(owner);
+        while (!slot.ready.isEmpty() && owner.seeded < slot.target) {
+            putHolder(slot, owner);
+        }
+        scheduleFill(layout, slot);
+    }
+
+    /**
+     * 列表销毁时调用：清空它的缓存池，释放对列表和 Adapter 的引用，并在空闲时重新补足预加载的 View。
+     */
+    @MainThread
+    public void detach(@LayoutRes int layout, RecyclerView recyclerView) {
+        Slot slot = slots.get(layout);
+        if (slot == null) return;
+        for (int i = 0; i < slot.owners.size(); i++) {
+            Owner owner = slot.owners.get(i);
+            if (owner.recyclerView != recyclerView) continue;
+            owner.pool.clear();
+            slot.owners.remove(i);
+            scheduleFill(layout, slot);
+            return;
+        }
+    }
+
+    /**
+     * 停止预加载该布局并丢弃已经准备好的 View (例如内存紧张时)。不影响已经接入的列表自身的复用。
+     */
+    @MainThread
+    public void release(@LayoutRes int layout) {
+        Slot slot = slots.get(layout);
+        if (slot == null) return;
+        slot.target = 0;
+        slot.ready.clear();
+    }
+
+    /**
+     * 取出一个已经 inflate 好的 View，并把它的 Context 切换为 context。没有时返回 null。
+     */
+    @MainThread
+    @Nullable
+    public View take(@LayoutRes int layout, Context context) {
+        Slot slot = slots.get(layout);
+        View view = slot != null ? slot.ready.pollFirst() : null;
+        if (view != null) {
+            ((MutableContextWrapper) view.getContext()).setBaseContext(context);
+        }
+        return view;
+    }
+
+    /**
+     * 当前已经准备好、尚未被取走的 View 数量 (不含已经放入缓存池的)。
+     */
+    @MainThread
+    public int readyCount(@LayoutRes int layout) {
+        Slot slot = slots.get(layout);
+        return slot != null ? slot.ready.size() : 0;
+    }
+
+    private Slot slot(int layout) {
+        Slot slot = slots.get(layout);
+        if (slot == null) {
+            slot = new Slot();
+            slots.put(layout, slot);
+        }
+        return slot;
+    }
+
+    private void scheduleFill(int layout, Slot slot) {
+        if (slot.idleScheduled) return;
+        slot.idleScheduled = true;
+        Looper.myQueue().addIdleHandler(() -> {
+            slot.idleScheduled = false;
+            fill(layout, slot);
+            return false;
+        });
+    }
+
+    private void fill(int layout, Slot slot) {
+        int missing = slot.target - slot.ready.size() - slot.inflating - slot.minSeeded();
+        if (missing <= 0) return;
+        if (slot.mainThreadOnly) {
+            // 后台 inflate 不可用：每次空闲只在主线程 inflate 一个，避免长时间占用主线程
+            onInflated(slot, inflate(layout));
+            if (missing > 1) scheduleFill(layout, slot);
+            return;
+        }
+        slot.inflating += missing;
+        for (int i = 0; i < missing; i++) {
+            executor.execute(() -> {
+                View view = null;
+                try {
+                    view = inflate(layout);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "background inflate failed, falling back to main thread", e);
+                }
+                View result = view;
+                mainHandler.post(() -> {
+                    slot.inflating--;
+                    if (result != null) {
+                        onInflated(slot, result);
+                    } else if (!slot.mainThreadOnly) {
+                        slot.mainThreadOnly = true;
+                        scheduleFill(layout, slot);
+                    }
+                });
+            });
+        }
+    }
+
+    private View inflate(int layout) {
+        LayoutInflater inflater = baseInflater.cloneInContext(new MutableContextWrapper(themedContext));
+        inflater.setFactory2(COMPAT_FACTORY);
+        return inflater.inflate(layout, layoutParent, false);
+    }
+
+    private void onInflated(Slot slot, View view) {
+        // 先补给尚未补足的列表，其余暂存；期间已被 release 或已经补足时丢弃
+        for (Owner owner : slot.owners) {
+            if (owner.seeded < slot.target) {
+                slot.ready.addLast(view);
+                putHolder(slot, owner);
+                return;
+            }
+        }
+        if (slot.ready.size() < slot.target) slot.ready.addLast(view);
+    }
+
+    /**
+     * 通过列表的 Adapter 创建 ViewHolder 并放入它的缓存池。Adapter 会在 onCreateViewHolder 中
+     * 通过 {@link #take} 取走一个已经准备好的 View，同时完成它自己的初始化 (监听器等)。
+     */
+    private void putHolder(Slot slot, Owner owner) {
+        int ready = slot.ready.size();
+        RecyclerView.ViewHolder holder = owner.adapter.createViewHolder(owner.recyclerView, owner.viewType);
+        if (slot.ready.size() == ready) {
+            Log.w(TAG, "adapter did not take a prewarmed view");
+        }
+        owner.pool.putRecycledView(holder);
+        owner.seeded++;
+    }
+
+    private static final class Slot {
+        final ArrayDeque<View> ready = new ArrayDeque<>();
+        final ArrayList<Owner> owners = new ArrayList<>();
+        int target;
+        int inflating;
+        boolean idleScheduled;
+        boolean mainThreadOnly;
+
+        /**
+         * 接入的列表中补给得最少的数量：每个列表都补足后不再预加载，直到有列表 detach。
+         */
+        int minSeeded() {
+            int min = owners.isEmpty() ? 0 : Integer.MAX_VALUE;
+            for (Owner owner : owners) min = Math.min(min, owner.seeded);
+            return min;
+        }
+    }
+
+    /**
+     * 一个接入的列表：它的 Adapter 和只属于它的缓存池。
+     */
+    private static final class Owner {
+        final RecyclerView recyclerView;
+        final RecyclerView.Adapter<?> adapter;
+        final int viewType;
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        int seeded;
+
+        Owner(RecyclerView recyclerView, RecyclerView.Adapter<?> adapter, int viewType) {
+            this.recyclerView = recyclerView;
+            this.adapter = adapter;
+            this.viewType = viewType;
+        }
+    }
+
+    /**
+     * 与 AppCompatActivity 的 LayoutInflater 一致，把 TextView / ImageView 创建为 AppCompat 版本
+     * (支持 app:tint 等属性)。AppCompat 自带的工厂属于某个 Activity 且不是线程安全的，不能在后台线程使用。
+     */
+    private static final LayoutInflater.Factory2 COMPAT_FACTORY = new LayoutInflater.Factory2() {
+        @Nullable
+        @Override
+        public View onCreateView(@Nullable View parent, @NonNull String name, @NonNull Context context,
+                                 @NonNull AttributeSet attrs) {
+            if ("TextView".equals(name)) return new AppCompatTextView(context, attrs);
+            if ("ImageView".equals(name)) return new AppCompatImageView(context, attrs);
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public View onCreateView(@NonNull String name, @NonNull Context context, @NonNull AttributeSet attrs) {
+            return onCreateView(null, name, context, attrs);
+        }
+    };
+}
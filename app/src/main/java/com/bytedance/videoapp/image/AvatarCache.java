@@ -0,0 +1,292 @@
+package com.bytedance.videoapp.image;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LongSparseArray;
+import android.widget.ImageView;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.request.FutureTarget;
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 全局共享的圆形头像缓存
+ * <p>
+ * 职责:
+ * 1.  以 (头像, 尺寸) 为 key 缓存已经裁剪成圆形的 Bitmap。同一个作者在 Feed 中会出现成百上千次，
+ *     命中缓存时绑定只是一次 setImageBitmap，不再经过 Glide 的请求构建、变换和缓存 key 计算。
+ * 2.  首页、详情页和评论区三个 Adapter 共用同一份缓存，相同尺寸的头像只保存一份。
+ * 3.  新的一页 Feed 到达时 ({@link #warm}) 在后台提前生成头像，条目绑定时大多已经就绪。
+ * <p>
+ * 头像由 Glide 按显示尺寸解码 ({@link ImageOptions#avatar}，跳过 Glide 的内存缓存)，本类把解码结果
+ * 绘制成一张独占的圆形 Bitmap 后立即把解码用的 Bitmap 还给 Glide 的 Bitmap 池，每个头像在内存中只常驻一份，
+ * Glide 复用池中的 Bitmap 时也不会影响正在显示的头像。缓存按字节预算淘汰最久未使用的条目，
+ * 系统内存不足时按紧张程度收缩或清空。
+ * <p>
+ * 除 {@link #warm} 的实际加载外，所有方法都应在主线程调用。
+ */
+public class AvatarCache implements ComponentCallbacks2 {
+
+    private static final String TAG = "AvatarCache";
+    private static final long MAX_BYTES = 4L * 1024L * 1024L; // 4MB，约 50 张 48dp 的头像
+
+    private static volatile AvatarCache sInstance;
+
+    private static final class Entry {
+        final Bitmap bitmap;
+        long lastUsed;
+
+        Entry(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+
+    private final RequestManager requestManager;
+    private final Resources resources;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor();
+
+    private final LongSparseArray<Entry> entries = new LongSparseArray<>();
+    // 正在加载中的 key，以及在加载完成后需要显示该头像的 View (弱引用，页面销毁后不会因为加载未完成而泄漏)
+    private final LongSparseArray<List<WeakReference<ImageView>>> pending = new LongSparseArray<>();
+    private long totalBytes;
+    private long useClock;
+
+    private AvatarCache(Context context) {
+        // 始终使用 ApplicationContext，防止因持有Activity引用而导致的内存泄漏
+        Context appContext = context.getApplicationContext();
+        requestManager = Glide.with(appContext);
+        resources = appContext.getResources();
+        appContext.registerComponentCallbacks(this);
+    }
+
+    /**
+     * 获取头像缓存的唯一实例。
+     * 采用双重检查锁定 (Double-Checked Locking) 模式，确保线程安全和高性能。
+     */
+    public static AvatarCache getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (AvatarCache.class) {
+                if (sInstance == null) {
+                    sInstance = new AvatarCache(context);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 将头像绑定到 ImageView。命中缓存时同步设置，否则先清空，加载完成后再设置。
+     * @param view        目标 View
+     * @param avatarResId 头像资源
+     * @param sizePx      显示尺寸 (像素)
+     */
+    @MainThread
+    public void bind(ImageView view, int avatarResId, int sizePx) {
+        long key = key(avatarResId, sizePx);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.lastUsed = ++useClock;
+            view.setTag(R.id.tag_avatar_key, null);
+            // 已经显示同一个 Bitmap 时 (重新绑定同一条数据) 跳过，避免每次创建新的 BitmapDrawable
+            Drawable current = view.getDrawable();
+            if (!(current instanceof BitmapDrawable) || ((BitmapDrawable) current).getBitmap() != entry.bitmap) {
+                view.setImageBitmap(entry.bitmap);
+            }
+            return;
+        }
+        Object pendingKey = view.getTag(R.id.tag_avatar_key);
+        if (pendingKey instanceof Long && (Long) pendingKey == key && pending.get(key) != null) {
+            return; // 该 View 已经在等待同一个头像 (加载失败后 pending 被移除，会重新加载)
+        }
+        view.setTag(R.id.tag_avatar_key, key);
+        view.setImageDrawable(null);
+        load(key, avatarResId, sizePx).add(new WeakReference<>(view));
+    }
+
+    /**
+     * 为新到达的一页 Feed 提前生成头像。
+     * @param feed  数据快照
+     * @param from  新数据的起始位置 (包含)
+     * @param to    新数据的结束位置 (不包含)
+     * @param sizes 需要生成的尺寸 (像素)，例如首页卡片和详情页的头像尺寸
+     */
+    @MainThread
+    public void warm(VideoColumnStore.Snapshot feed, int from, int to, int... sizes) {
+        for (int i = from; i < to; i++) {
+            int avatarResId = feed.avatarResId(i);
+            for (int size : sizes) {
+                long key = key(avatarResId, size);
+                if (entries.get(key) == null) {
+                    load(key, avatarResId, size);
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前缓存占用的字节数
+     */
+    @MainThread
+    public long sizeInBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 清空缓存。已经显示在屏幕上的头像不受影响 (View 仍持有 Bitmap 引用)。
+     */
+    @MainThread
+    public void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * 收缩到指定字节数以内，淘汰最久未使用的条目。头像数量不多，线性扫描即可。
+     * @param maxBytes   目标字节数
+     * @param keepAtLeast 至少保留的条目数
+     */
+    @MainThread
+    private void trimTo(long maxBytes, int keepAtLeast) {
+        while (totalBytes > maxBytes && entries.size() > keepAtLeast) {
+            int oldest = 0;
+            for (int i = 1; i < entries.size(); i++) {
+                if (entries.valueAt(i).lastUsed < entries.valueAt(oldest).lastUsed) {
+                    oldest = i;
+                }
+            }
+            totalBytes -= entries.valueAt(oldest).bitmap.getAllocationByteCount();
+            entries.removeAt(oldest);
+        }
+    }
+
+    /**
+     * 发起加载 (同一个 key 只加载一次)，返回等待该头像的 View 列表。
+     */
+    private List<WeakReference<ImageView>> load(long key, int avatarResId, int sizePx) {
+        List<WeakReference<ImageView>> waiting = pending.get(key);
+        if (waiting != null) return waiting;
+        List<WeakReference<ImageView>> created = new ArrayList<>(2);
+        pending.put(key, created);
+
+        loadExecutor.execute(() -> {
+            Bitmap circled = null;
+            FutureTarget<Bitmap> target = requestManager.asBitmap()
+                    .load(ImageVariants.avatar(resources, avatarResId, sizePx)) // 最接近显示尺寸的档位
+                    .apply(ImageOptions.avatar(sizePx))
+                    .submit();
+            try {
+                // 裁剪结果是新分配的 Bitmap，由本类独占；解码结果随后通过 clear 归还 Bitmap 池
+                circled = circleCrop(target.get(), sizePx);
+            } catch (Exception e) {
+                Log.w(TAG, "load avatar " + avatarResId + " failed", e);
+            } finally {
+                requestManager.clear(target);
+            }
+            Bitmap result = circled;
+            mainHandler.post(() -> onLoaded(key, result));
+        });
+        return created;
+    }
+
+    /**
+     * 把解码结果居中裁剪成圆形，绘制到一张新的 Bitmap 上。
+     */
+    private static Bitmap circleCrop(Bitmap source, int sizePx) {
+        Bitmap result = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+        BitmapShader shader = new BitmapShader(source, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+        float scale = Math.max((float) sizePx / source.getWidth(), (float) sizePx / source.getHeight());
+        Matrix matrix = new Matrix();
+        matrix.setScale(scale, scale);
+        matrix.postTranslate((sizePx - source.getWidth() * scale) / 2f, (sizePx - source.getHeight() * scale) / 2f);
+        shader.setLocalMatrix(matrix);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        paint.setShader(shader);
+        float radius = sizePx / 2f;
+        new Canvas(result).drawCircle(radius, radius, radius, paint);
+        return result;
+    }
+
+    @MainThread
+    private void onLoaded(long key, Bitmap bitmap) {
+        List<WeakReference<ImageView>> waiting = pending.get(key);
+        pending.remove(key);
+        if (bitmap == null) return;
+
+        Entry entry = new Entry(bitmap);
+        entry.lastUsed = ++useClock;
+        entries.put(key, entry);
+        totalBytes += bitmap.getAllocationByteCount();
+        trimToBudget();
+
+        if (waiting == null) return;
+        for (WeakReference<ImageView> ref : waiting) {
+            ImageView view = ref.get();
+            if (view == null) continue; // 页面已经销毁
+            // View 可能已被复用去显示其他头像
+            Object tag = view.getTag(R.id.tag_avatar_key);
+            if (tag instanceof Long && (Long) tag == key) {
+                view.setTag(R.id.tag_avatar_key, null);
+                view.setImageBitmap(bitmap);
+            }
+        }
+    }
+
+    /**
+     * 超出预算时淘汰最久未使用的条目 (至少保留刚加载的一个)。
+     */
+    private void trimToBudget() {
+        trimTo(MAX_BYTES, 1);
+    }
+
+    private static long key(int avatarResId, int sizePx) {
+        return ((long) avatarResId << 16) | (sizePx & 0xFFFF);
+    }
+
+    /**
+     * 按内存紧张程度处理：前台内存偏低时收缩一半，内存严重不足或进程进入后台 LRU 列表时清空。
+     * 界面隐藏 (TRIM_MEMORY_UI_HIDDEN) 本身不代表内存紧张，保留缓存以便回到前台时立即显示。
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        if (level == TRIM_MEMORY_RUNNING_CRITICAL || level >= TRIM_MEMORY_BACKGROUND) {
+            mainHandler.post(this::clear);
+        } else if (level == TRIM_MEMORY_RUNNING_LOW) {
+            mainHandler.post(() -> trimTo(MAX_BYTES / 2, 0));
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        // 无需处理
+    }
+
+    @Override
+    public void onLowMemory() {
+        mainHandler.post(this::clear);
+    }
+}
@@ -0,0 +1,134 @@
+package com.bytedance.videoapp.image;
+
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.IdRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.request.target.ViewTarget;
+import com.bytedance.videoapp.R;
+
+/**
+ * 空白封面帧统计
+ * <p>
+ * 从开始拖动到停止滑动视为一次滑动。滑动期间通过 {@link Choreographer} 逐帧检查屏幕上的条目，
+ * 只要有一个可见封面还没有显示真正的图片 (没有图片，或者仍是模糊占位图)，该帧就记为一个空白帧。
+ * 每次滑动结束后输出统计日志，可用于对比预加载策略的效果。
+ * <p>
+ * 占位图和真正的封面都是 Drawable，无法从 ImageView 本身区分。因此封面请求需要：
+ * 发起前调用 {@link #markLoading}，并挂上 {@link #COVER_LOADED} 监听器，真正的图片送达时由监听器打上标记。
+ */
+public class BlankCoverMonitor extends RecyclerView.OnScrollListener implements Choreographer.FrameCallback {
+
+    private static final String TAG = "BlankCoverMonitor";
+
+    /**
+     * 封面请求的监听器：真正的封面送达时在 ImageView 上打标记。所有请求共用这一个实例，绑定时不分配对象。
+     */
+    public static final RequestListener<Drawable> COVER_LOADED = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target,
+                                    boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                       DataSource dataSource, boolean isFirstResource) {
+            if (target instanceof ViewTarget) {
+                ((ViewTarget<?, ?>) target).getView().setTag(R.id.tag_cover_loaded, Boolean.TRUE);
+            }
+            return false; // 交给 Target 正常显示
+        }
+    };
+
+    private final String name;
+    private final int coverViewId;
+    private RecyclerView recyclerView;
+    private boolean scrolling;
+
+    private int frames;
+    private int blankFrames;
+    private int lastFrames;
+    private int lastBlankFrames;
+
+    /**
+     * 构造函数
+     * @param name        日志中区分页面的名称
+     * @param coverViewId 条目布局中封面 ImageView 的 id
+     */
+    public BlankCoverMonitor(String name, @IdRes int coverViewId) {
+        this.name = name;
+        this.coverViewId = coverViewId;
+    }
+
+    /**
+     * 在为封面发起新的请求之前调用，清除上一张封面留下的标记。
+     */
+    public static void markLoading(ImageView cover) {
+        cover.setTag(R.id.tag_cover_loaded, null);
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        if (newState != RecyclerView.SCROLL_STATE_IDLE && !scrolling) {
+            scrolling = true;
+            this.recyclerView = recyclerView;
+            frames = 0;
+            blankFrames = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        } else if (newState == RecyclerView.SCROLL_STATE_IDLE && scrolling) {
+            scrolling = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+            this.recyclerView = null;
+            lastFrames = frames;
+            lastBlankFrames = blankFrames;
+            Log.d(TAG, name + ": " + blankFrames + "/" + frames + " frames with blank covers");
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!scrolling || recyclerView == null) return;
+        frames++;
+        if (hasBlankCover(recyclerView)) {
+            blankFrames++;
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private boolean hasBlankCover(RecyclerView recyclerView) {
+        int height = recyclerView.getHeight();
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            View child = recyclerView.getChildAt(i);
+            // 只统计真正出现在屏幕上的条目
+            if (child.getBottom() <= 0 || child.getTop() >= height) continue;
+            ImageView cover = child.findViewById(coverViewId);
+            if (cover != null && cover.getVisibility() == View.VISIBLE
+                    && (cover.getDrawable() == null || cover.getTag(R.id.tag_cover_loaded) != Boolean.TRUE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 上一次滑动的总帧数 */
+    public int getLastFrames() {
+        return lastFrames;
+    }
+
+    /** 上一次滑动中出现空白封面的帧数 */
+    public int getLastBlankFrames() {
+        return lastBlankFrames;
+    }
+}
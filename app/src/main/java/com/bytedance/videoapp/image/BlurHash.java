@@ -0,0 +1,227 @@
+package com.bytedance.videoapp.image;
+
+import java.util.Arrays;
+
+/**
+ * BlurHash 编解码 (纯 Java 实现，不依赖 Android API)
+ * <p>
+ * BlurHash 用一组 DCT 分量描述一张图片的大致色块分布，编码成 20~30 个字符的字符串。
+ * 它随 Feed 数据一起下发，封面加载完成前先解码成一张极小的模糊图作为占位，避免空白。
+ * <ul>
+ *     <li>编码 ({@link #encode}) 在入库 / 构建阶段执行，对每张封面只做一次。</li>
+ *     <li>解码 ({@link #decode}) 在绑定时执行：预先计算余弦表，并用查表代替线性空间到 sRGB 的幂运算，
+ *         解码一张 20×32 的占位图只需几十微秒。</li>
+ * </ul>
+ * 算法与 https://github.com/woltapp/blurhash 的参考实现保持一致，生成的字符串可以与服务端互通。
+ */
+public final class BlurHash {
+
+    private static final String CHARS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+    private static final int[] CHAR_VALUES = new int[128];
+    private static final float[] SRGB_TO_LINEAR = new float[256];
+    private static final int LINEAR_TO_SRGB_STEPS = 4096;
+    private static final int[] LINEAR_TO_SRGB = new int[LINEAR_TO_SRGB_STEPS + 1];
+
+    static {
+        Arrays.fill(CHAR_VALUES, -1);
+        for (int i = 0; i < CHARS.length(); i++) {
+            CHAR_VALUES[CHARS.charAt(i)] = i;
+        }
+        for (int i = 0; i < 256; i++) {
+            float v = i / 255f;
+            SRGB_TO_LINEAR[i] = v <= 0.04045f ? v / 12.92f : (float) Math.pow((v + 0.055f) / 1.055f, 2.4f);
+        }
+        for (int i = 0; i <= LINEAR_TO_SRGB_STEPS; i++) {
+            LINEAR_TO_SRGB[i] = linearToSrgbExact(i / (float) LINEAR_TO_SRGB_STEPS);
+        }
+    }
+
+    private BlurHash() {}
+
+    /**
+     * 编码
+     * @param pixels      ARGB 像素 (行优先)
+     * @param width       宽度
+     * @param height      高度
+     * @param componentsX 水平方向分量数 (1~9)
+     * @param componentsY 垂直方向分量数 (1~9)
+     * @return BlurHash 字符串
+     */
+    public static String encode(int[] pixels, int width, int height, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("components must be in 1..9");
+        }
+        float[][] factors = new float[componentsX * componentsY][3];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                float normalisation = (i == 0 && j == 0) ? 1f : 2f;
+                float r = 0, g = 0, b = 0;
+                for (int y = 0; y < height; y++) {
+                    double cosY = Math.cos(Math.PI * j * y / height);
+                    for (int x = 0; x < width; x++) {
+                        float basis = (float) (normalisation * Math.cos(Math.PI * i * x / width) * cosY);
+                        int pixel = pixels[y * width + x];
+                        r += basis * SRGB_TO_LINEAR[(pixel >> 16) & 0xFF];
+                        g += basis * SRGB_TO_LINEAR[(pixel >> 8) & 0xFF];
+                        b += basis * SRGB_TO_LINEAR[pixel & 0xFF];
+                    }
+                }
+                float scale = 1f / (width * height);
+                float[] factor = factors[j * componentsX + i];
+                factor[0] = r * scale;
+                factor[1] = g * scale;
+                factor[2] = b * scale;
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(4 + 2 * factors.length);
+        encode83((componentsX - 1) + (componentsY - 1) * 9, 1, hash);
+
+        float maximumValue;
+        if (factors.length > 1) {
+            float actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (float v : factors[k]) actualMaximum = Math.max(actualMaximum, Math.abs(v));
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166f;
+            encode83(quantisedMaximum, 1, hash);
+        } else {
+            maximumValue = 1;
+            encode83(0, 1, hash);
+        }
+
+        float[] dc = factors[0];
+        encode83((linearToSrgbExact(dc[0]) << 16) + (linearToSrgbExact(dc[1]) << 8) + linearToSrgbExact(dc[2]), 4, hash);
+        for (int k = 1; k < factors.length; k++) {
+            float[] ac = factors[k];
+            int quantR = quantiseAc(ac[0], maximumValue);
+            int quantG = quantiseAc(ac[1], maximumValue);
+            int quantB = quantiseAc(ac[2], maximumValue);
+            encode83(quantR * 19 * 19 + quantG * 19 + quantB, 2, hash);
+        }
+        return hash.toString();
+    }
+
+    /**
+     * 解码
+     * @param hash   BlurHash 字符串
+     * @param width  输出宽度
+     * @param height 输出高度
+     * @param punch  对比度系数，1 为原始对比度
+     * @param out    输出的 ARGB 像素，长度至少为 width * height
+     * @throws IllegalArgumentException 字符串格式错误
+     */
+    public static void decode(String hash, int width, int height, float punch, int[] out) {
+        if (hash == null || hash.length() < 6) {
+            throw new IllegalArgumentException("blurhash too short");
+        }
+        int sizeFlag = decode83(hash, 0, 1);
+        int componentsY = sizeFlag / 9 + 1;
+        int componentsX = sizeFlag % 9 + 1;
+        int components = componentsX * componentsY;
+        if (hash.length() != 4 + 2 * components) {
+            throw new IllegalArgumentException("blurhash length mismatch: " + hash);
+        }
+
+        float maximumValue = (decode83(hash, 1, 2) + 1) / 166f * punch;
+        float[] colors = new float[components * 3];
+        int dc = decode83(hash, 2, 6);
+        colors[0] = SRGB_TO_LINEAR[(dc >> 16) & 0xFF];
+        colors[1] = SRGB_TO_LINEAR[(dc >> 8) & 0xFF];
+        colors[2] = SRGB_TO_LINEAR[dc & 0xFF];
+        for (int k = 1; k < components; k++) {
+            int value = decode83(hash, 4 + k * 2, 6 + k * 2);
+            colors[k * 3] = signPow(((value / (19 * 19)) - 9) / 9f, 2f) * maximumValue;
+            colors[k * 3 + 1] = signPow(((value / 19) % 19 - 9) / 9f, 2f) * maximumValue;
+            colors[k * 3 + 2] = signPow((value % 19 - 9) / 9f, 2f) * maximumValue;
+        }
+
+        // 余弦表：cosX[i * width + x]、cosY[j * height + y]
+        float[] cosX = new float[componentsX * width];
+        for (int i = 0; i < componentsX; i++) {
+            for (int x = 0; x < width; x++) {
+                cosX[i * width + x] = (float) Math.cos(Math.PI * x * i / width);
+            }
+        }
+        float[] cosY = new float[componentsY * height];
+        for (int j = 0; j < componentsY; j++) {
+            for (int y = 0; y < height; y++) {
+                cosY[j * height + y] = (float) Math.cos(Math.PI * y * j / height);
+            }
+        }
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                float r = 0, g = 0, b = 0;
+                for (int j = 0; j < componentsY; j++) {
+                    float basisY = cosY[j * height + y];
+                    for (int i = 0; i < componentsX; i++) {
+                        float basis = cosX[i * width + x] * basisY;
+                        int c = (j * componentsX + i) * 3;
+                        r += colors[c] * basis;
+                        g += colors[c + 1] * basis;
+                        b += colors[c + 2] * basis;
+                    }
+                }
+                out[y * width + x] = 0xFF000000 | (linearToSrgb(r) << 16) | (linearToSrgb(g) << 8) | linearToSrgb(b);
+            }
+        }
+    }
+
+    /**
+     * 快速校验字符串格式是否合法 (不解码)。
+     */
+    public static boolean isValid(String hash) {
+        if (hash == null || hash.length() < 6) return false;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if (c >= 128 || CHAR_VALUES[c] < 0) return false;
+        }
+        int sizeFlag = CHAR_VALUES[hash.charAt(0)];
+        return hash.length() == 4 + 2 * ((sizeFlag % 9 + 1) * (sizeFlag / 9 + 1));
+    }
+
+    private static int quantiseAc(float value, float maximumValue) {
+        return (int) Math.max(0, Math.min(18, Math.floor(signPow(value / maximumValue, 0.5f) * 9 + 9.5)));
+    }
+
+    private static float signPow(float value, float exp) {
+        return Math.copySign((float) Math.pow(Math.abs(value), exp), value);
+    }
+
+    private static int linearToSrgb(float value) {
+        if (value <= 0f) return 0;
+        if (value >= 1f) return 255;
+        return LINEAR_TO_SRGB[(int) (value * LINEAR_TO_SRGB_STEPS + 0.5f)];
+    }
+
+    private static int linearToSrgbExact(float value) {
+        float v = Math.max(0f, Math.min(1f, value));
+        if (v <= 0.0031308f) {
+            return (int) (v * 12.92f * 255 + 0.5f);
+        }
+        return (int) ((1.055f * Math.pow(v, 1 / 2.4f) - 0.055f) * 255 + 0.5f);
+    }
+
+    private static void encode83(int value, int length, StringBuilder out) {
+        int divisor = 1;
+        for (int i = 1; i < length; i++) divisor *= 83;
+        for (int i = 0; i < length; i++) {
+            out.append(CHARS.charAt((value / divisor) % 83));
+            divisor /= 83;
+        }
+    }
+
+    private static int decode83(String hash, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = hash.charAt(i);
+            int digit = c < 128 ? CHAR_VALUES[c] : -1;
+            if (digit < 0) throw new IllegalArgumentException("invalid blurhash character '" + c + "'");
+            value = value * 83 + digit;
+        }
+        return value;
+    }
+}
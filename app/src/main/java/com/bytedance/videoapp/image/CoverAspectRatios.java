@@ -0,0 +1,96 @@
+package com.bytedance.videoapp.image;
+
+import android.content.res.Resources;
+import android.graphics.BitmapFactory;
+import android.util.SparseIntArray;
+
+import com.bytedance.videoapp.repository.VideoColumnStore;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 封面宽高比缓存
+ * <p>
+ * 每个封面资源只读取一次图片头 ({@code inJustDecodeBounds}，不解码像素)，得到宽高比后按资源 id 缓存。
+ * 卡片绑定时先用宽高比确定封面高度，再交给 Glide 加载，瀑布流的布局因此不再依赖图片何时到达。
+ * <p>
+ * 读取只在后台线程进行：应用启动时通过 {@link #preload} 读取全部内置封面，新的一页 Feed 到达时通过 {@link #warm}
+ * 补齐其余封面。绑定时 ({@link #get}) 只查缓存，未命中时先使用默认比例，不在主线程读取图片。
+ * 比例以 {@link Float#floatToRawIntBits} 的形式存放在 {@link SparseIntArray} 中，查询不产生装箱对象。
+ */
+public final class CoverAspectRatios {
+
+    /** 读取失败时使用的默认比例 (高 / 宽) */
+    public static final float DEFAULT_RATIO = 4f / 3f;
+    /** 比例上限，与 {@link ImageOptions} 中封面的降采样区域一致 */
+    private static final float MAX_RATIO = 2f;
+
+    private static final SparseIntArray sRatios = new SparseIntArray();
+    private static final Executor sExecutor = Executors.newSingleThreadExecutor();
+
+    private CoverAspectRatios() {}
+
+    /**
+     * 获取封面的宽高比 (高 / 宽)。只查询缓存；未命中时返回 {@link #DEFAULT_RATIO}，并在后台读取供下次使用。
+     */
+    public static float get(Resources resources, int coverResId) {
+        synchronized (sRatios) {
+            int index = sRatios.indexOfKey(coverResId);
+            if (index >= 0) {
+                return Float.intBitsToFloat(sRatios.valueAt(index));
+            }
+        }
+        preload(resources, coverResId);
+        return DEFAULT_RATIO;
+    }
+
+    /**
+     * 在后台线程中读取指定封面的宽高比，例如在应用启动时读取所有内置封面。
+     */
+    public static void preload(Resources resources, int... coverResIds) {
+        sExecutor.execute(() -> {
+            for (int resId : coverResIds) {
+                load(resources, resId);
+            }
+        });
+    }
+
+    /**
+     * 在后台线程中提前读取快照 [from, to) 区间内所有封面的宽高比。
+     */
+    public static void warm(Resources resources, VideoColumnStore.Snapshot feed, int from, int to) {
+        int[] resIds = new int[Math.max(0, to - from)];
+        for (int i = 0; i < resIds.length; i++) {
+            resIds[i] = feed.coverResId(from + i);
+        }
+        preload(resources, resIds);
+    }
+
+    /**
+     * 读取并缓存一个封面的宽高比 (已缓存时跳过)，只在后台线程调用。
+     */
+    private static void load(Resources resources, int coverResId) {
+        synchronized (sRatios) {
+            if (sRatios.indexOfKey(coverResId) >= 0) return;
+        }
+        float ratio = readRatio(resources, coverResId);
+        synchronized (sRatios) {
+            sRatios.put(coverResId, Float.floatToRawIntBits(ratio));
+        }
+    }
+
+    private static float readRatio(Resources resources, int coverResId) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try {
+            BitmapFactory.decodeResource(resources, coverResId, options);
+        } catch (RuntimeException e) {
+            return DEFAULT_RATIO;
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return DEFAULT_RATIO;
+        }
+        return Math.min(MAX_RATIO, options.outHeight / (float) options.outWidth);
+    }
+}
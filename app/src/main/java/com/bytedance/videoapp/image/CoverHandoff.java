@@ -0,0 +1,87 @@
+package com.bytedance.videoapp.image;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+
+/**
+ * 封面交接：详情页先显示首页卡片上已经解码好的封面
+ * <p>
+ * 从首页点击进入详情页时，卡片上的封面已经在 Glide 的内存缓存中。详情页不在 onCreate 里同步解码封面，
+ * 而是把卡片封面作为全屏封面请求的 thumbnail：
+ * 1.  点击时 ({@link #offer}) 把卡片在屏幕上的位置写入 Intent。
+ * 2.  详情页启动时 ({@link #take}) 取出卡片位置，用 {@link #cardCover} 构建与卡片绑定时完全相同
+ *     (同样的 model 和 {@link ImageOptions#gridCover} 参数) 的请求，命中内存缓存后立即显示，
+ *     并从卡片位置放大到全屏，形成共享元素式的过渡。
+ * <p>
+ * 封面 Bitmap 始终由 Glide 的请求持有和回收，不会在 Glide 的资源生命周期之外被共享
+ * (Bitmap 被放回 Bitmap 池复用时，详情页不会显示出错乱的内容)。
+ * Intent 中带有一个序号，每次交接只能取出一次，Activity 重建时不会重复播放进入动画。
+ */
+public final class CoverHandoff {
+
+    private static final String EXTRA_TOKEN = "cover_handoff_token";
+    private static final String EXTRA_BOUNDS = "cover_handoff_bounds";
+
+    private static long sNextToken = 1;
+    private static long sToken;
+
+    private CoverHandoff() {}
+
+    /**
+     * 在启动详情页之前调用，记录卡片封面的屏幕位置。
+     * @param intent    启动详情页的 Intent
+     * @param coverView 被点击卡片的封面 View
+     */
+    @MainThread
+    public static void offer(Intent intent, ImageView coverView) {
+        if (coverView.getDrawable() == null) return; // 封面尚未显示，详情页直接加载全屏封面
+
+        int[] location = new int[2];
+        coverView.getLocationOnScreen(location);
+        Rect bounds = new Rect(location[0], location[1],
+                location[0] + coverView.getWidth(), location[1] + coverView.getHeight());
+
+        sToken = sNextToken++;
+        intent.putExtra(EXTRA_TOKEN, sToken);
+        intent.putExtra(EXTRA_BOUNDS, bounds);
+    }
+
+    /**
+     * 在详情页中取出卡片封面的屏幕位置。每次交接只能取出一次。
+     * @return 卡片位置，没有交接时返回 null
+     */
+    @MainThread
+    @Nullable
+    public static Rect take(Intent intent) {
+        long token = intent.getLongExtra(EXTRA_TOKEN, 0);
+        Rect bounds = intent.getParcelableExtra(EXTRA_BOUNDS);
+        if (token == 0 || token != sToken || bounds == null) {
+            return null;
+        }
+        sToken = 0;
+        return bounds;
+    }
+
+    /**
+     * 与首页卡片绑定时相同的封面请求，用作全屏封面的 thumbnail，卡片显示过的封面直接命中内存缓存。
+     * @param requestManager 详情页的 Glide RequestManager
+     * @param context        上下文
+     * @param coverResId     原始封面资源
+     */
+    public static RequestBuilder<Drawable> cardCover(RequestManager requestManager, Context context,
+                                                     @DrawableRes int coverResId) {
+        return requestManager
+                .load(ImageVariants.gridCover(context, coverResId))
+                .apply(ImageOptions.gridCover(context));
+    }
+}
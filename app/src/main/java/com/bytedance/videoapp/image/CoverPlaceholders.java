@@ -0,0 +1,55 @@
+package com.bytedance.videoapp.image;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+
+/**
+ * 封面占位图
+ * <p>
+ * 把 {@link com.bytedance.videoapp.model.VideoBean#coverHash} 解码成一张 20×32 的模糊小图，
+ * 作为 Glide 的占位图在封面加载完成前显示，由 ImageView 拉伸到卡片大小 (模糊图放大后几乎看不出差别)。
+ * <p>
+ * 解码结果按编码字符串缓存在一个小型 LRU 中：同一封面在瀑布流和详情页反复出现时只解码一次。
+ * 每次返回新的 {@link BitmapDrawable} (共享同一个 Bitmap)，避免多个 View 共用一个 Drawable 时互相修改 bounds。
+ */
+public final class CoverPlaceholders {
+
+    private static final String TAG = "CoverPlaceholders";
+    private static final int WIDTH = 20;
+    private static final int HEIGHT = 32; // 封面为竖图，宽高比与常见封面接近即可
+    private static final int MAX_ENTRIES = 64; // 每张约 2.5KB
+
+    private static final LruCache<String, Bitmap> sCache = new LruCache<>(MAX_ENTRIES);
+    private static final int[] sPixels = new int[WIDTH * HEIGHT]; // 只在主线程使用，解码时复用
+
+    private CoverPlaceholders() {}
+
+    /**
+     * 获取占位图。
+     * @param coverHash 封面的 BlurHash，可以为 null
+     * @return 占位 Drawable，没有编码或编码无效时返回 null
+     */
+    @MainThread
+    @Nullable
+    public static Drawable get(Resources resources, @Nullable String coverHash) {
+        if (coverHash == null) return null;
+        Bitmap bitmap = sCache.get(coverHash);
+        if (bitmap == null) {
+            if (!BlurHash.isValid(coverHash)) {
+                Log.w(TAG, "invalid cover hash: " + coverHash);
+                return null;
+            }
+            BlurHash.decode(coverHash, WIDTH, HEIGHT, 1f, sPixels);
+            bitmap = Bitmap.createBitmap(sPixels, WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+            sCache.put(coverHash, bitmap);
+        }
+        return new BitmapDrawable(resources, bitmap);
+    }
+}
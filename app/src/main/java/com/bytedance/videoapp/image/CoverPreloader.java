@@ -0,0 +1,175 @@
+package com.bytedance.videoapp.image;
+
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+/**
+ * 按滑动方向预加载封面
+ * <p>
+ * 职责:
+ * 1.  列表滑动时，在滑动方向上提前加载屏幕外 N 个位置的封面。加载参数与 Adapter 绑定时使用的
+ *     {@link RequestOptions} 完全相同 (同样的尺寸和解码格式)，因此条目滑入屏幕时可以直接命中内存缓存。
+ * 2.  惯性滑动 (SETTLING) 期间暂停预加载：此时停下的位置还不确定，提前加载的封面多半用不上；
+ *     回到 IDLE 后再从实际停下的位置继续预加载。
+ * 3.  滑动方向反转时取消尚未完成的预加载，把带宽留给新方向上的封面。
+ * 4.  网络封面 ({@link GlideUrl}) 换成等价的 {@link PrefetchUrl} 加载，请求按预取类别排队，
+ *     优先级低于屏幕上可见的封面。本地资源不经过网络，直接按原模型加载。
+ * <p>
+ * 同时适用于首页的瀑布流和详情页 ViewPager2 内部的 RecyclerView，可见范围直接从子 View 计算，
+ * 不依赖具体的 LayoutManager 类型。
+ */
+public class CoverPreloader extends RecyclerView.OnScrollListener {
+
+    /**
+     * 提供预加载所需的数据，通常由 Adapter 实现。
+     */
+    public interface CoverSource {
+        int getItemCount();
+
+        /**
+         * @return 指定位置封面的加载模型 (资源 id 或 URL)，没有封面时返回 null
+         */
+        @Nullable
+        Object getCoverModel(int position);
+    }
+
+    private final RequestManager requestManager;
+    private final CoverSource source;
+    private final RequestOptions options;
+    private final int preloadCount;
+    private final PreloadTarget[] targets;
+    private int nextTarget;
+
+    private boolean settling;
+    private int direction; // 1 向后，-1 向前，0 未知
+    // 已经发起预加载的位置区间 [preloadedFrom, preloadedTo)，避免滑动过程中重复请求
+    private int preloadedFrom;
+    private int preloadedTo;
+
+    /**
+     * 构造函数
+     * @param requestManager 与页面生命周期绑定的 Glide RequestManager
+     * @param source         封面数据
+     * @param options        与 Adapter 绑定时相同的加载参数 (需设置 override 尺寸)
+     * @param preloadCount   每个方向上预加载的位置数
+     */
+    public CoverPreloader(RequestManager requestManager, CoverSource source,
+                          RequestOptions options, int preloadCount) {
+        this.requestManager = requestManager;
+        this.source = source;
+        this.options = options;
+        this.preloadCount = preloadCount;
+        this.targets = new PreloadTarget[preloadCount];
+        for (int i = 0; i < preloadCount; i++) {
+            targets[i] = new PreloadTarget(options.getOverrideWidth(), options.getOverrideHeight());
+        }
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        settling = newState == RecyclerView.SCROLL_STATE_SETTLING;
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            // 停下之后从实际位置继续预加载
+            preload(recyclerView);
+        }
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        int delta = dy != 0 ? dy : dx;
+        if (delta == 0) return;
+
+        int newDirection = delta > 0 ? 1 : -1;
+        if (direction != 0 && newDirection != direction) {
+            // 方向反转，旧方向上的预加载已经没有意义
+            cancelAll();
+        }
+        direction = newDirection;
+        if (!settling) {
+            preload(recyclerView);
+        }
+    }
+
+    /**
+     * 取消所有未完成的预加载，例如页面退出时。
+     */
+    public void cancelAll() {
+        for (PreloadTarget target : targets) {
+            requestManager.clear(target);
+        }
+        preloadedFrom = 0;
+        preloadedTo = 0;
+    }
+
+    private void preload(RecyclerView recyclerView) {
+        int childCount = recyclerView.getChildCount();
+        if (childCount == 0 || direction == 0) return;
+
+        // 瀑布流中子 View 的顺序不一定与位置一致，因此遍历求出最小和最大的可见位置
+        int firstVisible = Integer.MAX_VALUE;
+        int lastVisible = -1;
+        for (int i = 0; i < childCount; i++) {
+            View child = recyclerView.getChildAt(i);
+            int position = recyclerView.getChildAdapterPosition(child);
+            if (position == RecyclerView.NO_POSITION) continue;
+            firstVisible = Math.min(firstVisible, position);
+            lastVisible = Math.max(lastVisible, position);
+        }
+        if (lastVisible < 0) return;
+
+        int itemCount = source.getItemCount();
+        int from;
+        int to;
+        if (direction > 0) {
+            from = lastVisible + 1;
+            to = Math.min(itemCount, from + preloadCount);
+        } else {
+            to = firstVisible;
+            from = Math.max(0, to - preloadCount);
+        }
+        // 只为新进入预加载窗口的位置发起请求
+        for (int position = from; position < to; position++) {
+            if (position >= preloadedFrom && position < preloadedTo) continue;
+            Object model = source.getCoverModel(position);
+            if (model == null) continue;
+            if (model instanceof GlideUrl) {
+                model = PrefetchUrl.of((GlideUrl) model);
+            }
+            PreloadTarget target = targets[nextTarget];
+            nextTarget = (nextTarget + 1) % targets.length;
+            // 复用 Target 会自动取消它上一次尚未完成的请求
+            requestManager.load(model).apply(options).into(target);
+        }
+        preloadedFrom = from;
+        preloadedTo = to;
+    }
+
+    /**
+     * 只负责触发加载和缓存的 Target，不持有结果 (结果留在 Glide 的内存缓存中)。
+     */
+    private static final class PreloadTarget extends CustomTarget<Drawable> {
+        PreloadTarget(int width, int height) {
+            super(width, height);
+        }
+
+        @Override
+        public void onResourceReady(@NonNull Drawable resource, @Nullable Transition<? super Drawable> transition) {
+            // 无需处理
+        }
+
+        @Override
+        public void onLoadCleared(@Nullable Drawable placeholder) {
+            // 无需处理
+        }
+    }
+}
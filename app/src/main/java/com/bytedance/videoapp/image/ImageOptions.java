@@ -0,0 +1,95 @@
+package com.bytedance.videoapp.image;
+
+import android.content.Context;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
+
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.load.resource.bitmap.Downsampler;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * 各场景共用的 Glide 加载参数
+ * <p>
+ * 各 Adapter 通过这里获取同一份 {@link RequestOptions}，保证相同图片在相同场景下生成相同的缓存 key，
+ * 避免同一张封面因参数细微差别而被重复解码、重复缓存。
+ * <ul>
+ *     <li>瀑布流封面：按卡片宽度降采样，使用 RGB_565 (每像素 2 字节，封面不需要透明通道)。</li>
+ *     <li>全屏封面：ARGB_8888 + 硬件位图，像素数据只存在于显存，不占用 Java 堆和 Bitmap 池。</li>
+ *     <li>头像：按显示尺寸降采样解码，磁盘缓存保存降采样后的结果 (RESOURCE)；不进入 Glide 的内存缓存，
+ *         由 {@link AvatarCache} 统一加载、裁剪成圆形并缓存。</li>
+ * </ul>
+ * 参数只依赖屏幕尺寸和头像尺寸，首次使用时计算并缓存。
+ */
+public final class ImageOptions {
+
+    /** 首页瀑布流的列数，需与 MainActivity 中的 StaggeredGridLayoutManager 保持一致 */
+    public static final int GRID_SPAN_COUNT = 2;
+    /** 卡片左右外边距之和 (dp)，对应 item_video_card 的 layout_margin */
+    private static final int CARD_HORIZONTAL_MARGIN_DP = 8;
+    /** 封面最大高宽比，超过的部分按比例缩小 */
+    private static final int MAX_COVER_ASPECT = 2;
+
+    private static RequestOptions sGridCover;
+    private static RequestOptions sFullScreenCover;
+    private static final SparseArray<RequestOptions> sAvatars = new SparseArray<>();
+
+    private ImageOptions() {}
+
+    /**
+     * 瀑布流卡片封面
+     */
+    public static synchronized RequestOptions gridCover(Context context) {
+        if (sGridCover == null) {
+            int cardWidth = gridCardWidth(context);
+            sGridCover = new RequestOptions()
+                    .format(DecodeFormat.PREFER_RGB_565)
+                    .downsample(DownsampleStrategy.AT_MOST)
+                    .override(cardWidth, cardWidth * MAX_COVER_ASPECT);
+        }
+        return sGridCover;
+    }
+
+    /**
+     * 全屏详情页封面
+     */
+    public static synchronized RequestOptions fullScreenCover(Context context) {
+        if (sFullScreenCover == null) {
+            DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+            sFullScreenCover = new RequestOptions()
+                    .format(DecodeFormat.PREFER_ARGB_8888)
+                    .set(Downsampler.ALLOW_HARDWARE_CONFIG, true)
+                    .downsample(DownsampleStrategy.AT_MOST)
+                    .override(metrics.widthPixels, metrics.heightPixels);
+        }
+        return sFullScreenCover;
+    }
+
+    /**
+     * 头像 (圆形裁剪由 {@link AvatarCache} 完成)
+     * @param sizePx 头像显示尺寸 (像素)
+     */
+    public static synchronized RequestOptions avatar(int sizePx) {
+        RequestOptions options = sAvatars.get(sizePx);
+        if (options == null) {
+            options = new RequestOptions()
+                    .downsample(DownsampleStrategy.CENTER_OUTSIDE)
+                    .override(sizePx)
+                    .skipMemoryCache(true)
+                    .diskCacheStrategy(DiskCacheStrategy.RESOURCE);
+            sAvatars.put(sizePx, options);
+        }
+        return options;
+    }
+
+    /**
+     * 瀑布流单张卡片的宽度 (像素)
+     */
+    public static int gridCardWidth(Context context) {
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        int margin = Math.round(CARD_HORIZONTAL_MARGIN_DP * metrics.density);
+        return metrics.widthPixels / GRID_SPAN_COUNT - margin;
+    }
+}
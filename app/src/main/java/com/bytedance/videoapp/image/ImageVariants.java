@@ -0,0 +1,129 @@
+package com.bytedance.videoapp.image;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.util.SparseArray;
+
+import androidx.annotation.ArrayRes;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.VisibleForTesting;
+
+import com.bytedance.videoapp.R;
+
+/**
+ * 按尺寸分档的图片资源选择
+ * <p>
+ * 构建时 (app/build.gradle.kts 中的 generateImageVariants 任务) 把 src/main/images 下的原图转码成 WebP，
+ * 并为每张图额外生成几个缩小的档位：
+ * <ul>
+ *     <li>封面：{@code cover_1} (原尺寸，全屏使用)、{@code cover_1_w360}、{@code cover_1_w540} ...</li>
+ *     <li>头像：{@code avatar_1} (原尺寸)、{@code avatar_1_s48}、{@code avatar_1_s96} ...</li>
+ * </ul>
+ * 档位列表由同一个任务写入 {@code R.array.cover_variant_widths} / {@code R.array.avatar_variant_sizes}。
+ * 加载时选择不小于目标尺寸的最小档位，Glide 只需解码一张接近显示尺寸的图片，不再每次从全尺寸降采样；
+ * 没有合适档位时退回原图。
+ * <p>
+ * 选择结果按 (原图, 目标尺寸) 缓存，{@link Resources#getIdentifier} 只在第一次查询时调用。
+ * 返回的资源 id 也是 Glide 的缓存 key，预加载和绑定必须通过同一个方法取得，才能命中同一份缓存。
+ */
+public final class ImageVariants {
+
+    private static final String COVER_SUFFIX = "_w";
+    private static final String AVATAR_SUFFIX = "_s";
+
+    private static int[] sCoverWidths;
+    private static int[] sAvatarSizes;
+    // 原图 id -> 各档位对应的资源 id (0 表示未查询，-1 表示该档位不存在)
+    private static final SparseArray<int[]> sVariants = new SparseArray<>();
+
+    private ImageVariants() {}
+
+    /**
+     * 瀑布流卡片封面
+     */
+    @DrawableRes
+    public static int gridCover(Context context, @DrawableRes int coverResId) {
+        return cover(context.getResources(), coverResId, ImageOptions.gridCardWidth(context));
+    }
+
+    /**
+     * 全屏详情页封面
+     */
+    @DrawableRes
+    public static int fullScreenCover(Context context, @DrawableRes int coverResId) {
+        Resources resources = context.getResources();
+        return cover(resources, coverResId, resources.getDisplayMetrics().widthPixels);
+    }
+
+    /**
+     * 选择封面档位
+     * @param coverResId 原图资源
+     * @param widthPx    显示宽度 (像素)
+     */
+    @DrawableRes
+    public static synchronized int cover(Resources resources, @DrawableRes int coverResId, int widthPx) {
+        if (sCoverWidths == null) {
+            sCoverWidths = readBuckets(resources, R.array.cover_variant_widths);
+        }
+        return select(resources, coverResId, sCoverWidths, COVER_SUFFIX, widthPx);
+    }
+
+    /**
+     * 选择头像档位
+     * @param avatarResId 原图资源
+     * @param sizePx      显示尺寸 (像素)
+     */
+    @DrawableRes
+    public static synchronized int avatar(Resources resources, @DrawableRes int avatarResId, int sizePx) {
+        if (sAvatarSizes == null) {
+            sAvatarSizes = readBuckets(resources, R.array.avatar_variant_sizes);
+        }
+        return select(resources, avatarResId, sAvatarSizes, AVATAR_SUFFIX, sizePx);
+    }
+
+    /**
+     * 在升序排列的档位中找到第一个不小于目标尺寸的下标，全部小于目标时返回 -1。
+     */
+    @VisibleForTesting
+    static int bucketFor(int[] buckets, int targetPx) {
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] >= targetPx) return i;
+        }
+        return -1;
+    }
+
+    private static int select(Resources resources, int resId, int[] buckets, String suffix, int targetPx) {
+        if (resId == 0) return resId;
+        int[] variants = sVariants.get(resId);
+        if (variants == null) {
+            variants = new int[buckets.length];
+            sVariants.put(resId, variants);
+        }
+        // 较小的档位可能因为原图本身就不够大而没有生成，继续尝试更大的档位
+        for (int i = bucketFor(buckets, targetPx); i >= 0 && i < buckets.length; i++) {
+            if (variants[i] == 0) {
+                variants[i] = lookup(resources, resId, suffix + buckets[i]);
+            }
+            if (variants[i] > 0) return variants[i];
+        }
+        return resId;
+    }
+
+    private static int lookup(Resources resources, int resId, String suffix) {
+        try {
+            int id = resources.getIdentifier(resources.getResourceEntryName(resId) + suffix,
+                    resources.getResourceTypeName(resId), resources.getResourcePackageName(resId));
+            return id != 0 ? id : -1;
+        } catch (Resources.NotFoundException e) {
+            return -1;
+        }
+    }
+
+    private static int[] readBuckets(Resources resources, @ArrayRes int arrayRes) {
+        try {
+            return resources.getIntArray(arrayRes);
+        } catch (Resources.NotFoundException e) {
+            return new int[0];
+        }
+    }
+}
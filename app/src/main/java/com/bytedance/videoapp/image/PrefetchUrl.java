@@ -0,0 +1,78 @@
+package com.bytedance.videoapp.image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bytedance.videoapp.network.RequestPriorityInterceptor.RequestClass;
+
+import java.io.InputStream;
+
+import okhttp3.Call;
+
+/**
+ * 预加载专用的图片地址
+ * <p>
+ * 与原始的 {@link GlideUrl} 相等 (equals / hashCode 相同)，因此预加载结果写入的内存缓存和磁盘缓存
+ * 在条目绑定时可以直接命中；但类型不同，{@link VideoAppGlideModule} 为它注册了单独的网络加载器，
+ * 请求会以 {@link RequestClass#PREFETCH} 的优先级和并发额度发出，不会挤占可见封面的连接。
+ */
+final class PrefetchUrl extends GlideUrl {
+
+    private PrefetchUrl(String url) {
+        super(url);
+    }
+
+    /**
+     * 把绑定时使用的地址转换为预加载地址。
+     * @param url 绑定时使用的地址
+     * @return 与之相等的预加载地址；带自定义请求头等无法保持相等的情况下返回原地址 (按普通封面请求加载)
+     */
+    @NonNull
+    static GlideUrl of(@NonNull GlideUrl url) {
+        if (url instanceof PrefetchUrl) return url;
+        PrefetchUrl prefetch = new PrefetchUrl(url.toStringUrl());
+        return prefetch.equals(url) ? prefetch : url;
+    }
+
+    /**
+     * 预加载地址的加载器工厂：复用 OkHttp 集成的加载器，只是换成带预取标签的 {@link Call.Factory}。
+     */
+    static final class LoaderFactory implements ModelLoaderFactory<PrefetchUrl, InputStream> {
+
+        private final OkHttpUrlLoader.Factory delegate;
+
+        LoaderFactory(Call.Factory client) {
+            this.delegate = new OkHttpUrlLoader.Factory(client);
+        }
+
+        @NonNull
+        @Override
+        public ModelLoader<PrefetchUrl, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            ModelLoader<GlideUrl, InputStream> loader = delegate.build(multiFactory);
+            return new ModelLoader<PrefetchUrl, InputStream>() {
+                @Nullable
+                @Override
+                public LoadData<InputStream> buildLoadData(@NonNull PrefetchUrl model, int width, int height,
+                                                           @NonNull Options options) {
+                    return loader.buildLoadData(model, width, height, options);
+                }
+
+                @Override
+                public boolean handles(@NonNull PrefetchUrl model) {
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        public void teardown() {
+            delegate.teardown();
+        }
+    }
+}
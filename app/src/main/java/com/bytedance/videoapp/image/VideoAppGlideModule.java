@@ -0,0 +1,87 @@
+package com.bytedance.videoapp.image;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bytedance.videoapp.network.AppHttpClient;
+import com.bytedance.videoapp.network.RequestPriorityInterceptor.RequestClass;
+
+import java.io.InputStream;
+
+/**
+ * 应用级 Glide 配置
+ * <p>
+ * 职责:
+ * 1.  将 Glide 默认的 HttpURLConnection 加载器替换为全局共享的 OkHttpClient，
+ *     使封面、头像与 ExoPlayer 的视频请求复用同一个连接池，并按 {@link RequestClass#COVER} 优先级调度；
+ *     {@link CoverPreloader} 发出的预加载 ({@link PrefetchUrl}) 按 {@link RequestClass#PREFETCH} 调度。
+ * 2.  按设备的内存等级 (memory class) 调整内存缓存和 Bitmap 池的大小：Feed 场景下封面会被频繁来回滑动，
+ *     内存充足的设备多缓存几屏，低内存设备则收紧，避免触发 OOM。
+ * 3.  配置独立的磁盘缓存目录和大小。
+ * <p>
+ * 各场景的解码格式与尺寸见 {@link ImageOptions}。
+ */
+@GlideModule
+public final class VideoAppGlideModule extends AppGlideModule {
+
+    private static final String TAG = "VideoAppGlideModule";
+    private static final String DISK_CACHE_DIR = "image_cache";
+    private static final long DISK_CACHE_SIZE = 250L * 1024L * 1024L; // 250MB
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClass = activityManager.getMemoryClass(); // 单位 MB
+
+        // 以"屏"为单位：1 屏 = 一张全屏 ARGB_8888 位图的大小
+        float memoryCacheScreens;
+        float bitmapPoolScreens;
+        if (activityManager.isLowRamDevice() || memoryClass <= 128) {
+            memoryCacheScreens = 1.5f;
+            bitmapPoolScreens = 2f;
+        } else if (memoryClass <= 256) {
+            memoryCacheScreens = 2.5f;
+            bitmapPoolScreens = 3f;
+        } else {
+            memoryCacheScreens = 4f;
+            bitmapPoolScreens = 4f;
+        }
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(memoryCacheScreens)
+                .setBitmapPoolScreens(bitmapPoolScreens)
+                .build();
+        builder.setMemorySizeCalculator(calculator);
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_SIZE));
+        builder.setLogLevel(Log.ERROR);
+
+        Log.d(TAG, "memoryClass=" + memoryClass + "MB, memoryCache=" + calculator.getMemoryCacheSize()
+                + ", bitmapPool=" + calculator.getBitmapPoolSize());
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class,
+                new OkHttpUrlLoader.Factory(AppHttpClient.callFactory(context, RequestClass.COVER)));
+        // 放在最前面，PrefetchUrl 优先匹配到这个加载器 (它同时也是 GlideUrl)
+        registry.prepend(PrefetchUrl.class, InputStream.class,
+                new PrefetchUrl.LoaderFactory(AppHttpClient.callFactory(context, RequestClass.PREFETCH)));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        // 不使用旧版 AndroidManifest 中声明的 GlideModule，加快初始化
+        return false;
+    }
+}
@@ -6,28 +6,36 @@ package com.bytedance.videoapp.model;
  * 职责:
  * 这是一个简单的数据容器类，用于封装一条评论所需的所有属性。
  * 它不包含任何业务逻辑，只用于在程序的不同层之间传递数据。
+ * <p>
+ * 评论分为两级：一级评论直接属于视频，回复属于某条一级评论 (parentId)。
+ * 一级评论只携带回复总数，回复内容在展开时才按需加载。
+ * <p>
+ * 时间以毫秒时间戳保存，"5分钟前" 这类相对时间由
+ * {@link com.bytedance.videoapp.utils.DisplayFormatter} 按统一的时钟批量计算。
  */
 public class CommentBean {
     public String id;          // 评论的唯一ID
     public String content;     // 评论内容
     public String authorName;  // 评论作者的用户名
     public int avatarResId;   // 评论作者的头像资源ID
-    public String date;        // 评论发布的时间描述 (例如 "10分钟前")
-    public String likeCount;   // 评论的点赞数
+    public long createTime;    // 评论发布时间 (epoch 毫秒)
+    public long likeCount;     // 评论的点赞数
     public boolean isLiked;    // 当前用户是否已点赞该评论
+    public String parentId;    // 回复所属的一级评论ID，一级评论为 null
+    public long replyCount;    // 一级评论下的回复总数 (回复本身为 0)
 
     /**
      * 构造函数
      * @param content 评论内容
      * @param authorName 作者名
-     * @param date 时间描述
+     * @param createTime 发布时间 (epoch 毫秒)
      * @param likeCount 点赞数
      * @param avatarResId 头像资源ID
      */
-    public CommentBean(String content, String authorName, String date, String likeCount, int avatarResId) {
+    public CommentBean(String content, String authorName, long createTime, long likeCount, int avatarResId) {
         this.content = content;
         this.authorName = authorName;
-        this.date = date;
+        this.createTime = createTime;
         this.likeCount = likeCount;
         this.avatarResId = avatarResId;
     }
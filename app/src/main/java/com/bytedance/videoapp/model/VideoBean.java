@@ -6,19 +6,25 @@ package com.bytedance.videoapp.model;
  * 职责:
  * 这是一个简单的数据容器类，用于封装一个视频所需的所有属性。
  * 它不包含任何业务逻辑，只用于在程序的不同层之间传递数据。
+ * <p>
+ * 计数字段以数值形式保存，展示用的字符串 (如 "12.5w") 统一由
+ * {@link com.bytedance.videoapp.utils.DisplayFormatter} 在绑定时生成，便于排序、增量更新和本地化。
  */
 public class VideoBean {
 
+    public long id;            // 视频的唯一ID
     public String title;      // 视频标题
     public String author;      // 视频作者的名字
-    public String likeCount;  // 视频的点赞数 (通常是格式化后的字符串，如 "1.2w")
+    public long likeCount;     // 视频的点赞数 (原始数值，展示时再格式化)
 
     public int coverResId;     // 视频封面图的本地资源 ID (例如 R.drawable.cover_1)
     public int videoResId;     // 视频文件的本地资源 ID (例如 R.raw.video_1)
     public int avatarResId;    // 视频作者头像的本地资源 ID (例如 R.drawable.avatar_1)
+    public String coverHash;   // 封面的 BlurHash 占位编码，封面加载完成前显示，可以为 null
 
     /**
      * 构造函数
+     * @param id 视频唯一ID
      * @param title 标题
      * @param author 作者名
      * @param likeCount 点赞数
@@ -26,13 +32,24 @@ public class VideoBean {
      * @param videoResId 视频文件资源ID
      * @param avatarResId 头像资源ID
      */
-    public VideoBean(String title, String author, String likeCount, int coverResId, int videoResId, int avatarResId) {
+    public VideoBean(long id, String title, String author, long likeCount, int coverResId, int videoResId, int avatarResId) {
+        this(id, title, author, likeCount, coverResId, videoResId, avatarResId, null);
+    }
+
+    /**
+     * 构造函数
+     * @param coverHash 封面的 BlurHash 占位编码，可以为 null
+     */
+    public VideoBean(long id, String title, String author, long likeCount, int coverResId, int videoResId,
+                     int avatarResId, String coverHash) {
+        this.id = id;
         this.title = title;
         this.author = author;
         this.likeCount = likeCount;
         this.coverResId = coverResId;
         this.videoResId = videoResId;
         this.avatarResId = avatarResId;
+        this.coverHash = coverHash;
     }
 
 }
@@ -0,0 +1,103 @@
+package com.bytedance.videoapp.network;
+
+import android.content.Context;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.bytedance.videoapp.network.RequestPriorityInterceptor.RequestClass;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * 全局唯一的 HTTP 客户端
+ * <p>
+ * 职责:
+ * 1.  Glide (封面、头像) 和 ExoPlayer (视频) 共用同一个 OkHttpClient，
+ *     从而共享连接池、DNS 结果和 HTTP/2 多路复用，访问同一个 CDN 时无需重复建连。
+ * 2.  通过 {@link RequestPriorityInterceptor} 为不同类别的请求设置优先级和并发上限。
+ * 3.  为每个请求类别提供一个 {@link Call.Factory}，创建的请求会自动带上类别标签。
+ * <p>
+ * 设计为单例的原因与 PlayerManager 相同：连接池只有在全局共享时才有意义。
+ */
+public final class AppHttpClient {
+
+    private static final long HTTP_CACHE_SIZE = 50L * 1024L * 1024L; // 50MB 的 HTTP 缓存 (仅缓存小文件，视频由 ExoPlayer 自己缓存)
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    // 总并发与各类别并发上限
+    private static final int TOTAL_LIMIT = 8;
+    private static final int COVER_LIMIT = 6;
+    private static final int VIDEO_LIMIT = 2;
+    private static final int PREFETCH_LIMIT = 2;
+
+    private static volatile OkHttpClient sClient;
+
+    private AppHttpClient() {}
+
+    /**
+     * 获取全局唯一的 OkHttpClient。
+     * 采用双重检查锁定 (Double-Checked Locking) 模式，确保线程安全和高性能。
+     * @param context 上下文
+     * @return 共享的客户端实例
+     */
+    public static OkHttpClient get(Context context) {
+        if (sClient == null) {
+            synchronized (AppHttpClient.class) {
+                if (sClient == null) {
+                    // 始终使用 ApplicationContext，防止因持有Activity引用而导致的内存泄漏
+                    File cacheDir = new File(context.getApplicationContext().getCacheDir(), "http_cache");
+                    sClient = newClient(new Cache(cacheDir, HTTP_CACHE_SIZE),
+                            new RequestPriorityInterceptor(TOTAL_LIMIT, COVER_LIMIT, VIDEO_LIMIT, PREFETCH_LIMIT));
+                }
+            }
+        }
+        return sClient;
+    }
+
+    /**
+     * 获取一个会为请求打上指定类别标签的 {@link Call.Factory}，用于接入 Glide / ExoPlayer。
+     * @param context      上下文
+     * @param requestClass 请求类别
+     */
+    public static Call.Factory callFactory(Context context, RequestClass requestClass) {
+        return tagging(get(context), requestClass);
+    }
+
+    /**
+     * 包装一个客户端，使其创建的每个请求都带上类别标签。
+     */
+    static Call.Factory tagging(OkHttpClient client, RequestClass requestClass) {
+        return request -> client.newCall(request.newBuilder().tag(RequestClass.class, requestClass).build());
+    }
+
+    /**
+     * 按统一的调优参数创建客户端。
+     * @param cache       HTTP 缓存，可以为 null
+     * @param interceptor 优先级拦截器
+     */
+    @VisibleForTesting
+    static OkHttpClient newClient(Cache cache, RequestPriorityInterceptor interceptor) {
+        // Dispatcher 的上限要高于拦截器的总额度，排队才会按优先级而不是先进先出进行
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(64);
+        dispatcher.setMaxRequestsPerHost(32);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .cache(cache)
+                .addInterceptor(interceptor)
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(15, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+}
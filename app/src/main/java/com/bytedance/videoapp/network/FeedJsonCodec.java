@@ -0,0 +1,63 @@
+package com.bytedance.videoapp.network;
+
+import com.bytedance.videoapp.model.VideoBean;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feed 分页的 JSON 格式编解码
+ * <p>
+ * 作为二进制格式 {@link FeedWireFormat} 的对照和兼容方案：后端尚未支持二进制格式时使用。
+ * JSON 必须整页解析完才能产出第一个条目。
+ * <pre>
+ * {"items":[{"id":1,"title":"...","author":"...","likeCount":125000,
+ *            "coverResId":..., "videoResId":..., "avatarResId":..., "coverHash":"..."}, ...]}
+ * </pre>
+ */
+public final class FeedJsonCodec {
+
+    public static final String CONTENT_TYPE = "application/json";
+
+    private FeedJsonCodec() {}
+
+    public static String encode(List<VideoBean> items) throws JSONException {
+        JSONArray array = new JSONArray();
+        for (VideoBean bean : items) {
+            JSONObject item = new JSONObject();
+            item.put("id", bean.id);
+            item.put("title", bean.title);
+            item.put("author", bean.author);
+            item.put("likeCount", bean.likeCount);
+            item.put("coverResId", bean.coverResId);
+            item.put("videoResId", bean.videoResId);
+            item.put("avatarResId", bean.avatarResId);
+            if (bean.coverHash != null) item.put("coverHash", bean.coverHash);
+            array.put(item);
+        }
+        return new JSONObject().put("items", array).toString();
+    }
+
+    public static List<VideoBean> decode(String json) throws JSONException {
+        JSONArray array = new JSONObject(json).getJSONArray("items");
+        List<VideoBean> list = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject item = array.getJSONObject(i);
+            list.add(new VideoBean(
+                    item.getLong("id"),
+                    item.optString("title"),
+                    item.optString("author"),
+                    item.optLong("likeCount"),
+                    item.optInt("coverResId"),
+                    item.optInt("videoResId"),
+                    item.optInt("avatarResId"),
+                    item.optString("coverHash", null)
+            ));
+        }
+        return list;
+    }
+}
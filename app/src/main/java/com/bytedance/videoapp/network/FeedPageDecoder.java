@@ -0,0 +1,173 @@
+package com.bytedance.videoapp.network;
+
+import com.bytedance.videoapp.model.VideoBean;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Feed 二进制分页的流式解码器
+ * <p>
+ * 职责:
+ * 1.  边读边解码 {@link FeedWireFormat} 格式的数据，每解析完一条记录就通过 {@link ItemListener} 立即产出，
+ *     不必等整页数据下载完毕。
+ * 2.  内部持有一个可复用的读缓冲区和字符串表数组，多次解码之间不会重新分配。
+ *     除了产出的 {@link VideoBean} 和首次出现的字符串本身，解码过程不产生额外的垃圾对象。
+ * <p>
+ * 非线程安全，一个实例只应在一个线程 (例如 Repository 的后台线程) 中使用。
+ */
+public class FeedPageDecoder {
+
+    /**
+     * 条目回调，在解码线程中调用。
+     */
+    public interface ItemListener {
+        void onItem(VideoBean bean);
+    }
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long consumedBeforeBuffer; // 已经滑出缓冲区的字节数，用于计算绝对位置
+    private InputStream in;
+
+    private String[] strings = new String[64];
+    private int stringCount;
+
+    /**
+     * 解码一页数据。
+     * @param input    输入流 (调用方负责关闭)
+     * @param listener 每解码出一个条目就回调一次
+     * @return 条目数量
+     * @throws IOException 读取失败或数据格式错误
+     */
+    public int decode(InputStream input, ItemListener listener) throws IOException {
+        in = input;
+        pos = 0;
+        limit = 0;
+        consumedBeforeBuffer = 0;
+        // 清空上一页的字符串引用，数组本身复用
+        Arrays.fill(strings, 0, stringCount, null);
+        stringCount = 0;
+        try {
+            for (byte b : FeedWireFormat.MAGIC) {
+                if (readByte() != b) throw new IOException("not a feed page");
+            }
+            int version = readByte();
+            if (version != FeedWireFormat.VERSION) {
+                throw new IOException("unsupported feed page version " + version);
+            }
+
+            int itemCount = (int) readVarLong();
+            for (int i = 0; i < itemCount; i++) {
+                long recordLength = readVarLong();
+                long recordEnd = position() + recordLength;
+
+                long id = readVarLong();
+                String title = readString();
+                String author = readString();
+                long likeCount = readVarLong();
+                int coverResId = (int) readVarLong();
+                int videoResId = (int) readVarLong();
+                int avatarResId = (int) readVarLong();
+                // 较早的服务端不下发封面占位编码
+                String coverHash = position() < recordEnd ? readRawString() : "";
+
+                if (position() > recordEnd) {
+                    throw new IOException("record " + i + " overruns its length");
+                }
+                skip(recordEnd - position()); // 跳过当前版本不认识的新字段
+                listener.onItem(new VideoBean(id, title, author, likeCount, coverResId, videoResId, avatarResId,
+                        coverHash.isEmpty() ? null : coverHash));
+            }
+            return itemCount;
+        } finally {
+            in = null;
+        }
+    }
+
+    private long position() {
+        return consumedBeforeBuffer + pos;
+    }
+
+    private int readByte() throws IOException {
+        if (pos == limit) require(1);
+        return buffer[pos++] & 0xFF;
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private String readString() throws IOException {
+        long tag = readVarLong();
+        if (tag != 0) {
+            long ref = tag - 1;
+            if (ref >= stringCount) throw new IOException("bad string ref " + ref);
+            return strings[(int) ref];
+        }
+        String value = readRawString();
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, strings.length * 2);
+        }
+        strings[stringCount++] = value;
+        return value;
+    }
+
+    /**
+     * 读取一个不进入字符串表的字符串 (长度前缀 + UTF-8)。
+     */
+    private String readRawString() throws IOException {
+        long length = readVarLong();
+        if (length < 0 || length > FeedWireFormat.MAX_STRING_BYTES) {
+            throw new IOException("bad string length " + length);
+        }
+        require((int) length);
+        String value = new String(buffer, pos, (int) length, StandardCharsets.UTF_8);
+        pos += (int) length;
+        return value;
+    }
+
+    private void skip(long count) throws IOException {
+        while (count > 0) {
+            if (pos == limit) require(1);
+            int step = (int) Math.min(count, limit - pos);
+            pos += step;
+            count -= step;
+        }
+    }
+
+    /**
+     * 确保缓冲区中至少有 count 个未读字节。必要时压缩或扩容缓冲区 (扩容后的缓冲区会被后续解码复用)。
+     */
+    private void require(int count) throws IOException {
+        if (limit - pos >= count) return;
+        // 将未读部分移动到缓冲区头部
+        int remaining = limit - pos;
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, remaining);
+            consumedBeforeBuffer += pos;
+            pos = 0;
+            limit = remaining;
+        }
+        if (count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(count, buffer.length * 2));
+        }
+        while (limit < count) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) throw new EOFException("truncated feed page");
+            limit += read;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.bytedance.videoapp.network;
+
+import com.bytedance.videoapp.model.VideoBean;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feed 分页的紧凑二进制格式 (编码端)
+ * <p>
+ * 格式说明 (所有整数均为无符号 LEB128 变长编码，即 varint):
+ * <pre>
+ * page   := 'V' 'F' 'P' version:u8  itemCount:varint  record*
+ * record := length:varint  body[length]
+ * body   := id:varint  title:str  author:str  likeCount:varint
+ *           coverResId:varint  videoResId:varint  avatarResId:varint
+ *           coverHash:raw                                    // 封面 BlurHash，空串表示没有 (未来新增字段追加在末尾)
+ * str    := 0 byteLength:varint utf8[byteLength]   // 首次出现，定义并加入字符串表，byteLength 不超过 64KB
+ *         | ref + 1                                  // 引用字符串表中已有的第 ref 项
+ * raw    := byteLength:varint utf8[byteLength]     // 不进入字符串表的字符串
+ * </pre>
+ * 设计要点:
+ * 1.  字符串表随记录"边用边定义"，而不是整体放在页首，解码端读完一条记录就能立刻产出一个条目。
+ * 2.  每条记录带长度前缀，旧版本客户端可以跳过不认识的新字段。追加的字段不能使用字符串表 (用 raw)：
+ *     旧客户端跳过了这些字段，不会把其中定义的字符串加入自己的表，之后的引用编号就会错位。
+ * 3.  重复的作者名只传输一次，之后只占 1~2 个字节。
+ * <p>
+ * 解码端见 {@link FeedPageDecoder}。
+ */
+public final class FeedWireFormat {
+
+    public static final String CONTENT_TYPE = "application/x-feed-page";
+    static final byte[] MAGIC = {'V', 'F', 'P'};
+    static final int VERSION = 1;
+    // 单个字符串的最大字节数，解码端据此拒绝损坏或恶意的长度，避免按错误的长度分配缓冲区
+    static final int MAX_STRING_BYTES = 64 * 1024;
+
+    private FeedWireFormat() {}
+
+    /**
+     * 将一页数据编码为二进制格式。
+     * @param items 条目列表
+     * @param out   输出流 (调用方负责关闭)
+     */
+    public static void encode(List<VideoBean> items, OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarLong(out, items.size());
+
+        Map<String, Integer> refs = new HashMap<>();
+        ByteArrayOutputStream record = new ByteArrayOutputStream(128);
+        for (VideoBean bean : items) {
+            record.reset();
+            writeVarLong(record, bean.id);
+            writeString(record, bean.title, refs);
+            writeString(record, bean.author, refs);
+            writeVarLong(record, bean.likeCount);
+            writeVarLong(record, bean.coverResId & 0xffffffffL);
+            writeVarLong(record, bean.videoResId & 0xffffffffL);
+            writeVarLong(record, bean.avatarResId & 0xffffffffL);
+            writeRawString(record, bean.coverHash);
+            writeVarLong(out, record.size());
+            record.writeTo(out);
+        }
+    }
+
+    private static void writeString(OutputStream out, String value, Map<String, Integer> refs) throws IOException {
+        if (value == null) value = "";
+        Integer ref = refs.get(value);
+        if (ref != null) {
+            writeVarLong(out, ref + 1L);
+            return;
+        }
+        refs.put(value, refs.size());
+        out.write(0);
+        writeRawString(out, value);
+    }
+
+    private static void writeRawString(OutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IOException("string too long: " + bytes.length + " bytes");
+        }
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bytedance.videoapp.network;
+
+import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.repository.FeedSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 HTTP 的 Feed 数据源
+ * <p>
+ * 职责:
+ * 1.  按页请求后端接口 {@code GET {baseUrl}/feed?page=N&size=M}。
+ * 2.  支持两种响应格式：紧凑二进制 ({@link FeedWireFormat}，流式解码) 和 JSON ({@link FeedJsonCodec}，兼容方案)。
+ * <p>
+ * 与其他 {@link FeedSource} 一样只在 Repository 的后台线程中调用，解码器实例因此可以安全复用。
+ * <p>
+ * 限制：{@link FeedSource} 以整批为单位返回数据 (Repository 需要对整批去重、入库并推进批次序号)，
+ * 所以二进制格式虽然边下载边解码，条目仍会先收集到列表中，整页解码完成后才一起返回。
+ * 流式解码在这里省下的是整页响应体的字节数组和 JSON 的中间对象，并不能让第一条数据提前显示。
+ */
+public class HttpFeedSource implements FeedSource {
+
+    /** 响应格式 */
+    public enum Format { BINARY, JSON }
+
+    private static final int TIMEOUT_MS = 10_000;
+
+    private final String baseUrl;
+    private final int pageSize;
+    private final Format format;
+    private final FeedPageDecoder decoder = new FeedPageDecoder();
+
+    /**
+     * 构造函数
+     * @param baseUrl  后端地址，例如 "https://feed.example.com"
+     * @param pageSize 每页条数
+     * @param format   响应格式
+     */
+    public HttpFeedSource(String baseUrl, int pageSize, Format format) {
+        this.baseUrl = baseUrl;
+        this.pageSize = pageSize;
+        this.format = format;
+    }
+
+    @Override
+    public int pageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public List<VideoBean> loadBatch(int batchIndex) throws Exception {
+        URL url = new URL(baseUrl + "/feed?page=" + batchIndex + "&size=" + pageSize);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT_MS);
+        connection.setReadTimeout(TIMEOUT_MS);
+        connection.setRequestProperty("Accept",
+                format == Format.BINARY ? FeedWireFormat.CONTENT_TYPE : FeedJsonCodec.CONTENT_TYPE);
+        try {
+            int code = connection.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + code + " for page " + batchIndex);
+            }
+            try (InputStream in = connection.getInputStream()) {
+                if (format == Format.BINARY) {
+                    // 逐条解码，但要等整批收齐后才交给 Repository (见类注释中的限制)
+                    List<VideoBean> list = new ArrayList<>(pageSize);
+                    decoder.decode(in, list::add);
+                    return list;
+                }
+                return FeedJsonCodec.decode(readFully(in));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8 * 1024];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
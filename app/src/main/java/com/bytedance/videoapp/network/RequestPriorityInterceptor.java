@@ -0,0 +1,189 @@
+package com.bytedance.videoapp.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * 请求优先级与分类并发控制拦截器
+ * <p>
+ * 职责:
+ * 1.  按请求类别 ({@link RequestClass}) 限制各自的并发数，例如视频流最多占用 2 条连接，
+ *     避免大文件下载把封面图请求饿死。
+ * 2.  在总并发额度不足时，按优先级放行排队中的请求：可见封面 &gt; 当前视频 &gt; 预取。
+ * 3.  额度一直占用到响应体被关闭为止，因此长时间的视频流也会被正确计入。
+ * <p>
+ * 请求类别通过 {@code Request.tag(RequestClass.class)} 指定，未打标签的请求 (例如 Feed 接口) 不受限制。
+ * OkHttp Dispatcher 的并发上限应设置得比这里的总额度更大，排队才会发生在这里 (按优先级)，
+ * 而不是在 Dispatcher 里 (先进先出)。
+ */
+public class RequestPriorityInterceptor implements Interceptor {
+
+    /** 请求类别，声明顺序即优先级 (越靠前越优先) */
+    public enum RequestClass {
+        /** 屏幕上可见的封面和头像 */
+        COVER,
+        /** 当前正在播放的视频 */
+        VIDEO,
+        /** 预取 (即将滑入屏幕的封面，见 {@link com.bytedance.videoapp.image.CoverPreloader}) */
+        PREFETCH
+    }
+
+    private final int[] classLimits;
+    private final int totalLimit;
+    private final int[] active = new int[RequestClass.values().length];
+    private final int[] waiting = new int[RequestClass.values().length];
+    private int totalActive;
+
+    /**
+     * 构造函数
+     * @param totalLimit  所有受控请求的总并发数
+     * @param coverLimit  封面类请求的并发数
+     * @param videoLimit  视频类请求的并发数
+     * @param prefetchLimit 预取类请求的并发数
+     */
+    public RequestPriorityInterceptor(int totalLimit, int coverLimit, int videoLimit, int prefetchLimit) {
+        this.totalLimit = totalLimit;
+        this.classLimits = new int[]{coverLimit, videoLimit, prefetchLimit};
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestClass requestClass = request.tag(RequestClass.class);
+        if (requestClass == null) {
+            return chain.proceed(request);
+        }
+
+        int index = requestClass.ordinal();
+        try {
+            acquire(index);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + requestClass + " slot");
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            release(index);
+            throw e;
+        }
+        ResponseBody body = response.body();
+        if (body == null) {
+            release(index);
+            return response;
+        }
+        // 额度在响应体关闭时才归还
+        return response.newBuilder().body(new ReleasingBody(body, index)).build();
+    }
+
+    private synchronized void acquire(int index) throws InterruptedException {
+        waiting[index]++;
+        try {
+            while (!canStart(index)) {
+                wait();
+            }
+        } finally {
+            waiting[index]--;
+        }
+        active[index]++;
+        totalActive++;
+    }
+
+    private synchronized void release(int index) {
+        active[index]--;
+        totalActive--;
+        notifyAll();
+    }
+
+    /**
+     * 当前排队等待的请求总数
+     */
+    @VisibleForTesting
+    synchronized int waitingCount() {
+        int count = 0;
+        for (int w : waiting) count += w;
+        return count;
+    }
+
+    /**
+     * 能否放行一个指定类别的请求：总额度和类别额度都有剩余，且没有可以立即运行的更高优先级请求在排队。
+     */
+    private boolean canStart(int index) {
+        if (totalActive >= totalLimit || active[index] >= classLimits[index]) {
+            return false;
+        }
+        for (int higher = 0; higher < index; higher++) {
+            if (waiting[higher] > 0 && active[higher] < classLimits[higher]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 包装后的响应体，关闭时归还并发额度 (只归还一次)。
+     */
+    private final class ReleasingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final int index;
+        private BufferedSource source;
+        private boolean released;
+
+        ReleasingBody(ResponseBody delegate, int index) {
+            this.delegate = delegate;
+            this.index = index;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @NonNull
+        @Override
+        public synchronized BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            releaseOnce();
+                        }
+                    }
+                });
+            }
+            return source;
+        }
+
+        private synchronized void releaseOnce() {
+            if (!released) {
+                released = true;
+                release(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.bytedance.videoapp.network;
+
+import android.util.Log;
+
+import com.bytedance.videoapp.repository.LiveCounterSource;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * 基于 Server-Sent Events 的实时计数推送
+ * <p>
+ * 职责:
+ * 1.  订阅集合变化时重新建立长连接 {@code GET {baseUrl}/counters?ids=1,2,3} (Accept: text/event-stream)。
+ *     订阅集合已经由 {@link com.bytedance.videoapp.repository.LiveCounters} 防抖，快速滑动时不会频繁重连。
+ * 2.  逐行读取事件，每个 {@code data:} 行是一条增量 {@code videoId,likeDelta,commentDelta}，
+ *     一个事件可以包含多行 (服务端可以在一次写出中批量推送)。
+ * 3.  连接异常断开后按指数退避自动重连，直到订阅变化或 {@link #close()}。
+ * <p>
+ * 每个连接在自己的读线程中阻塞读取，解析时不拆分字符串。长连接不打请求类别标签，
+ * 不占用 {@link RequestPriorityInterceptor} 的并发额度；取消时调用 {@link Call#cancel()}，不会阻塞调用线程。
+ */
+public class SseCounterSource implements LiveCounterSource {
+
+    private static final String TAG = "SseCounterSource";
+    public static final String CONTENT_TYPE = "text/event-stream";
+
+    private static final long INITIAL_RETRY_MS = 1000;
+    private static final long MAX_RETRY_MS = 30_000;
+
+    private final OkHttpClient client;
+    private final String baseUrl;
+    // 当前连接的读线程，订阅变化或关闭时中断
+    private Reader reader;
+
+    /**
+     * @param client  共享的客户端 (例如 {@link AppHttpClient#get})，连接池与其他请求共用
+     * @param baseUrl 后端地址，例如 "https://live.example.com"
+     */
+    public SseCounterSource(OkHttpClient client, String baseUrl) {
+        // 长连接没有读超时，由服务端的心跳 (注释行) 保持连接
+        this.client = client.newBuilder().readTimeout(0, TimeUnit.MILLISECONDS).build();
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public synchronized void subscribe(long[] videoIds, Callback callback) {
+        stopReader();
+        if (videoIds.length == 0) return;
+        StringBuilder url = new StringBuilder(baseUrl).append("/counters?ids=");
+        for (int i = 0; i < videoIds.length; i++) {
+            if (i > 0) url.append(',');
+            url.append(videoIds[i]);
+        }
+        Request request = new Request.Builder()
+                .url(url.toString())
+                .header("Accept", CONTENT_TYPE)
+                .build();
+        reader = new Reader(client, request, callback);
+        reader.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        stopReader();
+    }
+
+    private void stopReader() {
+        if (reader != null) {
+            reader.cancel();
+            reader = null;
+        }
+    }
+
+    /**
+     * 单个长连接的读线程。
+     */
+    private static final class Reader extends Thread {
+
+        private final OkHttpClient client;
+        private final Request request;
+        private final Callback callback;
+        private volatile boolean cancelled;
+        private volatile Call call;
+        // 解析一行时复用的字段缓冲
+        private final long[] fields = new long[3];
+
+        Reader(OkHttpClient client, Request request, Callback callback) {
+            super("sse-counters");
+            this.client = client;
+            this.request = request;
+            this.callback = callback;
+        }
+
+        void cancel() {
+            cancelled = true;
+            interrupt();
+            // 取消请求让阻塞中的读取立即返回
+            Call current = call;
+            if (current != null) current.cancel();
+        }
+
+        @Override
+        public void run() {
+            long retryMs = INITIAL_RETRY_MS;
+            while (!cancelled) {
+                try {
+                    if (readStream()) retryMs = INITIAL_RETRY_MS;
+                } catch (IOException e) {
+                    if (cancelled) return;
+                    Log.w(TAG, "counter stream failed: " + e.getMessage());
+                }
+                try {
+                    Thread.sleep(retryMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                retryMs = Math.min(retryMs * 2, MAX_RETRY_MS);
+            }
+        }
+
+        /**
+         * 建立连接并读取到流结束。
+         * @return 是否收到过事件 (收到过说明连接是正常的，重连等待时间从头开始)
+         */
+        private boolean readStream() throws IOException {
+            Call current = client.newCall(request);
+            call = current;
+            if (cancelled) return false;
+            try (Response response = current.execute()) {
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    throw new IOException("HTTP " + response.code() + " for counter stream");
+                }
+                boolean received = false;
+                BufferedSource in = body.source();
+                String line;
+                while (!cancelled && (line = in.readUtf8Line()) != null) {
+                    if (line.startsWith("data:")) {
+                        received |= dispatch(line);
+                    }
+                }
+                return received;
+            } finally {
+                call = null;
+            }
+        }
+
+        /**
+         * 解析 {@code data: videoId,likeDelta,commentDelta}，格式不对的行直接忽略。
+         */
+        private boolean dispatch(String line) {
+            fields[0] = fields[1] = fields[2] = 0;
+            int field = 0;
+            int i = "data:".length();
+            int length = line.length();
+            while (i < length && line.charAt(i) == ' ') i++;
+            boolean negative = false;
+            boolean digits = false;
+            for (; i < length; i++) {
+                char c = line.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    fields[field] = fields[field] * 10 + (c - '0');
+                    digits = true;
+                } else if (c == '-' && !digits) {
+                    negative = true;
+                } else if (c == ',' && digits && field < 2) {
+                    if (negative) fields[field] = -fields[field];
+                    field++;
+                    negative = false;
+                    digits = false;
+                } else {
+                    return false;
+                }
+            }
+            if (field != 2 || !digits) return false;
+            if (negative) fields[2] = -fields[2];
+            callback.onDelta(fields[0], fields[1], fields[2]);
+            return true;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import android.content.Context;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.util.UnstableApi;
 import androidx.media3.datasource.DefaultDataSource;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
 import androidx.media3.datasource.cache.CacheDataSource;
 import androidx.media3.datasource.cache.CacheDataSink;
 import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
@@ -12,6 +13,9 @@ import androidx.media3.datasource.cache.SimpleCache;
 import androidx.media3.exoplayer.ExoPlayer;
 import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
 
+import com.bytedance.videoapp.network.AppHttpClient;
+import com.bytedance.videoapp.network.RequestPriorityInterceptor.RequestClass;
+
 import java.io.File;
 
 /**
@@ -72,8 +76,7 @@ public class PlayerManager {
             // 使用一个虽然被标记为“过时”，但非常稳定的构造函数，以保证兼容性和稳定性。
             simpleCache = new SimpleCache(cacheDir, evictor);
 
-            DefaultDataSource.Factory upstreamFactory =
-                    new DefaultDataSource.Factory(appContext);
+            DefaultDataSource.Factory upstreamFactory = createUpstreamFactory();
 
             // 创建带缓存功能的数据源工厂
             cacheDataSourceFactory = new CacheDataSource.Factory()
@@ -90,6 +93,16 @@ public class PlayerManager {
         }
     }
 
+    /**
+     * 创建上游数据源工厂：本地资源 (android.resource://、file://) 仍由 DefaultDataSource 处理，
+     * 网络请求则交给全局共享的 OkHttpClient，与 Glide 复用同一个连接池。
+     */
+    private DefaultDataSource.Factory createUpstreamFactory() {
+        OkHttpDataSource.Factory httpFactory =
+                new OkHttpDataSource.Factory(AppHttpClient.callFactory(appContext, RequestClass.VIDEO));
+        return new DefaultDataSource.Factory(appContext, httpFactory);
+    }
+
     /**
      * 获取播放器实例。这是一个同步方法，用于处理播放器可能被释放后的重建逻辑。
      * <p>
@@ -102,7 +115,7 @@ public class PlayerManager {
     public synchronized ExoPlayer getPlayer() {
         if (player == null) {
             DefaultMediaSourceFactory mediaSourceFactory = new DefaultMediaSourceFactory(
-                cacheDataSourceFactory != null ? cacheDataSourceFactory : new DefaultDataSource.Factory(appContext)
+                cacheDataSourceFactory != null ? cacheDataSourceFactory : createUpstreamFactory()
             );
             player = new ExoPlayer.Builder(appContext)
                 .setMediaSourceFactory(mediaSourceFactory)
@@ -0,0 +1,48 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.R;
+
+/**
+ * 内置封面 (src/main/images/cover_*.png，构建时转码为 WebP) 的 BlurHash 占位编码
+ * <p>
+ * 由 {@link com.bytedance.videoapp.image.BlurHash#encode} 以 3×4 个分量生成。
+ * 单元测试 BundledCoverHashesTest 会重新编码这些图片并与下面的值比对，封面图片变化后测试会失败并打印新的编码。
+ * 远程封面的编码由服务端在入库时生成，随 Feed 数据下发。
+ */
+public final class BundledCoverHashes {
+
+    /** 与 {@link #HASHES} 一一对应的封面资源 */
+    static final int[] COVERS = {R.drawable.cover_1, R.drawable.cover_2, R.drawable.cover_3,
+            R.drawable.cover_4, R.drawable.cover_5};
+
+    static final String[] HASHES = {
+            "TCAm9,TeWCInkXt80gr=s:M{WCof", // cover_1
+            "TyGlbYR+M{_NR*WAtSayozM|oft7", // cover_2
+            "TLC%T?x]D%_NxuIUNdx]aeIWkCxu", // cover_3
+            "TZGbxH~qx[_3xvoLIUM{RjxufiRj", // cover_4
+            "TVGbL^9FNG~qRiM{x]oejsa#t7ay", // cover_5
+    };
+
+    /** 生成编码时使用的分量数 */
+    static final int COMPONENTS_X = 3;
+    static final int COMPONENTS_Y = 4;
+
+    private BundledCoverHashes() {}
+
+    /**
+     * @return 所有内置封面的资源 id (副本)
+     */
+    public static int[] covers() {
+        return COVERS.clone();
+    }
+
+    /**
+     * @return 内置封面的 BlurHash，不是内置封面时返回 null
+     */
+    public static String forResource(int coverResId) {
+        for (int i = 0; i < COVERS.length; i++) {
+            if (COVERS[i] == coverResId) return HASHES[i];
+        }
+        return null;
+    }
+}
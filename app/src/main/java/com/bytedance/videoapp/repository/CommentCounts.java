@@ -0,0 +1,94 @@
+package com.bytedance.videoapp.repository;
+
+/**
+ * 各视频的评论总数
+ * <p>
+ * 绑定视频页时每次都要读取评论数。这里用以视频ID为键的开放寻址表 (基本类型数组) 保存，
+ * 查询不装箱、不分配对象，也不会像访问顺序的 LinkedHashMap 那样在读取时调整顺序。
+ * 使用自己的锁，绑定时不会等待评论仓库正在进行的入库和淘汰。
+ * 槽位只增不删 (每个视频 16 字节)，评论列表被淘汰后评论数依然可以显示。
+ */
+final class CommentCounts {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // 开放寻址 (线性探测) 表，只在锁内读写
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private boolean[] occupied = new boolean[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return 评论总数；没有记录时返回 -1
+     */
+    synchronized long get(long videoId) {
+        int index = indexOf(videoId);
+        return index >= 0 ? counts[index] : -1;
+    }
+
+    /**
+     * 记录服务端给出的评论总数。
+     */
+    synchronized void put(long videoId, long count) {
+        int index = indexOf(videoId);
+        if (index < 0) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            index = -(indexOf(videoId) + 1);
+            keys[index] = videoId;
+            occupied[index] = true;
+            size++;
+        }
+        counts[index] = count;
+    }
+
+    /**
+     * 评论总数加一，没有记录时什么也不做。
+     */
+    synchronized void increment(long videoId) {
+        int index = indexOf(videoId);
+        if (index >= 0) counts[index]++;
+    }
+
+    /**
+     * @return 已有记录时返回下标，否则返回 -(插入位置 + 1)
+     */
+    private int indexOf(long videoId) {
+        int mask = keys.length - 1;
+        int index = (int) mix64(videoId) & mask;
+        while (occupied[index]) {
+            if (keys[index] == videoId) return index;
+            index = (index + 1) & mask;
+        }
+        return -(index + 1);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        boolean[] oldOccupied = occupied;
+        keys = new long[capacity];
+        counts = new long[capacity];
+        occupied = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldOccupied[i]) continue;
+            int index = -(indexOf(oldKeys[i]) + 1);
+            keys[index] = oldKeys[i];
+            counts[index] = oldCounts[i];
+            occupied[index] = true;
+        }
+    }
+
+    /**
+     * 64 位混淆函数 (MurmurHash3 fmix64)，让连续的ID在表中均匀分布。
+     */
+    private static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
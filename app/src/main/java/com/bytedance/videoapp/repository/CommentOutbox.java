@@ -0,0 +1,416 @@
+package com.bytedance.videoapp.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.VisibleForTesting;
+
+import com.bytedance.videoapp.model.CommentBean;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待发表评论的发件箱 (Write-behind 队列)
+ * <p>
+ * 职责:
+ * 1.  用户点击发送时，评论先进入发件箱并立即返回，界面乐观地显示这条评论，主线程不做任何 I/O。
+ * 2.  发件箱保存在应用私有目录，每次变化都先落盘再发送：进程被杀后，下次启动会继续发送未完成的评论。
+ * 3.  短时间内发表的多条评论合并成一批 (最多 {@link #MAX_BATCH} 条) 发送给 {@link CommentSource}。
+ * 4.  发送失败时按指数退避 (带随机抖动) 重试，多次失败后放弃并通知界面。
+ * 5.  发送成功后，通过 {@link Listener} 把服务端分配的正式ID和时间交给界面，替换乐观显示的评论。
+ * <p>
+ * 每条评论带有客户端生成的 localId，超时后重发同一条评论时服务端据此去重，不会重复发表。
+ * 读写文件和发送请求都在同一个后台线程中执行，保证顺序。
+ */
+public class CommentOutbox {
+
+    private static final String TAG = "CommentOutbox";
+    private static final String FILE_NAME = "comment_outbox.bin";
+    private static final int FILE_MAGIC = 0x504F5354; // "POST"
+    // 字符串写成 "字节数 + UTF-8"，见 writeString
+    private static final int FILE_VERSION = 1;
+    // 读取时字符串长度的上限，超出视为文件损坏
+    private static final int MAX_STRING_BYTES = 1024 * 1024;
+
+    // 发表后等待多久再发送，期间的评论合并为一批
+    private static final long BATCH_DELAY_MS = 300;
+    // 每批最多发送的评论条数
+    static final int MAX_BATCH = 20;
+    // 第一次重试前的等待时间，之后每次翻倍，最长 MAX_BACKOFF_MS
+    private static final long DEFAULT_BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 5 * 60_000L;
+    // 连续失败这么多次后放弃
+    static final int MAX_ATTEMPTS = 8;
+
+    private static volatile CommentOutbox sInstance;
+
+    private final CommentSource source;
+    private final File file;
+    // 读写文件和发送请求的单线程执行器
+    private final ScheduledExecutorService ioExecutor;
+    // 回调执行器，默认切回主线程
+    private final Executor callbackExecutor;
+    private final long baseBackoffMs;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // 尚未发表成功的评论，按发表顺序排列，只在锁内读写
+    private final List<Entry> pending = new ArrayList<>();
+    // 同一个进程内生成 localId 的序号
+    private int localSeq;
+    // 已经安排的下一次发送 (只在后台线程中访问)
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * 发件箱中的一条评论及其重试状态。
+     */
+    private static final class Entry {
+        final CommentSource.Post post;
+        int attempts;
+        // 下一次允许发送的时间 (epoch 毫秒)，重启后从 0 开始，立即重试
+        long nextAttemptAt;
+
+        Entry(CommentSource.Post post) {
+            this.post = post;
+        }
+    }
+
+    /**
+     * 发表结果的监听器，回调在 callbackExecutor (默认主线程) 上执行。
+     */
+    public interface Listener {
+        /**
+         * 评论发表成功。
+         * @param post   发件箱中的评论 (乐观显示时使用的 localId)
+         * @param posted 服务端返回的评论，带正式ID和服务端时间
+         */
+        void onPosted(CommentSource.Post post, CommentBean posted);
+
+        /**
+         * 多次重试后依然失败，评论已从发件箱中移除。
+         */
+        void onFailed(CommentSource.Post post);
+    }
+
+    /**
+     * 获取全局唯一的发件箱。首次调用时会在后台加载上次会话未发送完的评论并继续发送，
+     * 发表成功的评论同时写入 {@link CommentRepository} 的缓存。
+     * @param context 上下文
+     * @return 发件箱单例
+     */
+    public static CommentOutbox getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (CommentOutbox.class) {
+                if (sInstance == null) {
+                    // 始终使用 ApplicationContext 的目录，防止持有 Activity 引用
+                    File file = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+                    CommentOutbox outbox = new CommentOutbox(new MockCommentSource(), file,
+                            Executors.newSingleThreadScheduledExecutor(), new Handler(Looper.getMainLooper())::post,
+                            DEFAULT_BASE_BACKOFF_MS);
+                    outbox.addListener(new Listener() {
+                        @Override
+                        public void onPosted(CommentSource.Post post, CommentBean posted) {
+                            CommentRepository.getInstance().addPostedComment(post.videoId, posted);
+                        }
+
+                        @Override
+                        public void onFailed(CommentSource.Post post) {
+                        }
+                    });
+                    sInstance = outbox;
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 供测试使用的构造函数，可以注入数据源、文件、线程模型和退避时间。创建后立即在后台加载文件并发送。
+     * @param source           发表评论的数据源
+     * @param file             发件箱文件
+     * @param ioExecutor       读写文件和发送请求的单线程执行器
+     * @param callbackExecutor 执行回调的执行器
+     * @param baseBackoffMs    第一次重试前的等待时间
+     */
+    @VisibleForTesting
+    public CommentOutbox(CommentSource source, File file, ScheduledExecutorService ioExecutor,
+                         Executor callbackExecutor, long baseBackoffMs) {
+        this.source = source;
+        this.file = file;
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.baseBackoffMs = baseBackoffMs;
+        ioExecutor.execute(() -> {
+            load();
+            flush();
+        });
+    }
+
+    /**
+     * 发表一条评论：放入发件箱后立即返回，落盘和发送都在后台进行。
+     * @param videoId 视频ID
+     * @param content 评论内容
+     * @return 待发表的评论，调用方用它乐观地显示，并在 {@link Listener} 中按 localId 对应
+     */
+    @MainThread
+    public CommentSource.Post enqueue(long videoId, String content) {
+        long now = System.currentTimeMillis();
+        CommentSource.Post post;
+        synchronized (this) {
+            post = new CommentSource.Post("local-" + now + "-" + localSeq++, videoId, content, now);
+            pending.add(new Entry(post));
+        }
+        ioExecutor.execute(() -> {
+            // 先落盘，再安排发送
+            persist();
+            scheduleFlush(BATCH_DELAY_MS);
+        });
+        return post;
+    }
+
+    /**
+     * 某个视频还在发件箱中的评论 (按发表顺序)，打开评论区时和已发表的评论一起显示。
+     * 进程重启后，上次会话的评论在后台加载完成前不会出现在这里。
+     */
+    public synchronized List<CommentSource.Post> getPending(long videoId) {
+        List<CommentSource.Post> result = new ArrayList<>();
+        for (Entry entry : pending) {
+            if (entry.post.videoId == videoId) result.add(entry.post);
+        }
+        return result;
+    }
+
+    /**
+     * @return 发件箱中尚未发表成功的评论条数
+     */
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 安排一次发送。已经安排了更早的发送时不做任何事。只在后台线程中调用。
+     */
+    private void scheduleFlush(long delayMs) {
+        if (scheduledFlush != null) {
+            if (scheduledFlush.getDelay(TimeUnit.MILLISECONDS) <= delayMs) return;
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlush = ioExecutor.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 发送一批已经到期的评论，并按结果更新发件箱。只在后台线程中执行。
+     */
+    private void flush() {
+        scheduledFlush = null;
+        long now = System.currentTimeMillis();
+        List<Entry> batch = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : pending) {
+                if (entry.nextAttemptAt <= now && batch.size() < MAX_BATCH) batch.add(entry);
+            }
+        }
+        if (batch.isEmpty()) {
+            scheduleNext(now);
+            return;
+        }
+
+        List<CommentSource.Post> posts = new ArrayList<>(batch.size());
+        for (Entry entry : batch) posts.add(entry.post);
+        List<CommentBean> result;
+        try {
+            result = source.postComments(posts);
+            if (result.size() != posts.size()) {
+                throw new IOException("expected " + posts.size() + " results, got " + result.size());
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Log.w(TAG, "post failed, " + batch.size() + " comments will be retried", e);
+            onBatchFailed(batch, System.currentTimeMillis());
+            return;
+        }
+
+        synchronized (this) {
+            pending.removeAll(batch);
+        }
+        persist();
+        for (int i = 0; i < posts.size(); i++) {
+            CommentSource.Post post = posts.get(i);
+            CommentBean posted = result.get(i);
+            callbackExecutor.execute(() -> {
+                for (Listener listener : listeners) listener.onPosted(post, posted);
+            });
+        }
+        scheduleNext(System.currentTimeMillis());
+    }
+
+    /**
+     * 整批发送失败：每条评论的重试次数加一并推迟下一次发送，超过次数上限的放弃。
+     */
+    private void onBatchFailed(List<Entry> batch, long now) {
+        List<CommentSource.Post> dropped = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : batch) {
+                entry.attempts++;
+                if (entry.attempts >= MAX_ATTEMPTS) {
+                    pending.remove(entry);
+                    dropped.add(entry.post);
+                } else {
+                    entry.nextAttemptAt = now + backoff(entry.attempts);
+                }
+            }
+        }
+        persist();
+        for (CommentSource.Post post : dropped) {
+            callbackExecutor.execute(() -> {
+                for (Listener listener : listeners) listener.onFailed(post);
+            });
+        }
+        scheduleNext(now);
+    }
+
+    /**
+     * 按发件箱中最早到期的评论安排下一次发送，发件箱为空时不安排。
+     */
+    private void scheduleNext(long now) {
+        long nextAttemptAt = Long.MAX_VALUE;
+        synchronized (this) {
+            for (Entry entry : pending) nextAttemptAt = Math.min(nextAttemptAt, entry.nextAttemptAt);
+        }
+        if (nextAttemptAt != Long.MAX_VALUE) {
+            scheduleFlush(Math.max(0, nextAttemptAt - now));
+        }
+    }
+
+    /**
+     * 第 attempts 次失败后的等待时间：指数增长并封顶，在 [一半, 全部] 之间随机，避免大量客户端同时重试。
+     */
+    private long backoff(int attempts) {
+        long max = Math.min(MAX_BACKOFF_MS, baseBackoffMs << Math.min(attempts - 1, 20));
+        return max / 2 + ThreadLocalRandom.current().nextLong(max / 2 + 1);
+    }
+
+    /**
+     * 把发件箱写入磁盘：先写临时文件并同步到磁盘，再重命名，进程被杀时不会留下写了一半的文件。
+     * 发件箱为空时删除文件。只在后台线程中执行。
+     */
+    private void persist() {
+        List<Entry> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(pending.size());
+            for (Entry entry : pending) {
+                Entry copy = new Entry(entry.post);
+                copy.attempts = entry.attempts;
+                snapshot.add(copy);
+            }
+        }
+        if (snapshot.isEmpty()) {
+            if (file.exists() && !file.delete()) Log.w(TAG, "delete failed: " + file);
+            return;
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(fos));
+            data.writeInt(FILE_MAGIC);
+            data.writeInt(FILE_VERSION);
+            data.writeInt(snapshot.size());
+            for (Entry entry : snapshot) {
+                CommentSource.Post post = entry.post;
+                writeString(data, post.localId);
+                data.writeLong(post.videoId);
+                writeString(data, post.content);
+                data.writeLong(post.createTime);
+                data.writeInt(entry.attempts);
+            }
+            data.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "save failed", e);
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            Log.w(TAG, "rename failed: " + tmp);
+        }
+    }
+
+    /**
+     * 加载上次会话未发送完的评论，放在本次会话新发表的评论之前。文件损坏时丢弃。
+     */
+    private void load() {
+        if (!file.exists()) return;
+        List<Entry> loaded = new ArrayList<>();
+        try (InputStream in = new FileInputStream(file)) {
+            DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            if (data.readInt() != FILE_MAGIC) {
+                throw new IOException("not a comment outbox file");
+            }
+            int version = data.readInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("unknown outbox version " + version);
+            }
+            int count = data.readInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(new CommentSource.Post(readString(data), data.readLong(),
+                        readString(data), data.readLong()));
+                entry.attempts = data.readInt();
+                loaded.add(entry);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "load failed, discarding outbox", e);
+            return;
+        }
+        synchronized (this) {
+            pending.addAll(0, loaded);
+        }
+    }
+
+    /**
+     * 写入 "字节数 + UTF-8"。不使用 writeUTF：它限制编码后不超过 65535 字节，长评论会在落盘时抛出异常。
+     */
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,327 @@
+package com.bytedance.videoapp.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.bytedance.videoapp.model.CommentBean;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 评论数据仓库
+ * <p>
+ * 职责:
+ * 1.  以视频ID为 key 缓存每个视频已经加载的一级评论，在后台线程从 {@link CommentSource} 分页加载；
+ *     回复在展开时通过 {@link #fetchReplies} 按需加载。
+ * 2.  最近浏览过的视频的评论保存在一个按字节计算预算的 LRU 中，超出预算时丢弃最久未访问的视频。
+ * 3.  支持预取：详情页在切换视频时提前加载当前和下一个视频的第一页评论，
+ *     打开评论区时直接从 {@link #getCachedComments} 取到数据，首帧即可显示。
+ * 4.  {@link CommentOutbox} 发表成功的评论插入到对应视频缓存的最前面。
+ * 5.  每页评论和回复从数据源到达时在后台线程通知 {@link PageListener}，调用方可以借此提前测量评论内容，
+ *     包括没有回调的预取，不必等到切回主线程绑定之前。
+ * <p>
+ * 数据源请求不在锁内执行，主线程读取缓存时不会等待正在进行的网络请求。
+ */
+public class CommentRepository {
+
+    // 所有视频的评论缓存共用的内存预算
+    private static final long DEFAULT_BUDGET_BYTES = 1024 * 1024;
+    // 估算内存时每条评论的固定开销 (对象本身和四个字符串的对象头)
+    private static final int COMMENT_OVERHEAD_BYTES = 56 + 4 * 40;
+
+    private static volatile CommentRepository sInstance;
+
+    // 各视频的评论，按访问顺序排列 (最久未访问的在最前面)，只在锁内读写
+    private final LinkedHashMap<Long, CommentThread> threads = new LinkedHashMap<>(16, 0.75f, true);
+    // 各视频的评论总数，绑定时高频读取，单独保存在基本类型的表中
+    private final CommentCounts counts = new CommentCounts();
+    private final CommentSource source;
+    private final long maxBytes;
+    // 执行数据源请求的后台线程，单线程保证同一个视频的分页按顺序加载，不会重复请求
+    private final Executor ioExecutor;
+    // 回调执行器，默认切回主线程
+    private final Executor callbackExecutor;
+    // 当前缓存的估算字节数
+    private long cachedBytes;
+    // 评论页到达的监听器，在后台线程上遍历
+    private final CopyOnWriteArrayList<PageListener> pageListeners = new CopyOnWriteArrayList<>();
+    // 拿到新的评论总数时重置实时推送的增量，为 null 时不关联实时计数
+    private volatile LiveCounters liveCounters;
+
+    /**
+     * 评论页到达的监听器，在后台线程上调用。
+     */
+    public interface PageListener {
+        /**
+         * @param comments 从数据源新加载的一页评论或回复，不要修改
+         */
+        void onPageLoaded(List<CommentBean> comments);
+    }
+
+    /**
+     * 单个视频已经加载的评论。
+     */
+    private static final class CommentThread {
+        final List<CommentBean> comments = new ArrayList<>();
+        int loadedPages;
+        boolean reachedEnd;
+        long bytes;
+    }
+
+    public static CommentRepository getInstance() {
+        if (sInstance == null) {
+            synchronized (CommentRepository.class) {
+                if (sInstance == null) {
+                    sInstance = new CommentRepository(new MockCommentSource(), DEFAULT_BUDGET_BYTES,
+                            Executors.newSingleThreadExecutor(), new Handler(Looper.getMainLooper())::post);
+                    sInstance.liveCounters = LiveCounters.getInstance();
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 供测试使用的构造函数，可以注入数据源、预算和线程模型。
+     * @param source           评论数据源
+     * @param maxBytes         缓存的内存预算 (字节)
+     * @param ioExecutor       执行数据源请求的执行器
+     * @param callbackExecutor 执行回调的执行器
+     */
+    @VisibleForTesting
+    public CommentRepository(CommentSource source, long maxBytes, Executor ioExecutor, Executor callbackExecutor) {
+        this.source = source;
+        this.maxBytes = maxBytes;
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * 关联实时计数 (供测试使用，单例在创建时已经关联)。
+     * @param counters 实时计数，传 null 表示不关联
+     */
+    @VisibleForTesting
+    public void setLiveCounters(@Nullable LiveCounters counters) {
+        this.liveCounters = counters;
+    }
+
+    /**
+     * 添加评论页到达的监听器。仓库是单例，调用方必须在自己销毁时通过 {@link #removePageListener} 移除。
+     */
+    public void addPageListener(PageListener listener) {
+        pageListeners.addIfAbsent(listener);
+    }
+
+    /**
+     * 移除通过 {@link #addPageListener} 添加的监听器，之后到达的评论页不再通知它。
+     */
+    public void removePageListener(PageListener listener) {
+        pageListeners.remove(listener);
+    }
+
+    /**
+     * 异步获取某个视频从 fromIndex 开始的评论。缓存中已有时直接返回，不足时从数据源加载下一页。
+     * <ul>
+     *     <li>fromIndex 为 0：返回已缓存的全部评论 (至少是第一页)，用于打开评论区和预取。</li>
+     *     <li>fromIndex 为调用方已经持有的条数：返回之后新加载的一页，用于上拉加载更多。</li>
+     * </ul>
+     * 缓存在两次调用之间被淘汰也没有关系，会重新加载到 fromIndex 之后。
+     * @param videoId   视频ID
+     * @param fromIndex 起始位置
+     * @param callback  回调，在 callbackExecutor (默认主线程) 上执行；没有更多评论时返回空列表
+     */
+    public void fetchComments(long videoId, int fromIndex, @Nullable VideoRepository.DataCallback<List<CommentBean>> callback) {
+        execute(() -> getOrLoad(videoId, fromIndex), callback);
+    }
+
+    /**
+     * 异步加载某条一级评论从 fromIndex 开始的一页回复。
+     * 回复不进入 LRU 缓存：只有展开时才会请求，由评论区在显示该视频期间自己保存，收起后再展开不会重复请求。
+     * @param videoId   视频ID
+     * @param rootId    一级评论ID
+     * @param fromIndex 起始位置 (调用方已经持有的回复条数)
+     * @param callback  回调，在 callbackExecutor (默认主线程) 上执行；没有更多回复时返回空列表
+     */
+    public void fetchReplies(long videoId, String rootId, int fromIndex,
+                             VideoRepository.DataCallback<List<CommentBean>> callback) {
+        execute(() -> {
+            int pageSize = source.pageSize();
+            List<CommentBean> replies = source.loadReplies(videoId, rootId, fromIndex / pageSize).comments;
+            notifyPageLoaded(replies);
+            int skip = Math.min(fromIndex % pageSize, replies.size());
+            return new ArrayList<>(replies.subList(skip, replies.size()));
+        }, callback);
+    }
+
+    /**
+     * 在后台线程执行加载，并把结果或错误切换到 callbackExecutor 上回调。
+     */
+    private void execute(Callable<List<CommentBean>> loader,
+                         @Nullable VideoRepository.DataCallback<List<CommentBean>> callback) {
+        ioExecutor.execute(() -> {
+            List<CommentBean> result;
+            try {
+                result = loader.call();
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                String msg = e.getMessage() != null ? e.getMessage() : e.toString();
+                if (callback != null) {
+                    callbackExecutor.execute(() -> callback.onError(msg));
+                }
+                return;
+            }
+            if (callback != null) {
+                callbackExecutor.execute(() -> callback.onSuccess(result));
+            }
+        });
+    }
+
+    /**
+     * 预取某个视频的第一页评论 (已缓存时什么也不做)。
+     */
+    public void prefetch(long videoId) {
+        fetchComments(videoId, 0, null);
+    }
+
+    /**
+     * 同步读取某个视频已缓存的评论，可以在主线程调用。
+     * @return 评论列表的副本；尚未加载过 (或已被淘汰) 时返回 null
+     */
+    @Nullable
+    public synchronized List<CommentBean> getCachedComments(long videoId) {
+        CommentThread thread = threads.get(videoId);
+        if (thread == null || thread.loadedPages == 0) return null;
+        return new ArrayList<>(thread.comments);
+    }
+
+    /**
+     * 绑定视频页时调用：不获取仓库锁、不调整 LRU 顺序、不装箱。
+     * @return 服务端给出的评论总数；尚未加载过时返回 -1 (评论列表被淘汰后依然返回最近一次的值)
+     */
+    public long getCommentCount(long videoId) {
+        return counts.get(videoId);
+    }
+
+    /**
+     * @return 该视频是否可能还有更多评论 (尚未加载过时返回 true)
+     */
+    public synchronized boolean hasMore(long videoId) {
+        CommentThread thread = threads.get(videoId);
+        return thread == null || !thread.reachedEnd;
+    }
+
+    /**
+     * 把刚发表成功的评论放到已缓存评论的最前面，已知的评论总数加一。该视频的评论没有缓存时不插入，
+     * 之后从服务端重新加载时自然包含这条评论。
+     * @param videoId 视频ID
+     * @param posted  服务端返回的评论
+     */
+    public synchronized void addPostedComment(long videoId, CommentBean posted) {
+        counts.increment(videoId);
+        CommentThread thread = threads.get(videoId);
+        if (thread == null || thread.loadedPages == 0) return;
+        thread.comments.add(0, posted);
+        long bytes = estimateBytes(posted);
+        thread.bytes += bytes;
+        cachedBytes += bytes;
+        trimToBudget();
+    }
+
+    /**
+     * @return 当前缓存的估算字节数
+     */
+    public synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * 在后台线程中获取或加载评论。数据源请求在锁外执行，加载完成后再加锁入库。
+     */
+    private List<CommentBean> getOrLoad(long videoId, int fromIndex) throws Exception {
+        while (true) {
+            int nextPage;
+            synchronized (this) {
+                CommentThread thread = threads.get(videoId);
+                if (thread != null && (thread.reachedEnd || thread.comments.size() > fromIndex)) {
+                    int start = Math.min(fromIndex, thread.comments.size());
+                    return new ArrayList<>(thread.comments.subList(start, thread.comments.size()));
+                }
+                nextPage = thread != null ? thread.loadedPages : 0;
+            }
+
+            CommentSource.Page page = source.loadPage(videoId, nextPage);
+            notifyPageLoaded(page.comments);
+
+            synchronized (this) {
+                CommentThread thread = threads.get(videoId);
+                if (thread == null) {
+                    // 加载期间被淘汰，从第一页重新开始
+                    if (nextPage != 0) continue;
+                    thread = new CommentThread();
+                    threads.put(videoId, thread);
+                }
+                if (thread.loadedPages != nextPage) continue;
+                thread.loadedPages++;
+                counts.put(videoId, page.totalCount);
+                // 新的总数已经包含此前推送的评论
+                LiveCounters counters = liveCounters;
+                if (counters != null) counters.rebaseComments(videoId);
+                if (page.comments.isEmpty() || page.comments.size() < source.pageSize()) {
+                    thread.reachedEnd = true;
+                }
+                long bytes = 0;
+                for (CommentBean bean : page.comments) {
+                    bytes += estimateBytes(bean);
+                }
+                thread.comments.addAll(page.comments);
+                thread.bytes += bytes;
+                cachedBytes += bytes;
+                trimToBudget();
+            }
+        }
+    }
+
+    private void notifyPageLoaded(List<CommentBean> comments) {
+        if (comments.isEmpty()) return;
+        for (PageListener listener : pageListeners) {
+            listener.onPageLoaded(comments);
+        }
+    }
+
+    /**
+     * 超出预算时按访问顺序丢弃最久未访问的视频。刚加载的视频位于最后，至少保留它自己。
+     */
+    private void trimToBudget() {
+        Iterator<Map.Entry<Long, CommentThread>> it = threads.entrySet().iterator();
+        while (cachedBytes > maxBytes && threads.size() > 1 && it.hasNext()) {
+            CommentThread eldest = it.next().getValue();
+            cachedBytes -= eldest.bytes;
+            it.remove();
+        }
+    }
+
+    /**
+     * 估算一条评论占用的内存 (字节)，字符按 UTF-16 计算。
+     */
+    private static long estimateBytes(CommentBean bean) {
+        return COMMENT_OVERHEAD_BYTES + 2L * (length(bean.id) + length(bean.content) + length(bean.authorName)
+                + length(bean.parentId));
+    }
+
+    private static int length(String s) {
+        return s != null ? s.length() : 0;
+    }
+}
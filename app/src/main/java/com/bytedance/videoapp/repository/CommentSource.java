@@ -0,0 +1,83 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.model.CommentBean;
+
+import java.util.List;
+
+/**
+ * 评论数据源接口
+ * <p>
+ * 职责:
+ * 1.  屏蔽评论的具体来源 (本地模拟、真实后端)，{@link CommentRepository} 只依赖这个接口。
+ * 2.  按视频分页返回一级评论，按一级评论分页返回回复，缓存和分页进度都由 Repository 负责。
+ * 3.  批量发表评论，由 {@link CommentOutbox} 在后台调用。
+ * <p>
+ * 实现类的方法总是在 Repository 的后台线程中被调用，可以直接执行阻塞操作。
+ */
+public interface CommentSource {
+
+    /**
+     * @return 每一页的评论条数
+     */
+    int pageSize();
+
+    /**
+     * 加载某个视频的一页评论。
+     * @param videoId   视频ID
+     * @param pageIndex 页码 (从0开始，严格递增)
+     * @return 该页的评论和评论总数；评论为空表示已经没有更多数据
+     * @throws Exception 请求失败，错误信息会通过 {@link VideoRepository.DataCallback#onError} 传给调用方
+     */
+    Page loadPage(long videoId, int pageIndex) throws Exception;
+
+    /**
+     * 加载某条一级评论的一页回复 (每页同样是 {@link #pageSize()} 条)。
+     * @param videoId   视频ID
+     * @param rootId    一级评论ID
+     * @param pageIndex 页码 (从0开始)
+     * @return 该页的回复和回复总数；回复为空表示已经没有更多数据
+     * @throws Exception 请求失败
+     */
+    Page loadReplies(long videoId, String rootId, int pageIndex) throws Exception;
+
+    /**
+     * 批量发表评论。同一个 {@link Post#localId} 可能因为超时重试被发送多次，服务端必须据此去重，
+     * 重复发送时返回第一次发表的结果。
+     * @param posts 待发表的评论
+     * @return 服务端发表后的评论 (带正式ID和服务端时间)，与 posts 一一对应
+     * @throws Exception 请求失败，整批评论稍后重试
+     */
+    List<CommentBean> postComments(List<Post> posts) throws Exception;
+
+    /**
+     * 一页评论，附带服务端给出的该视频评论总数。
+     */
+    final class Page {
+        public final List<CommentBean> comments;
+        public final long totalCount;
+
+        public Page(List<CommentBean> comments, long totalCount) {
+            this.comments = comments;
+            this.totalCount = totalCount;
+        }
+    }
+
+    /**
+     * 一条待发表的评论。
+     */
+    final class Post {
+        // 客户端生成的ID，同时作为服务端去重的幂等键
+        public final String localId;
+        public final long videoId;
+        public final String content;
+        // 客户端发表时间 (epoch 毫秒)，发表成功后以服务端时间为准
+        public final long createTime;
+
+        public Post(String localId, long videoId, String content, long createTime) {
+            this.localId = localId;
+            this.videoId = videoId;
+            this.content = content;
+            this.createTime = createTime;
+        }
+    }
+}
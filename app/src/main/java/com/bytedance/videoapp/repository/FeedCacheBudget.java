@@ -0,0 +1,106 @@
+package com.bytedance.videoapp.repository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 多个 Feed 缓存共用的内存预算 (纯 Java，不依赖 Android API)
+ * <p>
+ * 每个频道的 {@link VideoRepository} 都登记在这里。缓存增长后调用 {@link #onCacheChanged}，
+ * 如果所有缓存的估算总量超过预算，就按最近使用顺序从最久未使用的缓存开始整体淘汰，直到回到预算以内：
+ * 1.  最近使用顺序只由 {@link #touch} 决定 (切换到某个频道时调用)，后台加载不会改变顺序。
+ * 2.  最近一次 touch 的缓存 (当前显示的频道) 永远不会被淘汰，即使它自己就超过了预算。
+ * 3.  被淘汰的缓存从登记中移除，下次增长时重新登记。
+ * <p>
+ * 淘汰回调 {@link Cache#evictCache()} 在释放本对象的锁之后调用，缓存在持有自己的锁时不应调用本类。
+ */
+public final class FeedCacheBudget {
+
+    /**
+     * 受预算管理的缓存
+     */
+    public interface Cache {
+        /** 估算当前占用的内存 (字节) */
+        long cacheBytes();
+
+        /** 丢弃缓存的全部数据 */
+        void evictCache();
+    }
+
+    private final long maxBytes;
+    // 按最近使用顺序排列，最后一个是最新的
+    private final LinkedHashSet<Cache> caches = new LinkedHashSet<>();
+    private Cache mostRecent;
+
+    public FeedCacheBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 标记缓存为最近使用 (例如切换到了它所在的频道)，并在需要时淘汰其他缓存。
+     */
+    public void touch(Cache cache) {
+        List<Cache> victims;
+        synchronized (this) {
+            caches.remove(cache);
+            caches.add(cache);
+            mostRecent = cache;
+            victims = collectVictims();
+        }
+        evict(victims);
+    }
+
+    /**
+     * 缓存内容发生变化后调用：首次出现的缓存排在最近使用顺序的末尾，然后检查预算。
+     */
+    public void onCacheChanged(Cache cache) {
+        List<Cache> victims;
+        synchronized (this) {
+            caches.add(cache);
+            if (mostRecent == null) {
+                mostRecent = cache;
+            }
+            victims = collectVictims();
+        }
+        evict(victims);
+    }
+
+    /**
+     * 当前登记的所有缓存的估算总量 (字节)
+     */
+    public synchronized long totalBytes() {
+        long total = 0;
+        for (Cache cache : caches) {
+            total += cache.cacheBytes();
+        }
+        return total;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    private List<Cache> collectVictims() {
+        long total = totalBytes();
+        List<Cache> victims = null;
+        Iterator<Cache> it = caches.iterator();
+        while (total > maxBytes && it.hasNext()) {
+            Cache cache = it.next();
+            if (cache == mostRecent) continue;
+            total -= cache.cacheBytes();
+            it.remove();
+            if (victims == null) victims = new ArrayList<>(2);
+            victims.add(cache);
+        }
+        return victims;
+    }
+
+    private static void evict(List<Cache> victims) {
+        if (victims == null) return;
+        for (Cache cache : victims) {
+            cache.evictCache();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.model.VideoBean;
+
+import java.util.List;
+
+/**
+ * Feed 数据源接口
+ * <p>
+ * 职责:
+ * 1.  屏蔽数据的具体来源 (本地模拟、压测生成器、真实后端)，{@link VideoRepository} 只依赖这个接口。
+ * 2.  按批次 (页) 返回原始数据，缓存、去重和分页都由 Repository 负责。
+ * <p>
+ * 实现类的方法总是在 Repository 的后台线程中被调用，可以直接执行阻塞操作。
+ */
+public interface FeedSource {
+
+    /**
+     * @return 每一批 (页) 的条目数，Repository 按此大小分页
+     */
+    int pageSize();
+
+    /**
+     * 加载一批数据。
+     * @param batchIndex 批次序号 (从0开始，严格递增)
+     * @return 该批次的数据；返回空列表表示上游已经没有更多数据
+     * @throws Exception 请求失败，错误信息会通过 {@link VideoRepository.DataCallback#onError} 传给调用方
+     */
+    List<VideoBean> loadBatch(int batchIndex) throws Exception;
+}
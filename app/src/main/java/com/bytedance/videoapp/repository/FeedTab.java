@@ -0,0 +1,53 @@
+package com.bytedance.videoapp.repository;
+
+/**
+ * 首页顶部的 Feed 频道
+ * <p>
+ * 每个频道对应一条独立的数据管线：各自的数据源、{@link VideoRepository} 实例和 ViewModel 状态，
+ * 切换频道时不会互相覆盖缓存。顺序与 TabLayout 中的顺序一致。
+ */
+public enum FeedTab {
+
+    MALL("商城", 2),
+    FOLLOW("关注", 1),
+    RECOMMEND("推荐", 0);
+
+    /** Tab 上显示的标题 */
+    public final String title;
+    // 模拟数据源的频道编号
+    private final int channel;
+
+    FeedTab(String title, int channel) {
+        this.title = title;
+        this.channel = channel;
+    }
+
+    /**
+     * 创建该频道的数据源。目前三个频道都使用模拟数据，按频道错开内容和视频ID。
+     */
+    FeedSource createSource() {
+        return new MockFeedSource(channel);
+    }
+
+    /**
+     * 根据 Tab 标题查找频道，找不到时返回 {@link #RECOMMEND}。
+     */
+    public static FeedTab fromTitle(CharSequence title) {
+        for (FeedTab tab : values()) {
+            if (tab.title.contentEquals(title)) return tab;
+        }
+        return RECOMMEND;
+    }
+
+    /**
+     * 根据 {@link #name()} 查找频道 (用于 Intent 传参)，为 null 或无法识别时返回 {@link #RECOMMEND}。
+     */
+    public static FeedTab fromName(String name) {
+        if (name != null) {
+            for (FeedTab tab : values()) {
+                if (tab.name().equals(name)) return tab;
+            }
+        }
+        return RECOMMEND;
+    }
+}
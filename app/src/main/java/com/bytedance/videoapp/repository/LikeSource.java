@@ -0,0 +1,21 @@
+package com.bytedance.videoapp.repository;
+
+import java.util.Map;
+
+/**
+ * 点赞同步接口
+ * <p>
+ * 职责:
+ * 屏蔽点赞状态的具体写入方式 (本地模拟、真实后端)，{@link LikeStore} 只依赖这个接口。
+ * <p>
+ * 实现类的方法总是在 LikeStore 的后台线程中被调用，可以直接执行阻塞操作。
+ */
+public interface LikeSource {
+
+    /**
+     * 批量写入点赞状态。写入的是最终状态而不是"点赞/取消"操作，重复写入同一个状态没有副作用，失败后可以直接重试。
+     * @param likes key 为视频ID，value 为是否点赞
+     * @throws Exception 请求失败，整批稍后重试
+     */
+    void syncLikes(Map<Long, Boolean> likes) throws Exception;
+}
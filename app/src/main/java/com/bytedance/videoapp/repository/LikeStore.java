@@ -0,0 +1,368 @@
+package com.bytedance.videoapp.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 点赞状态存储
+ * <p>
+ * 职责:
+ * 1.  以视频ID为键保存当前用户的点赞状态。点赞/取消立即生效 (乐观更新)，界面直接从这里读取。
+ * 2.  每个视频同时记录"本地状态"和"服务端已确认的状态"，两者不同时才需要同步：
+ *     连续点击多次只会留下最终状态，点回原状态时什么也不发送。
+ * 3.  第一次变化后等待一个同步窗口 ({@link #DEFAULT_FLUSH_INTERVAL_MS})，把窗口内所有视频的最终状态
+ *     合并为一次请求发送给 {@link LikeSource}；每个窗口内每个视频最多写一次。
+ *     应用进入后台时调用 {@link #flushNow()} 立即同步。
+ * 4.  状态在每次同步前后写入应用私有目录，进程被杀后下次启动继续同步尚未确认的状态。
+ * <p>
+ * 状态保存在以视频ID为键的开放寻址表 (基本类型数组) 中，绑定列表项时查询不装箱、不分配对象。
+ * 读写文件和发送请求都在同一个后台线程中执行。
+ */
+public class LikeStore {
+
+    private static final String TAG = "LikeStore";
+    private static final String FILE_NAME = "likes.bin";
+    private static final int FILE_MAGIC = 0x4C494B45; // "LIKE"
+    private static final int FILE_VERSION = 1;
+
+    // 同步窗口：第一次变化后等待这么久再发送
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 2000;
+    // 同步失败后的最长等待时间
+    private static final long MAX_BACKOFF_MS = 60_000L;
+
+    // 表中每个槽位的状态位
+    private static final byte OCCUPIED = 1;
+    private static final byte LIKED = 2;         // 本地状态
+    private static final byte SYNCED_LIKED = 4;  // 服务端已确认的状态
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static volatile LikeStore sInstance;
+
+    private final LikeSource source;
+    private final File file;
+    // 读写文件和发送请求的单线程执行器
+    private final ScheduledExecutorService ioExecutor;
+    private final long flushIntervalMs;
+    // 是否已经安排了一次同步
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // 连续失败次数和上一次同步的时间 (只在后台线程中访问)
+    private int failures;
+    private long lastFlushAt = Long.MIN_VALUE / 2;
+
+    // 开放寻址 (线性探测) 表，只在锁内读写；槽位只增不删，点过赞的视频数量有限
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * 获取全局唯一的点赞存储。首次调用时会在后台加载上次会话的状态，并同步尚未确认的部分。
+     * @param context 上下文
+     * @return 点赞存储单例
+     */
+    public static LikeStore getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (LikeStore.class) {
+                if (sInstance == null) {
+                    // 始终使用 ApplicationContext 的目录，防止持有 Activity 引用
+                    File file = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+                    sInstance = new LikeStore(new MockLikeSource(), file,
+                            Executors.newSingleThreadScheduledExecutor(), DEFAULT_FLUSH_INTERVAL_MS);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 供测试使用的构造函数，可以注入同步接口、文件、线程模型和同步窗口。创建后立即在后台加载文件并同步。
+     * @param source          点赞同步接口
+     * @param file            状态文件
+     * @param ioExecutor      读写文件和发送请求的单线程执行器
+     * @param flushIntervalMs 同步窗口
+     */
+    @VisibleForTesting
+    public LikeStore(LikeSource source, File file, ScheduledExecutorService ioExecutor, long flushIntervalMs) {
+        this.source = source;
+        this.file = file;
+        this.ioExecutor = ioExecutor;
+        this.flushIntervalMs = flushIntervalMs;
+        ioExecutor.execute(() -> {
+            load();
+            flush(true);
+        });
+    }
+
+    /**
+     * @return 当前用户是否点赞了该视频 (本地状态)
+     */
+    public synchronized boolean isLiked(long videoId) {
+        int index = indexOf(videoId);
+        return index >= 0 && (flags[index] & LIKED) != 0;
+    }
+
+    /**
+     * 展示用的点赞数：Feed 下发的点赞数已经包含服务端确认过的点赞，只加上本地尚未同步的差值
+     * (本地点赞、服务端未点赞时加一，反之减一)。
+     * @param videoId   视频ID
+     * @param baseCount Feed 下发的点赞数
+     */
+    public synchronized long likeCount(long videoId, long baseCount) {
+        int index = indexOf(videoId);
+        if (index < 0) return baseCount;
+        byte f = flags[index];
+        return baseCount + ((f & LIKED) != 0 ? 1 : 0) - ((f & SYNCED_LIKED) != 0 ? 1 : 0);
+    }
+
+    /**
+     * 切换点赞状态 (点赞按钮)。
+     * @return 切换后的状态
+     */
+    @MainThread
+    public boolean toggle(long videoId) {
+        boolean liked = !isLiked(videoId);
+        set(videoId, liked);
+        return liked;
+    }
+
+    /**
+     * 点赞 (双击)，已经点赞时什么也不做。
+     * @return 状态是否发生了变化
+     */
+    @MainThread
+    public boolean like(long videoId) {
+        if (isLiked(videoId)) return false;
+        set(videoId, true);
+        return true;
+    }
+
+    /**
+     * 立即在后台同步所有尚未确认的状态，适合在应用进入后台 (onStop) 时调用。
+     */
+    public void flushNow() {
+        flushScheduled.set(true);
+        ioExecutor.execute(() -> flush(true));
+    }
+
+    /**
+     * @return 本地状态与服务端已确认状态不同、等待同步的视频数量
+     */
+    public synchronized int pendingCount() {
+        int count = 0;
+        for (byte f : flags) {
+            if (isDirty(f)) count++;
+        }
+        return count;
+    }
+
+    private void set(long videoId, boolean liked) {
+        synchronized (this) {
+            int index = slotFor(videoId);
+            flags[index] = (byte) (liked ? flags[index] | LIKED : flags[index] & ~LIKED);
+        }
+        // 同步窗口从第一次变化开始计算，之后的变化并入同一次同步
+        scheduleFlush(flushIntervalMs);
+    }
+
+    private void scheduleFlush(long delayMs) {
+        if (flushScheduled.compareAndSet(false, true)) {
+            ioExecutor.schedule(() -> flush(false), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 把所有本地状态与服务端不同的视频合并为一次请求发送。只在后台线程中执行。
+     * @param force 立即同步；否则与上一次同步的间隔不足一个窗口时推迟到窗口结束
+     */
+    private void flush(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastFlushAt < flushIntervalMs) {
+            ioExecutor.schedule(() -> flush(false), lastFlushAt + flushIntervalMs - now, TimeUnit.MILLISECONDS);
+            return;
+        }
+        flushScheduled.set(false);
+        Map<Long, Boolean> changes = new LinkedHashMap<>();
+        synchronized (this) {
+            for (int i = 0; i < flags.length; i++) {
+                if (isDirty(flags[i])) changes.put(keys[i], (flags[i] & LIKED) != 0);
+            }
+        }
+        // 先落盘再发送，发送期间进程被杀也不会丢失
+        persist();
+        if (changes.isEmpty()) return;
+        lastFlushAt = now;
+
+        try {
+            source.syncLikes(changes);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            failures++;
+            long backoff = Math.min(MAX_BACKOFF_MS, flushIntervalMs << Math.min(failures, 20));
+            Log.w(TAG, "sync failed, retrying " + changes.size() + " likes in " + backoff + " ms", e);
+            scheduleFlush(backoff);
+            return;
+        }
+        failures = 0;
+
+        boolean dirty = false;
+        synchronized (this) {
+            for (Map.Entry<Long, Boolean> change : changes.entrySet()) {
+                // 记录发送出去的状态，发送期间又被切换的视频会在下一个窗口同步
+                int index = indexOf(change.getKey());
+                flags[index] = (byte) (change.getValue() ? flags[index] | SYNCED_LIKED : flags[index] & ~SYNCED_LIKED);
+                dirty |= isDirty(flags[index]);
+            }
+        }
+        persist();
+        if (dirty) scheduleFlush(flushIntervalMs);
+    }
+
+    private static boolean isDirty(byte f) {
+        return (f & OCCUPIED) != 0 && ((f & LIKED) != 0) != ((f & SYNCED_LIKED) != 0);
+    }
+
+    /**
+     * 查找视频所在的槽位。
+     * @return 槽位下标；不存在时返回 -(插入位置 + 1)
+     */
+    private int indexOf(long videoId) {
+        int mask = keys.length - 1;
+        int index = (int) mix64(videoId) & mask;
+        while (flags[index] != 0) {
+            if (keys[index] == videoId) return index;
+            index = (index + 1) & mask;
+        }
+        return -(index + 1);
+    }
+
+    /**
+     * 查找或插入视频所在的槽位，装载因子超过 1/2 时扩容。
+     */
+    private int slotFor(long videoId) {
+        int index = indexOf(videoId);
+        if (index >= 0) return index;
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+            index = indexOf(videoId);
+        }
+        index = -(index + 1);
+        keys[index] = videoId;
+        flags[index] = OCCUPIED;
+        size++;
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        byte[] oldFlags = flags;
+        keys = new long[capacity];
+        flags = new byte[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldFlags[i] == 0) continue;
+            int index = -(indexOf(oldKeys[i]) + 1);
+            keys[index] = oldKeys[i];
+            flags[index] = oldFlags[i];
+        }
+    }
+
+    /**
+     * 把点过赞或等待同步的视频写入磁盘 (先写临时文件再重命名)。只在后台线程中执行。
+     */
+    private void persist() {
+        long[] savedKeys;
+        byte[] savedFlags;
+        int count = 0;
+        synchronized (this) {
+            savedKeys = new long[size];
+            savedFlags = new byte[size];
+            for (int i = 0; i < flags.length; i++) {
+                if ((flags[i] & (LIKED | SYNCED_LIKED)) == 0) continue; // 未点赞且已同步，与默认状态相同
+                savedKeys[count] = keys[i];
+                savedFlags[count] = flags[i];
+                count++;
+            }
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(fos));
+            data.writeInt(FILE_MAGIC);
+            data.writeInt(FILE_VERSION);
+            data.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                data.writeLong(savedKeys[i]);
+                data.writeByte(savedFlags[i]);
+            }
+            data.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            Log.w(TAG, "save failed", e);
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            Log.w(TAG, "rename failed: " + tmp);
+        }
+    }
+
+    /**
+     * 加载上次会话的状态。加载完成前已经在本次会话中改动过的视频以本次为准。文件损坏时丢弃。
+     */
+    private void load() {
+        if (!file.exists()) return;
+        try (InputStream in = new FileInputStream(file)) {
+            DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            if (data.readInt() != FILE_MAGIC || data.readInt() != FILE_VERSION) {
+                throw new IOException("not a like store file");
+            }
+            int count = data.readInt();
+            long[] loadedKeys = new long[count];
+            byte[] loadedFlags = new byte[count];
+            for (int i = 0; i < count; i++) {
+                loadedKeys[i] = data.readLong();
+                loadedFlags[i] = data.readByte();
+            }
+            synchronized (this) {
+                for (int i = 0; i < count; i++) {
+                    if (indexOf(loadedKeys[i]) >= 0) continue;
+                    int index = slotFor(loadedKeys[i]);
+                    flags[index] = (byte) (loadedFlags[i] | OCCUPIED);
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "load failed, starting empty", e);
+        }
+    }
+
+    /**
+     * 64 位混淆函数 (MurmurHash3 fmix64)，让连续的ID在表中均匀分布。
+     */
+    private static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bytedance.videoapp.repository;
+
+/**
+ * 实时计数推送接口
+ * <p>
+ * 职责:
+ * 屏蔽点赞数/评论数实时推送的具体来源 (本地模拟、SSE 长连接)，{@link LiveCounters} 只依赖这个接口。
+ * <p>
+ * 推送的是增量而不是总数：界面显示的数字 = 列表数据中的基础值 + 本次会话收到的增量之和。
+ * {@link #subscribe} 和 {@link #close} 总是在 LiveCounters 的后台线程中调用；
+ * 回调可以在任意线程、以任意频率触发，LiveCounters 负责合并后按帧分发。
+ */
+public interface LiveCounterSource {
+
+    /**
+     * 计数增量回调
+     */
+    interface Callback {
+        /**
+         * @param videoId      视频ID
+         * @param likeDelta    点赞数增量
+         * @param commentDelta 评论数增量
+         */
+        void onDelta(long videoId, long likeDelta, long commentDelta);
+    }
+
+    /**
+     * 替换当前订阅的视频集合。传入空数组表示不再订阅任何视频。
+     * @param videoIds 需要推送计数的视频ID (调用方不再持有该数组)
+     * @param callback 计数增量回调
+     */
+    void subscribe(long[] videoIds, Callback callback);
+
+    /**
+     * 断开推送，释放线程和连接。
+     */
+    void close();
+}
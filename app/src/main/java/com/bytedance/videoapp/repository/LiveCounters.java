@@ -0,0 +1,325 @@
+package com.bytedance.videoapp.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 实时点赞数/评论数
+ * <p>
+ * 职责:
+ * 1.  按引用计数管理订阅：列表绑定某个视频时 {@link #retain}，回收时 {@link #release}，
+ *     只有屏幕上和即将滑入屏幕的视频会被订阅。订阅集合的变化经过短暂防抖后在后台线程交给 {@link LiveCounterSource}。
+ * 2.  推送线程收到的每个增量只在锁内累加到对应视频的计数上并标记为"已变化"，不创建对象、不切换线程。
+ * 3.  有变化时请求下一帧，在帧回调中把这一帧内所有变化的视频ID一次性分发给 {@link Listener}；
+ *     同一个视频在一帧内收到再多次推送，界面也只更新一次。
+ * 4.  计数在本次会话内保留，视频滑出后再滑回来依然显示累计后的数字。
+ * 5.  基础值重新加载时 (刷新 Feed 拿到新的点赞数、评论仓库拿到新的评论总数) 调用 {@link #rebaseLikes} /
+ *     {@link #rebaseComments} 记下当时的累计值，新的基础值已经包含之前的增量，不会重复计算。
+ * <p>
+ * 界面显示的数字 = 最近一次加载的基础值 + {@link #likeDelta} / {@link #commentDelta} (基础值加载之后收到的增量)。
+ * 计数保存在以视频ID为键的开放寻址表 (基本类型数组) 中，绑定时查询不装箱、不分配对象。
+ */
+public class LiveCounters {
+
+    /**
+     * 计数变化回调，在主线程中每帧最多调用一次。
+     */
+    public interface Listener {
+        /**
+         * @param videoIds 这一帧内计数发生变化的视频ID，数组会被复用，只在回调内有效
+         * @param count    有效元素个数
+         */
+        void onCountersChanged(long[] videoIds, int count);
+    }
+
+    // 订阅集合变化后等待这么久再通知推送源，快速滑动时合并为一次
+    private static final long DEFAULT_SUBSCRIBE_DELAY_MS = 250;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static volatile LiveCounters sInstance;
+
+    private final LiveCounterSource source;
+    // 通知推送源的单线程执行器
+    private final ScheduledExecutorService ioExecutor;
+    // 在下一帧 (主线程) 执行任务的执行器
+    private final Executor frameExecutor;
+    private final long subscribeDelayMs;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // 回调和任务只创建一次，推送和分发过程不分配对象
+    private final LiveCounterSource.Callback deltaCallback = this::onDelta;
+    private final Runnable frameTask = this::dispatchFrame;
+    private final Runnable subscribeTask = this::updateSubscription;
+    private final AtomicBoolean subscribeScheduled = new AtomicBoolean();
+    // 上一次交给推送源的订阅集合 (只在后台线程中访问)
+    private long[] subscribed = new long[0];
+
+    // 以下字段只在锁内读写。槽位按出现顺序追加、不删除；表中保存 "槽位下标 + 1"，0 表示空
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] likeDeltas = new long[INITIAL_CAPACITY];
+    private long[] commentDeltas = new long[INITIAL_CAPACITY];
+    // 最近一次加载基础值时的累计值
+    private long[] likeBases = new long[INITIAL_CAPACITY];
+    private long[] commentBases = new long[INITIAL_CAPACITY];
+    private int[] refCounts = new int[INITIAL_CAPACITY];
+    private boolean[] dirty = new boolean[INITIAL_CAPACITY];
+    private int slotCount;
+    // 等待下一帧分发的视频ID
+    private long[] pendingIds = new long[INITIAL_CAPACITY];
+    private int pendingCount;
+    private boolean frameRequested;
+
+    // 分发时使用的数组，只在主线程中访问
+    private long[] frameIds = new long[INITIAL_CAPACITY];
+
+    /**
+     * 获取全局唯一的实时计数实例。
+     * @return 实时计数单例
+     */
+    public static LiveCounters getInstance() {
+        if (sInstance == null) {
+            synchronized (LiveCounters.class) {
+                if (sInstance == null) {
+                    sInstance = new LiveCounters(new MockLiveCounterSource(),
+                            Executors.newSingleThreadScheduledExecutor(), choreographerExecutor(),
+                            DEFAULT_SUBSCRIBE_DELAY_MS);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 供测试使用的构造函数，可以注入推送源和线程模型。
+     * @param source           实时计数推送源
+     * @param ioExecutor       通知推送源的单线程执行器
+     * @param frameExecutor    在下一帧执行分发的执行器
+     * @param subscribeDelayMs 订阅集合变化后的防抖时间
+     */
+    @VisibleForTesting
+    public LiveCounters(LiveCounterSource source, ScheduledExecutorService ioExecutor,
+                        Executor frameExecutor, long subscribeDelayMs) {
+        this.source = source;
+        this.ioExecutor = ioExecutor;
+        this.frameExecutor = frameExecutor;
+        this.subscribeDelayMs = subscribeDelayMs;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 开始 (或继续) 订阅某个视频的实时计数。与 {@link #release} 成对调用。
+     * @param videoId 视频ID
+     */
+    @MainThread
+    public void retain(long videoId) {
+        boolean changed;
+        synchronized (this) {
+            int slot = slotOf(videoId);
+            if (slot < 0) slot = addSlot(videoId);
+            changed = refCounts[slot]++ == 0;
+        }
+        if (changed) scheduleSubscription();
+    }
+
+    /**
+     * 释放一次订阅，引用计数归零后停止推送该视频 (已累计的计数保留)。
+     * @param videoId 视频ID
+     */
+    @MainThread
+    public void release(long videoId) {
+        boolean changed;
+        synchronized (this) {
+            int slot = slotOf(videoId);
+            if (slot < 0 || refCounts[slot] == 0) return;
+            changed = --refCounts[slot] == 0;
+        }
+        if (changed) scheduleSubscription();
+    }
+
+    /**
+     * @return 最近一次加载点赞数基础值之后收到的点赞数增量
+     */
+    public synchronized long likeDelta(long videoId) {
+        int slot = slotOf(videoId);
+        return slot >= 0 ? likeDeltas[slot] - likeBases[slot] : 0;
+    }
+
+    /**
+     * @return 最近一次加载评论总数之后收到的评论数增量
+     */
+    public synchronized long commentDelta(long videoId) {
+        int slot = slotOf(videoId);
+        return slot >= 0 ? commentDeltas[slot] - commentBases[slot] : 0;
+    }
+
+    /**
+     * 从服务端拿到了某个视频新的点赞数 (已经包含此前推送的增量)，之后只累加从现在起收到的增量。
+     * @param videoId 视频ID
+     */
+    public synchronized void rebaseLikes(long videoId) {
+        int slot = slotOf(videoId);
+        if (slot >= 0) likeBases[slot] = likeDeltas[slot];
+    }
+
+    /**
+     * 从服务端拿到了某个视频新的评论总数 (已经包含此前推送的增量)，之后只累加从现在起收到的增量。
+     * @param videoId 视频ID
+     */
+    public synchronized void rebaseComments(long videoId) {
+        int slot = slotOf(videoId);
+        if (slot >= 0) commentBases[slot] = commentDeltas[slot];
+    }
+
+    /**
+     * 推送线程的回调：累加计数，第一次变化时登记到待分发列表并请求下一帧。
+     */
+    private void onDelta(long videoId, long likeDelta, long commentDelta) {
+        synchronized (this) {
+            int slot = slotOf(videoId);
+            // 已经取消订阅的视频可能还会收到在途的推送，直接丢弃
+            if (slot < 0 || refCounts[slot] == 0) return;
+            likeDeltas[slot] += likeDelta;
+            commentDeltas[slot] += commentDelta;
+            if (!dirty[slot]) {
+                dirty[slot] = true;
+                if (pendingCount == pendingIds.length) {
+                    pendingIds = Arrays.copyOf(pendingIds, pendingCount * 2);
+                }
+                pendingIds[pendingCount++] = videoId;
+            }
+            if (frameRequested) return;
+            frameRequested = true;
+        }
+        frameExecutor.execute(frameTask);
+    }
+
+    /**
+     * 帧回调：取出这一帧内所有变化的视频并通知监听者。
+     */
+    @MainThread
+    private void dispatchFrame() {
+        int count;
+        synchronized (this) {
+            count = pendingCount;
+            if (frameIds.length < count) frameIds = new long[pendingIds.length];
+            System.arraycopy(pendingIds, 0, frameIds, 0, count);
+            for (int i = 0; i < count; i++) {
+                dirty[slotOf(frameIds[i])] = false;
+            }
+            pendingCount = 0;
+            frameRequested = false;
+        }
+        if (count == 0) return;
+        for (Listener listener : listeners) {
+            listener.onCountersChanged(frameIds, count);
+        }
+    }
+
+    private void scheduleSubscription() {
+        if (subscribeScheduled.compareAndSet(false, true)) {
+            ioExecutor.schedule(subscribeTask, subscribeDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 后台线程：把当前引用计数大于 0 的视频交给推送源。集合没有变化时 (例如滑出又滑回) 不重新订阅。
+     */
+    private void updateSubscription() {
+        subscribeScheduled.set(false);
+        long[] active;
+        synchronized (this) {
+            int count = 0;
+            for (int i = 0; i < slotCount; i++) {
+                if (refCounts[i] > 0) count++;
+            }
+            active = new long[count];
+            int index = 0;
+            for (int i = 0; i < slotCount; i++) {
+                if (refCounts[i] > 0) active[index++] = ids[i];
+            }
+        }
+        if (Arrays.equals(active, subscribed)) return;
+        subscribed = active;
+        source.subscribe(active.clone(), deltaCallback);
+    }
+
+    // --- 开放寻址表 (线性探测) ---
+
+    private int slotOf(long videoId) {
+        int mask = table.length - 1;
+        for (int i = (int) mix64(videoId) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0) return -1;
+            if (ids[entry - 1] == videoId) return entry - 1;
+        }
+    }
+
+    private int addSlot(long videoId) {
+        if (slotCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            likeDeltas = Arrays.copyOf(likeDeltas, capacity);
+            commentDeltas = Arrays.copyOf(commentDeltas, capacity);
+            likeBases = Arrays.copyOf(likeBases, capacity);
+            commentBases = Arrays.copyOf(commentBases, capacity);
+            refCounts = Arrays.copyOf(refCounts, capacity);
+            dirty = Arrays.copyOf(dirty, capacity);
+            // 表的容量保持为槽位数的两倍，负载因子不超过 0.5
+            table = new int[capacity * 2];
+            for (int slot = 0; slot < slotCount; slot++) insert(slot);
+        }
+        int slot = slotCount++;
+        ids[slot] = videoId;
+        insert(slot);
+        return slot;
+    }
+
+    private void insert(int slot) {
+        int mask = table.length - 1;
+        int i = (int) mix64(ids[slot]) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = slot + 1;
+    }
+
+    /**
+     * 64 位混淆函数 (MurmurHash3 fmix64)，让连续的ID在表中均匀分布。
+     */
+    private static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * 生产环境的帧执行器：切到主线程后挂到 {@link Choreographer} 的下一帧，
+     * 在这一帧的布局之前执行，列表的局部刷新随同一帧完成。
+     */
+    private static Executor choreographerExecutor() {
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        return task -> mainHandler.post(() ->
+                Choreographer.getInstance().postFrameCallback(frameTimeNanos -> task.run()));
+    }
+}
@@ -0,0 +1,165 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.model.CommentBean;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 默认的模拟评论数据源
+ * <p>
+ * 职责:
+ * 1.  按视频ID确定性地生成评论：同一个视频每次得到相同的评论总数和内容，不同视频互不相同。
+ *     部分视频是热门视频，一级评论多达数万条；一级评论带有回复数，回复按需加载。
+ * 2.  模拟 200 毫秒的网络延迟 (在 Repository 的后台线程中执行，不会阻塞主线程)。
+ * 3.  模拟发表评论：分配正式ID和服务端时间，按 localId 去重。
+ */
+public class MockCommentSource implements CommentSource {
+
+    private static final int PAGE_SIZE = 20;
+    private static final long LATENCY_MS = 200;
+    // 每个视频的评论总数范围
+    private static final int MIN_COMMENTS = 12;
+    private static final int MAX_COMMENTS = 3000;
+    // 约十分之一的视频是热门视频，一级评论多达数万条
+    private static final int VIRAL_ONE_IN = 10;
+    private static final int MAX_VIRAL_COMMENTS = 50_000;
+    // 一级评论的回复数上限，约三分之一的评论没有回复
+    private static final int MAX_REPLIES = 200;
+
+    private static final String[] CONTENTS = {
+            "这光影效果绝了，每一帧截下来都能当壁纸！👍",
+            "视频剪辑的节奏感很好，转场太丝滑了。",
+            "这是在哪里拍的呀？风景看起来好治愈。",
+            "背景音乐配得恰到好处，瞬间氛围感拉满。🎵",
+            "期待博主更新，希望能多出一些这样的高质量内容。",
+            "看了三遍还是想看，收藏了！",
+            "求BGM名字，太好听了",
+            "第一次刷到就关注了，宝藏博主",
+            "评论区的人都好有才哈哈哈",
+            "这个配色好高级，想学",
+    };
+    private static final String[] AUTHORS = {
+            "摄影爱好者", "剪辑练习生", "旅行日记", "听风者", "路人甲",
+            "夜猫子", "今天也要开心", "橘子汽水", "山海经", "慢慢来",
+    };
+    private static final int[] AVATARS = {
+            R.drawable.avatar_1, R.drawable.avatar_2, R.drawable.avatar_3, R.drawable.avatar_4, R.drawable.avatar_5,
+    };
+
+    // 生成时间的基准，评论越靠后越早
+    private final long now = System.currentTimeMillis();
+    // 已经发表的评论，key 为客户端的 localId (只在发送评论的后台线程中访问)
+    private final Map<String, CommentBean> posted = new HashMap<>();
+    private long nextPostId;
+
+    @Override
+    public int pageSize() {
+        return PAGE_SIZE;
+    }
+
+    @Override
+    public Page loadPage(long videoId, int pageIndex) throws InterruptedException {
+        Thread.sleep(LATENCY_MS);
+        long total = totalCount(videoId);
+        List<CommentBean> list = new ArrayList<>(PAGE_SIZE);
+        long start = (long) pageIndex * PAGE_SIZE;
+        for (long i = start; i < total && i < start + PAGE_SIZE; i++) {
+            list.add(generate(videoId, (int) i, total));
+        }
+        return new Page(list, total);
+    }
+
+    @Override
+    public Page loadReplies(long videoId, String rootId, int pageIndex) throws InterruptedException {
+        Thread.sleep(LATENCY_MS);
+        int rootIndex = rootIndex(rootId);
+        long total = rootIndex >= 0 ? replyCount(videoId, rootIndex) : 0;
+        List<CommentBean> list = new ArrayList<>(PAGE_SIZE);
+        long start = (long) pageIndex * PAGE_SIZE;
+        for (long i = start; i < total && i < start + PAGE_SIZE; i++) {
+            list.add(generateReply(videoId, rootId, rootIndex, (int) i, total));
+        }
+        return new Page(list, total);
+    }
+
+    @Override
+    public List<CommentBean> postComments(List<Post> posts) throws InterruptedException {
+        Thread.sleep(LATENCY_MS);
+        List<CommentBean> result = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            CommentBean bean = posted.get(post.localId);
+            if (bean == null) {
+                bean = new CommentBean(post.content, "我", System.currentTimeMillis(), 0, R.drawable.avatar_1);
+                bean.id = post.videoId + "-p" + nextPostId++;
+                posted.put(post.localId, bean);
+            }
+            result.add(bean);
+        }
+        return result;
+    }
+
+    /**
+     * 从本数据源生成的一级评论ID ("视频ID-序号") 中取出序号，不是本数据源生成的ID时返回 -1。
+     */
+    private static int rootIndex(String rootId) {
+        try {
+            return Integer.parseInt(rootId.substring(rootId.lastIndexOf('-') + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long totalCount(long videoId) {
+        Random random = new Random(videoId);
+        int max = random.nextInt(VIRAL_ONE_IN) == 0 ? MAX_VIRAL_COMMENTS : MAX_COMMENTS;
+        return MIN_COMMENTS + random.nextInt(max - MIN_COMMENTS);
+    }
+
+    private static long replyCount(long videoId, int rootIndex) {
+        int seed = (int) (videoId ^ (videoId >>> 32)) * 131 + rootIndex;
+        if (Math.floorMod(seed, 3) == 0) return 0;
+        // 越靠前 (越热门) 的评论回复越多
+        return 1 + Math.floorMod(seed * 17, Math.max(1, MAX_REPLIES / (1 + rootIndex / 10)));
+    }
+
+    /**
+     * 生成某个视频的第 index 条评论，按热度排序：越靠前点赞越多。
+     */
+    private CommentBean generate(long videoId, int index, long total) {
+        int seed = (int) (videoId ^ (videoId >>> 32)) + index;
+        int pick = Math.floorMod(seed * 31 + index, CONTENTS.length);
+        int author = Math.floorMod(seed * 17 + 7, AUTHORS.length);
+        CommentBean bean = new CommentBean(
+                CONTENTS[pick],
+                AUTHORS[author],
+                now - (long) index * 7 * 60_000L,
+                (total - index) * 3,
+                AVATARS[author % AVATARS.length]);
+        bean.id = videoId + "-" + index;
+        bean.replyCount = replyCount(videoId, index);
+        return bean;
+    }
+
+    /**
+     * 生成某条一级评论的第 index 条回复，按时间顺序排列。
+     */
+    private CommentBean generateReply(long videoId, String rootId, int rootIndex, int index, long total) {
+        int seed = (int) (videoId ^ (videoId >>> 32)) + rootIndex * 7 + index;
+        int pick = Math.floorMod(seed * 37 + index, CONTENTS.length);
+        int author = Math.floorMod(seed * 11 + 3, AUTHORS.length);
+        CommentBean bean = new CommentBean(
+                CONTENTS[pick],
+                AUTHORS[author],
+                Math.min(now, now - (long) rootIndex * 7 * 60_000L + (long) (index + 1) * 60_000L),
+                total - index,
+                AVATARS[author % AVATARS.length]);
+        bean.id = rootId + "-r" + index;
+        bean.parentId = rootId;
+        return bean;
+    }
+}
@@ -0,0 +1,121 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.model.VideoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 默认的模拟数据源
+ * <p>
+ * 职责:
+ * 1.  模拟一个有限的内容池 (每个频道 {@value #CATALOGUE_SIZE} 条)，每条内容的视频ID、标题等信息在不同会话之间保持不变。
+ * 2.  像真实的推荐服务一样，每次会话从内容池的不同位置开始下发，相邻两批之间会重复下发 {@value #REPEATS_PER_BATCH} 条，
+ *     下发位置走到池尾后回到池头。重复的内容和上次会话看过的内容交给 {@link SeenVideoFilter} 过滤；
+ *     内容池全部看过之后，{@link VideoRepository} 会清空过滤器重新下发。
+ * 3.  模拟 300 毫秒的网络延迟 (在 Repository 的后台线程中执行，不会阻塞主线程)。
+ * 4.  可以指定频道 ({@link FeedTab})：不同频道的视频ID互不重叠，每批内容的起始位置按频道轮换。
+ */
+public class MockFeedSource implements FeedSource {
+
+    private static final int PAGE_SIZE = 5; // 定义每一页加载的数据量
+    private static final long LATENCY_MS = 300; // 模拟300毫秒的网络延迟
+    // 每个频道内容池的大小
+    static final int CATALOGUE_SIZE = 5000;
+    // 每一批开头重复下发上一批的最后几条
+    static final int REPEATS_PER_BATCH = 1;
+
+    // 5 条本地视频素材，内容池中的第 n 条使用第 (n + 频道编号) % 5 条素材
+    private static final String[] TITLES = {
+            "深夜治愈：点燃一支香薰蜡烛，放空自己#氛围感",
+            "把车窗摇下来，风里都是自由的味道#公路旅行",
+            "这片橘子海送给你，想去海边了嘛？",
+            "家里的猫半夜偷偷练琴，这难道是莫扎特转世？",
+            "今年的第一场雪，大家来一起看雪",
+    };
+    private static final String[] AUTHORS = {"生活美学家", "公路日记", "海岛听风", "喵星人观察员", "北方的冬"};
+    private static final long[] LIKE_COUNTS = {125000, 8900, 34000, 21000, 53000};
+    private static final int[] COVERS = {
+            R.drawable.cover_1, R.drawable.cover_2, R.drawable.cover_3, R.drawable.cover_4, R.drawable.cover_5};
+    private static final int[] VIDEOS = {
+            R.raw.video_1, R.raw.video_2, R.raw.video_3, R.raw.video_4, R.raw.video_5};
+    private static final int[] AVATARS = {
+            R.drawable.avatar_1, R.drawable.avatar_2, R.drawable.avatar_3, R.drawable.avatar_4, R.drawable.avatar_5};
+
+    // 频道编号，0 为推荐频道
+    private final int channel;
+    // 本次会话从内容池的哪个位置开始下发
+    private final int sessionStart;
+
+    public MockFeedSource() {
+        this(0);
+    }
+
+    public MockFeedSource(int channel) {
+        this(channel, ThreadLocalRandom.current().nextInt(CATALOGUE_SIZE));
+    }
+
+    /**
+     * @param channel      频道编号
+     * @param sessionStart 本次会话的起始位置 [0, {@link #CATALOGUE_SIZE})
+     */
+    MockFeedSource(int channel, int sessionStart) {
+        this.channel = channel;
+        this.sessionStart = sessionStart;
+    }
+
+    @Override
+    public int pageSize() {
+        return PAGE_SIZE;
+    }
+
+    @Override
+    public List<VideoBean> loadBatch(int batchIndex) throws InterruptedException {
+        Thread.sleep(LATENCY_MS);
+        return generateBatch(batchIndex);
+    }
+
+    /**
+     * 生成一批模拟数据（5条）。
+     * @param batchIndex 批次索引
+     * @return 一个包含5条视频数据的新列表
+     */
+    List<VideoBean> generateBatch(int batchIndex) {
+        List<VideoBean> list = new ArrayList<>(PAGE_SIZE);
+        long first = sessionStart + (long) batchIndex * (PAGE_SIZE - REPEATS_PER_BATCH);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            list.add(catalogueItem((int) ((first + i) % CATALOGUE_SIZE)));
+        }
+        return list;
+    }
+
+    /**
+     * 内容池中的第 position 条内容。同一位置在任何会话中生成的数据都相同。
+     */
+    private VideoBean catalogueItem(int position) {
+        int template = (position + channel) % TITLES.length;
+        int page = position / PAGE_SIZE;
+        String suffix = page == 0 ? "" : (" ·P" + page);
+        VideoBean bean = new VideoBean(
+                videoId(channel, position),
+                TITLES[template] + suffix,
+                AUTHORS[template],
+                LIKE_COUNTS[template],
+                COVERS[template],
+                VIDEOS[template],
+                AVATARS[template]
+        );
+        // 模拟服务端入库时生成的封面占位编码
+        bean.coverHash = BundledCoverHashes.forResource(bean.coverResId);
+        return bean;
+    }
+
+    /**
+     * 稳定的视频ID：高位是频道，低位是内容池中的位置，不同频道的ID互不重叠。
+     */
+    static long videoId(int channel, int position) {
+        return ((long) (channel + 1) << 40) + position;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bytedance.videoapp.repository;
+
+import android.util.Log;
+
+import java.util.Map;
+
+/**
+ * 默认的模拟点赞同步
+ * <p>
+ * 职责:
+ * 模拟 200 毫秒的网络延迟后直接成功 (在 LikeStore 的后台线程中执行，不会阻塞主线程)。
+ */
+public class MockLikeSource implements LikeSource {
+
+    private static final String TAG = "MockLikeSource";
+    private static final long LATENCY_MS = 200;
+
+    @Override
+    public void syncLikes(Map<Long, Boolean> likes) throws InterruptedException {
+        Thread.sleep(LATENCY_MS);
+        Log.d(TAG, "synced " + likes.size() + " likes");
+    }
+}
@@ -0,0 +1,82 @@
+package com.bytedance.videoapp.repository;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 默认的模拟实时计数推送
+ * <p>
+ * 职责:
+ * 1.  在自己的后台线程中每 {@link #TICK_MS} 毫秒为订阅的视频随机产生点赞/评论事件，每个事件单独回调一次。
+ * 2.  约 1/8 的视频是"热门视频"，每秒产生数千次点赞事件，用来模拟直播间式的高频推送。
+ * <p>
+ * 事件不做任何合并，合并和限频完全交给 {@link LiveCounters}。
+ */
+public class MockLiveCounterSource implements LiveCounterSource {
+
+    private static final long TICK_MS = 50;
+    // 热门视频每个周期的点赞事件数 (约 3000 次/秒)
+    private static final int HOT_LIKES_PER_TICK = 150;
+    // 普通视频每个周期产生一次点赞/评论的概率
+    private static final float LIKE_CHANCE = 0.3f;
+    private static final float COMMENT_CHANCE = 0.02f;
+
+    private final Random random = new Random();
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> ticker;
+    // 当前订阅，由 subscribe 整体替换，推送线程只读
+    private volatile long[] videoIds = new long[0];
+    private volatile Callback callback;
+
+    @Override
+    public synchronized void subscribe(long[] videoIds, Callback callback) {
+        this.videoIds = videoIds;
+        this.callback = callback;
+        if (videoIds.length == 0) {
+            if (ticker != null) {
+                ticker.cancel(false);
+                ticker = null;
+            }
+            return;
+        }
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor();
+        }
+        if (ticker == null) {
+            ticker = executor.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        videoIds = new long[0];
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            ticker = null;
+        }
+    }
+
+    private void tick() {
+        long[] ids = videoIds;
+        Callback target = callback;
+        if (target == null) return;
+        for (long id : ids) {
+            if (isHot(id)) {
+                for (int i = 0; i < HOT_LIKES_PER_TICK; i++) target.onDelta(id, 1, 0);
+            } else if (random.nextFloat() < LIKE_CHANCE) {
+                target.onDelta(id, 1, 0);
+            }
+            if (random.nextFloat() < COMMENT_CHANCE) {
+                target.onDelta(id, 0, 1);
+            }
+        }
+    }
+
+    private static boolean isHot(long videoId) {
+        return ((videoId * 0x9E3779B97F4A7C15L) >>> 61) == 0;
+    }
+}
@@ -0,0 +1,281 @@
+package com.bytedance.videoapp.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已看视频过滤器 (布隆过滤器 Bloom Filter)
+ * <p>
+ * 职责:
+ * 1.  以视频ID为键记录"已经下发过"的视频，在 Repository 接收每一页数据时过滤掉重复条目。
+ * 2.  使用位数组实现，容量和误判率可配置。默认 200 万个ID、1% 误判率，约占 2.3MB 内存。
+ * 3.  支持持久化到应用私有目录，跨会话保留。读写都在后台线程进行，不阻塞主线程。
+ *     使用方在第一次去重之前调用 {@link #awaitLoaded(long)}，等上次会话的记录合并完成。
+ * <p>
+ * 布隆过滤器只会误判"已看过"(少量新视频被跳过)，不会把看过的视频误判为"没看过"，
+ * 对于推荐流去重来说这是可以接受的取舍。
+ */
+public class SeenVideoFilter {
+
+    private static final String TAG = "SeenVideoFilter";
+    private static final String FILE_NAME = "seen_videos.bloom";
+    private static final int FILE_MAGIC = 0x5345454E; // "SEEN"
+    private static final int FILE_VERSION = 1;
+
+    public static final long DEFAULT_EXPECTED_INSERTIONS = 2_000_000L;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    // 等待上次会话的记录加载完成的最长时间，超时后不再等待 (晚到的记录依然会合并进来)
+    public static final long LOAD_TIMEOUT_MS = 2_000;
+
+    private static volatile SeenVideoFilter sInstance;
+    // 磁盘读写使用的单线程执行器，保证读写顺序
+    private static final ExecutorService sIoExecutor = Executors.newSingleThreadExecutor();
+
+    private final long[] words;
+    private final long numBits;
+    private final int numHashes;
+    private long insertedCount;
+
+    private File file;
+    // 上次会话的记录加载完成后放行，为 null 表示没有需要加载的记录
+    private CountDownLatch loaded;
+
+    /**
+     * 获取全局唯一的过滤器实例。首次调用时会在后台加载上次会话保存的数据。
+     * @param context 上下文
+     * @return 过滤器单例
+     */
+    public static SeenVideoFilter getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (SeenVideoFilter.class) {
+                if (sInstance == null) {
+                    SeenVideoFilter filter = new SeenVideoFilter(DEFAULT_EXPECTED_INSERTIONS, DEFAULT_FALSE_POSITIVE_RATE);
+                    // 始终使用 ApplicationContext 的目录，防止持有 Activity 引用
+                    filter.file = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+                    filter.loaded = new CountDownLatch(1);
+                    filter.loadAsync();
+                    sInstance = filter;
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 构造函数
+     * @param expectedInsertions 预计要容纳的ID数量
+     * @param falsePositiveRate  目标误判率 (0, 1)
+     */
+    public SeenVideoFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        // 最优位数 m = -n·ln(p) / (ln2)^2，最优哈希函数个数 k = m/n·ln2
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new long[(int) ((bits + 63) / 64)];
+        this.numBits = (long) words.length * 64;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 判断某个视频是否"可能已经看过"。
+     * @return false 表示一定没看过；true 表示大概率看过 (存在可配置的误判率)
+     */
+    public synchronized boolean mightContain(long videoId) {
+        long hash = mix64(videoId);
+        long h1 = hash;
+        long h2 = hash >>> 32 | 1; // 保证第二个哈希为奇数，避免步长退化
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 记录一个视频ID。
+     * @return 如果这是一个新ID (至少有一位被置位) 则返回 true
+     */
+    public synchronized boolean put(long videoId) {
+        long hash = mix64(videoId);
+        long h1 = hash;
+        long h2 = hash >>> 32 | 1;
+        boolean changed = false;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words[index] & mask) == 0) {
+                words[index] |= mask;
+                changed = true;
+            }
+        }
+        if (changed) insertedCount++;
+        return changed;
+    }
+
+    /**
+     * 清空所有记录。上游反复下发的内容已经全部看过时使用，之后这些内容会重新被当作新视频。
+     */
+    public synchronized void clear() {
+        Arrays.fill(words, 0L);
+        insertedCount = 0;
+    }
+
+    /**
+     * 等待上次会话保存的记录合并完成，只在后台线程调用。
+     * 在此之前做去重判断，看过的视频会被当成新视频下发。
+     * @param timeoutMs 最长等待时间
+     * @return 记录已经合并完成 (或者没有需要加载的记录) 时返回 true，超时返回 false
+     */
+    public boolean awaitLoaded(long timeoutMs) throws InterruptedException {
+        CountDownLatch latch = loaded;
+        return latch == null || latch.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return 已记录的 (去重后) ID 数量的近似值
+     */
+    public synchronized long approximateCount() {
+        return insertedCount;
+    }
+
+    /**
+     * @return 位数组占用的字节数
+     */
+    public long sizeInBytes() {
+        return (long) words.length * 8;
+    }
+
+    /**
+     * 在后台线程把当前状态写入磁盘。建议在 Activity 进入后台 (onStop) 时调用。
+     */
+    public void saveAsync() {
+        if (file == null) return;
+        sIoExecutor.execute(() -> {
+            // 先写临时文件再重命名，避免进程被杀时留下写了一半的文件
+            File tmp = new File(file.getPath() + ".tmp");
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                writeTo(out);
+            } catch (IOException e) {
+                Log.w(TAG, "save failed", e);
+                return;
+            }
+            if (!tmp.renameTo(file)) {
+                Log.w(TAG, "rename failed: " + tmp);
+            }
+        });
+    }
+
+    /**
+     * 在后台线程加载上次保存的数据，并与当前内存中的数据合并 (按位或)。
+     * 这样即使加载完成前已经有新的ID写入，也不会丢失。
+     */
+    private void loadAsync() {
+        sIoExecutor.execute(() -> {
+            try (InputStream in = new FileInputStream(file)) {
+                mergeFrom(in);
+            } catch (FileNotFoundException e) {
+                // 首次启动，没有保存过的记录
+            } catch (IOException e) {
+                Log.w(TAG, "load failed, starting empty", e);
+            } finally {
+                loaded.countDown();
+            }
+        });
+    }
+
+    /**
+     * 将过滤器序列化到输出流。只在锁内复制位数组，写盘期间去重不会被阻塞。
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        long[] copy;
+        long count;
+        synchronized (this) {
+            copy = words.clone();
+            count = insertedCount;
+        }
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(FILE_MAGIC);
+        data.writeInt(FILE_VERSION);
+        data.writeLong(numBits);
+        data.writeInt(numHashes);
+        data.writeLong(count);
+        for (long word : copy) {
+            data.writeLong(word);
+        }
+        data.flush();
+    }
+
+    /**
+     * 从输入流读取之前保存的过滤器，并合并到当前实例。参数不一致 (例如修改了容量配置) 时丢弃旧数据。
+     * 两边记录的ID可能重叠，合并后的数量按置位的比例重新估算，不是简单相加。
+     */
+    public void mergeFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != FILE_MAGIC || data.readInt() != FILE_VERSION) {
+            throw new IOException("not a seen-video filter file");
+        }
+        long savedBits = data.readLong();
+        int savedHashes = data.readInt();
+        if (savedBits != numBits || savedHashes != numHashes) {
+            Log.i(TAG, "filter configuration changed, discarding saved state");
+            return;
+        }
+        data.readLong(); // 保存时的数量，合并后重新估算
+        long[] saved = new long[words.length];
+        for (int i = 0; i < saved.length; i++) {
+            saved[i] = data.readLong();
+        }
+        synchronized (this) {
+            long setBits = 0;
+            for (int i = 0; i < words.length; i++) {
+                words[i] |= saved[i];
+                setBits += Long.bitCount(words[i]);
+            }
+            insertedCount = estimateCount(setBits);
+        }
+    }
+
+    /**
+     * 根据置位数估算已记录的ID数量：n ≈ -m/k · ln(1 - X/m)。
+     */
+    private long estimateCount(long setBits) {
+        if (setBits >= numBits) return Long.MAX_VALUE;
+        return Math.round(-(double) numBits / numHashes * Math.log1p(-(double) setBits / numBits));
+    }
+
+    /**
+     * 64 位混淆函数 (MurmurHash3 fmix64)，让连续的ID在位数组上均匀分布。
+     */
+    private static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,116 @@
+package com.bytedance.videoapp.repository;
+
+import java.util.Arrays;
+
+/**
+ * 去重字符串表
+ * <p>
+ * 职责:
+ * 1.  为作者名、标题等大量重复的字符串分配一个稳定的整数引用 (ref)。
+ * 2.  相同内容的字符串在表中只保存一份，条目侧只需保存一个 int。
+ * <p>
+ * 索引采用开放寻址的 int 数组而不是 HashMap，避免每个字符串再额外带一个 Entry 和 Integer 对象，
+ * 否则当标题几乎各不相同时，去重表本身的开销会抵消列式存储节省下来的内存。
+ * <p>
+ * 非线程安全，由持有者负责同步。
+ */
+public class StringTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+    // 估算内存时每个 String 对象 (对象头、hash 字段和字符数组头) 的固定开销
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private String[] values = new String[INITIAL_CAPACITY];
+    // 开放寻址的哈希槽，保存 "ref + 1"，0 表示空槽。容量始终是 2 的幂，且至少是条目数的 2 倍
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+    private long charCount; // 表中所有字符串的字符总数，用于估算内存
+
+    /**
+     * 将字符串放入表中，返回它的引用。已存在时直接返回已有引用。
+     * @param value 字符串，null 会被当作空串处理
+     * @return 该字符串在表中的引用
+     */
+    public int intern(String value) {
+        if (value == null) value = "";
+        int mask = slots.length - 1;
+        int slot = spread(value.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int ref = slots[slot] - 1;
+            if (values[ref].equals(value)) {
+                return ref;
+            }
+            slot = (slot + 1) & mask; // 线性探测
+        }
+
+        int ref = size;
+        if (ref == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[ref] = value;
+        slots[slot] = ref + 1;
+        size++;
+        charCount += value.length();
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return ref;
+    }
+
+    /**
+     * 根据引用取回字符串。返回的总是表中保存的同一个实例。
+     */
+    public String get(int ref) {
+        return values[ref];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 字符串数组本身 (引用即下标)，供列式存储的快照不加锁读取。
+     * 数组只在已用范围之外追加，扩容和清空都换用新数组，已返回的数组中已有的内容不会再变化。
+     */
+    String[] values() {
+        return values;
+    }
+
+    public void clear() {
+        values = new String[INITIAL_CAPACITY];
+        slots = new int[INITIAL_CAPACITY * 2];
+        size = 0;
+        charCount = 0;
+    }
+
+    /**
+     * 估算表占用的内存 (字节)：两个数组加上所有字符串，字符按 UTF-16 计算。
+     */
+    public long estimatedBytes() {
+        return 4L * values.length + 4L * slots.length + (long) STRING_OVERHEAD_BYTES * size + 2 * charCount;
+    }
+
+    /**
+     * 估算单个字符串占用的内存 (字节)，与表内字符串的估算方式一致。null 为 0。
+     */
+    static long estimatedBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+
+    private void rehash(int newCapacity) {
+        int[] newSlots = new int[newCapacity];
+        int mask = newCapacity - 1;
+        for (int ref = 0; ref < size; ref++) {
+            int slot = spread(values[ref].hashCode()) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = ref + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,221 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.model.VideoBean;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 可配置的合成数据源 (压测用)
+ * <p>
+ * 职责:
+ * 1.  按配置生成任意长度 (可达数百万条) 的 Feed，用于在生产规模下测试 Repository / ViewModel。
+ * 2.  模拟网络特征：延迟分布 (固定 / 均匀 / 对数正态)、随机错误率。
+ * 3.  控制数据特征：标题长度 (即单条数据大小)、作者数量、封面/视频/头像资源的种类。
+ * <p>
+ * 每个条目只由 (seed, 条目序号) 决定，同一配置下任意一页都可以重复生成，无需在内存中保存整个 Feed。
+ */
+public class SyntheticFeedSource implements FeedSource {
+
+    /** 延迟分布模型 */
+    public enum LatencyModel {
+        /** 每页固定延迟 medianMs */
+        FIXED,
+        /** 在 [0, 2 * medianMs] 内均匀分布 */
+        UNIFORM,
+        /** 对数正态分布，中位数为 medianMs，99 分位约为 p99Ms，更接近真实网络的长尾 */
+        LOG_NORMAL
+    }
+
+    private static final String[] TITLE_WORDS = {
+            "深夜治愈", "公路旅行", "橘子海", "第一场雪", "猫咪日常", "城市漫游", "氛围感",
+            "周末vlog", "美食探店", "健身打卡", "#治愈系", "#日落", "#旅行日记", "✨", "🎵", "🌊"
+    };
+
+    private final Config config;
+    private final Random latencyRandom;
+
+    public SyntheticFeedSource(Config config) {
+        this.config = config;
+        this.latencyRandom = new Random(config.seed);
+    }
+
+    @Override
+    public int pageSize() {
+        return config.pageSize;
+    }
+
+    @Override
+    public List<VideoBean> loadBatch(int batchIndex) throws Exception {
+        simulateLatency();
+        if (config.errorRate > 0 && latencyRandom.nextDouble() < config.errorRate) {
+            throw new IOException("synthetic error on batch " + batchIndex);
+        }
+
+        long start = (long) batchIndex * config.pageSize;
+        if (start >= config.totalItems) {
+            return Collections.emptyList(); // Feed 已结束
+        }
+        int count = (int) Math.min(config.pageSize, config.totalItems - start);
+        List<VideoBean> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(generateItem(start + i));
+        }
+        return list;
+    }
+
+    /**
+     * 根据条目序号确定性地生成一个条目。
+     */
+    private VideoBean generateItem(long index) {
+        long hash = mix64(config.seed ^ index);
+        StringBuilder title = new StringBuilder(config.titleLength + 8);
+        long wordHash = hash;
+        while (title.length() < config.titleLength) {
+            title.append(TITLE_WORDS[(int) ((wordHash & 0x7fffffffL) % TITLE_WORDS.length)]);
+            wordHash = mix64(wordHash);
+        }
+        title.setLength(config.titleLength);
+        title.append(" #").append(index);
+
+        int authorIndex = (int) ((hash >>> 8 & 0x7fffffffL) % config.authorVariety);
+        int coverResId = pick(config.coverResIds, hash >>> 24);
+        return new VideoBean(
+                config.idBase + index,
+                title.toString(),
+                "作者" + authorIndex,
+                (hash >>> 16) & 0xfffffL, // 0 ~ 100w 的点赞数
+                coverResId,
+                pick(config.videoResIds, hash >>> 32),
+                pick(config.avatarResIds, authorIndex), // 同一作者总是使用同一个头像
+                BundledCoverHashes.forResource(coverResId)
+        );
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        long delay;
+        switch (config.latencyModel) {
+            case UNIFORM:
+                delay = (long) (latencyRandom.nextDouble() * 2 * config.medianLatencyMs);
+                break;
+            case LOG_NORMAL:
+                // 99 分位对应标准正态的 2.326 个标准差
+                double sigma = config.p99LatencyMs > config.medianLatencyMs && config.medianLatencyMs > 0
+                        ? Math.log((double) config.p99LatencyMs / config.medianLatencyMs) / 2.326
+                        : 0;
+                delay = (long) (config.medianLatencyMs * Math.exp(sigma * latencyRandom.nextGaussian()));
+                break;
+            case FIXED:
+            default:
+                delay = config.medianLatencyMs;
+                break;
+        }
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    private static int pick(int[] pool, long hash) {
+        return pool[(int) ((hash & 0x7fffffffL) % pool.length)];
+    }
+
+    private static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * 合成数据源的配置，通过 {@link Builder} 创建。
+     */
+    public static final class Config {
+        final long totalItems;
+        final int pageSize;
+        final LatencyModel latencyModel;
+        final long medianLatencyMs;
+        final long p99LatencyMs;
+        final double errorRate;
+        final int titleLength;
+        final int authorVariety;
+        final int[] coverResIds;
+        final int[] videoResIds;
+        final int[] avatarResIds;
+        final long seed;
+        final long idBase;
+
+        private Config(Builder b) {
+            totalItems = b.totalItems;
+            pageSize = b.pageSize;
+            latencyModel = b.latencyModel;
+            medianLatencyMs = b.medianLatencyMs;
+            p99LatencyMs = b.p99LatencyMs;
+            errorRate = b.errorRate;
+            titleLength = b.titleLength;
+            authorVariety = b.authorVariety;
+            coverResIds = b.coverResIds;
+            videoResIds = b.videoResIds;
+            avatarResIds = b.avatarResIds;
+            seed = b.seed;
+            idBase = b.idBase;
+        }
+    }
+
+    /**
+     * 配置构建器。默认值：100 万条、每页 20 条、对数正态延迟 (中位数 120ms，p99 800ms)、1% 错误率。
+     */
+    public static final class Builder {
+        private long totalItems = 1_000_000L;
+        private int pageSize = 20;
+        private LatencyModel latencyModel = LatencyModel.LOG_NORMAL;
+        private long medianLatencyMs = 120;
+        private long p99LatencyMs = 800;
+        private double errorRate = 0.01;
+        private int titleLength = 24;
+        private int authorVariety = 5_000;
+        private int[] coverResIds = {R.drawable.cover_1, R.drawable.cover_2, R.drawable.cover_3, R.drawable.cover_4, R.drawable.cover_5};
+        private int[] videoResIds = {R.raw.video_1, R.raw.video_2, R.raw.video_3, R.raw.video_4, R.raw.video_5};
+        private int[] avatarResIds = {R.drawable.avatar_1, R.drawable.avatar_2, R.drawable.avatar_3, R.drawable.avatar_4, R.drawable.avatar_5};
+        private long seed = 42L;
+        private long idBase = 0L;
+
+        /** Feed 的总条数 */
+        public Builder totalItems(long totalItems) { this.totalItems = totalItems; return this; }
+        /** 每页条数 */
+        public Builder pageSize(int pageSize) { this.pageSize = Math.max(1, pageSize); return this; }
+        /** 延迟分布；p99 只对 {@link LatencyModel#LOG_NORMAL} 生效 */
+        public Builder latency(LatencyModel model, long medianMs, long p99Ms) {
+            this.latencyModel = model;
+            this.medianLatencyMs = Math.max(0, medianMs);
+            this.p99LatencyMs = Math.max(medianMs, p99Ms);
+            return this;
+        }
+        /** 每页请求失败的概率 [0, 1] */
+        public Builder errorRate(double errorRate) { this.errorRate = Math.max(0, Math.min(1, errorRate)); return this; }
+        /** 标题字符数，用于控制单条数据的大小 */
+        public Builder titleLength(int titleLength) { this.titleLength = Math.max(1, titleLength); return this; }
+        /** 不同作者的数量 */
+        public Builder authorVariety(int authorVariety) { this.authorVariety = Math.max(1, authorVariety); return this; }
+        /** 封面、视频、头像的资源池，池子大小即为对应资源的种类数 */
+        public Builder resources(int[] coverResIds, int[] videoResIds, int[] avatarResIds) {
+            this.coverResIds = coverResIds;
+            this.videoResIds = videoResIds;
+            this.avatarResIds = avatarResIds;
+            return this;
+        }
+        /** 随机种子，相同种子生成相同的 Feed */
+        public Builder seed(long seed) { this.seed = seed; return this; }
+        /** 视频ID的起始值 */
+        public Builder idBase(long idBase) { this.idBase = idBase; return this; }
+
+        public Config build() {
+            return new Config(this);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.model.VideoBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 列式 (Struct-of-Arrays) 视频数据存储
+ * <p>
+ * 职责:
+ * 1.  以基本类型数组按"列"保存 Feed 数据：ID、点赞数、各类资源引用各占一个数组。
+ * 2.  作者名大量重复，通过 {@link StringTable} 去重，条目侧只保存 int 引用；
+ *     标题和封面占位编码几乎各不相同，去重表只会增加开销，直接按列保存字符串引用。
+ * 3.  通过 {@link #snapshot()} 提供不可变快照，界面层直接按列读取快照，不再持有一份 VideoBean 副本。
+ * 4.  快照提供 {@link Row} 轻量视图 (Flyweight)，顺序遍历和绑定时无需为每个条目创建对象。
+ * <p>
+ * 与 List&lt;VideoBean&gt; 相比，每个条目省去了对象头和引用的开销，
+ * 超长会话中几十万条数据的常驻内存会显著下降，顺序扫描也更加缓存友好。
+ * <p>
+ * 快照与存储共用列数组而不复制：追加只写快照范围之外的位置，扩容和 {@link #clear()} 都换用新数组，
+ * 已经发出的快照看到的内容永远不变，可以在主线程上不加锁读取。
+ */
+public class VideoColumnStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+    // 每个条目在各列中占用的字节数：两个 long 列、四个 int 列和两个引用列 (按压缩指针 4 字节计)
+    private static final int BYTES_PER_ROW = 2 * 8 + 4 * 4 + 2 * 4;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] likeCounts = new long[INITIAL_CAPACITY];
+    private String[] titles = new String[INITIAL_CAPACITY];
+    private int[] authorRefs = new int[INITIAL_CAPACITY];
+    private int[] coverResIds = new int[INITIAL_CAPACITY];
+    private int[] videoResIds = new int[INITIAL_CAPACITY];
+    private int[] avatarResIds = new int[INITIAL_CAPACITY];
+    private String[] coverHashes = new String[INITIAL_CAPACITY]; // null 表示没有占位编码
+    private int size;
+    // 标题和占位编码两列中字符串本身的估算字节数
+    private long columnStringBytes;
+
+    private final StringTable strings = new StringTable();
+
+    /**
+     * 追加一个条目。
+     * @param bean 视频数据
+     * @return 该条目在存储中的位置
+     */
+    public synchronized int append(VideoBean bean) {
+        ensureCapacity(size + 1);
+        int index = size;
+        ids[index] = bean.id;
+        likeCounts[index] = bean.likeCount;
+        titles[index] = bean.title != null ? bean.title : "";
+        authorRefs[index] = strings.intern(bean.author);
+        coverResIds[index] = bean.coverResId;
+        videoResIds[index] = bean.videoResId;
+        avatarResIds[index] = bean.avatarResId;
+        coverHashes[index] = bean.coverHash;
+        columnStringBytes += StringTable.estimatedBytes(titles[index]) + StringTable.estimatedBytes(bean.coverHash);
+        size++;
+        return index;
+    }
+
+    /**
+     * 批量追加条目。
+     */
+    public synchronized void appendAll(List<VideoBean> beans) {
+        ensureCapacity(size + beans.size());
+        for (VideoBean bean : beans) {
+            append(bean);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 清空所有条目，并把各列数组缩回初始容量，释放占用的内存。
+     * 总是换用新数组而不是原地清空，已经发出的快照不受影响。
+     */
+    public synchronized void clear() {
+        size = 0;
+        strings.clear();
+        columnStringBytes = 0;
+        ids = new long[INITIAL_CAPACITY];
+        likeCounts = new long[INITIAL_CAPACITY];
+        titles = new String[INITIAL_CAPACITY];
+        authorRefs = new int[INITIAL_CAPACITY];
+        coverResIds = new int[INITIAL_CAPACITY];
+        videoResIds = new int[INITIAL_CAPACITY];
+        avatarResIds = new int[INITIAL_CAPACITY];
+        coverHashes = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * 估算存储占用的内存 (字节)：按数组容量计算的各列，加上字符串表和按列保存的字符串。
+     */
+    public synchronized long estimatedBytes() {
+        return (long) BYTES_PER_ROW * ids.length + strings.estimatedBytes() + columnStringBytes;
+    }
+
+    /**
+     * 获取当前所有条目的不可变快照。只复制数组引用，不复制数据。
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(ids, likeCounts, titles, authorRefs, coverResIds, videoResIds, avatarResIds,
+                coverHashes, strings.values(), size);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) return;
+        int newCapacity = Math.max(required, ids.length + (ids.length >> 1)); // 1.5 倍扩容
+        ids = Arrays.copyOf(ids, newCapacity);
+        likeCounts = Arrays.copyOf(likeCounts, newCapacity);
+        titles = Arrays.copyOf(titles, newCapacity);
+        authorRefs = Arrays.copyOf(authorRefs, newCapacity);
+        coverResIds = Arrays.copyOf(coverResIds, newCapacity);
+        videoResIds = Arrays.copyOf(videoResIds, newCapacity);
+        avatarResIds = Arrays.copyOf(avatarResIds, newCapacity);
+        coverHashes = Arrays.copyOf(coverHashes, newCapacity);
+    }
+
+    /**
+     * 存储在某一时刻的不可变快照，只包含创建时已经追加完成的前 {@link #size()} 个条目。
+     * <p>
+     * 快照在仓库锁内创建，交给主线程 (LiveData / 回调) 时已经建立 happens-before 关系；
+     * 之后存储的追加、扩容和清空都不会修改快照引用的数组区间，因此读取不需要同步。
+     */
+    public static final class Snapshot {
+
+        public static final Snapshot EMPTY = new Snapshot(new long[0], new long[0], new String[0], new int[0],
+                new int[0], new int[0], new int[0], new String[0], new String[0], 0);
+
+        private final long[] ids;
+        private final long[] likeCounts;
+        private final String[] titles;
+        private final int[] authorRefs;
+        private final int[] coverResIds;
+        private final int[] videoResIds;
+        private final int[] avatarResIds;
+        private final String[] coverHashes;
+        private final String[] authors;
+        private final int size;
+
+        private Snapshot(long[] ids, long[] likeCounts, String[] titles, int[] authorRefs, int[] coverResIds,
+                         int[] videoResIds, int[] avatarResIds, String[] coverHashes, String[] authors, int size) {
+            this.ids = ids;
+            this.likeCounts = likeCounts;
+            this.titles = titles;
+            this.authorRefs = authorRefs;
+            this.coverResIds = coverResIds;
+            this.videoResIds = videoResIds;
+            this.avatarResIds = avatarResIds;
+            this.coverHashes = coverHashes;
+            this.authors = authors;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * @return 只包含前 count 个条目的快照 (count 超出时返回自身)
+         */
+        public Snapshot prefix(int count) {
+            if (count >= size) return this;
+            return new Snapshot(ids, likeCounts, titles, authorRefs, coverResIds, videoResIds, avatarResIds,
+                    coverHashes, authors, Math.max(0, count));
+        }
+
+        public long id(int index) { checkIndex(index); return ids[index]; }
+        public long likeCount(int index) { checkIndex(index); return likeCounts[index]; }
+        public String title(int index) { checkIndex(index); return titles[index]; }
+        public String author(int index) { checkIndex(index); return authors[authorRefs[index]]; }
+        public int coverResId(int index) { checkIndex(index); return coverResIds[index]; }
+        public int videoResId(int index) { checkIndex(index); return videoResIds[index]; }
+        public int avatarResId(int index) { checkIndex(index); return avatarResIds[index]; }
+        public String coverHash(int index) { checkIndex(index); return coverHashes[index]; }
+
+        /**
+         * 创建一个轻量视图。一个视图可以通过 {@link Row#moveTo(int)} 反复指向不同的条目，
+         * 适合在 Adapter 或扫描循环中长期持有、重复使用。
+         */
+        public Row row() {
+            return new Row(this);
+        }
+
+        /**
+         * 将指定位置的条目物化为 {@link VideoBean}。字符串都是存储中保存的共享实例。
+         */
+        public VideoBean toBean(int index) {
+            checkIndex(index);
+            return new VideoBean(ids[index], titles[index], authors[authorRefs[index]], likeCounts[index],
+                    coverResIds[index], videoResIds[index], avatarResIds[index], coverHashes[index]);
+        }
+
+        /**
+         * 将 [from, to) 区间的条目物化为一个新的 {@link VideoBean} 列表，供需要与旧代码交互的调用方使用。
+         */
+        public List<VideoBean> toBeans(int from, int to) {
+            to = Math.min(to, size);
+            List<VideoBean> list = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                list.add(toBean(i));
+            }
+            return list;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            }
+        }
+    }
+
+    /**
+     * 指向快照中某一行的轻量视图 (Flyweight)。快照不可变，读取不需要同步。
+     * 视图会被反复移动，回调中拿到的视图只在回调期间有效。
+     */
+    public static final class Row {
+        private final Snapshot snapshot;
+        private int index = -1;
+
+        private Row(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * 将视图移动到指定位置。
+         * @return 当前视图本身，便于链式调用
+         */
+        public Row moveTo(int index) {
+            snapshot.checkIndex(index);
+            this.index = index;
+            return this;
+        }
+
+        public int position() { return index; }
+        public long id() { return snapshot.ids[index]; }
+        public long likeCount() { return snapshot.likeCounts[index]; }
+        public String title() { return snapshot.titles[index]; }
+        public String author() { return snapshot.authors[snapshot.authorRefs[index]]; }
+        public int coverResId() { return snapshot.coverResIds[index]; }
+        public int videoResId() { return snapshot.videoResIds[index]; }
+        public int avatarResId() { return snapshot.avatarResIds[index]; }
+        public String coverHash() { return snapshot.coverHashes[index]; }
+    }
+}
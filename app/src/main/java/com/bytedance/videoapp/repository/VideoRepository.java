@@ -2,11 +2,16 @@ package com.bytedance.videoapp.repository;
 import android.os.Handler;
 import android.os.Looper;
 
-import com.bytedance.videoapp.R;
+import androidx.annotation.VisibleForTesting;
+
 import com.bytedance.videoapp.model.VideoBean;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * 视频数据仓库 (Repository)
@@ -15,51 +20,204 @@ import java.util.List;
  * 1.  作为应用中视频数据的唯一真实来源 (Single Source of Truth)。
  * 2.  采用单例模式，确保在整个应用中只有一个实例，用于维护一份统一的数据缓存。
  * 3.  封装数据来源的细节。ViewModel 只向 Repository 请求数据，而无需关心数据是从网络、数据库还是内存缓存中获取的。
- * 4.  模拟异步从服务器获取数据，并支持分页加载。
+ * 4.  在后台线程从 {@link FeedSource} 异步获取数据，并支持分页加载。数据源可替换 (模拟数据、压测数据、真实后端)。
+ * 5.  在接收每一页数据时，通过 {@link SeenVideoFilter} 过滤掉已经下发过的重复视频。
+ * 6.  首页的每个频道 ({@link FeedTab}) 各有一个实例，缓存互不影响，
+ *     但共用一个内存预算 ({@link FeedCacheBudget})，超出时淘汰最久未显示的频道的缓存。
  */
-public class VideoRepository {
+public class VideoRepository implements FeedCacheBudget.Cache {
+
+    // 所有频道的缓存共用的内存预算
+    private static final long FEED_CACHE_BUDGET_BYTES = 4L * 1024 * 1024;
+
+    private static final FeedCacheBudget sCacheBudget = new FeedCacheBudget(FEED_CACHE_BUDGET_BYTES);
+    // 每个频道一个实例，只在类锁内读写
+    private static final EnumMap<FeedTab, VideoRepository> sInstances = new EnumMap<>(FeedTab.class);
 
-    // 使用 volatile 保证多线程环境下的可见性，配合双重检查锁定实现线程安全的懒加载单例
-    private static volatile VideoRepository sInstance;
+    // 内存缓存，用于存储已加载的视频数据，避免重复生成和跨 Activity 重复加载。
+    // 采用列式存储，超长会话中数十万条数据也只占用少量基本类型数组。
+    private final VideoColumnStore columnStore = new VideoColumnStore();
+    // 执行数据源请求的后台线程，单线程保证批次按顺序入库
+    private final Executor ioExecutor;
+    // 回调执行器，默认切回主线程
+    private final Executor callbackExecutor;
+    // 当前的数据源
+    private FeedSource feedSource;
+    // 连续多少批数据全部被判定为重复后认为上游只剩看过的内容：先清空一次已看过滤器重新开始，
+    // 清空之后仍然如此就放弃补齐，防止上游一直返回重复内容时死循环
+    private static final int MAX_EMPTY_BATCHES = 8;
 
-    // 一个简单的内存缓存，用于存储已加载的视频数据，避免重复生成和跨 Activity 重复加载
-    private final List<VideoBean> cachedList = new ArrayList<>();
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
-    private static final int PAGE_SIZE = 5; // 定义每一页加载的数据量
+    // 已看视频过滤器，为 null 时不做去重
+    private SeenVideoFilter seenFilter;
+    // 已经向上游请求过的批次数，与缓存条数无关 (去重后两者不再一一对应)
+    private int fetchedBatchCount = 0;
+    // 上游是否已经没有更多数据
+    private boolean reachedEnd = false;
+    // 缓存被淘汰的次数，正在进行的加载发现它变化后丢弃结果，不会把半页数据写进已清空的缓存
+    private int generation = 0;
+    // 所属的内存预算，为 null 时不受预算限制
+    private volatile FeedCacheBudget cacheBudget;
+    // 拿到新的点赞数时重置实时推送的增量，为 null 时不关联实时计数
+    private volatile LiveCounters liveCounters;
+    // 缓存被预算淘汰时的监听器 (在 callbackExecutor 上回调)
+    private final List<Runnable> evictionListeners = new CopyOnWriteArrayList<>();
 
     /**
-     * 获取数据仓库的唯一实例。
-     * 采用双重检查锁定 (Double-Checked Locking) 模式，确保线程安全和高性能。
-     * @return VideoRepository的单例
+     * 获取"推荐"频道的数据仓库。
+     * @return 推荐频道的 VideoRepository 实例
      */
     public static VideoRepository getInstance() {
-        if (sInstance == null) { // 第一次检查，不加锁，提高性能
-            synchronized (VideoRepository.class) { // 加锁，保证线程安全
-                if (sInstance == null) { // 第二次检查，防止重复创建实例
-                    sInstance = new VideoRepository();
-                }
-            }
+        return getInstance(FeedTab.RECOMMEND);
+    }
+
+    /**
+     * 获取指定频道的数据仓库，首次调用时创建。每个频道使用自己的数据源和后台线程，
+     * 并登记到共用的内存预算中。
+     * @param tab 频道
+     * @return 该频道的 VideoRepository 实例
+     */
+    public static synchronized VideoRepository getInstance(FeedTab tab) {
+        VideoRepository instance = sInstances.get(tab);
+        if (instance == null) {
+            instance = new VideoRepository(tab.createSource());
+            instance.cacheBudget = sCacheBudget;
+            instance.liveCounters = LiveCounters.getInstance();
+            sInstances.put(tab, instance);
         }
-        return sInstance;
+        return instance;
     }
 
     // 私有构造函数，防止外部直接创建实例
-    private VideoRepository() {}
+    private VideoRepository(FeedSource feedSource) {
+        this(feedSource, Executors.newSingleThreadExecutor(),
+                new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * 供测试使用的构造函数，可以注入数据源和线程模型 (例如在 JVM 测试中使用同步执行器)。
+     * @param feedSource       数据源
+     * @param ioExecutor       执行数据源请求的执行器
+     * @param callbackExecutor 执行回调的执行器
+     */
+    @VisibleForTesting
+    public VideoRepository(FeedSource feedSource, Executor ioExecutor, Executor callbackExecutor) {
+        this.feedSource = feedSource;
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * 替换数据源。已缓存的数据会被清空，分页从头开始。
+     * @param source 新的数据源
+     */
+    public synchronized void setFeedSource(FeedSource source) {
+        this.feedSource = source;
+        columnStore.clear();
+        fetchedBatchCount = 0;
+        reachedEnd = false;
+    }
+
+    /**
+     * 设置内存预算 (供测试使用，频道实例在创建时已经登记到共用的预算中)。
+     * @param budget 预算，传 null 表示不受限制
+     */
+    @VisibleForTesting
+    public void setCacheBudget(FeedCacheBudget budget) {
+        this.cacheBudget = budget;
+    }
+
+    /**
+     * 关联实时计数 (供测试使用，频道实例在创建时已经关联)。
+     * @param counters 实时计数，传 null 表示不关联
+     */
+    @VisibleForTesting
+    public void setLiveCounters(LiveCounters counters) {
+        this.liveCounters = counters;
+    }
+
+    /**
+     * 将本仓库标记为最近使用 (切换到对应频道时调用)，当前频道的缓存不会被预算淘汰。
+     */
+    public void touch() {
+        FeedCacheBudget budget = cacheBudget;
+        if (budget != null) budget.touch(this);
+    }
+
+    /**
+     * 添加缓存被淘汰时的监听器，持有缓存副本的一方 (ViewModel) 应同时丢弃自己的副本。
+     * 回调在 callbackExecutor (默认主线程) 上执行。
+     */
+    public void addEvictionListener(Runnable listener) {
+        evictionListeners.add(listener);
+    }
+
+    public void removeEvictionListener(Runnable listener) {
+        evictionListeners.remove(listener);
+    }
+
+    /**
+     * 估算缓存占用的内存。ViewModel 和 Adapter 只持有列式存储的快照 (共用同一组数组)，不另外计算。
+     */
+    @Override
+    public long cacheBytes() {
+        return columnStore.estimatedBytes();
+    }
 
     /**
-     * 模拟从服务器异步获取分页数据。
+     * 被内存预算淘汰：清空缓存并通知监听器。分页进度保留，再次加载时从上游的下一批继续，
+     * 不会因为已看过滤器把重新请求的旧批次全部过滤掉。
+     * 与加载入库使用同一把仓库锁 (加载只在入库时短暂持有，不会在这里等待网络请求)，
+     * 并推进 generation，请求期间发生淘汰的加载会丢弃自己的结果。
+     */
+    @Override
+    public void evictCache() {
+        synchronized (this) {
+            generation++;
+            columnStore.clear();
+        }
+        for (Runnable listener : evictionListeners) {
+            callbackExecutor.execute(listener);
+        }
+    }
+
+    /**
+     * 设置已看视频过滤器。之后接收的每一页数据都会先经过它去重。
+     * @param filter 过滤器实例，传 null 关闭去重
+     */
+    public synchronized void setSeenFilter(SeenVideoFilter filter) {
+        this.seenFilter = filter;
+    }
+
+    /**
+     * 从数据源异步获取分页数据。请求在后台线程执行，回调在 callbackExecutor (默认主线程) 上执行。
+     * 回调拿到的是截止到该页末尾的快照 (前 (page + 1) * pageSize 个条目，不足时为全部)，
+     * 调用方从自己已有的条目数往后读取即为新增的部分。
      * @param page     要获取的页码 (从0开始)
      * @param callback 数据回调接口，用于通知调用方成功或失败
      */
-    public void fetchVideoList(int page, DataCallback<List<VideoBean>> callback) {
-        // 使用 Handler.postDelayed 模拟网络延迟
-        mainHandler.postDelayed(() -> {
-            List<VideoBean> pageData = getOrGeneratePage(page);
+    public void fetchVideoList(int page, DataCallback<VideoColumnStore.Snapshot> callback) {
+        ioExecutor.execute(() -> {
+            VideoColumnStore.Snapshot pageData;
+            try {
+                pageData = getOrLoadPage(page);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                String msg = e.getMessage() != null ? e.getMessage() : e.toString();
+                if (callback != null) {
+                    callbackExecutor.execute(() -> callback.onError(msg));
+                }
+                return;
+            }
+            // 在仓库锁之外检查预算
+            FeedCacheBudget budget = cacheBudget;
+            if (budget != null) budget.onCacheChanged(this);
             if (callback != null) {
-                // 总是返回一个新的列表副本，避免外部调用者直接修改内部缓存
-                callback.onSuccess(new ArrayList<>(pageData));
+                // 快照不可变，主线程读取时不需要加锁
+                callbackExecutor.execute(() -> callback.onSuccess(pageData));
             }
-        }, 300); // 模拟300毫秒的网络延迟
+        });
     }
 
     /**
@@ -71,81 +229,110 @@ public class VideoRepository {
     }
 
     /**
-     * 获取或生成指定页码的数据。这是一个同步方法，用于管理内存缓存。
+     * 获取或加载指定页码的数据，只在后台线程调用。
+     * 向数据源请求时不持有仓库锁，只在读取分页进度和把结果入库时短暂加锁，
+     * 请求期间主线程读取缓存、切换数据源都不会被阻塞。
      * @param page 要获取的页码
-     * @return 该页的数据列表
-     */
-    private synchronized List<VideoBean> getOrGeneratePage(int page) {
-        int neededSize = (page + 1) * PAGE_SIZE;
-        // 如果缓存中的数据量小于当前请求页所需的最大数据量，则生成新的数据补充到缓存中
-        while (cachedList.size() < neededSize) {
-            int pageIndexToGenerate = cachedList.size() / PAGE_SIZE;
-            cachedList.addAll(generateBaseSet(pageIndexToGenerate));
+     * @return 截止到该页末尾的快照；加载期间缓存被淘汰时返回空快照 (调用方会随淘汰通知一起丢弃这次请求)
+     * @throws Exception 数据源请求失败
+     */
+    private VideoColumnStore.Snapshot getOrLoadPage(int page) throws Exception {
+        // 如果缓存中的数据量小于当前请求页所需的最大数据量，则从数据源加载新的数据补充到缓存中
+        int emptyBatches = 0;
+        boolean filterReset = false;
+        int startGeneration;
+        SeenVideoFilter filter;
+        synchronized (this) {
+            startGeneration = generation;
+            filter = seenFilter;
+        }
+        // 上次会话的已看记录合并完成之前不做去重 (在仓库锁之外等待)，否则看过的视频会被当成新视频下发
+        if (filter != null) {
+            filter.awaitLoaded(SeenVideoFilter.LOAD_TIMEOUT_MS);
+        }
+        while (true) {
+            FeedSource source;
+            int batchIndex;
+            synchronized (this) {
+                // 缓存已被淘汰，页码对应的位置不再有效
+                if (generation != startGeneration) return VideoColumnStore.Snapshot.EMPTY;
+                int neededSize = (page + 1) * feedSource.pageSize();
+                if (reachedEnd || columnStore.size() >= neededSize || emptyBatches >= MAX_EMPTY_BATCHES) {
+                    return columnStore.snapshot().prefix(neededSize);
+                }
+                source = feedSource;
+                batchIndex = fetchedBatchCount;
+            }
+            List<VideoBean> batch = source.loadBatch(batchIndex);
+            synchronized (this) {
+                // 请求期间缓存被淘汰：这一批没有入库，分页进度不变，下次加载重新请求它
+                if (generation != startGeneration) return VideoColumnStore.Snapshot.EMPTY;
+                // 请求期间数据源被替换，或者这一批已经由其他加载入库，丢弃结果重新判断
+                if (source != feedSource || batchIndex != fetchedBatchCount) continue;
+                if (batch == null || batch.isEmpty()) {
+                    reachedEnd = true; // 上游没有更多数据了
+                    continue;
+                }
+                fetchedBatchCount++;
+                List<VideoBean> fresh = filterUnseen(batch);
+                if (fresh.isEmpty()) {
+                    emptyBatches++;
+                    if (emptyBatches >= MAX_EMPTY_BATCHES && seenFilter != null && !filterReset) {
+                        // 上游的内容已经全部看过 (例如有限的内容池被看完)，清空记录后重新下发，而不是让列表一直停在这里
+                        seenFilter.clear();
+                        filterReset = true;
+                        emptyBatches = 0;
+                    }
+                } else {
+                    emptyBatches = 0;
+                    columnStore.appendAll(fresh);
+                    rebaseLikes(fresh);
+                }
+            }
+        }
+    }
+
+    /**
+     * 新入库的条目带着服务端最新的点赞数，此前推送的增量已经包含在内。
+     */
+    private void rebaseLikes(List<VideoBean> beans) {
+        LiveCounters counters = liveCounters;
+        if (counters == null) return;
+        for (VideoBean bean : beans) {
+            counters.rebaseLikes(bean.id);
+        }
+    }
+
+    /**
+     * 在数据入库前去重：过滤掉已看过的视频，并把新视频记入过滤器。
+     * 同一批次内部的重复也会被过滤 (第二次出现时已经被记录)。
+     * @param batch 上游返回的一批数据
+     * @return 去重后的数据 (可能为空)
+     */
+    private List<VideoBean> filterUnseen(List<VideoBean> batch) {
+        if (seenFilter == null) return batch;
+        List<VideoBean> fresh = new ArrayList<>(batch.size());
+        for (VideoBean bean : batch) {
+            // put 返回 false 说明所有位都已置位，即"可能看过"
+            if (seenFilter.put(bean.id)) {
+                fresh.add(bean);
+            }
         }
-        int start = page * PAGE_SIZE;
-        // 确保结束索引不会越界
-        int end = Math.min(start + PAGE_SIZE, cachedList.size());
-        return cachedList.subList(start, end);
-    }
-
-    /**
-     * 获取所有已缓存的数据。
-     * @return 包含所有已生成数据的列表副本
-     */
-    public List<VideoBean> getAllCachedVideos() {
-        // 返回副本，防止外部意外修改缓存
-        return new ArrayList<>(cachedList);
-    }
-
-    /**
-     * 生成一组基础的模拟数据（5条）。
-     * @param pageIndex 页码索引，用于在标题中添加后缀以作区分
-     * @return 一个包含5条视频数据的新列表
-     */
-    private List<VideoBean> generateBaseSet(int pageIndex) {
-        List<VideoBean> list = new ArrayList<>();
-        String suffix = pageIndex == 0 ? "" : (" ·P" + pageIndex);
-        list.add(new VideoBean(
-                "深夜治愈：点燃一支香薰蜡烛，放空自己#氛围感" + suffix,
-                "生活美学家",
-                "12.5w",
-                R.drawable.cover_1,
-                R.raw.video_1,
-                R.drawable.avatar_1
-        ));
-        list.add(new VideoBean(
-                "把车窗摇下来，风里都是自由的味道#公路旅行" + suffix,
-                "公路日记",
-                "8900",
-                R.drawable.cover_2,
-                R.raw.video_2,
-                R.drawable.avatar_2
-        ));
-        list.add(new VideoBean(
-                "这片橘子海送给你，想去海边了嘛？" + suffix,
-                "海岛听风",
-                "3.4w",
-                R.drawable.cover_3,
-                R.raw.video_3,
-                R.drawable.avatar_3
-        ));
-        list.add(new VideoBean(
-                "家里的猫半夜偷偷练琴，这难道是莫扎特转世？" + suffix,
-                "喵星人观察员",
-                "2.1w",
-                R.drawable.cover_4,
-                R.raw.video_4,
-                R.drawable.avatar_4
-        ));
-        list.add(new VideoBean(
-                "今年的第一场雪，大家来一起看雪" + suffix,
-                "北方的冬",
-                "5.3w",
-                R.drawable.cover_5,
-                R.raw.video_5,
-                R.drawable.avatar_5
-        ));
-        return list;
+        return fresh;
+    }
+
+    /**
+     * @return 已缓存的条目数
+     */
+    public int getCachedCount() {
+        return columnStore.size();
+    }
+
+    /**
+     * 获取当前所有已缓存数据的不可变快照，只复制数组引用。
+     */
+    public VideoColumnStore.Snapshot snapshot() {
+        return columnStore.snapshot();
     }
 
 }
@@ -0,0 +1,215 @@
+package com.bytedance.videoapp.utils;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * 展示文案格式化工具
+ * <p>
+ * 职责:
+ * 1.  将数值计数格式化为界面展示用的短字符串 (例如 125000 -> "12.5w")。
+ * 2.  将 epoch 毫秒时间戳格式化为相对时间 (例如 "刚刚"、"5分钟前"、"05-20")。
+ *     将作者名格式化为 "@作者" 形式的展示名。
+ * 3.  缓存已生成的字符串。同一个数值/时间段在列表中会反复出现，命中缓存时不产生任何对象分配。
+ * 4.  相对时间统一基于一个"快照时钟"计算，调用方通过 {@link #refreshClock()} 批量刷新，
+ *     而不是每个条目各自读取系统时间，保证同一屏内的时间文案一致。
+ * <p>
+ * 所有方法都是线程安全的 (类级别同步，主线程上几乎无竞争)。
+ */
+public final class DisplayFormatter {
+
+    private static final long MINUTE_MS = 60_000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final int MAX_RELATIVE_DAYS = 30;
+
+    // 计数缓存：直接映射 (direct-mapped) 的小表，容量必须是 2 的幂
+    private static final int COUNT_CACHE_SIZE = 512;
+    private static final long[] sCountKeys = new long[COUNT_CACHE_SIZE];
+    private static final String[] sCountValues = new String[COUNT_CACHE_SIZE];
+
+    // 相对时间缓存：每个时间段的文案只生成一次
+    private static final String[] sMinuteTexts = new String[60];
+    private static final String[] sHourTexts = new String[24];
+    private static final String[] sDayTexts = new String[MAX_RELATIVE_DAYS];
+    // 超过30天的绝对日期 "MM-dd"，以本地时区的"天序号"为键
+    private static final int DATE_CACHE_SIZE = 64;
+    private static final long[] sDateKeys = new long[DATE_CACHE_SIZE];
+    private static final String[] sDateValues = new String[DATE_CACHE_SIZE];
+
+    // 作者展示名缓存 ("@作者")：直接映射，以作者名的 hashCode 选择槽位
+    private static final int HANDLE_CACHE_SIZE = 256;
+    private static final String[] sHandleKeys = new String[HANDLE_CACHE_SIZE];
+    private static final String[] sHandleValues = new String[HANDLE_CACHE_SIZE];
+
+    // 复用的拼接缓冲区，只在缓存未命中时使用
+    private static final StringBuilder sBuilder = new StringBuilder(16);
+
+    // 快照时钟，所有相对时间都以它为基准
+    private static long sNowMs = System.currentTimeMillis();
+    // 日期使用的时区 (TimeZone.getDefault() 每次都返回副本，因此缓存下来，在 refreshClock 时检查是否变化)
+    private static TimeZone sTimeZone = TimeZone.getDefault();
+
+    private DisplayFormatter() {}
+
+    /**
+     * 格式化计数，例如 8900 -> "8900"，125000 -> "12.5w"，230000000 -> "2.3亿"。
+     * @param count 原始计数
+     * @return 展示用字符串 (缓存命中时返回同一个实例)
+     */
+    public static synchronized String formatCount(long count) {
+        if (count < 0) count = 0;
+        // 以展示精度对齐后的值作为缓存键：125000 和 125999 都显示为 "12.5w"，共用同一个实例
+        if (count >= 100_000_000L) {
+            count -= count % 10_000_000L;
+        } else if (count >= 10_000L) {
+            count -= count % 1_000L;
+        }
+        int slot = (int) (mix(count) & (COUNT_CACHE_SIZE - 1));
+        String cached = sCountValues[slot];
+        if (cached != null && sCountKeys[slot] == count) {
+            return cached;
+        }
+
+        StringBuilder sb = sBuilder;
+        sb.setLength(0);
+        if (count < 10_000L) {
+            sb.append(count);
+        } else if (count < 100_000_000L) {
+            appendOneDecimal(sb, count / 1_000L); // 以"千"为单位，保留一位小数的"万"
+            sb.append('w');
+        } else {
+            appendOneDecimal(sb, count / 10_000_000L); // 以"千万"为单位，保留一位小数的"亿"
+            sb.append('亿');
+        }
+        String text = sb.toString();
+        sCountKeys[slot] = count;
+        sCountValues[slot] = text;
+        return text;
+    }
+
+    /**
+     * 基于快照时钟格式化相对时间。
+     * @param timeMs 事件发生时间 (epoch 毫秒)
+     * @return 展示用字符串 (缓存命中时返回同一个实例)
+     */
+    public static synchronized String formatRelativeTime(long timeMs) {
+        long diff = sNowMs - timeMs;
+        if (diff < MINUTE_MS) {
+            return "刚刚";
+        }
+        if (diff < HOUR_MS) {
+            int minutes = (int) (diff / MINUTE_MS);
+            String text = sMinuteTexts[minutes];
+            if (text == null) {
+                text = sMinuteTexts[minutes] = minutes + "分钟前";
+            }
+            return text;
+        }
+        if (diff < DAY_MS) {
+            int hours = (int) (diff / HOUR_MS);
+            String text = sHourTexts[hours];
+            if (text == null) {
+                text = sHourTexts[hours] = hours + "小时前";
+            }
+            return text;
+        }
+        if (diff < MAX_RELATIVE_DAYS * DAY_MS) {
+            int days = (int) (diff / DAY_MS);
+            String text = sDayTexts[days];
+            if (text == null) {
+                text = sDayTexts[days] = days + "天前";
+            }
+            return text;
+        }
+        return formatDate(timeMs);
+    }
+
+    /**
+     * 格式化作者展示名，例如 "小明" -> "@小明"。
+     * 新的一页 Feed 到达时可提前调用一次，之后的绑定都直接命中缓存。
+     * @param author 作者名，可以为 null
+     * @return 展示用字符串 (缓存命中时返回同一个实例)，作者为 null 时返回空串
+     */
+    public static synchronized String formatHandle(String author) {
+        if (author == null) return "";
+        int slot = (int) (mix(author.hashCode()) & (HANDLE_CACHE_SIZE - 1));
+        String cachedKey = sHandleKeys[slot];
+        // 作者名在列式存储中已去重，绝大多数情况下引用相同，equals 只是兜底
+        if (cachedKey == author || (cachedKey != null && cachedKey.equals(author))) {
+            return sHandleValues[slot];
+        }
+        String text = "@" + author;
+        sHandleKeys[slot] = author;
+        sHandleValues[slot] = text;
+        return text;
+    }
+
+    /**
+     * 刷新快照时钟。应在一批条目绑定之前 (或定时器触发时) 调用一次。
+     * @return 如果分钟级的展示结果可能发生变化则返回 true，调用方据此决定是否需要局部刷新列表
+     */
+    public static synchronized boolean refreshClock() {
+        long now = System.currentTimeMillis();
+        boolean changed = now / MINUTE_MS != sNowMs / MINUTE_MS;
+        sNowMs = now;
+        TimeZone zone = TimeZone.getDefault();
+        if (!zone.hasSameRules(sTimeZone)) {
+            // 时区变化后缓存的日期全部失效
+            sTimeZone = zone;
+            Arrays.fill(sDateValues, null);
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * 格式化为 "MM-dd"。以本地时区的天序号做缓存键。
+     */
+    private static String formatDate(long timeMs) {
+        // 先换算到本地时间再按天取整，否则本地凌晨的时间会和前一天共用缓存
+        long dayKey = Math.floorDiv(timeMs + sTimeZone.getOffset(timeMs), DAY_MS);
+        int slot = (int) (mix(dayKey) & (DATE_CACHE_SIZE - 1));
+        String cached = sDateValues[slot];
+        if (cached != null && sDateKeys[slot] == dayKey) {
+            return cached;
+        }
+        // 缓存未命中才会走到这里，Calendar 的分配只发生一次
+        Calendar calendar = Calendar.getInstance(sTimeZone);
+        calendar.setTimeInMillis(timeMs);
+        int month = calendar.get(Calendar.MONTH) + 1;
+        int day = calendar.get(Calendar.DAY_OF_MONTH);
+        StringBuilder sb = sBuilder;
+        sb.setLength(0);
+        if (month < 10) sb.append('0');
+        sb.append(month).append('-');
+        if (day < 10) sb.append('0');
+        sb.append(day);
+        String text = sb.toString();
+        sDateKeys[slot] = dayKey;
+        sDateValues[slot] = text;
+        return text;
+    }
+
+    /**
+     * 追加一个以"十分之一"为单位的数值，整数时省略小数部分 (例如 125 -> "12.5"，130 -> "13")。
+     */
+    private static void appendOneDecimal(StringBuilder sb, long tenths) {
+        sb.append(tenths / 10);
+        long fraction = tenths % 10;
+        if (fraction != 0) {
+            sb.append('.').append(fraction);
+        }
+    }
+
+    /**
+     * 简单的 64 位混淆函数，让相邻的数值均匀分布到缓存槽位上。
+     */
+    private static long mix(long value) {
+        value ^= (value >>> 33);
+        value *= 0xff51afd7ed558ccdL;
+        value ^= (value >>> 33);
+        return value;
+    }
+}
@@ -0,0 +1,218 @@
+package com.bytedance.videoapp.utils;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+
+/**
+ * 按下标访问的平衡树列表 (隐式 Treap)
+ * <p>
+ * {@link java.util.ArrayList} 在头部或中间插入、删除时需要移动后面的所有元素，
+ * 当评论区有数万行、并且会在头部插入新评论、在中间展开/收起回复时，每次操作都是 O(n)。
+ * 这里每个节点记录子树大小，按下标定位、插入、删除都是 O(log n)；
+ * 批量插入 k 个元素时先在 O(k) 内建成一棵子树再整体拼接，为 O(k + log n)。
+ * <p>
+ * 按下标遍历 ({@link #get}) 为 O(log n)，适合 RecyclerView 这种只访问可见范围的场景，
+ * 不适合频繁的全量遍历。非线程安全。
+ */
+public final class IndexedTreeList<T> extends AbstractList<T> {
+
+    private static final class Node<T> {
+        T value;
+        final int priority;
+        int size = 1;
+        Node<T> left, right;
+
+        Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private Node<T> root;
+    // 优先级随机数的状态 (xorshift)，固定种子保证行为可复现
+    private int seed = 0x2545F491;
+
+    // split 的两个结果，避免每次拆分都分配一个结果对象
+    private Node<T> splitLeft, splitRight;
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public T get(int index) {
+        return node(index).value;
+    }
+
+    @Override
+    public T set(int index, T element) {
+        Node<T> node = node(index);
+        T old = node.value;
+        node.value = element;
+        return old;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        checkPositionIndex(index);
+        split(root, index);
+        Node<T> right = splitRight;
+        root = merge(merge(splitLeft, new Node<>(element, nextPriority())), right);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        checkPositionIndex(index);
+        if (c.isEmpty()) return false;
+        Node<T> inserted = build(c);
+        split(root, index);
+        Node<T> right = splitRight;
+        root = merge(merge(splitLeft, inserted), right);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        return addAll(size(), c);
+    }
+
+    @Override
+    public T remove(int index) {
+        T value = get(index);
+        removeRange(index, index + 1);
+        return value;
+    }
+
+    /**
+     * 删除 [fromIndex, toIndex) 范围内的元素，为 O(log n)。
+     */
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("from " + fromIndex + ", to " + toIndex + ", size " + size());
+        }
+        if (fromIndex == toIndex) return;
+        split(root, toIndex);
+        Node<T> right = splitRight;
+        split(splitLeft, fromIndex);
+        root = merge(splitLeft, right);
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    private Node<T> node(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        }
+    }
+
+    /**
+     * 把 t 拆成前 k 个元素 (splitLeft) 和其余元素 (splitRight)。
+     */
+    private void split(Node<T> t, int k) {
+        if (t == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        int leftSize = size(t.left);
+        if (leftSize < k) {
+            split(t.right, k - leftSize - 1);
+            t.right = splitLeft;
+            update(t);
+            splitLeft = t;
+        } else {
+            split(t.left, k);
+            t.left = splitRight;
+            update(t);
+            splitRight = t;
+        }
+    }
+
+    /**
+     * 把 a 和 b 拼接成一棵树，a 的所有元素在 b 之前。
+     */
+    private Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+
+    /**
+     * 按顺序用栈在 O(k) 内建成一棵满足堆序的子树 (笛卡尔树)，再自底向上计算子树大小。
+     */
+    private Node<T> build(Collection<? extends T> items) {
+        ArrayDeque<Node<T>> stack = new ArrayDeque<>();
+        for (T item : items) {
+            Node<T> node = new Node<>(item, nextPriority());
+            Node<T> last = null;
+            while (!stack.isEmpty() && stack.peek().priority < node.priority) {
+                last = stack.pop();
+            }
+            node.left = last;
+            if (!stack.isEmpty()) stack.peek().right = node;
+            stack.push(node);
+        }
+        Node<T> top = stack.peekLast();
+        updateSizes(top);
+        return top;
+    }
+
+    private static <T> int updateSizes(Node<T> node) {
+        if (node == null) return 0;
+        node.size = updateSizes(node.left) + updateSizes(node.right) + 1;
+        return node.size;
+    }
+
+    private static <T> int size(Node<T> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private int nextPriority() {
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        seed = x;
+        return x;
+    }
+}
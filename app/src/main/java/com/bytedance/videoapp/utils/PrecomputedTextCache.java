@@ -0,0 +1,124 @@
+package com.bytedance.videoapp.utils;
+
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.content.res.Configuration;
+import android.text.PrecomputedText;
+import android.util.Log;
+import android.util.LruCache;
+import android.util.SparseArray;
+import android.widget.TextView;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import androidx.appcompat.widget.AppCompatTextView;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 预计算文本缓存
+ * <p>
+ * 长标题 (带 emoji、话题标签) 和多行评论在 setText 之后，TextView 需要在主线程上逐字测量字形宽度，
+ * 这部分开销出现在每次绑定中。这里在数据到达时 ({@link #warm}) 就在后台线程中用
+ * {@link PrecomputedText} 完成测量，绑定时直接把结果交给 TextView，主线程只剩下换行排版。
+ * <p>
+ * 测量结果依赖字体、字号等排版参数，因此每种文字样式 (TextAppearance) 一个实例，
+ * 参数取自一个应用了该样式的 TextView 原型；实例内部按文本内容缓存最近使用的结果。
+ * 字号还受系统字体缩放、屏幕密度和语言影响，这些配置变化后 (Activity 重建时) 所有实例按新配置重新创建。
+ * 目标 TextView 的参数必须与原型一致才能使用预计算结果，调用方应在创建 ViewHolder 时通过
+ * {@link #matches} 检查一次，不一致时退回普通的 setText。
+ */
+public final class PrecomputedTextCache {
+
+    private static final String TAG = "PrecomputedTextCache";
+    private static final int MAX_ENTRIES = 256;
+
+    // 影响排版参数的配置项，其余变化 (例如屏幕旋转) 不需要重新测量
+    private static final int METRICS_CONFIG_CHANGES = ActivityInfo.CONFIG_FONT_SCALE
+            | ActivityInfo.CONFIG_DENSITY | ActivityInfo.CONFIG_LOCALE;
+
+    private static final SparseArray<PrecomputedTextCache> sCaches = new SparseArray<>();
+    // sCaches 中的实例是按哪个配置创建的，只在主线程读写
+    private static Configuration sConfiguration;
+    private static final Executor sExecutor = Executors.newSingleThreadExecutor();
+
+    private final PrecomputedText.Params params;
+    private final LruCache<CharSequence, PrecomputedText> texts = new LruCache<>(MAX_ENTRIES);
+
+    private PrecomputedTextCache(PrecomputedText.Params params) {
+        this.params = params;
+    }
+
+    /**
+     * 获取某种文字样式对应的缓存。首次调用 (或影响排版的配置变化后首次调用) 时在主线程上
+     * 创建原型 TextView 读取排版参数。
+     * @param context      与目标 TextView 相同主题的 Context
+     * @param textAppearance 目标 TextView 使用的 TextAppearance
+     */
+    @MainThread
+    public static PrecomputedTextCache forStyle(Context context, @StyleRes int textAppearance) {
+        Configuration configuration = context.getResources().getConfiguration();
+        if (sConfiguration == null || (sConfiguration.diff(configuration) & METRICS_CONFIG_CHANGES) != 0) {
+            // 按旧参数测量的结果不能再交给新的 TextView，整体丢弃
+            sCaches.clear();
+            sConfiguration = new Configuration(configuration);
+        }
+        PrecomputedTextCache cache = sCaches.get(textAppearance);
+        if (cache == null) {
+            TextView prototype = new AppCompatTextView(context);
+            prototype.setTextAppearance(textAppearance);
+            cache = new PrecomputedTextCache(prototype.getTextMetricsParams());
+            sCaches.put(textAppearance, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * 在后台线程中预计算一批文本 (例如新到达的一页 Feed 的标题、一批评论)。
+     */
+    public void warm(List<? extends CharSequence> batch) {
+        if (batch.isEmpty()) return;
+        CharSequence[] pending = batch.toArray(new CharSequence[0]);
+        sExecutor.execute(() -> {
+            for (CharSequence text : pending) {
+                if (text == null || texts.get(text) != null) continue;
+                try {
+                    texts.put(text, PrecomputedText.create(text, params));
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "precompute failed", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取已经预计算好的文本，尚未完成时返回 null。
+     */
+    @Nullable
+    public PrecomputedText get(@Nullable CharSequence text) {
+        return text != null ? texts.get(text) : null;
+    }
+
+    /**
+     * 获取可直接用于 setText 的文本：命中缓存时返回预计算结果，否则返回原文本。
+     */
+    public CharSequence getOrOriginal(@Nullable CharSequence text) {
+        PrecomputedText precomputed = get(text);
+        return precomputed != null ? precomputed : text;
+    }
+
+    /**
+     * 检查 TextView 的排版参数是否与本缓存一致 (会创建参数对象，应只在创建 ViewHolder 时调用)。
+     */
+    @MainThread
+    public boolean matches(TextView view) {
+        boolean matches = params.equals(view.getTextMetricsParams());
+        if (!matches) {
+            Log.w(TAG, "text metrics params mismatch, falling back to plain text");
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,79 @@
+package com.bytedance.videoapp.view;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+
+import androidx.annotation.Nullable;
+import androidx.appcompat.widget.AppCompatImageView;
+
+/**
+ * 按固定宽高比测量的 ImageView
+ * <p>
+ * 瀑布流卡片的高度原本取决于封面解码后的尺寸 (wrap_content + adjustViewBounds)，
+ * 图片陆续到达时卡片会重新测量，导致列间跳动。这里在加载图片之前就设置好宽高比：
+ * 1.  高度 = 宽度 × 宽高比，与图片内容无关，卡片在绑定时只测量一次。
+ * 2.  设置图片时拦截 ImageView 因 Drawable 尺寸变化而发起的 requestLayout，
+ *     图片到达只会触发重绘，不会触发重新布局。
+ * <p>
+ * 未设置宽高比 (为 0) 时与普通 ImageView 行为一致。
+ */
+public class AspectRatioImageView extends AppCompatImageView {
+
+    private float aspectRatio; // 高 / 宽
+    private boolean settingDrawable;
+
+    public AspectRatioImageView(Context context) {
+        super(context);
+    }
+
+    public AspectRatioImageView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public AspectRatioImageView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    /**
+     * 设置宽高比。只有比例真正变化时才会请求重新布局。
+     * @param aspectRatio 高 / 宽
+     */
+    public void setAspectRatio(float aspectRatio) {
+        if (this.aspectRatio != aspectRatio) {
+            this.aspectRatio = aspectRatio;
+            requestLayout();
+        }
+    }
+
+    public float getAspectRatio() {
+        return aspectRatio;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (aspectRatio <= 0f) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        setMeasuredDimension(width, Math.round(width * aspectRatio));
+    }
+
+    @Override
+    public void setImageDrawable(@Nullable Drawable drawable) {
+        settingDrawable = true;
+        try {
+            super.setImageDrawable(drawable);
+        } finally {
+            settingDrawable = false;
+        }
+    }
+
+    @Override
+    public void requestLayout() {
+        // 尺寸由宽高比决定，图片变化不影响测量结果，无需重新布局
+        if (settingDrawable && aspectRatio > 0f) return;
+        super.requestLayout();
+    }
+}
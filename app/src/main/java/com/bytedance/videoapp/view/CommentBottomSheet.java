@@ -2,111 +2,356 @@ package com.bytedance.videoapp.view;
 
 import android.app.Dialog;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.EditText;
 import android.widget.ImageView;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.fragment.app.FragmentActivity;
+import androidx.fragment.app.FragmentManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bytedance.videoapp.BuildConfig;
 import com.bytedance.videoapp.R;
 import com.bytedance.videoapp.adapters.CommentAdapter;
+import com.bytedance.videoapp.adapters.ViewHolderPrewarmer;
 import com.bytedance.videoapp.model.CommentBean;
+import com.bytedance.videoapp.repository.CommentOutbox;
+import com.bytedance.videoapp.repository.CommentRepository;
+import com.bytedance.videoapp.repository.CommentSource;
+import com.bytedance.videoapp.repository.VideoRepository;
+import com.bytedance.videoapp.utils.DisplayFormatter;
+import com.bytedance.videoapp.utils.PrecomputedTextCache;
 import com.google.android.material.bottomsheet.BottomSheetBehavior;
-import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 评论区底部弹窗 (BottomSheet)
  * <p>
  * 职责:
  * 1.  以从底部弹出的形式展示评论列表。
- * 2.  使用 RecyclerView 显示评论数据。
- * 3.  提供输入框和发送按钮，让用户可以发表新评论。
+ * 2.  使用 RecyclerView 显示评论数据，数据来自 {@link CommentRepository}，滚动到底部时分页加载。
+ * 3.  提供输入框和发送按钮，让用户可以发表新评论：评论交给 {@link CommentOutbox} 在后台发送，
+ *     列表中立即乐观显示，发表成功后换成正式ID和时间，最终失败时移除。
  * 4.  管理自身的显示和隐藏逻辑。
+ * 5.  展开一级评论的回复时，从 {@link CommentRepository#fetchReplies} 按需加载。
+ * <p>
+ * 每个详情页通过 {@link #obtain} 只使用一个实例，布局、RecyclerView 和 Adapter 在多次打开之间一直保留，
+ * 打开另一个视频的评论时只替换数据；评论条目的 ViewHolder 在空闲时于后台预先创建，放在列表自己的缓存池中。
+ * 首次打开前可以先调用 {@link #prewarm} 在空闲时完成创建。
+ * 弹窗打开期间发生配置变化 (旋转等) 时实例被保留，Adapter 和数据不变，只为新的 Activity 重新创建布局。
  */
 public class CommentBottomSheet extends BottomSheetDialogFragment {
 
+    private static final String TAG = "CommentBottomSheet";
+    private static final String FRAGMENT_TAG = "comment_sheet";
+    // 弹窗高度占屏幕高度的比例
+    private static final float HEIGHT_RATIO = 0.7f;
+    // 列表底部剩余的评论少于该数量时加载下一页
+    private static final int LOAD_MORE_THRESHOLD = 5;
+    // 预先创建的评论条目数量 (约一屏半)
+    private static final int PREWARM_ITEM_COUNT = 12;
+    // 尚未打开过任何视频
+    private static final long NO_VIDEO = Long.MIN_VALUE;
+
+    // 布局所属的 Activity，配置变化后布局需要重新创建
+    private FragmentActivity viewOwner;
+    private View contentView;
     private RecyclerView recyclerView;
+    private TextView tvTitle;
     private CommentAdapter adapter;
     private EditText etContent;
-    private ImageView ivSend;
-    private ImageView ivClose;
+
+    private long videoId = NO_VIDEO;
+    // 下一次创建视图时要显示的视频
+    private long pendingVideoId = NO_VIDEO;
+    // 已经交给 FragmentManager、尚未销毁 (关闭或页面结束)；配置变化期间被保留时依然为 true
+    private boolean inFragmentManager;
+    // 已经从仓库取到的评论条数 (不含本地刚发表的评论)，作为加载下一页的起点
+    private int loadedCount;
+    private boolean loading;
+    // 每次切换视频加一，切换前发出的加载请求返回时被忽略
+    private int generation;
+    // 当前视频乐观显示、尚未发表成功的评论，key 为 localId
+    private final Map<String, CommentBean> localComments = new HashMap<>();
+
+    // 本次打开的起始时间，以及最近一次从打开到首帧绘制的耗时
+    private long openStartNs;
+    private long lastOpenToDrawNs = -1;
+
+    // 每分钟批量刷新一次相对时间文案
+    private static final long RELATIVE_TIME_TICK_MS = 60_000L;
+    private final Handler tickHandler = new Handler(Looper.getMainLooper());
+    private final Runnable relativeTimeTicker = new Runnable() {
+        @Override
+        public void run() {
+            adapter.refreshRelativeTimes();
+            tickHandler.postDelayed(this, RELATIVE_TIME_TICK_MS);
+        }
+    };
+
+    // 打开后的第一次绘制
+    private final ViewTreeObserver.OnPreDrawListener firstDrawListener = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            recyclerView.getViewTreeObserver().removeOnPreDrawListener(this);
+            lastOpenToDrawNs = SystemClock.elapsedRealtimeNanos() - openStartNs;
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "open to first draw: " + lastOpenToDrawNs / 1000 + " us, "
+                        + adapter.getItemCount() + " comments");
+            }
+            return true;
+        }
+    };
+
+    // 发件箱的发表结果，只处理当前视频乐观显示的评论
+    private final CommentOutbox.Listener postListener = new CommentOutbox.Listener() {
+        @Override
+        public void onPosted(CommentSource.Post post, CommentBean posted) {
+            CommentBean local = localComments.remove(post.localId);
+            if (local == null) return;
+            adapter.reconcileComment(local, posted);
+            // 仓库缓存的最前面多了这条评论，加载下一页的起点随之后移
+            loadedCount++;
+            updateTitle();
+        }
+
+        @Override
+        public void onFailed(CommentSource.Post post) {
+            CommentBean local = localComments.remove(post.localId);
+            if (local == null) return;
+            adapter.removeComment(local);
+            if (isShowing()) {
+                Toast.makeText(viewOwner, "评论发送失败", Toast.LENGTH_SHORT).show();
+            }
+        }
+    };
 
     /**
-     * 在 onStart() 生命周期中设置弹窗的初始状态和高度。
-     * 这是官方推荐的用于修改 BottomSheetDialog 行为的时机。
+     * 获取页面的评论区：配置变化前打开着的评论区由 FragmentManager 保留，取回同一个实例，否则新建。
+     * 应在 Activity 的 super.onCreate 之后调用。
      */
-    @Override
-    public void onStart() {
-        super.onStart();
+    @MainThread
+    public static CommentBottomSheet obtain(FragmentManager fragmentManager) {
+        CommentBottomSheet sheet = (CommentBottomSheet) fragmentManager.findFragmentByTag(FRAGMENT_TAG);
+        return sheet != null ? sheet : new CommentBottomSheet();
+    }
+
+    /**
+     * 提前为 activity 创建布局和列表，并开始在后台准备评论条目，适合在页面空闲时调用。
+     * 已经为该 activity 创建过时什么也不做。
+     */
+    @MainThread
+    public void prewarm(FragmentActivity activity) {
+        if (contentView != null && viewOwner == activity) return;
+        releaseView();
+        viewOwner = activity;
+        // 加载评论区弹窗的布局文件
+        contentView = LayoutInflater.from(activity).inflate(R.layout.dialog_comment, null, false);
+        initViews(contentView);
+        if (videoId != NO_VIDEO) {
+            // 配置变化后为新的 Activity 重建布局：数据仍在 Adapter 中，只恢复标题
+            updateTitle();
+        }
+        CommentOutbox outbox = CommentOutbox.getInstance(activity);
+        outbox.removeListener(postListener);
+        outbox.addListener(postListener);
+    }
+
+    /**
+     * 打开某个视频的评论区。与上次是同一个视频时保留滚动位置和刚发表的评论，否则替换为该视频的评论：
+     * 详情页已经预取过的评论直接从缓存同步取出，首帧即可显示；未命中时先显示空列表，异步加载完成后再填充。
+     * @param activity 详情页
+     * @param videoId  视频ID
+     */
+    @MainThread
+    public void show(FragmentActivity activity, long videoId) {
+        FragmentManager fragmentManager = activity.getSupportFragmentManager();
+        if (isAdded() || fragmentManager.isStateSaved()) return;
+        prewarm(activity);
+        pendingVideoId = videoId;
+        openStartNs = SystemClock.elapsedRealtimeNanos();
+        // 同步提交，连续点击时 isAdded 已经生效
+        showNow(fragmentManager, FRAGMENT_TAG);
+    }
+
+    public boolean isShowing() {
         Dialog dialog = getDialog();
-        if (dialog != null) {
-            // 获取 BottomSheet 的根视图
-            View bottomSheet = dialog.findViewById(com.google.android.material.R.id.design_bottom_sheet);
-            if (bottomSheet != null) {
-                // 将弹窗的初始高度设置为屏幕高度的 70%
-                bottomSheet.getLayoutParams().height = (int) (getResources().getDisplayMetrics().heightPixels * 0.7);
-                // 获取 BottomSheet 的行为控制器
-                BottomSheetBehavior<View> behavior = BottomSheetBehavior.from(bottomSheet);
-                // 将其状态设置为完全展开
-                behavior.setState(BottomSheetBehavior.STATE_EXPANDED);
-            }
+        return dialog != null && dialog.isShowing();
+    }
+
+    /**
+     * 页面销毁时调用：把评论条目的缓存池交还给预加载器。评论区因配置变化被保留时只释放旧页面的布局，
+     * 否则同时停止接收发件箱的结果。
+     */
+    @MainThread
+    public void release() {
+        if (viewOwner == null) return;
+        Context context = viewOwner.getApplicationContext();
+        releaseView();
+        viewOwner = null;
+        if (!inFragmentManager) {
+            tickHandler.removeCallbacks(relativeTimeTicker);
+            CommentOutbox.getInstance(context).removeListener(postListener);
         }
     }
 
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        // 配置变化时保留实例，Adapter 中的评论、分页位置和乐观显示的评论都不丢失
+        setRetainInstance(true);
+        inFragmentManager = true;
+    }
+
     @Nullable
     @Override
-    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
-        // 加载评论区弹窗的布局文件
-        return inflater.inflate(R.layout.dialog_comment, container, false);
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
+                             @Nullable Bundle savedInstanceState) {
+        // 复用预先创建的布局；上一次打开时所在的弹窗已经关闭，先从中取出
+        prewarm(requireActivity());
+        ViewGroup parent = (ViewGroup) contentView.getParent();
+        if (parent != null) parent.removeView(contentView);
+        return contentView;
     }
 
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
-        // 视图创建完成后，初始化所有子视图和数据
-        initViews(view);
-        initData();
+        // 配置变化后重新创建视图时没有待打开的视频，数据保持不变
+        if (pendingVideoId == NO_VIDEO) return;
+        if (pendingVideoId != videoId) {
+            bindVideo(pendingVideoId);
+        }
+        pendingVideoId = NO_VIDEO;
+        recyclerView.getViewTreeObserver().removeOnPreDrawListener(firstDrawListener);
+        recyclerView.getViewTreeObserver().addOnPreDrawListener(firstDrawListener);
+    }
+
+    /**
+     * 每次显示都是新的弹窗：设置高度和展开状态，可见期间立即对齐一次相对时间，之后按分钟刷新。
+     */
+    @Override
+    public void onStart() {
+        super.onStart();
+        initSheetBehavior();
+        tickHandler.removeCallbacks(relativeTimeTicker);
+        tickHandler.post(relativeTimeTicker);
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        tickHandler.removeCallbacks(relativeTimeTicker);
+    }
+
+    @Override
+    public void onDismiss(@NonNull DialogInterface dialog) {
+        super.onDismiss(dialog);
+        hideKeyboard();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        // 被关闭或页面结束 (配置变化期间被保留时不会调用)
+        inFragmentManager = false;
+    }
+
+    /**
+     * @return 最近一次从调用 {@link #show} 到列表首次绘制的耗时 (纳秒)，尚未绘制过时为 -1
+     */
+    @VisibleForTesting
+    public long getLastOpenToDrawNs() {
+        return lastOpenToDrawNs;
+    }
+
+    /**
+     * 把评论条目的缓存池交还给预加载器，并丢弃属于旧 Activity 的布局。Adapter 保留。
+     */
+    private void releaseView() {
+        if (contentView == null) return;
+        recyclerView.setAdapter(null);
+        ViewHolderPrewarmer.getInstance(viewOwner).detach(R.layout.item_comment, recyclerView);
+        contentView = null;
+        recyclerView = null;
     }
 
     /**
-     * 初始化视图组件并设置点击事件。
-     * @param view Fragment 的根视图
+     * 初始化视图组件并设置点击事件，每个 Activity 只执行一次。Adapter 在第一次创建后一直复用。
+     * @param view 弹窗的根视图
      */
     private void initViews(View view) {
+        FragmentActivity activity = viewOwner;
         recyclerView = view.findViewById(R.id.rv_comments);
+        tvTitle = view.findViewById(R.id.tv_title);
         etContent = view.findViewById(R.id.et_content);
-        ivSend = view.findViewById(R.id.iv_send);
-        ivClose = view.findViewById(R.id.iv_close);
+        ImageView ivSend = view.findViewById(R.id.iv_send);
+        ImageView ivClose = view.findViewById(R.id.iv_close);
+
+        recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        if (adapter == null) {
+            // 评论内容在到达仓库时就已经在后台开始测量 (见 VideoDetailActivity)，绑定时直接使用
+            PrecomputedTextCache contentTexts = PrecomputedTextCache.forStyle(activity,
+                    R.style.TextAppearance_Videoapp_CommentContent);
+            adapter = new CommentAdapter(new ArrayList<>(), contentTexts);
+            // 展开回复时按需加载
+            adapter.setOnLoadRepliesListener(this::loadReplies);
+        }
+        recyclerView.setAdapter(adapter);
+        // 为列表创建评论条目的缓存池，空闲时在后台准备好的条目直接放入池中 (必须在 setAdapter 之后)
+        ViewHolderPrewarmer prewarmer = ViewHolderPrewarmer.getInstance(activity);
+        prewarmer.prewarm(R.layout.item_comment, PREWARM_ITEM_COUNT);
+        prewarmer.attach(R.layout.item_comment, recyclerView, adapter, CommentAdapter.TYPE_COMMENT);
 
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        // 滚动到接近底部时加载下一页
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0) return;
+                LinearLayoutManager lm = (LinearLayoutManager) rv.getLayoutManager();
+                if (lm != null && lm.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    loadMore();
+                }
+            }
+        });
 
         // 设置关闭按钮的点击事件
-        ivClose.setOnClickListener(v -> dismiss()); // dismiss() 是 DialogFragment 关闭自身的标准方法
+        ivClose.setOnClickListener(v -> dismiss());
 
         // 设置发送按钮的点击事件
         ivSend.setOnClickListener(v -> {
             String content = etContent.getText().toString().trim();
             if (content.isEmpty()) {
-                Toast.makeText(getContext(), "写点什么吧...", Toast.LENGTH_SHORT).show();
+                Toast.makeText(activity, "写点什么吧...", Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            // 1. 创建一个新的评论对象
-            CommentBean newComment = new CommentBean(content, "我", "刚刚", "0", R.drawable.avatar_1);
-            // 2. 将新评论添加到 Adapter 的数据列表顶部
-            adapter.addComment(newComment);
+            // 1. 放入发件箱，落盘和发送都在后台进行
+            CommentSource.Post post = CommentOutbox.getInstance(activity).enqueue(videoId, content);
+            // 2. 乐观地将新评论添加到 Adapter 的数据列表顶部
+            adapter.addComment(localComment(post));
 
             // 3. 滚动 RecyclerView 到顶部，让用户能立刻看到自己的评论
             recyclerView.scrollToPosition(0);
@@ -118,27 +363,132 @@ public class CommentBottomSheet extends BottomSheetDialogFragment {
     }
 
     /**
-     * 初始化评论区的模拟数据。
-     * 在真实项目中，这些数据通常会从 ViewModel 或网络请求中获取。
+     * 设置弹窗的高度和展开状态。折叠高度与弹窗高度相同，始终是完全展开的。
      */
-    private void initData() {
-        List<CommentBean> list = new ArrayList<>();
-        list.add(new CommentBean("这光影效果绝了，每一帧截下来都能当壁纸！👍", "摄影爱好者", "刚刚", "1.2w", R.drawable.avatar_1));
-        list.add(new CommentBean("视频剪辑的节奏感很好，转场太丝滑了。", "剪辑练习生", "5分钟前", "4521", R.drawable.avatar_2));
-        list.add(new CommentBean("这是在哪里拍的呀？风景看起来好治愈。", "旅行日记", "1小时前", "899", R.drawable.avatar_3));
-        list.add(new CommentBean("背景音乐配得恰到好处，瞬间氛围感拉满。🎵", "听风者", "2小时前", "125", R.drawable.avatar_4));
-        list.add(new CommentBean("期待博主更新，希望能多出一些这样的高质量内容。", "路人甲", "3小时前", "66", R.drawable.avatar_5));
-
-        adapter = new CommentAdapter(list);
-        recyclerView.setAdapter(adapter);
+    private void initSheetBehavior() {
+        Dialog dialog = getDialog();
+        View bottomSheet = dialog != null
+                ? dialog.findViewById(com.google.android.material.R.id.design_bottom_sheet) : null;
+        if (bottomSheet == null) return;
+        int height = (int) (getResources().getDisplayMetrics().heightPixels * HEIGHT_RATIO);
+        bottomSheet.getLayoutParams().height = height;
+        BottomSheetBehavior<View> behavior = BottomSheetBehavior.from(bottomSheet);
+        behavior.setPeekHeight(height);
+        behavior.setSkipCollapsed(true);
+        behavior.setState(BottomSheetBehavior.STATE_EXPANDED);
+    }
+
+    /**
+     * 切换到另一个视频的评论：替换数据、回到顶部并清空输入框。
+     */
+    private void bindVideo(long videoId) {
+        this.videoId = videoId;
+        generation++;
+        loading = false; // 上一个视频正在进行的加载完成后会被忽略
+        List<CommentBean> cached = CommentRepository.getInstance().getCachedComments(videoId);
+
+        // 先对齐快照时钟，保证首屏的相对时间基于"现在"计算
+        DisplayFormatter.refreshClock();
+
+        // 还在发件箱中的评论 (包括上次进程未发送完的) 排在最前面，最新的在最上方
+        localComments.clear();
+        List<CommentBean> comments = new ArrayList<>();
+        List<CommentSource.Post> pending = CommentOutbox.getInstance(viewOwner).getPending(videoId);
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            comments.add(localComment(pending.get(i)));
+        }
+        if (cached != null) comments.addAll(cached);
+        adapter.setComments(comments);
+        recyclerView.scrollToPosition(0);
+        etContent.setText("");
+        loadedCount = 0;
+        if (cached != null) {
+            loadedCount = cached.size();
+        } else {
+            loadMore();
+        }
+        updateTitle();
+    }
+
+    /**
+     * 为发件箱中的评论创建乐观显示的评论对象，并记录下来等待发表结果。
+     */
+    private CommentBean localComment(CommentSource.Post post) {
+        CommentBean bean = new CommentBean(post.content, "我", post.createTime, 0, R.drawable.avatar_1);
+        bean.id = post.localId;
+        localComments.put(post.localId, bean);
+        return bean;
+    }
+
+    /**
+     * 从仓库加载已持有的评论之后的一页。
+     */
+    private void loadMore() {
+        if (loading || !CommentRepository.getInstance().hasMore(videoId)) return;
+        loading = true;
+        int requestGeneration = generation;
+        CommentRepository.getInstance().fetchComments(videoId, loadedCount,
+                new VideoRepository.DataCallback<List<CommentBean>>() {
+                    @Override
+                    public void onSuccess(List<CommentBean> page) {
+                        // 期间已经切换到另一个视频
+                        if (requestGeneration != generation) return;
+                        loading = false;
+                        loadedCount += page.size();
+                        adapter.appendComments(page);
+                        updateTitle();
+                    }
+
+                    @Override
+                    public void onError(String msg) {
+                        if (requestGeneration != generation) return;
+                        loading = false;
+                        if (isShowing()) {
+                            Toast.makeText(viewOwner, "评论加载失败: " + msg, Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 加载某条一级评论的下一页回复，结果交给 Adapter 插入到展开行之前。
+     */
+    private void loadReplies(CommentBean root, int fromIndex) {
+        int requestGeneration = generation;
+        CommentRepository.getInstance().fetchReplies(videoId, root.id, fromIndex,
+                new VideoRepository.DataCallback<List<CommentBean>>() {
+                    @Override
+                    public void onSuccess(List<CommentBean> replies) {
+                        if (requestGeneration != generation) return;
+                        adapter.onRepliesLoaded(root, replies);
+                    }
+
+                    @Override
+                    public void onError(String msg) {
+                        if (requestGeneration != generation) return;
+                        adapter.onRepliesFailed(root);
+                        if (isShowing()) {
+                            Toast.makeText(viewOwner, "回复加载失败: " + msg, Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 标题显示服务端给出的评论总数。
+     */
+    private void updateTitle() {
+        long count = CommentRepository.getInstance().getCommentCount(videoId);
+        tvTitle.setText(count >= 0 ? DisplayFormatter.formatCount(count) + " 条评论" : "评论");
     }
 
     /**
      * 隐藏软键盘的辅助方法。
      */
     private void hideKeyboard() {
-        InputMethodManager imm = (InputMethodManager) requireContext().getSystemService(Context.INPUT_METHOD_SERVICE);
-        if (imm != null && etContent != null) {
+        if (viewOwner == null || etContent == null) return;
+        InputMethodManager imm = (InputMethodManager) viewOwner.getSystemService(Context.INPUT_METHOD_SERVICE);
+        if (imm != null) {
             imm.hideSoftInputFromWindow(etContent.getWindowToken(), 0);
         }
     }
@@ -0,0 +1,267 @@
+package com.bytedance.videoapp.view;
+
+import android.content.Intent;
+import android.os.Parcelable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.media3.common.util.UnstableApi;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
+
+import com.bumptech.glide.Glide;
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.adapters.VideoListAdapter;
+import com.bytedance.videoapp.image.AvatarCache;
+import com.bytedance.videoapp.image.BlankCoverMonitor;
+import com.bytedance.videoapp.image.CoverAspectRatios;
+import com.bytedance.videoapp.image.CoverHandoff;
+import com.bytedance.videoapp.image.CoverPreloader;
+import com.bytedance.videoapp.image.ImageOptions;
+import com.bytedance.videoapp.repository.FeedTab;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+import com.bytedance.videoapp.utils.DisplayFormatter;
+import com.bytedance.videoapp.utils.PrecomputedTextCache;
+import com.bytedance.videoapp.viewmodel.VideoViewModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 首页单个频道 (推荐 / 关注 / 商城) 的瀑布流页面
+ * <p>
+ * 职责:
+ * 1.  持有该频道自己的 RecyclerView、Adapter 和 ViewModel (以频道名为 key)，数据管线与其他频道互不影响。
+ * 2.  实现下拉刷新和上拉加载更多，点击卡片跳转到详情页 (详情页使用同一频道的数据)。
+ * 3.  切换频道时页面只是隐藏，列表内容和滚动位置原样保留，再次显示时不会重新请求；
+ *     滚动位置同时保存在 ViewModel 中，页面重建或缓存被淘汰后重新加载时用于恢复。
+ */
+@UnstableApi
+public class FeedTabController {
+
+    // 滑动方向上预加载的封面数量 (约两屏卡片)
+    private static final int COVER_PRELOAD_COUNT = 6;
+    // 列表底部剩余的可滚动项少于该数量时开始加载下一页
+    private static final int LOAD_MORE_THRESHOLD = 4;
+
+    private final AppCompatActivity activity;
+    private final FeedTab tab;
+    private final View root;
+    private final SwipeRefreshLayout swipeRefreshLayout;
+    private final RecyclerView recyclerView;
+    private final StaggeredGridLayoutManager layoutManager;
+    private final VideoListAdapter adapter = new VideoListAdapter();
+    private final VideoViewModel viewModel;
+
+    /**
+     * @param activity           所在的页面
+     * @param tab                频道
+     * @param swipeRefreshLayout 该频道的下拉刷新容器，也是切换频道时显示/隐藏的根视图
+     * @param recyclerView       该频道的瀑布流列表
+     */
+    public FeedTabController(AppCompatActivity activity, FeedTab tab,
+                             SwipeRefreshLayout swipeRefreshLayout, RecyclerView recyclerView) {
+        this.activity = activity;
+        this.tab = tab;
+        this.root = swipeRefreshLayout;
+        this.swipeRefreshLayout = swipeRefreshLayout;
+        this.recyclerView = recyclerView;
+
+        // 设置布局管理器：2列垂直瀑布流
+        layoutManager = new StaggeredGridLayoutManager(
+                ImageOptions.GRID_SPAN_COUNT, StaggeredGridLayoutManager.VERTICAL);
+        // 防止 item 因为重用而发生位置交换
+        layoutManager.setGapStrategy(StaggeredGridLayoutManager.GAP_HANDLING_NONE);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+
+        // 获取该频道的 ViewModel 实例，多个频道在同一个 Activity 中以频道名区分
+        viewModel = new ViewModelProvider(activity, VideoViewModel.factory(tab))
+                .get(tab.name(), VideoViewModel.class);
+
+        initRecyclerView();
+        initViewModel();
+        initRefreshLayout();
+        initScrollListener();
+    }
+
+    public FeedTab getTab() {
+        return tab;
+    }
+
+    public RecyclerView getRecyclerView() {
+        return recyclerView;
+    }
+
+    public VideoListAdapter getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * 显示该频道。已有数据时直接显示 (不重新请求)，数据被内存预算淘汰过时重新加载。
+     */
+    public void show() {
+        root.setVisibility(View.VISIBLE);
+        viewModel.ensureLoaded();
+    }
+
+    /**
+     * 隐藏该频道，同时记下滚动位置。
+     */
+    public void hide() {
+        saveScrollState();
+        root.setVisibility(View.GONE);
+    }
+
+    /**
+     * 把当前滚动位置保存到 ViewModel (页面即将重建时也应调用)。
+     */
+    public void saveScrollState() {
+        viewModel.saveScrollState(layoutManager.onSaveInstanceState());
+    }
+
+    /**
+     * 页面销毁时调用，释放列表的实时计数订阅。
+     */
+    public void release() {
+        adapter.release();
+    }
+
+    /**
+     * 初始化列表的预加载、空白封面统计和点击事件。
+     */
+    private void initRecyclerView() {
+        // 按滑动方向预加载屏幕外的封面，并统计滑动过程中的空白封面帧
+        recyclerView.addOnScrollListener(new CoverPreloader(
+                Glide.with(activity), adapter, ImageOptions.gridCover(activity), COVER_PRELOAD_COUNT));
+        recyclerView.addOnScrollListener(new BlankCoverMonitor(
+                "home_" + tab.name().toLowerCase(Locale.ROOT), R.id.iv_cover));
+
+        // 设置列表项的点击事件
+        adapter.setOnItemClickListener((video, position, coverView) -> {
+            Intent intent = new Intent(activity, VideoDetailActivity.class);
+            // 传递频道和视频在列表中的位置，方便详情页使用同一份数据并直接定位
+            intent.putExtra("tab", tab.name());
+            intent.putExtra("pos", position);
+            // 【关键优化】传递封面图资源ID，让详情页可以立刻显示封面，避免加载视频时出现黑屏
+            intent.putExtra("cover_res_id", video.coverResId());
+            // 把卡片位置交给详情页，详情页以卡片的封面请求作为 thumbnail (命中内存缓存)，无需在主线程重新解码
+            CoverHandoff.offer(intent, coverView);
+            activity.startActivity(intent);
+            // 去掉 Activity 默认的切换动画，实现无缝切换的效果
+            activity.overridePendingTransition(0, 0);
+        });
+    }
+
+    /**
+     * 设置数据观察者，并触发首次加载 (已有数据时直接回放)。
+     */
+    private void initViewModel() {
+        // 观察【完整视频列表】的变化
+        viewModel.videoList.observe(activity, snapshot -> {
+            if (snapshot != null) {
+                // 先在后台开始读取封面宽高比等，再将新数据提交给 Adapter 进行全量刷新
+                warmPage(snapshot, 0);
+                adapter.setData(snapshot);
+                // 页面重建后回放数据时，恢复之前的滚动位置
+                Parcelable scrollState = viewModel.takeScrollState();
+                if (scrollState != null && !snapshot.isEmpty()) {
+                    layoutManager.onRestoreInstanceState(scrollState);
+                }
+            }
+        });
+
+        // 观察【追加视频列表】的变化
+        viewModel.appendedVideos.observe(activity, snapshot -> {
+            // 此 LiveData 专门用于上拉加载更多，快照中超出当前条目数的部分是新增的条目
+            if (snapshot != null) {
+                // 先在后台开始读取新条目的封面宽高比等，再提交给 Adapter
+                warmPage(snapshot, adapter.getItemCount());
+                // 使用增量更新，避免列表跳动，提供更好的用户体验
+                adapter.appendData(snapshot);
+            }
+        });
+
+        // 触发 ViewModel 首次加载数据（如果数据尚未加载）
+        viewModel.ensureFirstLoad();
+    }
+
+    /**
+     * 新数据到达时，提前生成首页卡片和详情页需要的圆形头像，读取封面宽高比，并生成展示用字符串，
+     * 之后的绑定只是查缓存。
+     * @param from 快照中新数据的起始位置
+     */
+    private void warmPage(VideoColumnStore.Snapshot page, int from) {
+        int to = page.size();
+        if (from >= to) return;
+        AvatarCache.getInstance(activity).warm(page, from, to,
+                activity.getResources().getDimensionPixelSize(R.dimen.avatar_size_card),
+                activity.getResources().getDimensionPixelSize(R.dimen.avatar_size_full));
+        CoverAspectRatios.warm(activity.getResources(), page, from, to);
+        List<CharSequence> titles = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            DisplayFormatter.formatHandle(page.author(i));
+            DisplayFormatter.formatCount(page.likeCount(i));
+            titles.add(page.title(i));
+        }
+        // 详情页的标题在后台预先完成测量
+        PrecomputedTextCache.forStyle(activity, R.style.TextAppearance_Videoapp_VideoTitle).warm(titles);
+    }
+
+    /**
+     * 初始化下拉刷新功能 (SwipeRefreshLayout)。
+     */
+    private void initRefreshLayout() {
+        swipeRefreshLayout.setColorSchemeResources(android.R.color.holo_blue_light); // 设置刷新圈圈的颜色
+
+        // 监听用户的下拉手势，通知 ViewModel 执行刷新操作
+        swipeRefreshLayout.setOnRefreshListener(viewModel::refresh);
+
+        // 根据 ViewModel 的状态，控制刷新圈圈的显示与隐藏
+        viewModel.isRefreshing.observe(activity, swipeRefreshLayout::setRefreshing);
+    }
+
+    /**
+     * 初始化 RecyclerView 的滚动监听，用于实现上拉加载更多（无限滚动）。
+     */
+    private void initScrollListener() {
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                super.onScrolled(recyclerView, dx, dy);
+
+                // 只在向下滑动时处理 (dy > 0)
+                if (dy > 0) {
+                    // 获取瀑布流所有列中，最后可见的 item 的位置
+                    int[] lastVisiblePositions = layoutManager.findLastVisibleItemPositions(null);
+                    int lastVisibleItemPosition = getLastVisibleItem(lastVisiblePositions);
+                    int totalItemCount = layoutManager.getItemCount();
+
+                    // 如果列表底部剩余的可滚动项少于阈值，就开始预加载
+                    if (totalItemCount > 0 && lastVisibleItemPosition >= totalItemCount - LOAD_MORE_THRESHOLD) {
+                        viewModel.loadMore();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 辅助方法：从StaggeredGridLayout的多个 lastVisiblePositions 中获取最大值。
+     * @param lastVisiblePositions 每列的最后一个可见项位置数组
+     * @return 最大的位置值
+     */
+    private static int getLastVisibleItem(int[] lastVisiblePositions) {
+        int max = 0;
+        for (int value : lastVisiblePositions) {
+            if (value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+}
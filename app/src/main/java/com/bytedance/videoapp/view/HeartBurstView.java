@@ -0,0 +1,138 @@
+package com.bytedance.videoapp.view;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.bytedance.videoapp.R;
+
+/**
+ * 双击点赞的爱心粒子层
+ * <p>
+ * 覆盖在视频页面之上，在同一个 Canvas 上绘制所有正在播放的爱心，代替原来每次双击都新建
+ * ImageView + 5 个属性动画并添加到页面布局中的做法：
+ * 1.  爱心图案在首次绘制时光栅化成一张 Bitmap，之后每个粒子只是一次 drawBitmap。
+ * 2.  粒子状态保存在 {@link HeartParticles} 的预分配数组中，点击和逐帧更新都不分配对象。
+ * 3.  只有存在粒子时才注册一个 {@link Choreographer} 帧回调，每帧只调用 {@link #invalidate()}，
+ *     不会触发任何布局 (requestLayout)。
+ * 本 View 不消费触摸事件，点击会继续传递给下层的页面。
+ */
+public class HeartBurstView extends View implements Choreographer.FrameCallback {
+
+    private static final int MAX_PARTICLES = 512;
+    private static final int HEART_SIZE_DP = 100;
+    private static final int RISE_DP = 50; // 动画过程中向上飘动的距离
+
+    private final HeartParticles particles = new HeartParticles(MAX_PARTICLES);
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.ANTI_ALIAS_FLAG);
+    private final Matrix matrix = new Matrix();
+    private final int heartSize;
+    private final float risePx;
+    private Bitmap heart;
+    private boolean frameScheduled;
+
+    public HeartBurstView(Context context) {
+        this(context, null);
+    }
+
+    public HeartBurstView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public HeartBurstView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        float density = getResources().getDisplayMetrics().density;
+        heartSize = Math.round(HEART_SIZE_DP * density);
+        risePx = RISE_DP * density;
+    }
+
+    /**
+     * 在本 View 坐标系中的 (x, y) 处发射一个爱心。
+     */
+    public void burst(float x, float y) {
+        particles.spawn(x, y, SystemClock.uptimeMillis());
+        if (!frameScheduled && isAttachedToWindow()) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+        invalidate();
+    }
+
+    /**
+     * 当前存活的爱心数量
+     */
+    public int getActiveCount() {
+        return particles.count;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        if (particles.step(SystemClock.uptimeMillis())) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        int count = particles.count;
+        if (count == 0) return;
+        Bitmap bitmap = heart();
+        long now = SystemClock.uptimeMillis();
+        float half = heartSize / 2f;
+        for (int i = 0; i < count; i++) {
+            float progress = HeartParticles.progress(particles.startMs[i], now);
+            float scale = HeartParticles.scale(progress);
+            paint.setAlpha(Math.round(255 * HeartParticles.alpha(progress)));
+            matrix.setTranslate(-half, -half);
+            matrix.postScale(scale, scale);
+            matrix.postRotate(particles.rotation[i] * progress);
+            matrix.postTranslate(particles.x[i], particles.y[i] - risePx * progress);
+            canvas.drawBitmap(bitmap, matrix, paint);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (particles.count > 0 && !frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        Choreographer.getInstance().removeFrameCallback(this);
+        frameScheduled = false;
+        particles.count = 0; // 页面被移除后剩余的爱心没有继续播放的意义
+    }
+
+    /**
+     * 首次绘制时把爱心图案光栅化，之后复用。
+     */
+    private Bitmap heart() {
+        if (heart == null) {
+            heart = Bitmap.createBitmap(heartSize, heartSize, Bitmap.Config.ARGB_8888);
+            Drawable drawable = ContextCompat.getDrawable(getContext(), R.drawable.ic_heart_red);
+            if (drawable != null) {
+                drawable.setBounds(0, 0, heartSize, heartSize);
+                drawable.draw(new Canvas(heart));
+            }
+        }
+        return heart;
+    }
+}
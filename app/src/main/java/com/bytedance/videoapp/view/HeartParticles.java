@@ -0,0 +1,107 @@
+package com.bytedance.videoapp.view;
+
+/**
+ * 双击点赞爱心的粒子池 (纯 Java，不依赖 Android API)
+ * <p>
+ * 所有粒子的状态按字段存放在预先分配好的数组中 (位置、旋转角、开始时间)，
+ * 发射和逐帧更新都只是读写数组，不创建任何对象：
+ * 1.  {@link #spawn} 在池满时替换最早的粒子，连续快速点击也不会扩容。
+ * 2.  {@link #step} 把已经结束的粒子与末尾的粒子交换后移除，存活粒子始终连续存放在 [0, count)。
+ * 3.  动画曲线 ({@link #scale}、{@link #alpha} 等) 与原来的属性动画保持一致：
+ *     先放大再回弹 (0.8 -> 1.2 -> 1)，后半程淡出，整体使用先加速后减速的插值。
+ * 绘制由 {@link HeartBurstView} 负责。
+ */
+final class HeartParticles {
+
+    /** 单个爱心的动画时长 */
+    static final long DURATION_MS = 800;
+    /** 随机旋转角的范围 [-MAX_ROTATION, MAX_ROTATION) */
+    private static final float MAX_ROTATION = 30f;
+
+    final float[] x;
+    final float[] y;
+    final float[] rotation;
+    final long[] startMs;
+    int count;
+
+    private long seed = 0x2545F4914F6CDD1DL;
+
+    HeartParticles(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        rotation = new float[capacity];
+        startMs = new long[capacity];
+    }
+
+    int capacity() {
+        return x.length;
+    }
+
+    /**
+     * 在 (x, y) 处发射一个爱心。
+     */
+    void spawn(float px, float py, long nowMs) {
+        int index;
+        if (count < x.length) {
+            index = count++;
+        } else {
+            // 池已满：替换最早发射的粒子
+            index = 0;
+            for (int i = 1; i < count; i++) {
+                if (startMs[i] < startMs[index]) index = i;
+            }
+        }
+        x[index] = px;
+        y[index] = py;
+        rotation[index] = (nextFloat() * 2f - 1f) * MAX_ROTATION;
+        startMs[index] = nowMs;
+    }
+
+    /**
+     * 移除已经结束的粒子。
+     * @return 是否还有存活的粒子
+     */
+    boolean step(long nowMs) {
+        int i = 0;
+        while (i < count) {
+            if (nowMs - startMs[i] >= DURATION_MS) {
+                int last = --count;
+                x[i] = x[last];
+                y[i] = y[last];
+                rotation[i] = rotation[last];
+                startMs[i] = startMs[last];
+            } else {
+                i++;
+            }
+        }
+        return count > 0;
+    }
+
+    /**
+     * 插值后的动画进度 (先加速后减速)，与 ObjectAnimator 的默认插值器一致。
+     */
+    static float progress(long startMs, long nowMs) {
+        float t = Math.max(0f, Math.min(1f, (nowMs - startMs) / (float) DURATION_MS));
+        return (float) (Math.cos((t + 1) * Math.PI) / 2.0) + 0.5f;
+    }
+
+    /** 缩放：0.8 -> 1.2 -> 1 */
+    static float scale(float progress) {
+        return progress < 0.5f
+                ? 0.8f + 0.4f * (progress / 0.5f)
+                : 1.2f - 0.2f * ((progress - 0.5f) / 0.5f);
+    }
+
+    /** 透明度：前半程不透明，后半程淡出 */
+    static float alpha(float progress) {
+        return progress < 0.5f ? 1f : 1f - (progress - 0.5f) / 0.5f;
+    }
+
+    /** xorshift 伪随机数，避免每次点击创建 Random */
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (seed >>> 40) / (float) (1L << 24);
+    }
+}
@@ -1,7 +1,11 @@
 package com.bytedance.videoapp.view;
 
+import android.graphics.Rect;
 import android.os.Bundle;
+import android.os.Looper;
 import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.animation.DecelerateInterpolator;
 import android.widget.ImageView;
 
 import androidx.annotation.Nullable;
@@ -9,32 +13,61 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.media3.common.Player;
 import androidx.media3.common.util.UnstableApi;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
 import com.bytedance.videoapp.R;
 import com.bytedance.videoapp.adapters.VideoPagerAdapter;
-import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.adapters.ViewHolderPrewarmer;
+import com.bytedance.videoapp.image.BlankCoverMonitor;
+import com.bytedance.videoapp.image.CoverHandoff;
+import com.bytedance.videoapp.image.CoverPreloader;
+import com.bytedance.videoapp.image.ImageOptions;
+import com.bytedance.videoapp.image.ImageVariants;
+import com.bytedance.videoapp.model.CommentBean;
 import com.bytedance.videoapp.player.PlayerManager;
+import com.bytedance.videoapp.repository.CommentRepository;
+import com.bytedance.videoapp.repository.FeedTab;
+import com.bytedance.videoapp.repository.LikeStore;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+import com.bytedance.videoapp.repository.VideoRepository;
+import com.bytedance.videoapp.utils.PrecomputedTextCache;
 import com.bytedance.videoapp.viewmodel.VideoViewModel;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 视频详情页 (全屏播放)
  * <p>
  * 职责:
- * 1.  接收从首页点击的视频位置 (position) 和封面图 (coverResId)。
+ * 1.  接收从首页点击的频道 (tab)、视频位置 (position)、封面图 (coverResId) 以及卡片交接过来的已解码封面。
  * 2.  使用 ViewPager2 实现上下滑动切换视频的功能。
- * 3.  通过 ViewModel 获取视频数据列表。
+ * 3.  通过 ViewModel 获取所在频道的视频数据列表。
  * 4.  管理视频的播放、暂停和释放，与 PlayerManager 单例进行交互。
  * 5.  处理从封面到视频播放的平滑过渡，避免黑屏。
+ * 6.  预取当前和下一个视频的评论；评论区在页面内只创建一次并反复复用，打开时首帧即可显示。
+ * 7.  点赞按钮和双击点赞写入 {@link LikeStore} (立即生效，后台合并同步)，页面进入后台时立即同步。
  */
 @UnstableApi
 public class VideoDetailActivity extends AppCompatActivity {
 
+    // 滑动方向上预加载的全屏封面数量
+    private static final int COVER_PRELOAD_COUNT = 2;
+    // 从卡片放大到全屏的动画时长
+    private static final long ENTER_ANIM_DURATION_MS = 250;
+    // 预取评论的视频数量 (当前视频和下一个视频)
+    private static final int COMMENT_PREFETCH_COUNT = 2;
+
     private ViewPager2 viewPager;
     private VideoPagerAdapter adapter;
     private VideoViewModel viewModel;
+    // 评论区在整个页面内复用，只在第一次空闲时创建
+    private CommentBottomSheet commentSheet;
+    // 评论页到达时测量评论内容，随本页面添加和移除
+    private CommentRepository.PageListener commentPageListener;
 
     // 用于在视频加载时显示的临时封面，这是解决初始黑屏问题的关键。
     private ImageView tempCover;
@@ -49,6 +82,7 @@ public class VideoDetailActivity extends AppCompatActivity {
         // 1. 从 Intent 中获取必要的数据
         int targetPosition = getIntent().getIntExtra("pos", 0);
         int coverResId = getIntent().getIntExtra("cover_res_id", 0);
+        FeedTab tab = FeedTab.fromName(getIntent().getStringExtra("tab"));
 
         // 2. 初始化UI组件
         viewPager = findViewById(R.id.viewPager);
@@ -59,9 +93,8 @@ public class VideoDetailActivity extends AppCompatActivity {
         // 3. 黑屏问题解决方案：立即显示封面
         tempCover = findViewById(R.id.temp_cover);
         if (coverResId != 0) {
-            // 立刻将传递过来的封面图设置给临时的 ImageView 并显示它
-            tempCover.setImageResource(coverResId);
-            tempCover.setVisibility(View.VISIBLE);
+            // 立刻显示首页卡片交接过来的封面，全尺寸封面在后台解码
+            showTempCover(coverResId);
             // 同时让 ViewPager 也可见但完全透明，为后续的淡入动画做准备
             viewPager.setVisibility(View.VISIBLE);
             viewPager.setAlpha(0f);
@@ -70,17 +103,33 @@ public class VideoDetailActivity extends AppCompatActivity {
             isTransitioned = true;
         }
 
+        // 评论区在主线程空闲时提前创建，首次打开时无需 inflate；配置变化前打开着的评论区会被取回
+        commentSheet = CommentBottomSheet.obtain(getSupportFragmentManager());
+        warmCommentContents();
+        Looper.myQueue().addIdleHandler(() -> {
+            if (!isDestroyed()) commentSheet.prewarm(this);
+            return false;
+        });
+
         // 4. 初始化 ViewModel 并观察数据变化
-        viewModel = new ViewModelProvider(this).get(VideoViewModel.class);
+        viewModel = new ViewModelProvider(this, VideoViewModel.factory(tab)).get(VideoViewModel.class);
         viewModel.videoList.observe(this, videoList -> {
             if (videoList != null && !videoList.isEmpty()) {
-                // 5. 数据回来后，设置 Adapter
+                // 5. 数据回来后，设置 Adapter (旧 Adapter 的实时计数订阅先释放)
+                if (adapter != null) adapter.release();
                 adapter = new VideoPagerAdapter(videoList, this);
 
                 // 设置评论区点击监听
-                adapter.setOnCommentClickListener(video -> {
-                    CommentBottomSheet bottomSheet = new CommentBottomSheet();
-                    bottomSheet.show(getSupportFragmentManager(), "comment_sheet");
+                adapter.setOnCommentClickListener(videoId -> commentSheet.show(this, videoId));
+
+                // 点赞：先写入本地状态，再只刷新对应页面的点赞控件
+                LikeStore likes = LikeStore.getInstance(this);
+                adapter.setOnLikeClickListener((videoId, position) -> {
+                    likes.toggle(videoId);
+                    adapter.refreshLikeState(videoId);
+                });
+                adapter.setDoubleClickLikeListener((videoId, position) -> {
+                    if (likes.like(videoId)) adapter.refreshLikeState(videoId);
                 });
 
                 // 6.【关键】设置播放器渲染回调，这是保证平滑过渡的核心
@@ -97,6 +146,15 @@ public class VideoDetailActivity extends AppCompatActivity {
                 });
 
                 viewPager.setAdapter(adapter);
+
+                // ViewPager2 内部是一个 RecyclerView，直接在其上预加载前后的全屏封面
+                RecyclerView pagerRecyclerView = (RecyclerView) viewPager.getChildAt(0);
+                // 接入首页空闲时预先 inflate 好的页面 (必须在 setAdapter 之后，否则缓存池会被清空)
+                ViewHolderPrewarmer.getInstance(this)
+                        .attach(R.layout.item_video_full, pagerRecyclerView, adapter, 0);
+                pagerRecyclerView.addOnScrollListener(new CoverPreloader(
+                        Glide.with(this), adapter, ImageOptions.fullScreenCover(this), COVER_PRELOAD_COUNT));
+                pagerRecyclerView.addOnScrollListener(new BlankCoverMonitor("detail", R.id.iv_cover));
                 // 跳转到用户点击的视频位置，false表示无切换动画
                 viewPager.setCurrentItem(targetPosition, false);
 
@@ -109,10 +167,62 @@ public class VideoDetailActivity extends AppCompatActivity {
         viewModel.loadAllCachedData();
     }
 
+    /**
+     * 显示临时封面，整个过程不在主线程解码图片：
+     * 1.  从首页卡片进入时，以卡片绑定时完全相同的封面请求作为 thumbnail，命中 Glide 内存缓存，立即可见。
+     * 2.  全尺寸封面交给 Glide 异步加载 (命中内存缓存时直接显示)，加载完成后替换 thumbnail。
+     * 3.  有卡片位置时，从卡片位置放大到全屏，形成共享元素式的过渡。
+     */
+    private void showTempCover(int coverResId) {
+        Rect sourceBounds = CoverHandoff.take(getIntent());
+        tempCover.setVisibility(View.VISIBLE);
+        RequestManager glide = Glide.with(this);
+        glide.load(ImageVariants.fullScreenCover(this, coverResId)) // 与 VideoPagerAdapter 相同的档位，共用缓存
+                .apply(ImageOptions.fullScreenCover(this))
+                .thumbnail(sourceBounds != null ? CoverHandoff.cardCover(glide, this, coverResId) : null)
+                .dontAnimate()
+                .into(tempCover);
+        if (sourceBounds != null) {
+            playEnterAnimation(sourceBounds);
+        }
+    }
+
+    /**
+     * 在第一次绘制前，把临时封面缩放平移到卡片所在的位置，然后动画恢复到全屏。
+     * @param sourceBounds 卡片封面在屏幕上的位置
+     */
+    private void playEnterAnimation(Rect sourceBounds) {
+        tempCover.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                tempCover.getViewTreeObserver().removeOnPreDrawListener(this);
+                int width = tempCover.getWidth();
+                int height = tempCover.getHeight();
+                if (width == 0 || height == 0) return true;
+
+                int[] location = new int[2];
+                tempCover.getLocationOnScreen(location);
+                tempCover.setPivotX(0f);
+                tempCover.setPivotY(0f);
+                tempCover.setScaleX(sourceBounds.width() / (float) width);
+                tempCover.setScaleY(sourceBounds.height() / (float) height);
+                tempCover.setTranslationX(sourceBounds.left - location[0]);
+                tempCover.setTranslationY(sourceBounds.top - location[1]);
+                tempCover.animate()
+                        .scaleX(1f).scaleY(1f)
+                        .translationX(0f).translationY(0f)
+                        .setDuration(ENTER_ANIM_DURATION_MS)
+                        .setInterpolator(new DecelerateInterpolator())
+                        .start();
+                return true;
+            }
+        });
+    }
+
     /**
      * 初始化播放相关的所有逻辑，包括页面切换监听和首次播放的触发。
      */
-    private void initPlayerLogic(List<VideoBean> videoList, int initialPosition) {
+    private void initPlayerLogic(VideoColumnStore.Snapshot videoList, int initialPosition) {
         // 监听 ViewPager2 的页面切换事件
         viewPager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
             @Override
@@ -120,6 +230,7 @@ public class VideoDetailActivity extends AppCompatActivity {
                 super.onPageSelected(position);
                 // 当滑动到新页面时，播放对应位置的视频
                 playVideoAtPosition(position, videoList);
+                prefetchComments(position, videoList);
             }
         });
 
@@ -127,18 +238,58 @@ public class VideoDetailActivity extends AppCompatActivity {
         viewPager.post(() -> {
             playVideoAtPosition(initialPosition, videoList);
         });
+        prefetchComments(initialPosition, videoList);
+    }
+
+    /**
+     * 评论页 (包括预取的页和展开的回复) 一到达就在仓库的后台线程上开始测量评论内容，
+     * 不等回调切回主线程，打开评论区或上拉加载时绑定直接使用测量结果。
+     * 监听器只引用测量缓存，在 {@link #onDestroy} 中移除。
+     */
+    private void warmCommentContents() {
+        PrecomputedTextCache contentTexts = PrecomputedTextCache.forStyle(this,
+                R.style.TextAppearance_Videoapp_CommentContent);
+        commentPageListener = comments -> {
+            List<CharSequence> contents = new ArrayList<>(comments.size());
+            for (CommentBean bean : comments) contents.add(bean.content);
+            contentTexts.warm(contents);
+        };
+        CommentRepository.getInstance().addPageListener(commentPageListener);
+    }
+
+    /**
+     * 预取当前和下一个视频的第一页评论，打开评论区时直接从缓存显示。
+     * 预取完成后更新页面上的评论数 (评论内容在到达时已经开始测量，见 {@link #warmCommentContents})。
+     */
+    private void prefetchComments(int position, VideoColumnStore.Snapshot videoList) {
+        int end = Math.min(position + COMMENT_PREFETCH_COUNT, videoList.size());
+        for (int i = Math.max(position, 0); i < end; i++) {
+            long videoId = videoList.id(i);
+            CommentRepository.getInstance().fetchComments(videoId, 0,
+                    new VideoRepository.DataCallback<List<CommentBean>>() {
+                        @Override
+                        public void onSuccess(List<CommentBean> comments) {
+                            if (isDestroyed()) return;
+                            if (adapter != null) adapter.refreshCommentCount(videoId);
+                        }
+
+                        @Override
+                        public void onError(String msg) {
+                            // 预取失败不提示，打开评论区时会重新加载
+                        }
+                    });
+        }
     }
 
     /**
      * 在指定位置播放视频。
      * @param position 要播放的视频在列表中的位置
-     * @param videoList 视频数据列表
+     * @param videoList 视频数据快照
      */
-    private void playVideoAtPosition(int position, List<VideoBean> videoList) {
+    private void playVideoAtPosition(int position, VideoColumnStore.Snapshot videoList) {
         if (position < 0 || position >= videoList.size() || adapter == null) return;
 
-        VideoBean vb = videoList.get(position);
-        String uri = "android.resource://" + getPackageName() + "/" + vb.videoResId;
+        String uri = "android.resource://" + getPackageName() + "/" + videoList.videoResId(position);
 
         // 通知 PlayerManager 准备媒体资源，并设置为“准备好后立即播放”
         PlayerManager.getInstance(this).prepareMedia(uri, true, 0);
@@ -160,6 +311,15 @@ public class VideoDetailActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Activity 生命周期：页面进入后台时立即同步点赞状态，不等待同步窗口结束
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        LikeStore.getInstance(this).flushNow();
+    }
+
     /**
      * Activity 生命周期：页面销毁时释放播放器资源
      */
@@ -168,5 +328,11 @@ public class VideoDetailActivity extends AppCompatActivity {
         super.onDestroy();
         // 调用 releasePlayer() 而不是 shutdown()，只释放播放器内核，不销毁单例
         PlayerManager.getInstance(this).releasePlayer();
+        commentSheet.release();
+        CommentRepository.getInstance().removePageListener(commentPageListener);
+        if (adapter != null) adapter.release();
+        // 缓存池中的页面属于本页面的 Adapter，释放后在空闲时重新预加载
+        ViewHolderPrewarmer.getInstance(this)
+                .detach(R.layout.item_video_full, (RecyclerView) viewPager.getChildAt(0));
     }
 }
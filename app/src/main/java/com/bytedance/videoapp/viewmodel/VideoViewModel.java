@@ -1,15 +1,19 @@
 package com.bytedance.videoapp.viewmodel;
 
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
 
-import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.repository.FeedTab;
+import com.bytedance.videoapp.repository.VideoColumnStore;
 import com.bytedance.videoapp.repository.VideoRepository;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * 视频数据的 ViewModel
  * <p>
@@ -19,6 +23,9 @@ import java.util.List;
  * 3.  从 Repository 获取数据，并处理所有业务逻辑，如分页、刷新等。
  * 4.  具有生命周期感知能力，在配置变更（如屏幕旋转）后依然存活，保证数据不丢失。
  * 5.  绝对不能持有任何 View(Activity/Context) 的引用，以避免内存泄漏。
+ * 6.  首页每个频道各有一个实例 (见 {@link #factory(FeedTab)})，连同列表的滚动位置一起保存该频道的状态。
+ *     频道的缓存被内存预算淘汰时，这里持有的快照也一起丢弃，下次显示时重新加载。
+ * 7.  数据以仓库列式存储的不可变快照 ({@link VideoColumnStore.Snapshot}) 传递，不复制出 VideoBean 列表。
  */
 public class VideoViewModel extends ViewModel {
 
@@ -28,30 +35,109 @@ public class VideoViewModel extends ViewModel {
     // --- LiveData 定义 ---
 
     // 供内部修改的视频列表 LiveData
-    private final MutableLiveData<List<VideoBean>> _videoList = new MutableLiveData<>();
+    private final MutableLiveData<VideoColumnStore.Snapshot> _videoList = new MutableLiveData<>();
     // 暴露给 View 层的不可变视频列表 LiveData，保证数据流的单向性
-    public LiveData<List<VideoBean>> videoList = _videoList;
+    public LiveData<VideoColumnStore.Snapshot> videoList = _videoList;
 
     // 用于上拉加载的增量数据 LiveData。单独一个 LiveData 可以让 View 层清晰地知道这是追加数据，从而执行更高效的局部刷新。
-    private final MutableLiveData<List<VideoBean>> _appendedVideos = new MutableLiveData<>();
-    public LiveData<List<VideoBean>> appendedVideos = _appendedVideos;
+    // 值是追加之后的完整快照，View 层从自己已有的条目数往后读取新增的部分 (连续多次追加被合并时也不会漏掉)。
+    private final MutableLiveData<VideoColumnStore.Snapshot> _appendedVideos = new MutableLiveData<>();
+    public LiveData<VideoColumnStore.Snapshot> appendedVideos = _appendedVideos;
 
     // 暴露给 View 层的刷新状态 LiveData，用于控制 SwipeRefreshLayout 的加载圈。
     public final MutableLiveData<Boolean> isRefreshing = new MutableLiveData<>();
 
     // --- 内部状态管理 ---
 
-    // 在 ViewModel 内部维护一份完整的数据拷贝，用于分页和数据管理。
-    private final List<VideoBean> currentData = new ArrayList<>();
+    // 当前展示的数据：仓库缓存前缀的快照，与仓库共用列数组，不另外占用内存。
+    private VideoColumnStore.Snapshot currentData = VideoColumnStore.Snapshot.EMPTY;
 
     private int currentPage = 0;       // 当前加载的页码
     private boolean isLoading = false; // 加载锁，防止因快速滑动或重复点击导致的并发加载
+    // 缓存被淘汰的次数。淘汰前发出的请求在回调时发现代数不一致，直接丢弃结果
+    private int generation = 0;
+    // 列表的滚动状态 (LayoutManager 保存的状态)，页面重建或数据重新加载后恢复
+    @Nullable
+    private Parcelable scrollState;
+
+    private final Runnable evictionListener = this::onCacheEvicted;
 
     /**
      * 构造函数，获取 Repository 的单例。
      */
     public VideoViewModel() {
-        repository = VideoRepository.getInstance();
+        this(VideoRepository.getInstance());
+    }
+
+    /**
+     * 供测试使用的构造函数，可以注入独立的 Repository (例如挂载了合成数据源的实例)。
+     * @param repository 数据仓库
+     */
+    @VisibleForTesting
+    public VideoViewModel(VideoRepository repository) {
+        this.repository = repository;
+        repository.addEvictionListener(evictionListener);
+    }
+
+    /**
+     * 创建指定频道的 ViewModel 的工厂。同一个 Activity 中的多个频道应使用频道名作为 key 区分实例：
+     * {@code new ViewModelProvider(owner, VideoViewModel.factory(tab)).get(tab.name(), VideoViewModel.class)}
+     */
+    public static ViewModelProvider.Factory factory(FeedTab tab) {
+        return new ViewModelProvider.Factory() {
+            @NonNull
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends ViewModel> T create(@NonNull Class<T> modelClass) {
+                return (T) new VideoViewModel(VideoRepository.getInstance(tab));
+            }
+        };
+    }
+
+    @Override
+    protected void onCleared() {
+        repository.removeEvictionListener(evictionListener);
+    }
+
+    /**
+     * 频道重新显示时调用：标记为最近使用；数据已被淘汰 (或从未加载) 时重新加载第一页，否则什么都不做，
+     * 已有的列表和滚动位置原样保留。
+     */
+    public void ensureLoaded() {
+        repository.touch();
+        if (currentData.isEmpty()) {
+            loadPage(0, false, false);
+        }
+    }
+
+    /**
+     * 保存列表的滚动状态。
+     */
+    public void saveScrollState(@Nullable Parcelable state) {
+        scrollState = state;
+    }
+
+    /**
+     * 取出并清除保存的滚动状态。
+     */
+    @Nullable
+    public Parcelable takeScrollState() {
+        Parcelable state = scrollState;
+        scrollState = null;
+        return state;
+    }
+
+    /**
+     * 缓存被内存预算淘汰：丢弃快照并通知 View 层清空列表。
+     */
+    private void onCacheEvicted() {
+        generation++;
+        currentData = VideoColumnStore.Snapshot.EMPTY;
+        currentPage = 0;
+        isLoading = false;
+        scrollState = null;
+        isRefreshing.setValue(false);
+        _videoList.setValue(currentData);
     }
 
     /**
@@ -60,7 +146,7 @@ public class VideoViewModel extends ViewModel {
      */
     public void ensureFirstLoad() {
         if (!currentData.isEmpty()) {
-            _videoList.setValue(new ArrayList<>(currentData));
+            _videoList.setValue(currentData);
             return;
         }
         // 首次加载第一页数据，不清空旧数据，不显示刷新圈
@@ -69,13 +155,13 @@ public class VideoViewModel extends ViewModel {
 
     /**
      * 加载所有已缓存的数据。主要用于详情页，它可以一次性获取所有数据进行滑动。
+     * 快照只复制数组引用，无论缓存有多少条都不需要物化数据。
      */
     public void loadAllCachedData() {
-        List<VideoBean> allData = repository.getAllCachedVideos();
-        if (!allData.isEmpty()) {
-            currentData.clear();
-            currentData.addAll(allData);
-            _videoList.setValue(new ArrayList<>(currentData));
+        VideoColumnStore.Snapshot cached = repository.snapshot();
+        if (!cached.isEmpty()) {
+            currentData = cached;
+            _videoList.setValue(currentData);
         } else {
             // 如果没有任何缓存，则执行一次标准的刷新操作
             refresh();
@@ -109,32 +195,35 @@ public class VideoViewModel extends ViewModel {
     private void loadPage(int page, boolean clearOld, boolean showRefresh) {
         if (isLoading) return;
         isLoading = true;
+        int requestGeneration = generation;
         if (showRefresh) {
             isRefreshing.setValue(true);
         }
 
         // 从 Repository 获取数据，并传入回调
-        repository.fetchVideoList(page, new VideoRepository.DataCallback<List<VideoBean>>() {
+        repository.fetchVideoList(page, new VideoRepository.DataCallback<VideoColumnStore.Snapshot>() {
             @Override
-            public void onSuccess(List<VideoBean> data) {
+            public void onSuccess(VideoColumnStore.Snapshot data) {
+                if (requestGeneration != generation) return; // 请求期间缓存已被淘汰
                 if (clearOld) {
-                    currentData.clear();
+                    currentData = VideoColumnStore.Snapshot.EMPTY;
                     currentPage = 0;
                 }
 
-                if (data != null && !data.isEmpty()) {
+                // 快照截止到该页末尾，超出已有条目的部分即为这一页的新数据
+                if (data != null && data.size() > currentData.size()) {
                     // 如果是加载更多，则更新页码
                     if (page > currentPage && !clearOld) {
                         currentPage = page;
                     }
-                    currentData.addAll(data);
+                    currentData = data;
 
                     if (clearOld) {
                         // 刷新操作，更新整个列表
-                        _videoList.postValue(new ArrayList<>(currentData));
+                        _videoList.postValue(currentData);
                     } else {
-                        // 加载更多操作，只更新追加的数据
-                        _appendedVideos.postValue(new ArrayList<>(data));
+                        // 加载更多操作，View 层只插入新增的部分
+                        _appendedVideos.postValue(currentData);
                     }
                 } else if (!clearOld) {
                     // 如果是加载更多但没有获取到数据，可以认为已到达最后一页，页码可以回退以允许重试
@@ -152,6 +241,7 @@ public class VideoViewModel extends ViewModel {
 
             @Override
             public void onError(String msg) {
+                if (requestGeneration != generation) return;
                 // 错误处理
                 if (showRefresh) {
                     isRefreshing.postValue(false);
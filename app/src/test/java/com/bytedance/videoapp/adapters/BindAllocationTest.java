@@ -0,0 +1,239 @@
+package com.bytedance.videoapp.adapters;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bytedance.videoapp.R;
+import com.bytedance.videoapp.model.CommentBean;
+import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 绑定分配测试：三个 Adapter 重新绑定同一条数据时不应分配任何对象，
+ * 监听器在创建 ViewHolder 时设置一次，绑定前后保持为同一个实例。
+ * 同一个 ViewHolder 轮流绑定到不同的条目时 (列表滑动中的真实情况)，除了 TextView 替换文本本身的开销，
+ * 绑定代码也不应再分配任何对象。
+ * <p>
+ * 分配量通过 {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes} 统计当前线程分配的字节数。
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class BindAllocationTest {
+
+    private static final int REBINDS = 100;
+    // 切换条目时实时计数的订阅变化会 (防抖后) 提交一次后台任务，允许少量与重新绑定次数无关的分配；
+    // 每次绑定哪怕只分配一个对象 (至少 16 字节)，REBINDS 次之后也会超出
+    private static final long OTHER_ITEM_SLACK_BYTES = 1024;
+    // 与真实后端接近的大ID和计数，不会落在 Long.valueOf 的缓存范围 (-128~127) 内，装箱会暴露为分配
+    private static final long ID_BASE = 7_000_000_000_000L;
+    private static final int[] COVERS = {R.drawable.cover_1, R.drawable.cover_2, R.drawable.cover_3};
+    private static final int[] AVATARS = {R.drawable.avatar_1, R.drawable.avatar_2, R.drawable.avatar_3};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Context context;
+    private RecyclerView recyclerView;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(RuntimeEnvironment.getApplication(), R.style.Theme_Videoapp);
+        recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+    }
+
+    @Test
+    public void videoListAdapter_rebindAllocatesNothing() {
+        VideoListAdapter adapter = new VideoListAdapter();
+        adapter.setData(sampleFeed(3));
+        recyclerView.setAdapter(adapter);
+        VideoListAdapter.VideoViewHolder holder = adapter.onCreateViewHolder(recyclerView, 0);
+        View.OnClickListener click = clickListener(holder.itemView);
+
+        assertEquals(0, rebindAllocations(() -> adapter.onBindViewHolder(holder, 1)));
+        assertSame(click, clickListener(holder.itemView));
+    }
+
+    @Test
+    public void videoPagerAdapter_rebindAllocatesNothing() {
+        VideoPagerAdapter adapter = new VideoPagerAdapter(sampleFeed(3), context);
+        recyclerView.setAdapter(adapter);
+        VideoPagerAdapter.VideoViewHolder holder = adapter.onCreateViewHolder(recyclerView, 0);
+        View.OnClickListener like = clickListener(holder.ivLike);
+        View.OnClickListener comment = clickListener(holder.ivComment);
+        Drawable likeIcon = holder.ivLike.getDrawable();
+
+        assertEquals(0, rebindAllocations(() -> adapter.onBindViewHolder(holder, 1)));
+        assertSame(like, clickListener(holder.ivLike));
+        // 点赞图标是 selector，绑定只切换 selected 状态，不重新加载图片
+        assertSame(likeIcon, holder.ivLike.getDrawable());
+        // 所有页面共用同一个处理器
+        assertSame(like, comment);
+    }
+
+    @Test
+    public void videoListAdapter_rebindToOtherItemsAllocatesOnlyInTextViews() {
+        VideoListAdapter adapter = new VideoListAdapter();
+        // 封面和头像相同，只比较文字和模型数据的绑定，图片请求不计入
+        adapter.setData(sampleFeed(3, true));
+        recyclerView.setAdapter(adapter);
+        VideoListAdapter.VideoViewHolder holder = adapter.onCreateViewHolder(recyclerView, 0);
+        View.OnClickListener click = clickListener(holder.itemView);
+
+        long extra = otherItemRebindAllocations(position -> adapter.onBindViewHolder(holder, position), 3,
+                holder.tvTitle, holder.tvAuthor, holder.tvLike);
+        assertTrue("rebinding to other items allocated " + extra + " bytes", extra <= OTHER_ITEM_SLACK_BYTES);
+        assertEquals("标题 0", holder.tvTitle.getText().toString());
+        assertSame(click, clickListener(holder.itemView));
+    }
+
+    @Test
+    public void videoPagerAdapter_rebindToOtherItemsAllocatesOnlyInTextViews() {
+        VideoPagerAdapter adapter = new VideoPagerAdapter(sampleFeed(3, true), context);
+        recyclerView.setAdapter(adapter);
+        VideoPagerAdapter.VideoViewHolder holder = adapter.onCreateViewHolder(recyclerView, 0);
+        View.OnClickListener like = clickListener(holder.ivLike);
+        Drawable likeIcon = holder.ivLike.getDrawable();
+
+        long extra = otherItemRebindAllocations(position -> adapter.onBindViewHolder(holder, position), 3,
+                holder.tvTitle, holder.tvAuthor, holder.tvLikeCount, holder.tvCommentCount);
+        assertTrue("rebinding to other items allocated " + extra + " bytes", extra <= OTHER_ITEM_SLACK_BYTES);
+        assertEquals("标题 0", holder.tvTitle.getText().toString());
+        assertSame(like, clickListener(holder.ivLike));
+        assertSame(likeIcon, holder.ivLike.getDrawable());
+    }
+
+    @Test
+    public void commentAdapter_rebindToOtherItemsAllocatesOnlyInTextViews() {
+        List<CommentBean> comments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            comments.add(new CommentBean("评论 " + i, "用户" + i, System.currentTimeMillis() - i * 3_600_000L,
+                    1_000L + i * 12_345L, AVATARS[0]));
+        }
+        CommentAdapter adapter = new CommentAdapter(comments);
+        recyclerView.setAdapter(adapter);
+        CommentAdapter.CommentViewHolder holder =
+                (CommentAdapter.CommentViewHolder) adapter.onCreateViewHolder(recyclerView, 0);
+
+        long extra = otherItemRebindAllocations(position -> adapter.onBindViewHolder(holder, position), 3,
+                holder.tvName, holder.tvContent, holder.tvDate, holder.tvLikeCount);
+        assertTrue("rebinding to other items allocated " + extra + " bytes", extra <= OTHER_ITEM_SLACK_BYTES);
+        assertEquals("评论 0", holder.tvContent.getText().toString());
+    }
+
+    @Test
+    public void commentAdapter_rebindAllocatesNothing() {
+        List<CommentBean> comments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            comments.add(new CommentBean("评论 " + i, "用户" + i, System.currentTimeMillis() - i * 60_000L,
+                    1_000L + i * 12_345L, AVATARS[i]));
+        }
+        CommentAdapter adapter = new CommentAdapter(comments);
+        recyclerView.setAdapter(adapter);
+        CommentAdapter.ViewHolder holder = adapter.onCreateViewHolder(recyclerView, 0);
+
+        assertEquals(0, rebindAllocations(() -> adapter.onBindViewHolder(holder, 1)));
+    }
+
+    /**
+     * 先绑定两次 (首次绑定会填充各级缓存)，再统计之后 {@link #REBINDS} 次重新绑定分配的字节数，
+     * 并扣除测量本身的开销。
+     */
+    private static long rebindAllocations(Runnable bind) {
+        bind.run();
+        bind.run();
+        Runnable rebinds = () -> {
+            for (int i = 0; i < REBINDS; i++) {
+                bind.run();
+            }
+        };
+        Runnable empty = () -> {};
+        long baseline = allocatedBytes(empty);
+        return Math.max(0, allocatedBytes(rebinds) - baseline);
+    }
+
+    /**
+     * 同一个 ViewHolder 依次绑定到 0 ~ count-1 号条目，循环 {@link #REBINDS} 次，统计分配的字节数；
+     * 再把同样的文本按同样的顺序直接设置到这些 TextView 上，作为框架替换文本本身的开销。
+     * 返回两者之差，即绑定代码自己的分配。两轮都停在同一个条目上，结束时视图状态一致。
+     */
+    private static long otherItemRebindAllocations(IntConsumer bind, int count, TextView... texts) {
+        CharSequence[][] shown = new CharSequence[count][texts.length];
+        for (int position = 0; position < count; position++) {
+            bind.accept(position);
+            for (int t = 0; t < texts.length; t++) {
+                shown[position][t] = texts[t].getText();
+            }
+        }
+        Runnable rebinds = () -> {
+            for (int i = 0; i < REBINDS; i++) {
+                bind.accept(i % count);
+            }
+        };
+        Runnable setTexts = () -> {
+            for (int i = 0; i < REBINDS; i++) {
+                CharSequence[] item = shown[i % count];
+                for (int t = 0; t < texts.length; t++) {
+                    texts[t].setText(item[t]);
+                }
+            }
+        };
+        // 预热两轮，之后各测量一次
+        rebinds.run();
+        setTexts.run();
+        rebinds.run();
+        setTexts.run();
+        long bindBytes = allocatedBytes(rebinds);
+        long textBytes = allocatedBytes(setTexts);
+        return Math.max(0, bindBytes - textBytes);
+    }
+
+    private static long allocatedBytes(Runnable runnable) {
+        long threadId = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        runnable.run();
+        return THREADS.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static View.OnClickListener clickListener(View view) {
+        return shadowOf(view).getOnClickListener();
+    }
+
+    private static VideoColumnStore.Snapshot sampleFeed(int count) {
+        return sampleFeed(count, false);
+    }
+
+    /**
+     * @param sharedImages 所有条目使用同一个封面和头像
+     */
+    private static VideoColumnStore.Snapshot sampleFeed(int count, boolean sharedImages) {
+        VideoColumnStore store = new VideoColumnStore();
+        for (int i = 0; i < count; i++) {
+            int image = sharedImages ? 0 : i;
+            store.append(new VideoBean(ID_BASE + i * 7_919L, "标题 " + i, "作者" + i, 1_000L + i * 12_345L,
+                    COVERS[image % COVERS.length], 0, AVATARS[image % AVATARS.length]));
+        }
+        return store.snapshot();
+    }
+}
@@ -0,0 +1,160 @@
+package com.bytedance.videoapp.image;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.request.target.DrawableImageViewTarget;
+import com.bytedance.videoapp.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * 空白封面帧统计测试：滑动期间逐帧检查可见封面 (没有图片或仍显示占位图都算空白)，
+ * 一次滑动结束后给出总帧数和空白帧数。
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class BlankCoverMonitorTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int ITEM_HEIGHT = 800;
+
+    private RecyclerView recyclerView;
+    private BlankCoverMonitor monitor;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        recyclerView = new RecyclerView(context);
+        recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        recyclerView.setAdapter(new CoverAdapter());
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+        monitor = new BlankCoverMonitor("test", R.id.iv_cover);
+    }
+
+    @Test
+    public void countsFramesWithBlankVisibleCovers() {
+        assertEquals(3, recyclerView.getChildCount());
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_DRAGGING);
+
+        // 两帧所有封面都已显示
+        monitor.doFrame(0);
+        monitor.doFrame(0);
+        // 第三个条目只露出一部分，它的封面还没加载出来也算空白
+        cover(2).setImageDrawable(null);
+        monitor.doFrame(0);
+        monitor.doFrame(0);
+        // 加载完成
+        showImage(cover(2));
+        monitor.doFrame(0);
+
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_IDLE);
+        assertEquals(5, monitor.getLastFrames());
+        assertEquals(2, monitor.getLastBlankFrames());
+    }
+
+    @Test
+    public void placeholder_countsAsBlankUntilRealImageArrives() {
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_DRAGGING);
+        // 新的请求发出后先显示模糊占位图：ImageView 有 drawable，但封面还没有到
+        BlankCoverMonitor.markLoading(cover(1));
+        cover(1).setImageDrawable(new ColorDrawable(Color.DKGRAY));
+        monitor.doFrame(0);
+        monitor.doFrame(0);
+        monitor.doFrame(0);
+        showImage(cover(1));
+        monitor.doFrame(0);
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_IDLE);
+        assertEquals(4, monitor.getLastFrames());
+        assertEquals(3, monitor.getLastBlankFrames());
+    }
+
+    @Test
+    public void hiddenCovers_andFramesOutsideScroll_areIgnored() {
+        cover(0).setImageDrawable(null);
+        // 不在滑动中的帧不计入
+        monitor.doFrame(0);
+
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_DRAGGING);
+        monitor.doFrame(0);
+        cover(0).setVisibility(View.GONE);
+        monitor.doFrame(0);
+        // 拖动转为惯性滑动仍属于同一次滑动
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_SETTLING);
+        monitor.doFrame(0);
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_IDLE);
+        assertEquals(3, monitor.getLastFrames());
+        assertEquals(1, monitor.getLastBlankFrames());
+
+        // 下一次滑动重新计数
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_DRAGGING);
+        monitor.doFrame(0);
+        monitor.onScrollStateChanged(recyclerView, RecyclerView.SCROLL_STATE_IDLE);
+        assertEquals(1, monitor.getLastFrames());
+        assertEquals(0, monitor.getLastBlankFrames());
+    }
+
+    /**
+     * 模拟 Glide 送达真正的封面：显示图片并经过 {@link BlankCoverMonitor#COVER_LOADED} 打上标记。
+     */
+    private static void showImage(ImageView cover) {
+        ColorDrawable image = new ColorDrawable(Color.GRAY);
+        BlankCoverMonitor.COVER_LOADED.onResourceReady(image, 0, new DrawableImageViewTarget(cover),
+                DataSource.MEMORY_CACHE, true);
+        cover.setImageDrawable(image);
+    }
+
+    private ImageView cover(int childIndex) {
+        return recyclerView.getChildAt(childIndex).findViewById(R.id.iv_cover);
+    }
+
+    /**
+     * 每个条目是一个带封面 ImageView 的容器，绑定时封面已经加载完成。
+     */
+    private static final class CoverAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            FrameLayout item = new FrameLayout(parent.getContext());
+            item.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ITEM_HEIGHT));
+            ImageView cover = new ImageView(parent.getContext());
+            cover.setId(R.id.iv_cover);
+            item.addView(cover, new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+            return new RecyclerView.ViewHolder(item) { };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            ImageView cover = holder.itemView.findViewById(R.id.iv_cover);
+            showImage(cover);
+            cover.setVisibility(View.VISIBLE);
+        }
+
+        @Override
+        public int getItemCount() {
+            return 10;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.bytedance.videoapp.model;
+
+import com.bytedance.videoapp.repository.VideoColumnStore;
+import com.bytedance.videoapp.utils.DisplayFormatter;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.*;
+
+/**
+ * 数据模型内存占用测试 (在开发机 JVM 上运行)。
+ * <p>
+ * 通过 HotSpot 的 GC.class_histogram 诊断命令获取堆直方图，统计每个实例的真实字节数。
+ */
+public class ModelFootprintTest {
+
+    private static final int ITEM_COUNT = 100_000;
+
+    @Test
+    public void videoBean_isCompactAndAddsNoStringsPerItem() throws Exception {
+        // 标题和作者在真实 Feed 中也会被解码器复用，这里直接共享同一个实例
+        String title = "深夜治愈：点燃一支香薰蜡烛，放空自己#氛围感";
+        String author = "生活美学家";
+
+        long stringsBefore = histogram("java.lang.String")[0];
+        List<VideoBean> feed = new ArrayList<>(ITEM_COUNT);
+        // 每个条目都格式化一次点赞数并持有结果，与列表绑定时一样
+        List<String> likeLabels = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            VideoBean bean = new VideoBean(i, title, author, 100_000L + i, 1, 2, 3);
+            feed.add(bean);
+            likeLabels.add(DisplayFormatter.formatCount(bean.likeCount));
+        }
+        long[] beans = histogram(VideoBean.class.getName());
+        long stringsAfter = histogram("java.lang.String")[0];
+
+        long bytesPerBean = beans[1] / beans[0];
+        // 对象头 + 2 个引用 + 2 个 long + 3 个 int，开启压缩指针时为 48 字节
+        assertTrue("VideoBean is " + bytesPerBean + " bytes", bytesPerBean <= 56);
+        // 点赞数以数值保存，展示文案来自格式化缓存：10w ~ 20w 之间只有约 100 种文案，
+        // 如果每个条目各自持有一个点赞数字符串，这里会增长 ITEM_COUNT 个
+        assertTrue("strings grew by " + (stringsAfter - stringsBefore),
+                stringsAfter - stringsBefore < ITEM_COUNT / 100);
+        assertEquals(ITEM_COUNT, feed.size());
+        assertEquals(ITEM_COUNT, likeLabels.size());
+    }
+
+    @Test
+    public void columnStore_usesLessHeapThanBeans() throws Exception {
+        // 标题各不相同，作者来自一个较小的集合。两边使用同一批字符串实例 (解码器同样会复用作者名)，
+        // 比较的只是对象布局与列式布局的差别，不包含字符串去重的收益
+        String[] titles = new String[ITEM_COUNT];
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            titles[i] = "title-" + i;
+        }
+        String[] authors = new String[1_000];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = "author-" + i;
+        }
+
+        long base = totalHeapBytes();
+        List<VideoBean> beans = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            beans.add(new VideoBean(i, titles[i], authors[i % authors.length], i, 1, 2, 3));
+        }
+        long beanBytes = totalHeapBytes() - base;
+
+        VideoColumnStore store = new VideoColumnStore();
+        store.appendAll(beans);
+        beans = null; // 只保留列式存储
+        long storeBytes = totalHeapBytes() - base;
+
+        assertTrue("column store used " + storeBytes + " bytes vs " + beanBytes, storeBytes < beanBytes);
+
+        // 按列顺序扫描得到的结果与逐个 VideoBean 读取一致
+        VideoColumnStore.Snapshot snapshot = store.snapshot();
+        List<VideoBean> scanBeans = snapshot.toBeans(0, snapshot.size());
+        VideoColumnStore.Row row = snapshot.row();
+        for (int i = 0; i < snapshot.size(); i++) {
+            row.moveTo(i);
+            VideoBean bean = scanBeans.get(i);
+            assertEquals(bean.likeCount, row.likeCount());
+            assertSame(bean.author, row.author());
+        }
+
+        // 顺序扫描：分别遍历 VideoBean 列表和列式快照的点赞数，前 10 轮用于预热，
+        // 耗时写在断言信息中，不对快慢做断言 (受 CI 机器负载影响)
+        long beanSum = 0, rowSum = 0;
+        long beanNanos = 0, rowNanos = 0;
+        int count = snapshot.size();
+        for (int round = 0; round < 20; round++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < scanBeans.size(); i++) {
+                beanSum += scanBeans.get(i).likeCount;
+            }
+            long t1 = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                rowSum += row.moveTo(i).likeCount();
+            }
+            long t2 = System.nanoTime();
+            if (round >= 10) {
+                beanNanos += t1 - t0;
+                rowNanos += t2 - t1;
+            }
+        }
+        assertEquals("per 100k items: beans " + beanBytes / 1024 + " KB, columns " + storeBytes / 1024
+                + " KB; sequential scan: beans " + beanNanos / 10_000 + " us, columns " + rowNanos / 10_000 + " us",
+                beanSum, rowSum);
+        assertEquals(ITEM_COUNT, store.size());
+    }
+
+    @Test
+    public void formatter_returnsCachedInstances() {
+        assertEquals("8900", DisplayFormatter.formatCount(8900));
+        assertEquals("12.5w", DisplayFormatter.formatCount(125_000));
+        assertEquals("13w", DisplayFormatter.formatCount(130_000));
+        assertEquals("2.3亿", DisplayFormatter.formatCount(230_000_000L));
+        // 同一个数值再次格式化时返回缓存中的同一个实例，不产生新对象
+        assertSame(DisplayFormatter.formatCount(125_000), DisplayFormatter.formatCount(125_000));
+
+        DisplayFormatter.refreshClock();
+        long now = System.currentTimeMillis();
+        assertEquals("刚刚", DisplayFormatter.formatRelativeTime(now));
+        assertEquals("5分钟前", DisplayFormatter.formatRelativeTime(now - 5 * 60_000L - 1_000L));
+        assertSame(DisplayFormatter.formatRelativeTime(now - 2 * 3_600_000L - 1_000L),
+                DisplayFormatter.formatRelativeTime(now - 2 * 3_600_000L - 2_000L));
+    }
+
+    /**
+     * 读取堆直方图中所有对象的总字节数。
+     */
+    static long totalHeapBytes() throws Exception {
+        return histogram("Total")[1];
+    }
+
+    /**
+     * 读取堆直方图中指定类的 {实例数, 字节数}。调用前会触发一次 Full GC。
+     */
+    static long[] histogram(String className) throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName diagnostic = new ObjectName("com.sun.management:type=DiagnosticCommand");
+        String histo = (String) server.invoke(diagnostic, "gcClassHistogram",
+                new Object[]{null}, new String[]{String[].class.getName()});
+        for (String line : histo.split("\n")) {
+            String[] columns = line.trim().split("\\s+");
+            // 格式: "num: #instances #bytes class name (module)"，最后一行为 "Total #instances #bytes"
+            if (columns.length >= 4 && columns[3].equals(className)) {
+                return new long[]{Long.parseLong(columns[1]), Long.parseLong(columns[2])};
+            }
+            if (columns.length == 3 && columns[0].equals(className)) {
+                return new long[]{Long.parseLong(columns[1]), Long.parseLong(columns[2])};
+            }
+        }
+        return new long[]{0, 0};
+    }
+}
@@ -0,0 +1,150 @@
+package com.bytedance.videoapp.network;
+
+import com.bytedance.videoapp.network.RequestPriorityInterceptor.RequestClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * 共享 HTTP 客户端测试：不同类别的请求复用同一条连接，排队的请求按优先级和分类并发上限放行。
+ */
+public class AppHttpClientTest {
+
+    private MockWebServer server;
+    private final List<String> arrivals = new CopyOnWriteArrayList<>();
+    private final CountDownLatch blockReceived = new CountDownLatch(1);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        // 记录请求到达服务端的顺序，"/block" 请求会一直挂起直到测试放行
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                arrivals.add(request.getPath());
+                if ("/block".equals(request.getPath())) {
+                    blockReceived.countDown();
+                    unblock.await(10, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setBody("ok");
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        unblock.countDown();
+        server.shutdown();
+    }
+
+    @Test
+    public void coverAndVideoRequests_reuseOneConnection() throws Exception {
+        OkHttpClient client = AppHttpClient.newClient(null, new RequestPriorityInterceptor(8, 6, 2, 2));
+        Call.Factory covers = AppHttpClient.tagging(client, RequestClass.COVER);
+        Call.Factory videos = AppHttpClient.tagging(client, RequestClass.VIDEO);
+
+        for (int i = 0; i < 6; i++) {
+            Call.Factory factory = i % 2 == 0 ? covers : videos;
+            try (Response response = factory.newCall(new Request.Builder().url(server.url("/r" + i)).build()).execute()) {
+                assertEquals("ok", response.body().string());
+            }
+        }
+        // 同一条连接上的请求序号依次递增，说明没有重新建连
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i, server.takeRequest().getSequenceNumber());
+        }
+        assertEquals(1, client.connectionPool().connectionCount());
+    }
+
+    @Test
+    public void queuedRequests_areAdmittedByPriority() throws Exception {
+        RequestPriorityInterceptor interceptor = new RequestPriorityInterceptor(1, 1, 1, 1);
+        OkHttpClient client = AppHttpClient.newClient(null, interceptor);
+        CountDownLatch done = new CountDownLatch(4);
+
+        // 先占住唯一的并发额度
+        enqueue(client, RequestClass.PREFETCH, "/block", done);
+        assertTrue(blockReceived.await(5, TimeUnit.SECONDS));
+
+        // 按优先级从低到高排队
+        enqueue(client, RequestClass.PREFETCH, "/prefetch", done);
+        awaitWaiting(interceptor, 1);
+        enqueue(client, RequestClass.VIDEO, "/video", done);
+        awaitWaiting(interceptor, 2);
+        enqueue(client, RequestClass.COVER, "/cover", done);
+        awaitWaiting(interceptor, 3);
+
+        unblock.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("/block", "/cover", "/video", "/prefetch"), arrivals);
+    }
+
+    @Test
+    public void classLimit_doesNotBlockOtherClasses() throws Exception {
+        RequestPriorityInterceptor interceptor = new RequestPriorityInterceptor(8, 6, 1, 1);
+        OkHttpClient client = AppHttpClient.newClient(null, interceptor);
+        CountDownLatch done = new CountDownLatch(3);
+
+        enqueue(client, RequestClass.VIDEO, "/block", done);
+        assertTrue(blockReceived.await(5, TimeUnit.SECONDS));
+
+        // 视频类额度已满，第二个视频请求排队；封面请求不受影响，立即完成
+        enqueue(client, RequestClass.VIDEO, "/video", done);
+        awaitWaiting(interceptor, 1);
+        enqueue(client, RequestClass.COVER, "/cover", done);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!arrivals.contains("/cover") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of("/block", "/cover"), arrivals);
+
+        unblock.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals("/video", arrivals.get(2));
+    }
+
+    private void enqueue(OkHttpClient client, RequestClass requestClass, String path, CountDownLatch done) {
+        Request request = new Request.Builder().url(server.url(path)).build();
+        AppHttpClient.tagging(client, requestClass).newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                done.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close(); // 关闭响应体才会归还并发额度
+                done.countDown();
+            }
+        });
+    }
+
+    private static void awaitWaiting(RequestPriorityInterceptor interceptor, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (interceptor.waitingCount() < expected) {
+            assertTrue("timed out waiting for queued requests", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.bytedance.videoapp.network;
+
+import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.repository.SyntheticFeedSource;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 本地替身后端，供 JVM 测试使用。
+ * <p>
+ * 在随机端口上提供 {@code GET /feed?page=N&size=M}，根据请求头 Accept 返回二进制或 JSON 格式，
+ * 数据由一个无延迟、无错误的 {@link SyntheticFeedSource} 生成。
+ */
+class FeedStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    FeedStubServer(long totalItems) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/feed", exchange -> handle(exchange, totalItems));
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, long totalItems) throws IOException {
+        int page = 0;
+        int size = 20;
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                String[] kv = pair.split("=", 2);
+                if (kv.length < 2) continue;
+                if (kv[0].equals("page")) page = Integer.parseInt(kv[1]);
+                if (kv[0].equals("size")) size = Integer.parseInt(kv[1]);
+            }
+        }
+        try {
+            List<VideoBean> items = new SyntheticFeedSource(source(totalItems, size)).loadBatch(page);
+            boolean binary = FeedWireFormat.CONTENT_TYPE.equals(exchange.getRequestHeaders().getFirst("Accept"));
+            byte[] body = binary ? encodeBinary(items) : FeedJsonCodec.encode(items).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type",
+                    binary ? FeedWireFormat.CONTENT_TYPE : FeedJsonCodec.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (Exception e) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        }
+    }
+
+    static SyntheticFeedSource.Config source(long totalItems, int pageSize) {
+        return new SyntheticFeedSource.Builder()
+                .totalItems(totalItems)
+                .pageSize(pageSize)
+                .latency(SyntheticFeedSource.LatencyModel.FIXED, 0, 0)
+                .errorRate(0)
+                .authorVariety(200)
+                .resources(new int[]{0x7f080001, 0x7f080002}, new int[]{0x7f110001}, new int[]{0x7f080010, 0x7f080011})
+                .build();
+    }
+
+    static byte[] encodeBinary(List<VideoBean> items) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FeedWireFormat.encode(items, out);
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
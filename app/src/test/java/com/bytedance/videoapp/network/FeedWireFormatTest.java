@@ -0,0 +1,195 @@
+package com.bytedance.videoapp.network;
+
+import com.bytedance.videoapp.model.VideoBean;
+import com.bytedance.videoapp.repository.SyntheticFeedSource;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 二进制 Feed 格式测试：与 JSON 的一致性、流式产出，以及 1k 条目分页的体积和解码耗时对比。
+ */
+public class FeedWireFormatTest {
+
+    private static final int PAGE_SIZE = 1_000;
+
+    @Test
+    public void stubServer_servesBothFormatsWithSameContent() throws Exception {
+        try (FeedStubServer server = new FeedStubServer(3L * PAGE_SIZE)) {
+            HttpFeedSource binary = new HttpFeedSource(server.baseUrl(), PAGE_SIZE, HttpFeedSource.Format.BINARY);
+            HttpFeedSource json = new HttpFeedSource(server.baseUrl(), PAGE_SIZE, HttpFeedSource.Format.JSON);
+            for (int page = 0; page < 3; page++) {
+                assertSameItems(json.loadBatch(page), binary.loadBatch(page));
+            }
+            // 超出总条数后返回空页，表示 Feed 结束
+            assertTrue(binary.loadBatch(3).isEmpty());
+        }
+    }
+
+    @Test
+    public void decoder_emitsItemsBeforePageIsComplete() throws Exception {
+        byte[] page = FeedStubServer.encodeBinary(samplePage());
+        // 只提供前一半字节，模拟网络仍在传输中
+        InputStream half = new ByteArrayInputStream(page, 0, page.length / 2);
+        List<VideoBean> emitted = new ArrayList<>();
+        try {
+            new FeedPageDecoder().decode(half, emitted::add);
+            fail("truncated page should not decode completely");
+        } catch (IOException expected) {
+            // 截断的数据会抛出 EOFException，但在此之前已经产出了部分条目
+        }
+        assertTrue("emitted " + emitted.size(), emitted.size() > PAGE_SIZE / 4);
+    }
+
+    @Test
+    public void benchmark_binaryVersusJson() throws Exception {
+        List<VideoBean> items = samplePage();
+        byte[] binary = FeedStubServer.encodeBinary(items);
+        String json = FeedJsonCodec.encode(items);
+        int jsonBytes = json.getBytes(StandardCharsets.UTF_8).length;
+
+        FeedPageDecoder decoder = new FeedPageDecoder();
+        List<VideoBean> sink = new ArrayList<>(PAGE_SIZE);
+        long binaryNanos = 0, jsonNanos = 0;
+        int rounds = 200, warmup = 50;
+        for (int round = 0; round < rounds; round++) {
+            sink.clear();
+            long t0 = System.nanoTime();
+            decoder.decode(new ByteArrayInputStream(binary), sink::add);
+            long t1 = System.nanoTime();
+            List<VideoBean> fromJson = FeedJsonCodec.decode(json);
+            long t2 = System.nanoTime();
+            if (round >= warmup) {
+                binaryNanos += t1 - t0;
+                jsonNanos += t2 - t1;
+            }
+            assertEquals(fromJson.size(), sink.size());
+        }
+        int measured = rounds - warmup;
+        assertTrue("1k-item page: binary " + binary.length + " B, json " + jsonBytes + " B; decode: binary "
+                        + binaryNanos / measured / 1000 + " us/page, json " + jsonNanos / measured / 1000 + " us/page",
+                binary.length < jsonBytes);
+    }
+
+    @Test
+    public void decoder_rejectsOutOfRangeStringLength() throws Exception {
+        // 超过上限的长度，以及强转为 int 后变成负数的长度
+        for (long length : new long[]{FeedWireFormat.MAX_STRING_BYTES + 1L, 0xFFFF_FFFFL}) {
+            ByteArrayOutputStream page = new ByteArrayOutputStream();
+            page.write(FeedWireFormat.MAGIC);
+            page.write(FeedWireFormat.VERSION);
+            FeedWireFormat.writeVarLong(page, 1);  // itemCount
+            FeedWireFormat.writeVarLong(page, 16); // recordLength
+            FeedWireFormat.writeVarLong(page, 42); // id
+            page.write(0);                         // title: 新字符串
+            FeedWireFormat.writeVarLong(page, length);
+            try {
+                new FeedPageDecoder().decode(new ByteArrayInputStream(page.toByteArray()), bean -> fail());
+                fail("length " + length + " should be rejected");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().startsWith("bad string length"));
+            }
+        }
+    }
+
+    @Test
+    public void coverHash_doesNotShiftOlderDecodersStringTable() throws Exception {
+        List<VideoBean> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // 作者反复出现 (走字符串表引用)，封面编码各不相同
+            VideoBean bean = new VideoBean(9_000_000_000L + i, "title " + i, "author " + (i % 3), i * 100L, 1, 2, 3);
+            bean.coverHash = "hash-" + i;
+            items.add(bean);
+        }
+        byte[] page = FeedStubServer.encodeBinary(items);
+
+        List<VideoBean> legacy = decodeWithoutCoverHash(page);
+        assertEquals(items.size(), legacy.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(items.get(i).id, legacy.get(i).id);
+            assertEquals(items.get(i).title, legacy.get(i).title);
+            assertEquals(items.get(i).author, legacy.get(i).author);
+            assertEquals(items.get(i).likeCount, legacy.get(i).likeCount);
+            assertEquals(items.get(i).avatarResId, legacy.get(i).avatarResId);
+        }
+
+        List<VideoBean> current = new ArrayList<>();
+        new FeedPageDecoder().decode(new ByteArrayInputStream(page), current::add);
+        assertSameItems(items, current);
+    }
+
+    /**
+     * 按加入封面编码之前的字段集合解码：读到 avatarResId 为止，其余字段按记录长度跳过，
+     * 字符串表只包含 title 和 author。
+     */
+    private static List<VideoBean> decodeWithoutCoverHash(byte[] page) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(page);
+        for (byte b : FeedWireFormat.MAGIC) assertEquals(b, (byte) in.read());
+        assertEquals(FeedWireFormat.VERSION, in.read());
+        List<String> strings = new ArrayList<>();
+        List<VideoBean> items = new ArrayList<>();
+        long count = readVarLong(in);
+        for (int i = 0; i < count; i++) {
+            int recordLength = (int) readVarLong(in);
+            int recordEnd = page.length - in.available() + recordLength;
+            long id = readVarLong(in);
+            String title = readTableString(in, strings);
+            String author = readTableString(in, strings);
+            long likeCount = readVarLong(in);
+            int cover = (int) readVarLong(in);
+            int video = (int) readVarLong(in);
+            int avatar = (int) readVarLong(in);
+            in.skip(recordEnd - (page.length - in.available()));
+            items.add(new VideoBean(id, title, author, likeCount, cover, video, avatar));
+        }
+        return items;
+    }
+
+    private static String readTableString(ByteArrayInputStream in, List<String> strings) throws IOException {
+        long tag = readVarLong(in);
+        if (tag != 0) return strings.get((int) (tag - 1));
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        assertEquals(bytes.length, in.read(bytes, 0, bytes.length));
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+
+    private static long readVarLong(ByteArrayInputStream in) {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+    }
+
+    private static List<VideoBean> samplePage() throws Exception {
+        return new SyntheticFeedSource(FeedStubServer.source(PAGE_SIZE, PAGE_SIZE)).loadBatch(0);
+    }
+
+    private static void assertSameItems(List<VideoBean> expected, List<VideoBean> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            VideoBean e = expected.get(i);
+            VideoBean a = actual.get(i);
+            assertEquals(e.id, a.id);
+            assertEquals(e.title, a.title);
+            assertEquals(e.author, a.author);
+            assertEquals(e.likeCount, a.likeCount);
+            assertEquals(e.coverResId, a.coverResId);
+            assertEquals(e.videoResId, a.videoResId);
+            assertEquals(e.avatarResId, a.avatarResId);
+            assertEquals(e.coverHash, a.coverHash);
+        }
+    }
+}
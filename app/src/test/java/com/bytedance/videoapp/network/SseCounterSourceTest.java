@@ -0,0 +1,146 @@
+package com.bytedance.videoapp.network;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.*;
+
+/**
+ * SSE 实时计数测试，使用本地替身服务端：
+ * 按订阅的视频批量推送增量、订阅变化时重新连接、连接断开后自动重连。
+ */
+public class SseCounterSourceTest {
+
+    private static final int LIKES_PER_VIDEO = 500;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    // 收到的请求参数 (ids=...)
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    // 为 true 时推送完立即结束响应，模拟连接被服务端断开
+    private volatile boolean dropAfterPush;
+    private final CountDownLatch shutdown = new CountDownLatch(1);
+
+    private final ConcurrentHashMap<Long, AtomicLong> likes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> comments = new ConcurrentHashMap<>();
+    private SseCounterSource source;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/counters", this::handle);
+        server.start();
+        source = new SseCounterSource(new OkHttpClient(), "http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @After
+    public void tearDown() {
+        source.close();
+        shutdown.countDown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void deltas_areDeliveredPerVideo() throws Exception {
+        source.subscribe(new long[]{1L, 2L}, this::record);
+
+        awaitTrue(() -> count(likes, 1L) == LIKES_PER_VIDEO && count(likes, 2L) == LIKES_PER_VIDEO
+                && count(comments, 1L) == 1 && count(comments, 2L) == 1);
+        assertEquals("ids=1,2", queries.get(0));
+    }
+
+    @Test
+    public void resubscribe_opensNewStream() throws Exception {
+        source.subscribe(new long[]{1L}, this::record);
+        awaitTrue(() -> count(likes, 1L) == LIKES_PER_VIDEO);
+
+        source.subscribe(new long[]{3L, 4L}, this::record);
+        awaitTrue(() -> count(likes, 3L) == LIKES_PER_VIDEO && count(likes, 4L) == LIKES_PER_VIDEO);
+        assertEquals("ids=3,4", queries.get(1));
+        assertEquals(LIKES_PER_VIDEO, count(likes, 1L));
+    }
+
+    @Test
+    public void droppedStream_reconnects() throws Exception {
+        dropAfterPush = true;
+        source.subscribe(new long[]{5L}, this::record);
+        awaitTrue(() -> count(likes, 5L) >= 2L * LIKES_PER_VIDEO);
+        assertTrue(queries.size() >= 2);
+        assertEquals("ids=5", queries.get(1));
+    }
+
+    @Test
+    public void emptySubscription_closesStream() throws Exception {
+        source.subscribe(new long[]{6L}, this::record);
+        awaitTrue(() -> count(likes, 6L) == LIKES_PER_VIDEO);
+        source.subscribe(new long[0], this::record);
+        Thread.sleep(200);
+        assertEquals(1, queries.size());
+    }
+
+    private void record(long videoId, long likeDelta, long commentDelta) {
+        likes.computeIfAbsent(videoId, id -> new AtomicLong()).addAndGet(likeDelta);
+        comments.computeIfAbsent(videoId, id -> new AtomicLong()).addAndGet(commentDelta);
+    }
+
+    private static long count(ConcurrentHashMap<Long, AtomicLong> counts, long videoId) {
+        AtomicLong value = counts.get(videoId);
+        return value != null ? value.get() : 0;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * 每个订阅的视频推送 {@link #LIKES_PER_VIDEO} 条点赞增量和一条评论增量 (夹杂一行格式错误的数据和心跳)，
+     * 然后保持连接直到测试结束。
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getQuery();
+        queries.add(query);
+        exchange.getResponseHeaders().set("Content-Type", SseCounterSource.CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            StringBuilder events = new StringBuilder(": heartbeat\n\n");
+            for (String id : query.substring("ids=".length()).split(",")) {
+                for (int i = 0; i < LIKES_PER_VIDEO; i++) {
+                    events.append("data: ").append(id).append(",1,0\n");
+                }
+                events.append("data: ").append(id).append(",0,1\n");
+                events.append("data: not,a,number\n\n");
+            }
+            out.write(events.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            if (!dropAfterPush) shutdown.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // 客户端主动断开
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.image.BlurHash;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * 封面占位编码测试：内置封面的编码与图片保持同步，解码结果接近原图的平均颜色，且解码足够快。
+ */
+public class BundledCoverHashesTest {
+
+    private static final File IMAGES_DIR = new File("src/main/images");
+    private static final int PLACEHOLDER_WIDTH = 20;
+    private static final int PLACEHOLDER_HEIGHT = 32;
+
+    @Test
+    public void bundledHashes_matchCoverImages() throws Exception {
+        for (int i = 0; i < BundledCoverHashes.HASHES.length; i++) {
+            BufferedImage image = readCover(i);
+            String encoded = encode(image);
+            // 图片变化后根据这里打印的值更新 BundledCoverHashes
+            assertEquals("cover_" + (i + 1) + " hash changed, new value: " + encoded,
+                    BundledCoverHashes.HASHES[i], encoded);
+        }
+    }
+
+    @Test
+    public void decodedPlaceholder_matchesAverageColor() throws Exception {
+        int[] pixels = new int[PLACEHOLDER_WIDTH * PLACEHOLDER_HEIGHT];
+        for (int i = 0; i < BundledCoverHashes.HASHES.length; i++) {
+            BufferedImage image = readCover(i);
+            int[] source = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+            BlurHash.decode(BundledCoverHashes.HASHES[i], PLACEHOLDER_WIDTH, PLACEHOLDER_HEIGHT, 1f, pixels);
+            int[] expected = averageColor(source);
+            int[] actual = averageColor(pixels);
+            for (int c = 0; c < 3; c++) {
+                assertEquals("cover_" + (i + 1) + " channel " + c, expected[c], actual[c], 24);
+            }
+        }
+    }
+
+    @Test
+    public void benchmark_decodeIsMicroseconds() {
+        int[] pixels = new int[PLACEHOLDER_WIDTH * PLACEHOLDER_HEIGHT];
+        // 预热
+        for (int i = 0; i < 2_000; i++) {
+            BlurHash.decode(BundledCoverHashes.HASHES[i % 5], PLACEHOLDER_WIDTH, PLACEHOLDER_HEIGHT, 1f, pixels);
+        }
+        int rounds = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            BlurHash.decode(BundledCoverHashes.HASHES[i % 5], PLACEHOLDER_WIDTH, PLACEHOLDER_HEIGHT, 1f, pixels);
+        }
+        long perDecodeNs = (System.nanoTime() - start) / rounds;
+        assertTrue("decode " + PLACEHOLDER_WIDTH + "x" + PLACEHOLDER_HEIGHT + " took " + perDecodeNs + " ns",
+                perDecodeNs < 500_000);
+    }
+
+    @Test
+    public void invalidHashes_areRejected() {
+        assertFalse(BlurHash.isValid(null));
+        assertFalse(BlurHash.isValid("abc"));
+        assertFalse(BlurHash.isValid(BundledCoverHashes.HASHES[0].substring(1)));
+        assertTrue(BlurHash.isValid(BundledCoverHashes.HASHES[0]));
+    }
+
+    private static BufferedImage readCover(int index) throws Exception {
+        File file = new File(IMAGES_DIR, "cover_" + (index + 1) + ".png");
+        assertTrue("missing " + file.getAbsolutePath(), file.exists());
+        return ImageIO.read(file);
+    }
+
+    private static String encode(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        return BlurHash.encode(pixels, width, height,
+                BundledCoverHashes.COMPONENTS_X, BundledCoverHashes.COMPONENTS_Y);
+    }
+
+    private static int[] averageColor(int[] pixels) {
+        long r = 0, g = 0, b = 0;
+        for (int p : pixels) {
+            r += (p >> 16) & 0xFF;
+            g += (p >> 8) & 0xFF;
+            b += p & 0xFF;
+        }
+        return new int[]{(int) (r / pixels.length), (int) (g / pixels.length), (int) (b / pixels.length)};
+    }
+}
@@ -0,0 +1,227 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.model.CommentBean;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 评论发件箱测试：合并发送、失败后退避重试、进程重启后继续发送 (包括超长评论和旧版本文件)。
+ */
+public class CommentOutboxTest {
+
+    private static final long BACKOFF_MS = 10;
+    private static final long TIMEOUT_S = 5;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<ScheduledExecutorService> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (ScheduledExecutorService executor : executors) executor.shutdownNow();
+    }
+
+    @Test
+    public void rapidPosts_areSentInOneBatchAndReconciled() throws Exception {
+        FakeSource source = new FakeSource(0);
+        CommentOutbox outbox = outbox(source, folder.newFile());
+        BlockingQueue<String> posted = collectPosted(outbox);
+
+        CommentSource.Post first = outbox.enqueue(1L, "a");
+        CommentSource.Post second = outbox.enqueue(1L, "b");
+        CommentSource.Post other = outbox.enqueue(2L, "c");
+        assertEquals(2, outbox.getPending(1L).size());
+
+        assertEquals(first.localId + "=1-s0", posted.poll(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(second.localId + "=1-s1", posted.poll(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(other.localId + "=2-s2", posted.poll(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(1, source.calls);
+        assertEquals(0, outbox.pendingCount());
+    }
+
+    @Test
+    public void failedBatch_isRetriedWithBackoff() throws Exception {
+        FakeSource source = new FakeSource(2);
+        CommentOutbox outbox = outbox(source, folder.newFile());
+        BlockingQueue<String> posted = collectPosted(outbox);
+
+        CommentSource.Post post = outbox.enqueue(1L, "a");
+        assertEquals(post.localId + "=1-s0", posted.poll(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(3, source.calls);
+        assertTrue(outbox.getPending(1L).isEmpty());
+    }
+
+    @Test
+    public void tooManyFailures_dropsPostAndNotifies() throws Exception {
+        FakeSource source = new FakeSource(Integer.MAX_VALUE);
+        CommentOutbox outbox = outbox(source, folder.newFile());
+        CountDownLatch failed = new CountDownLatch(1);
+        outbox.addListener(new CommentOutbox.Listener() {
+            @Override
+            public void onPosted(CommentSource.Post post, CommentBean posted) {
+                fail("should not be posted");
+            }
+
+            @Override
+            public void onFailed(CommentSource.Post post) {
+                failed.countDown();
+            }
+        });
+
+        outbox.enqueue(1L, "a");
+        assertTrue(failed.await(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(CommentOutbox.MAX_ATTEMPTS, source.calls);
+        assertEquals(0, outbox.pendingCount());
+    }
+
+    @Test
+    public void pendingPosts_surviveRestart() throws Exception {
+        File file = new File(folder.getRoot(), "outbox.bin");
+        // 第一个进程：后端一直不可用，第一次失败时评论已经落盘
+        FakeSource down = new FakeSource(Integer.MAX_VALUE);
+        ScheduledExecutorService firstIo = Executors.newSingleThreadScheduledExecutor();
+        CommentOutbox first = new CommentOutbox(down, file, firstIo, Runnable::run, 60_000);
+        CommentSource.Post a = first.enqueue(1L, "a");
+        CommentSource.Post b = first.enqueue(2L, "b");
+        down.firstCall.await(TIMEOUT_S, TimeUnit.SECONDS);
+        firstIo.shutdownNow();
+        assertTrue(firstIo.awaitTermination(TIMEOUT_S, TimeUnit.SECONDS));
+        assertTrue(file.exists());
+
+        // 重启后：加载上次的评论，以相同的 localId 发送
+        FakeSource up = new FakeSource(0);
+        ScheduledExecutorService secondIo = Executors.newSingleThreadScheduledExecutor();
+        executors.add(secondIo);
+        // 挂上监听器之前先不让后台线程启动
+        CountDownLatch started = new CountDownLatch(1);
+        secondIo.execute(() -> {
+            try {
+                started.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        CommentOutbox second = new CommentOutbox(up, file, secondIo, Runnable::run, BACKOFF_MS);
+        BlockingQueue<String> posted = collectPosted(second);
+        started.countDown();
+        assertEquals(a.localId + "=1-s0", posted.poll(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(b.localId + "=2-s1", posted.poll(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals("a", up.received.get(0).content);
+        assertEquals(a.createTime, up.received.get(0).createTime);
+
+        // 全部发送完成后删除文件
+        second.enqueue(3L, "sync"); // 排在删除之后，用于等待后台线程
+        posted.poll(TIMEOUT_S, TimeUnit.SECONDS);
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void longPost_survivesRestart() throws Exception {
+        File file = new File(folder.getRoot(), "outbox.bin");
+        // 编码后约 90KB，超过 writeUTF 的 65535 字节上限
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 30_000; i++) content.append('评');
+        FakeSource down = new FakeSource(Integer.MAX_VALUE);
+        ScheduledExecutorService firstIo = Executors.newSingleThreadScheduledExecutor();
+        CommentOutbox first = new CommentOutbox(down, file, firstIo, Runnable::run, 60_000);
+        first.enqueue(1L, content.toString());
+        down.firstCall.await(TIMEOUT_S, TimeUnit.SECONDS);
+        firstIo.shutdownNow();
+        assertTrue(firstIo.awaitTermination(TIMEOUT_S, TimeUnit.SECONDS));
+
+        // 重启后加载并在第一次发送中发出
+        FakeSource up = new FakeSource(0);
+        outbox(up, file);
+        assertEquals(1, up.received.size());
+        assertEquals(content.toString(), up.received.get(0).content);
+    }
+
+    /**
+     * 创建发件箱并等待启动时的加载和第一次发送完成，之后发表的评论一定会等待合并。
+     */
+    private CommentOutbox outbox(CommentSource source, File file) throws Exception {
+        ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+        executors.add(io);
+        CommentOutbox outbox = new CommentOutbox(source, file, io, Runnable::run, BACKOFF_MS);
+        io.submit(() -> { }).get();
+        return outbox;
+    }
+
+    private static BlockingQueue<String> collectPosted(CommentOutbox outbox) {
+        BlockingQueue<String> posted = new LinkedBlockingQueue<>();
+        outbox.addListener(new CommentOutbox.Listener() {
+            @Override
+            public void onPosted(CommentSource.Post post, CommentBean bean) {
+                posted.add(post.localId + "=" + bean.id);
+            }
+
+            @Override
+            public void onFailed(CommentSource.Post post) {
+                fail("post failed: " + post.localId);
+            }
+        });
+        return posted;
+    }
+
+    /**
+     * 前 failures 次请求失败的后端，之后按收到的顺序分配ID。
+     */
+    private static final class FakeSource implements CommentSource {
+        final int failures;
+        final CountDownLatch firstCall = new CountDownLatch(1);
+        final List<Post> received = Collections.synchronizedList(new ArrayList<>());
+        volatile int calls;
+        private int nextId;
+
+        FakeSource(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public int pageSize() {
+            return 10;
+        }
+
+        @Override
+        public Page loadPage(long videoId, int pageIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Page loadReplies(long videoId, String rootId, int pageIndex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<CommentBean> postComments(List<Post> posts) throws IOException {
+            calls++;
+            firstCall.countDown();
+            if (calls <= failures) throw new IOException("backend unavailable");
+            List<CommentBean> result = new ArrayList<>();
+            for (Post post : posts) {
+                received.add(post);
+                CommentBean bean = new CommentBean(post.content, "me", post.createTime + 1, 0, 0);
+                bean.id = post.videoId + "-s" + nextId++;
+                result.add(bean);
+            }
+            return result;
+        }
+    }
+}
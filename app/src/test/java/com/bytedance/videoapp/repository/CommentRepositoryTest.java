@@ -0,0 +1,273 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.model.CommentBean;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 评论仓库测试：分页、预取后同步读取、新页到达的通知、按字节预算淘汰最久未访问的视频 (评论数保留)、
+ * 重新加载评论总数时重置实时增量，以及按需加载回复。
+ */
+public class CommentRepositoryTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Test
+    public void fetch_pagesFromIndexAndStopsAtEnd() {
+        FakeSource source = new FakeSource(25);
+        CommentRepository repository = repository(source, Long.MAX_VALUE);
+
+        List<CommentBean> first = fetch(repository, 1L, 0);
+        assertEquals(PAGE_SIZE, first.size());
+        assertEquals("1-0", first.get(0).id);
+        assertEquals(25, repository.getCommentCount(1L));
+
+        List<CommentBean> second = fetch(repository, 1L, first.size());
+        assertEquals("1-10", second.get(0).id);
+        List<CommentBean> third = fetch(repository, 1L, 20);
+        assertEquals(5, third.size());
+        assertFalse(repository.hasMore(1L));
+
+        // 到达末尾后不再请求数据源
+        assertTrue(fetch(repository, 1L, 25).isEmpty());
+        assertEquals(3, source.loads);
+    }
+
+    @Test
+    public void prefetch_makesFirstPageAvailableSynchronously() {
+        FakeSource source = new FakeSource(100);
+        CommentRepository repository = repository(source, Long.MAX_VALUE);
+        assertNull(repository.getCachedComments(7L));
+        assertEquals(-1, repository.getCommentCount(7L));
+
+        repository.prefetch(7L);
+        repository.prefetch(7L); // 已缓存，不会重复请求
+        assertEquals(1, source.loads);
+        assertEquals(PAGE_SIZE, repository.getCachedComments(7L).size());
+
+        // 打开评论区时从 0 开始取，直接得到全部缓存
+        assertEquals(PAGE_SIZE, fetch(repository, 7L, 0).size());
+        assertEquals(1, source.loads);
+    }
+
+    @Test
+    public void pageListener_seesPrefetchedPagesOnce() {
+        FakeSource source = new FakeSource(100);
+        CommentRepository repository = repository(source, Long.MAX_VALUE);
+        List<CommentBean> seen = new ArrayList<>();
+        repository.addPageListener(seen::addAll);
+
+        // 没有回调的预取也会通知，评论内容可以在打开评论区之前测量
+        repository.prefetch(7L);
+        repository.prefetch(7L);
+        assertEquals(PAGE_SIZE, seen.size());
+        assertEquals("7-0", seen.get(0).id);
+
+        fetch(repository, 7L, PAGE_SIZE);
+        assertEquals(2 * PAGE_SIZE, seen.size());
+    }
+
+    @Test
+    public void pageListeners_areNotifiedUntilRemoved() {
+        FakeSource source = new FakeSource(100);
+        CommentRepository repository = repository(source, Long.MAX_VALUE);
+        List<CommentBean> first = new ArrayList<>();
+        List<CommentBean> second = new ArrayList<>();
+        CommentRepository.PageListener firstListener = first::addAll;
+        repository.addPageListener(firstListener);
+        repository.addPageListener(second::addAll);
+
+        // 两个详情页同时存在时都能收到，先销毁的页面移除后不再收到
+        repository.prefetch(7L);
+        assertEquals(PAGE_SIZE, first.size());
+        assertEquals(PAGE_SIZE, second.size());
+
+        repository.removePageListener(firstListener);
+        repository.prefetch(8L);
+        assertEquals(PAGE_SIZE, first.size());
+        assertEquals(2 * PAGE_SIZE, second.size());
+    }
+
+    @Test
+    public void overBudget_evictsLeastRecentlyViewedVideo() {
+        FakeSource source = new FakeSource(100);
+        CommentRepository probe = repository(source, Long.MAX_VALUE);
+        probe.prefetch(1L);
+        long pageBytes = probe.cachedBytes();
+
+        // 预算只够两页
+        CommentRepository repository = repository(source, pageBytes * 2);
+        repository.prefetch(1L);
+        repository.prefetch(2L);
+        assertNotNull(repository.getCachedComments(1L)); // 访问 1，2 成为最久未访问
+        repository.prefetch(3L);
+
+        assertNotNull(repository.getCachedComments(1L));
+        assertNull(repository.getCachedComments(2L));
+        assertNotNull(repository.getCachedComments(3L));
+        assertTrue(repository.cachedBytes() <= pageBytes * 2);
+    }
+
+    @Test
+    public void evictedBetweenPages_reloadsUpToRequestedIndex() {
+        FakeSource source = new FakeSource(100);
+        CommentRepository repository = repository(source, 1);
+        fetch(repository, 1L, 0);
+        // 预算只够一个视频，1 被淘汰
+        fetch(repository, 2L, 0);
+        assertNull(repository.getCachedComments(1L));
+
+        List<CommentBean> next = fetch(repository, 1L, PAGE_SIZE);
+        assertEquals("1-10", next.get(0).id);
+    }
+
+    @Test
+    public void commentCount_survivesEvictionAndCountsPostedComments() {
+        FakeSource source = new FakeSource(25);
+        // 预算只够一个视频，评论列表会被不断淘汰，评论数依然保留 (表会多次扩容)
+        CommentRepository repository = repository(source, 1);
+        long base = 7_000_000_000_000L;
+        for (long i = 0; i < 200; i++) {
+            fetch(repository, base + i, 0);
+        }
+        assertNull(repository.getCachedComments(base));
+        for (long i = 0; i < 200; i++) {
+            assertEquals(25, repository.getCommentCount(base + i));
+        }
+        assertEquals(-1, repository.getCommentCount(base - 1));
+
+        repository.addPostedComment(base, new CommentBean("新评论", "我", 0, 0, 0));
+        assertEquals(26, repository.getCommentCount(base));
+        // 没有加载过的视频不凭空出现评论数
+        repository.addPostedComment(base - 1, new CommentBean("新评论", "我", 0, 0, 0));
+        assertEquals(-1, repository.getCommentCount(base - 1));
+    }
+
+    @Test
+    public void reloadedCount_rebasesLiveCommentDelta() throws Exception {
+        LiveCounterSource.Callback[] push = new LiveCounterSource.Callback[1];
+        ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+        try {
+            LiveCounters counters = new LiveCounters(new LiveCounterSource() {
+                @Override
+                public void subscribe(long[] videoIds, Callback callback) {
+                    push[0] = callback;
+                }
+
+                @Override
+                public void close() {
+                }
+            }, io, task -> { }, 0);
+            counters.retain(1L);
+            io.submit(() -> { }).get(5, TimeUnit.SECONDS);
+            push[0].onDelta(1L, 0, 3);
+
+            // 预算只够一个视频：1 被淘汰后重新加载，新的总数已经包含推送过的 3 条评论
+            CommentRepository repository = repository(new FakeSource(25), 1);
+            repository.setLiveCounters(counters);
+            fetch(repository, 1L, 0);
+            assertEquals(0, counters.commentDelta(1L));
+            push[0].onDelta(1L, 0, 2);
+            fetch(repository, 2L, 0);
+            fetch(repository, 1L, 0);
+            assertEquals(25, repository.getCommentCount(1L));
+            assertEquals(0, counters.commentDelta(1L));
+        } finally {
+            io.shutdownNow();
+        }
+    }
+
+    @Test
+    public void fetchReplies_returnsRepliesAfterIndex() {
+        FakeSource source = new FakeSource(100);
+        CommentRepository repository = repository(source, Long.MAX_VALUE);
+        List<CommentBean> replies = new ArrayList<>();
+        repository.fetchReplies(1L, "1-0", 3, new VideoRepository.DataCallback<List<CommentBean>>() {
+            @Override
+            public void onSuccess(List<CommentBean> data) {
+                replies.addAll(data);
+            }
+
+            @Override
+            public void onError(String msg) {
+                fail(msg);
+            }
+        });
+        assertEquals(PAGE_SIZE - 3, replies.size());
+        assertEquals("1-0-r3", replies.get(0).id);
+        assertEquals("1-0", replies.get(0).parentId);
+        // 回复不进入评论缓存
+        assertNull(repository.getCachedComments(1L));
+    }
+
+    private static CommentRepository repository(CommentSource source, long maxBytes) {
+        return new CommentRepository(source, maxBytes, Runnable::run, Runnable::run);
+    }
+
+    private static List<CommentBean> fetch(CommentRepository repository, long videoId, int fromIndex) {
+        List<CommentBean> result = new ArrayList<>();
+        repository.fetchComments(videoId, fromIndex, new VideoRepository.DataCallback<List<CommentBean>>() {
+            @Override
+            public void onSuccess(List<CommentBean> data) {
+                result.addAll(data);
+            }
+
+            @Override
+            public void onError(String msg) {
+                fail(msg);
+            }
+        });
+        return result;
+    }
+
+    private static final class FakeSource implements CommentSource {
+        final int total;
+        int loads;
+
+        FakeSource(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public int pageSize() {
+            return PAGE_SIZE;
+        }
+
+        @Override
+        public Page loadPage(long videoId, int pageIndex) {
+            loads++;
+            List<CommentBean> list = new ArrayList<>();
+            for (int i = pageIndex * PAGE_SIZE; i < total && i < (pageIndex + 1) * PAGE_SIZE; i++) {
+                CommentBean bean = new CommentBean("comment " + i, "user", i, 0, 0);
+                bean.id = videoId + "-" + i;
+                list.add(bean);
+            }
+            return new Page(list, total);
+        }
+
+        @Override
+        public Page loadReplies(long videoId, String rootId, int pageIndex) {
+            List<CommentBean> list = new ArrayList<>();
+            for (int i = pageIndex * PAGE_SIZE; i < (pageIndex + 1) * PAGE_SIZE; i++) {
+                CommentBean bean = new CommentBean("reply " + i, "user", i, 0, 0);
+                bean.id = rootId + "-r" + i;
+                bean.parentId = rootId;
+                list.add(bean);
+            }
+            return new Page(list, PAGE_SIZE * 3);
+        }
+
+        @Override
+        public List<CommentBean> postComments(List<Post> posts) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
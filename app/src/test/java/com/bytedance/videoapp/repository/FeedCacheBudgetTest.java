@@ -0,0 +1,140 @@
+package com.bytedance.videoapp.repository;
+
+
+import org.junit.Test;
+
+
+import static org.junit.Assert.*;
+
+/**
+ * 多频道共用内存预算的测试：超出预算时按最近显示顺序淘汰，当前频道不会被淘汰。
+ */
+public class FeedCacheBudgetTest {
+
+    @Test
+    public void overBudget_evictsLeastRecentlyTouchedFirst() {
+        FeedCacheBudget budget = new FeedCacheBudget(100);
+        FakeCache a = new FakeCache(40);
+        FakeCache b = new FakeCache(40);
+        FakeCache c = new FakeCache(40);
+
+        budget.touch(a);
+        budget.touch(b);
+        budget.touch(a); // a 重新变为最近使用，b 成为最久未使用
+        budget.touch(c);
+
+        assertTrue(b.evicted);
+        assertFalse(a.evicted);
+        assertFalse(c.evicted);
+        assertEquals(80, budget.totalBytes());
+    }
+
+    @Test
+    public void mostRecentCache_isNeverEvicted() {
+        FeedCacheBudget budget = new FeedCacheBudget(100);
+        FakeCache hidden = new FakeCache(10);
+        FakeCache active = new FakeCache(10);
+        budget.touch(hidden);
+        budget.touch(active);
+
+        // 后台频道的加载不会改变最近使用顺序
+        hidden.bytes = 50;
+        budget.onCacheChanged(hidden);
+        assertFalse(hidden.evicted);
+
+        // 当前频道自己超出预算时，只能淘汰其他频道
+        active.bytes = 500;
+        budget.onCacheChanged(active);
+        assertTrue(hidden.evicted);
+        assertFalse(active.evicted);
+        assertEquals(500, budget.totalBytes());
+    }
+
+    @Test
+    public void evictedCache_registersAgainWhenItGrows() {
+        FeedCacheBudget budget = new FeedCacheBudget(100);
+        FakeCache a = new FakeCache(80);
+        FakeCache b = new FakeCache(0);
+        budget.touch(a);
+        budget.touch(b);
+        b.bytes = 80;
+        budget.onCacheChanged(b);
+        assertTrue(a.evicted);
+
+        a.bytes = 10;
+        budget.onCacheChanged(a);
+        assertEquals(90, budget.totalBytes());
+    }
+
+    @Test
+    public void repositories_shareBudgetAcrossTabs() {
+        FeedCacheBudget budget = new FeedCacheBudget(64 * 1024);
+        VideoRepository recommend = repository(budget);
+        VideoRepository follow = repository(budget);
+        int[] evictions = new int[1];
+        recommend.addEvictionListener(() -> evictions[0]++);
+
+        recommend.touch();
+        load(recommend, 5);
+        assertTrue(recommend.getCachedCount() > 0);
+
+        // 切到另一个频道并持续加载，直到超出预算
+        follow.touch();
+        for (int page = 0; page < 200 && evictions[0] == 0; page++) {
+            load(follow, page);
+        }
+        assertEquals(1, evictions[0]);
+        assertEquals(0, recommend.getCachedCount());
+        assertTrue(follow.getCachedCount() > 0);
+        assertEquals(follow.cacheBytes(), budget.totalBytes());
+
+        // 被淘汰的频道重新显示后从上游的下一批继续加载
+        recommend.touch();
+        load(recommend, 0);
+        assertTrue(recommend.getCachedCount() > 0);
+    }
+
+    private static VideoRepository repository(FeedCacheBudget budget) {
+        SyntheticFeedSource source = new SyntheticFeedSource(new SyntheticFeedSource.Builder()
+                .totalItems(1_000_000)
+                .pageSize(20)
+                .resources(new int[]{1, 2, 3}, new int[]{4, 5}, new int[]{6, 7, 8, 9})
+                .build());
+        VideoRepository repository = new VideoRepository(source, Runnable::run, Runnable::run);
+        repository.setCacheBudget(budget);
+        return repository;
+    }
+
+    private static void load(VideoRepository repository, int page) {
+        repository.fetchVideoList(page, new VideoRepository.DataCallback<VideoColumnStore.Snapshot>() {
+            @Override
+            public void onSuccess(VideoColumnStore.Snapshot data) {
+            }
+
+            @Override
+            public void onError(String msg) {
+                fail(msg);
+            }
+        });
+    }
+
+    private static final class FakeCache implements FeedCacheBudget.Cache {
+        long bytes;
+        boolean evicted;
+
+        FakeCache(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long cacheBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void evictCache() {
+            evicted = true;
+            bytes = 0;
+        }
+    }
+}
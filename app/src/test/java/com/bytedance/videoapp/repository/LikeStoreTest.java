@@ -0,0 +1,218 @@
+package com.bytedance.videoapp.repository;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 点赞存储测试：连续点击合并为最终状态、按窗口批量同步、失败重试、进程重启后继续同步。
+ */
+public class LikeStoreTest {
+
+    // 足够长的窗口，测试中由 flushNow 触发同步
+    private static final long MANUAL_WINDOW_MS = 60_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<ScheduledExecutorService> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (ScheduledExecutorService executor : executors) executor.shutdownNow();
+    }
+
+    @Test
+    public void rapidToggles_coalesceIntoOneWritePerVideo() throws Exception {
+        FakeSource source = new FakeSource(0);
+        ScheduledExecutorService io = executor();
+        LikeStore store = new LikeStore(source, new File(folder.getRoot(), "likes.bin"), io, MANUAL_WINDOW_MS);
+        drain(io);
+
+        for (int i = 0; i < 7; i++) store.toggle(1L); // 奇数次：最终为点赞
+        for (int i = 0; i < 6; i++) store.toggle(2L); // 偶数次：回到原状态
+        store.like(3L);
+        store.like(3L);
+        assertTrue(store.isLiked(1L));
+        assertFalse(store.isLiked(2L));
+        assertEquals(11, store.likeCount(3L, 10));
+
+        store.flushNow();
+        drain(io);
+        assertEquals(1, source.batches.size());
+        Map<Long, Boolean> batch = source.batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals(Boolean.TRUE, batch.get(1L));
+        assertEquals(Boolean.TRUE, batch.get(3L));
+        assertEquals(0, store.pendingCount());
+
+        // 已经同步过，再次同步不会发送
+        store.flushNow();
+        drain(io);
+        assertEquals(1, source.batches.size());
+
+        store.toggle(1L);
+        store.flushNow();
+        drain(io);
+        assertEquals(Collections.singletonMap(1L, false), source.batches.get(1));
+    }
+
+    @Test
+    public void likeCount_addsOnlyTheUnsyncedDifference() throws Exception {
+        FakeSource source = new FakeSource(0);
+        ScheduledExecutorService io = executor();
+        LikeStore store = new LikeStore(source, new File(folder.getRoot(), "likes.bin"), io, MANUAL_WINDOW_MS);
+        drain(io);
+
+        assertEquals(10, store.likeCount(1L, 10));
+        store.like(1L);
+        assertEquals(11, store.likeCount(1L, 10));
+
+        // 同步后 Feed 下发的点赞数已经包含这次点赞，不再加一
+        store.flushNow();
+        drain(io);
+        assertEquals(11, store.likeCount(1L, 11));
+
+        // 取消已经同步的点赞，同步前减一
+        store.toggle(1L);
+        assertEquals(10, store.likeCount(1L, 11));
+        store.flushNow();
+        drain(io);
+        assertEquals(10, store.likeCount(1L, 10));
+    }
+
+    @Test
+    public void firstChange_flushesAfterWindow() throws Exception {
+        FakeSource source = new FakeSource(0);
+        ScheduledExecutorService io = executor();
+        LikeStore store = new LikeStore(source, new File(folder.getRoot(), "likes.bin"), io, 20);
+        drain(io);
+
+        store.like(1L);
+        store.like(2L);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.pendingCount() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(0, store.pendingCount());
+        assertEquals(1, source.batches.size());
+        assertEquals(2, source.batches.get(0).size());
+    }
+
+    @Test
+    public void flushes_areAtLeastOneWindowApart() throws Exception {
+        FakeSource source = new FakeSource(0);
+        ScheduledExecutorService io = executor();
+        LikeStore store = new LikeStore(source, new File(folder.getRoot(), "likes.bin"), io, 200);
+        drain(io);
+
+        store.like(1L);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.pendingCount() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(2);
+        long firstAt = System.currentTimeMillis();
+        store.toggle(1L);
+        while (store.pendingCount() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(2);
+        assertEquals(2, source.batches.size());
+        assertTrue(System.currentTimeMillis() - firstAt >= 150);
+    }
+
+    @Test
+    public void failedSync_isRetried() throws Exception {
+        FakeSource source = new FakeSource(2);
+        ScheduledExecutorService io = executor();
+        LikeStore store = new LikeStore(source, new File(folder.getRoot(), "likes.bin"), io, 5);
+
+        store.like(1L);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.pendingCount() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(0, store.pendingCount());
+        assertEquals(3, source.calls);
+    }
+
+    @Test
+    public void unsyncedLikes_surviveRestart() throws Exception {
+        File file = new File(folder.getRoot(), "likes.bin");
+        FakeSource down = new FakeSource(Integer.MAX_VALUE);
+        ScheduledExecutorService firstIo = executor();
+        LikeStore first = new LikeStore(down, file, firstIo, MANUAL_WINDOW_MS);
+        first.like(1L);
+        first.toggle(2L);
+        first.toggle(2L);
+        first.flushNow(); // 落盘后发送失败
+        drain(firstIo);
+        firstIo.shutdownNow();
+
+        FakeSource up = new FakeSource(0);
+        ScheduledExecutorService secondIo = executor();
+        LikeStore second = new LikeStore(up, file, secondIo, MANUAL_WINDOW_MS);
+        drain(secondIo);
+        assertTrue(second.isLiked(1L));
+        assertFalse(second.isLiked(2L));
+        assertEquals(Collections.singletonMap(1L, true), up.batches.get(0));
+        assertEquals(0, second.pendingCount());
+
+        // 已确认的点赞在下次启动时依然存在，但不会重复发送
+        ScheduledExecutorService thirdIo = executor();
+        LikeStore third = new LikeStore(up, file, thirdIo, MANUAL_WINDOW_MS);
+        drain(thirdIo);
+        assertTrue(third.isLiked(1L));
+        assertEquals(1, up.batches.size());
+    }
+
+    @Test
+    public void manyVideos_growTable() throws Exception {
+        ScheduledExecutorService io = executor();
+        LikeStore store = new LikeStore(new FakeSource(0), new File(folder.getRoot(), "likes.bin"), io,
+                MANUAL_WINDOW_MS);
+        for (long id = 0; id < 10_000; id++) {
+            if (id % 3 == 0) store.like(id * 7919);
+        }
+        for (long id = 0; id < 10_000; id++) {
+            assertEquals(id % 3 == 0, store.isLiked(id * 7919));
+        }
+    }
+
+    private ScheduledExecutorService executor() {
+        ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+        executors.add(io);
+        return io;
+    }
+
+    /**
+     * 等待后台线程执行完已经提交的任务。
+     */
+    private static void drain(ScheduledExecutorService io) throws Exception {
+        io.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 前 failures 次请求失败的同步接口，记录每一批请求。
+     */
+    private static final class FakeSource implements LikeSource {
+        final int failures;
+        final List<Map<Long, Boolean>> batches = Collections.synchronizedList(new ArrayList<>());
+        volatile int calls;
+
+        FakeSource(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public void syncLikes(Map<Long, Boolean> likes) throws IOException {
+            calls++;
+            if (calls <= failures) throw new IOException("backend unavailable");
+            batches.add(likes);
+        }
+    }
+}
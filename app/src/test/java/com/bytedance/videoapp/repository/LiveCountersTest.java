@@ -0,0 +1,190 @@
+package com.bytedance.videoapp.repository;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 实时计数测试：一帧内的大量推送合并为一次分发、引用计数管理订阅、取消订阅后的推送被丢弃，
+ * 基础值重新加载后只显示之后收到的增量。
+ */
+public class LiveCountersTest {
+
+    private final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+    // 手动驱动的"帧"：请求下一帧时只是排队，测试中调用 runFrames 模拟 VSync
+    private final ConcurrentLinkedQueue<Runnable> frames = new ConcurrentLinkedQueue<>();
+    private final FakeSource source = new FakeSource();
+    private final LiveCounters counters = new LiveCounters(source, io, frames::add, 0);
+    private final List<long[]> dispatched = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        io.shutdownNow();
+    }
+
+    @Test
+    public void hotVideo_isDispatchedOncePerFrame() throws Exception {
+        counters.addListener((ids, count) -> dispatched.add(Arrays.copyOf(ids, count)));
+        counters.retain(1L);
+        counters.retain(2L);
+        drain();
+        assertArrayEquals(new long[]{1L, 2L}, source.lastSubscription());
+
+        // 四个推送线程同时推送同一个热门视频
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) source.callback.onDelta(1L, 1, 0);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        source.callback.onDelta(2L, 0, 3);
+
+        assertEquals(1, frames.size());
+        runFrames();
+        assertEquals(1, dispatched.size());
+        long[] ids = dispatched.get(0);
+        Arrays.sort(ids);
+        assertArrayEquals(new long[]{1L, 2L}, ids);
+        assertEquals(20_000, counters.likeDelta(1L));
+        assertEquals(3, counters.commentDelta(2L));
+
+        // 没有新的推送时不会再请求帧
+        runFrames();
+        assertEquals(1, dispatched.size());
+
+        source.callback.onDelta(2L, 1, 0);
+        assertEquals(1, frames.size());
+        runFrames();
+        assertArrayEquals(new long[]{2L}, dispatched.get(1));
+    }
+
+    @Test
+    public void subscription_followsReferenceCounts() throws Exception {
+        counters.retain(7L);
+        counters.retain(7L);
+        counters.retain(8L);
+        drain();
+        assertArrayEquals(new long[]{7L, 8L}, source.lastSubscription());
+        int subscribeCalls = source.subscriptions.size();
+
+        counters.release(7L);
+        drain();
+        assertEquals(subscribeCalls, source.subscriptions.size()); // 7 仍被持有，订阅没有变化
+
+        counters.release(7L);
+        drain();
+        assertArrayEquals(new long[]{8L}, source.lastSubscription());
+
+        // 取消订阅后收到的在途推送被丢弃，之前累计的计数保留
+        counters.release(8L);
+        drain();
+        source.callback.onDelta(8L, 5, 0);
+        assertTrue(frames.isEmpty());
+        assertEquals(0, counters.likeDelta(8L));
+        assertArrayEquals(new long[0], source.lastSubscription());
+    }
+
+    @Test
+    public void deltas_surviveUnsubscribe() throws Exception {
+        counters.retain(3L);
+        drain();
+        source.callback.onDelta(3L, 4, 1);
+        runFrames();
+        counters.release(3L);
+        counters.retain(3L);
+        drain();
+        assertEquals(4, counters.likeDelta(3L));
+        assertEquals(1, counters.commentDelta(3L));
+    }
+
+    @Test
+    public void freshBase_countsOnlyLaterDeltas() throws Exception {
+        counters.retain(3L);
+        drain();
+        source.callback.onDelta(3L, 4, 2);
+        // 刷新拿到的点赞数已经包含这 4 个赞，评论总数还没有重新加载
+        counters.rebaseLikes(3L);
+        assertEquals(0, counters.likeDelta(3L));
+        assertEquals(2, counters.commentDelta(3L));
+
+        source.callback.onDelta(3L, 1, 1);
+        assertEquals(1, counters.likeDelta(3L));
+        assertEquals(3, counters.commentDelta(3L));
+        counters.rebaseComments(3L);
+        assertEquals(0, counters.commentDelta(3L));
+
+        // 从未订阅过的视频没有增量，重置也不会创建记录
+        counters.rebaseLikes(99L);
+        assertEquals(0, counters.likeDelta(99L));
+    }
+
+    @Test
+    public void rapidChurn_isDebouncedIntoOneSubscription() throws Exception {
+        ScheduledExecutorService slowIo = Executors.newSingleThreadScheduledExecutor();
+        try {
+            FakeSource debounced = new FakeSource();
+            LiveCounters slow = new LiveCounters(debounced, slowIo, frames::add, 100);
+            for (long id = 0; id < 50; id++) {
+                slow.retain(id);
+                if (id >= 5) slow.release(id - 5); // 模拟快速滑动，始终只保留最近 5 个
+            }
+            Thread.sleep(300);
+            slowIo.submit(() -> { }).get(5, TimeUnit.SECONDS);
+            assertEquals(1, debounced.subscriptions.size());
+            assertArrayEquals(new long[]{45, 46, 47, 48, 49}, debounced.lastSubscription());
+        } finally {
+            slowIo.shutdownNow();
+        }
+    }
+
+    @Test
+    public void manyVideos_growTable() throws Exception {
+        for (long id = 0; id < 5000; id++) counters.retain(id * 7919);
+        drain();
+        for (long id = 0; id < 5000; id++) source.callback.onDelta(id * 7919, id, 0);
+        for (long id = 0; id < 5000; id++) assertEquals(id, counters.likeDelta(id * 7919));
+    }
+
+    private void drain() throws Exception {
+        io.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    private void runFrames() {
+        Runnable frame;
+        while ((frame = frames.poll()) != null) frame.run();
+    }
+
+    /**
+     * 记录每次订阅的推送源，测试中直接调用回调模拟推送。
+     */
+    private static final class FakeSource implements LiveCounterSource {
+        final List<long[]> subscriptions = Collections.synchronizedList(new ArrayList<>());
+        volatile Callback callback;
+
+        @Override
+        public void subscribe(long[] videoIds, Callback callback) {
+            subscriptions.add(videoIds);
+            this.callback = callback;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        long[] lastSubscription() {
+            return subscriptions.get(subscriptions.size() - 1);
+        }
+    }
+}
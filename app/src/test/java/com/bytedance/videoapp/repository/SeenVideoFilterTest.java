@@ -0,0 +1,161 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.model.VideoBean;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 已看视频过滤器测试：默认容量下的误判率与内存、持久化往返，模拟数据源的ID在会话之间保持稳定，
+ * 以及内容池全部看过之后列表不会停住。
+ */
+public class SeenVideoFilterTest {
+
+    // 与真实后端接近的大ID，避免落在连续的小整数上
+    private static final long ID_BASE = 7_000_000_000_000L;
+
+    @Test
+    public void falsePositiveRate_atTargetSize() {
+        SeenVideoFilter filter = new SeenVideoFilter(
+                SeenVideoFilter.DEFAULT_EXPECTED_INSERTIONS, SeenVideoFilter.DEFAULT_FALSE_POSITIVE_RATE);
+        int inserted = (int) SeenVideoFilter.DEFAULT_EXPECTED_INSERTIONS;
+        for (long i = 0; i < inserted; i++) {
+            filter.put(ID_BASE + i * 3);
+        }
+        // 布隆过滤器不会漏判
+        for (long i = 0; i < inserted; i += 997) {
+            assertTrue(filter.mightContain(ID_BASE + i * 3));
+        }
+        int probes = 500_000;
+        int falsePositives = 0;
+        for (long i = 0; i < probes; i++) {
+            // 与已插入的ID交错但不重合
+            if (filter.mightContain(ID_BASE + i * 3 + 1)) falsePositives++;
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue("false positive rate " + rate, rate < SeenVideoFilter.DEFAULT_FALSE_POSITIVE_RATE * 1.25);
+    }
+
+    @Test
+    public void memory_forTwoMillionIds() {
+        SeenVideoFilter filter = new SeenVideoFilter(
+                SeenVideoFilter.DEFAULT_EXPECTED_INSERTIONS, SeenVideoFilter.DEFAULT_FALSE_POSITIVE_RATE);
+        // 理论值 -n·ln(p)/(ln2)^2 位 ≈ 2.40MB (约 2.3MiB)，按 64 位对齐
+        long bytes = filter.sizeInBytes();
+        assertTrue("filter uses " + bytes + " bytes", bytes >= 2_390_000 && bytes <= 2_400_000);
+    }
+
+    @Test
+    public void writeTo_mergeFrom_roundTrip() throws IOException {
+        SeenVideoFilter saved = new SeenVideoFilter(10_000, 0.01);
+        for (long i = 0; i < 5_000; i++) saved.put(ID_BASE + i);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        saved.writeTo(out);
+
+        SeenVideoFilter restored = new SeenVideoFilter(10_000, 0.01);
+        // 加载完成前已经写入的ID不会丢失；其中一部分与保存的记录重叠，合并后不会重复计数
+        restored.put(ID_BASE - 1);
+        for (long i = 0; i < 1_000; i++) restored.put(ID_BASE + i);
+        restored.mergeFrom(new ByteArrayInputStream(out.toByteArray()));
+        for (long i = 0; i < 5_000; i++) {
+            assertTrue(restored.mightContain(ID_BASE + i));
+        }
+        assertTrue(restored.mightContain(ID_BASE - 1));
+        long count = restored.approximateCount();
+        assertTrue("estimated " + count, Math.abs(count - 5_001) < 5_001 * 0.03);
+    }
+
+    @Test
+    public void mergeFrom_discardsDifferentConfiguration() throws IOException {
+        SeenVideoFilter saved = new SeenVideoFilter(10_000, 0.01);
+        saved.put(ID_BASE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        saved.writeTo(out);
+
+        SeenVideoFilter resized = new SeenVideoFilter(20_000, 0.01);
+        resized.mergeFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertFalse(resized.mightContain(ID_BASE));
+        assertEquals(0, resized.approximateCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void mergeFrom_rejectsForeignFile() throws IOException {
+        new SeenVideoFilter(10_000, 0.01).mergeFrom(new ByteArrayInputStream(new byte[64]));
+    }
+
+    @Test
+    public void mockSource_idsAreStableAcrossSessions() {
+        SeenVideoFilter filter = new SeenVideoFilter(10_000, 0.01);
+        // 第一次会话：相邻两批重复下发的条目被过滤
+        MockFeedSource first = new MockFeedSource(0, 100);
+        int delivered = 0;
+        for (int batch = 0; batch < 4; batch++) {
+            delivered += countUnseen(filter, first.generateBatch(batch));
+        }
+        assertEquals(4 * 5 - 3 * MockFeedSource.REPEATS_PER_BATCH, delivered);
+
+        // 第二次会话从上次看过的位置中间开始：同一位置生成同样的ID，看过的全部被过滤
+        MockFeedSource second = new MockFeedSource(0, 104);
+        List<VideoBean> again = second.generateBatch(0);
+        assertEquals(MockFeedSource.videoId(0, 104), again.get(0).id);
+        assertEquals(0, countUnseen(filter, again));
+        // 走出上次看过的范围后又是新内容
+        assertEquals(5 - MockFeedSource.REPEATS_PER_BATCH, countUnseen(filter, second.generateBatch(3)));
+    }
+
+    @Test
+    public void exhaustedCatalogue_resetsFilterInsteadOfStalling() {
+        // 上次会话已经看完了整个内容池
+        SeenVideoFilter filter = new SeenVideoFilter(10_000, 0.01);
+        MockFeedSource mock = new MockFeedSource(0, 0);
+        for (int position = 0; position < MockFeedSource.CATALOGUE_SIZE; position++) {
+            filter.put(MockFeedSource.videoId(0, position));
+        }
+        FeedSource source = new FeedSource() {
+            @Override
+            public int pageSize() {
+                return mock.pageSize();
+            }
+
+            @Override
+            public List<VideoBean> loadBatch(int batchIndex) {
+                return mock.generateBatch(batchIndex); // 不模拟网络延迟
+            }
+        };
+        VideoRepository repository = new VideoRepository(source, Runnable::run, Runnable::run);
+        repository.setSeenFilter(filter);
+
+        List<VideoColumnStore.Snapshot> pages = new ArrayList<>();
+        VideoRepository.DataCallback<VideoColumnStore.Snapshot> callback =
+                new VideoRepository.DataCallback<VideoColumnStore.Snapshot>() {
+                    @Override
+                    public void onSuccess(VideoColumnStore.Snapshot data) {
+                        pages.add(data);
+                    }
+
+                    @Override
+                    public void onError(String msg) {
+                        fail(msg);
+                    }
+                };
+        repository.fetchVideoList(0, callback);
+        repository.fetchVideoList(1, callback);
+        assertEquals(mock.pageSize(), pages.get(0).size());
+        assertEquals(2 * mock.pageSize(), pages.get(1).size());
+    }
+
+    private static int countUnseen(SeenVideoFilter filter, List<VideoBean> batch) {
+        int fresh = 0;
+        for (VideoBean bean : batch) {
+            if (filter.put(bean.id)) fresh++;
+        }
+        return fresh;
+    }
+}
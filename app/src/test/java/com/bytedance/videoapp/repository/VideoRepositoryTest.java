@@ -0,0 +1,152 @@
+package com.bytedance.videoapp.repository;
+
+import com.bytedance.videoapp.model.VideoBean;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 数据仓库的并发测试：向数据源请求期间不持有仓库锁，请求期间被替换的数据源返回的结果不会入库，
+ * 请求期间缓存被淘汰时结果也不会写进已清空的缓存；已经发出的快照不受之后的加载和淘汰影响。
+ */
+public class VideoRepositoryTest {
+
+    private static final int PAGE_SIZE = 4;
+
+    private final ExecutorService caller = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        caller.shutdownNow();
+    }
+
+    @Test
+    public void slowSource_doesNotHoldRepositoryLock() throws Exception {
+        BlockingSource slow = new BlockingSource(1_000_000L);
+        VideoRepository repository = new VideoRepository(slow, Runnable::run, Runnable::run);
+        List<VideoColumnStore.Snapshot> pages = new ArrayList<>();
+        Thread loader = new Thread(() -> repository.fetchVideoList(0, callback(pages)));
+        loader.start();
+        assertTrue(slow.entered.await(5, TimeUnit.SECONDS));
+
+        // 数据源阻塞期间，需要仓库锁的操作可以立即完成
+        BlockingSource fast = new BlockingSource(2_000_000L);
+        fast.release.countDown();
+        Future<?> swap = caller.submit(() -> repository.setFeedSource(fast));
+        swap.get(1, TimeUnit.SECONDS);
+
+        // 旧数据源的结果被丢弃，这一页改由新数据源补齐
+        slow.release.countDown();
+        loader.join(5_000);
+        assertEquals(1, pages.size());
+        assertEquals(PAGE_SIZE, pages.get(0).size());
+        assertEquals(2_000_000L, pages.get(0).id(0));
+        assertEquals(PAGE_SIZE, repository.getCachedCount());
+    }
+
+    @Test
+    public void evictDuringLoad_discardsBatchAndKeepsProgress() throws Exception {
+        BlockingSource slow = new BlockingSource(1_000_000L);
+        VideoRepository repository = new VideoRepository(slow, Runnable::run, Runnable::run);
+        List<VideoColumnStore.Snapshot> pages = new ArrayList<>();
+        Thread loader = new Thread(() -> repository.fetchVideoList(0, callback(pages)));
+        loader.start();
+        assertTrue(slow.entered.await(5, TimeUnit.SECONDS));
+
+        // 淘汰不会等待正在进行的请求
+        caller.submit(repository::evictCache).get(1, TimeUnit.SECONDS);
+        slow.release.countDown();
+        loader.join(5_000);
+
+        // 淘汰之前发起的请求拿到空页，这一批没有写进已清空的缓存
+        assertEquals(1, pages.size());
+        assertTrue(pages.get(0).isEmpty());
+        assertEquals(0, repository.getCachedCount());
+
+        // 被丢弃的批次在下次加载时重新请求
+        repository.fetchVideoList(0, callback(pages));
+        assertEquals(PAGE_SIZE, pages.get(1).size());
+        assertEquals(1_000_000L, pages.get(1).id(0));
+        assertEquals(PAGE_SIZE, repository.getCachedCount());
+    }
+
+    @Test
+    public void snapshot_isUnaffectedByLaterLoadsAndEviction() {
+        BlockingSource source = new BlockingSource(1_000_000L);
+        source.release.countDown();
+        VideoRepository repository = new VideoRepository(source, Runnable::run, Runnable::run);
+        List<VideoColumnStore.Snapshot> pages = new ArrayList<>();
+        repository.fetchVideoList(0, callback(pages));
+        VideoColumnStore.Snapshot first = pages.get(0);
+
+        // 继续加载到扩容，再淘汰并重新加载：新数据写进新的数组
+        for (int page = 1; page < 40; page++) {
+            repository.fetchVideoList(page, callback(pages));
+        }
+        repository.evictCache();
+        repository.fetchVideoList(0, callback(pages));
+
+        assertEquals(PAGE_SIZE, first.size());
+        VideoColumnStore.Row row = first.row();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            assertEquals(1_000_000L + i, row.moveTo(i).id());
+            assertEquals("author", row.author());
+        }
+        assertNotEquals(first.id(0), pages.get(pages.size() - 1).id(0));
+    }
+
+    private static VideoRepository.DataCallback<VideoColumnStore.Snapshot> callback(
+            List<VideoColumnStore.Snapshot> pages) {
+        return new VideoRepository.DataCallback<VideoColumnStore.Snapshot>() {
+            @Override
+            public void onSuccess(VideoColumnStore.Snapshot data) {
+                pages.add(data);
+            }
+
+            @Override
+            public void onError(String msg) {
+                fail(msg);
+            }
+        };
+    }
+
+    /**
+     * 在 {@link #release} 放行前阻塞的数据源，每批返回从 idBase 开始的连续ID。
+     */
+    static final class BlockingSource implements FeedSource {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private final long idBase;
+
+        BlockingSource(long idBase) {
+            this.idBase = idBase;
+        }
+
+        @Override
+        public int pageSize() {
+            return PAGE_SIZE;
+        }
+
+        @Override
+        public List<VideoBean> loadBatch(int batchIndex) throws InterruptedException {
+            entered.countDown();
+            release.await();
+            List<VideoBean> batch = new ArrayList<>(PAGE_SIZE);
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                long id = idBase + (long) batchIndex * PAGE_SIZE + i;
+                batch.add(new VideoBean(id, "title " + id, "author", 0, 1, 2, 3));
+            }
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bytedance.videoapp.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * 展示文案测试：绝对日期按本地时区的天缓存、显示相同的计数共用同一个实例。
+ */
+public class DisplayFormatterTest {
+
+    private TimeZone originalZone;
+
+    @Before
+    public void setUp() {
+        originalZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Shanghai"));
+        DisplayFormatter.refreshClock();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(originalZone);
+        DisplayFormatter.refreshClock();
+    }
+
+    @Test
+    public void date_usesLocalDayAcrossUtcMidnight() {
+        // 前两个时间属于不同的 UTC 天，但在 UTC+8 中同为 03-02；第三个与第一个是同一个 UTC 天，本地却是 03-01
+        long lateUtc = 1583103600000L;  // 2020-03-01T23:00Z = 03-02 07:00 +08
+        long earlyUtc = 1583110800000L; // 2020-03-02T01:00Z = 03-02 09:00 +08
+        long beforeLocalMidnight = 1583074800000L; // 2020-03-01T15:00Z = 03-01 23:00 +08
+        assertEquals("03-02", DisplayFormatter.formatRelativeTime(lateUtc));
+        assertEquals("03-02", DisplayFormatter.formatRelativeTime(earlyUtc));
+        assertEquals("03-01", DisplayFormatter.formatRelativeTime(beforeLocalMidnight));
+    }
+
+    @Test
+    public void date_isRecomputedAfterTimeZoneChange() {
+        long time = 1583103600000L; // 2020-03-01T23:00Z
+        assertEquals("03-02", DisplayFormatter.formatRelativeTime(time));
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        DisplayFormatter.refreshClock();
+        assertEquals("03-01", DisplayFormatter.formatRelativeTime(time));
+    }
+
+    @Test
+    public void count_sharesInstanceWithinDisplayPrecision() {
+        assertSame(DisplayFormatter.formatCount(125_000), DisplayFormatter.formatCount(125_999));
+        assertEquals("12.5w", DisplayFormatter.formatCount(125_999));
+        assertSame(DisplayFormatter.formatCount(230_000_000L), DisplayFormatter.formatCount(239_999_999L));
+        assertEquals("9999", DisplayFormatter.formatCount(9_999));
+        assertEquals("1w", DisplayFormatter.formatCount(10_999));
+    }
+}
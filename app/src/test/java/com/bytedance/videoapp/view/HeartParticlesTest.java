@@ -0,0 +1,85 @@
+package com.bytedance.videoapp.view;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * 爱心粒子池测试：几百个粒子同时存在时发射和逐帧更新都不分配对象，过期粒子被及时移除。
+ */
+public class HeartParticlesTest {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void step_removesExpiredParticles() {
+        HeartParticles particles = new HeartParticles(16);
+        particles.spawn(1, 1, 0);
+        particles.spawn(2, 2, 400);
+        particles.spawn(3, 3, 700);
+
+        assertTrue(particles.step(HeartParticles.DURATION_MS));
+        assertEquals(2, particles.count);
+        for (int i = 0; i < particles.count; i++) {
+            assertNotEquals(0L, particles.startMs[i]);
+        }
+        assertFalse(particles.step(700 + HeartParticles.DURATION_MS));
+        assertEquals(0, particles.count);
+    }
+
+    @Test
+    public void spawn_whenFull_replacesOldest() {
+        HeartParticles particles = new HeartParticles(4);
+        for (int i = 0; i < 4; i++) {
+            particles.spawn(i, i, 100 + i);
+        }
+        particles.spawn(9, 9, 500);
+
+        assertEquals(4, particles.count);
+        for (int i = 0; i < particles.count; i++) {
+            assertNotEquals("oldest particle should be replaced", 100L, particles.startMs[i]);
+        }
+    }
+
+    @Test
+    public void curves_matchOriginalAnimation() {
+        assertEquals(0f, HeartParticles.progress(0, 0), 1e-6f);
+        assertEquals(1f, HeartParticles.progress(0, HeartParticles.DURATION_MS), 1e-6f);
+        assertEquals(0.8f, HeartParticles.scale(0f), 1e-6f);
+        assertEquals(1.2f, HeartParticles.scale(0.5f), 1e-6f);
+        assertEquals(1f, HeartParticles.scale(1f), 1e-6f);
+        assertEquals(1f, HeartParticles.alpha(0.4f), 1e-6f);
+        assertEquals(0f, HeartParticles.alpha(1f), 1e-6f);
+    }
+
+    @Test
+    public void burstOfHundreds_allocatesNothing() {
+        HeartParticles particles = new HeartParticles(512);
+        // 预热
+        simulate(particles, 0);
+        long threadId = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        long frames = simulate(particles, 10_000);
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(frames + " frames, " + particles.count + " live particles", 0, allocated);
+    }
+
+    /**
+     * 每 16ms 一帧，每帧发射 10 个爱心，持续 2 秒，期间会达到数百个同时存活的粒子。
+     */
+    private static long simulate(HeartParticles particles, long startMs) {
+        long frames = 0;
+        for (long now = startMs; now < startMs + 2_000; now += 16) {
+            for (int i = 0; i < 10; i++) {
+                particles.spawn(i * 10f, i * 20f, now);
+            }
+            particles.step(now);
+            frames++;
+        }
+        return frames;
+    }
+}
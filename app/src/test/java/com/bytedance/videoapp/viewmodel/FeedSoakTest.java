@@ -0,0 +1,108 @@
+package com.bytedance.videoapp.viewmodel;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import com.bytedance.videoapp.repository.SyntheticFeedSource;
+import com.bytedance.videoapp.repository.VideoColumnStore;
+import com.bytedance.videoapp.repository.VideoRepository;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * ViewModel / Repository 层的浸泡测试 (Soak Test)，在开发机 JVM 上运行。
+ * <p>
+ * 使用 {@link SyntheticFeedSource} 连续加载大量分页，检查堆内存增长；断言失败时的信息中附带每页加载延迟。
+ * 默认规模较小以便在 CI 中快速完成，可以通过系统属性放大，例如:
+ * {@code ./gradlew test -Dsoak.pages=50000 -Dsoak.pageSize=20 -Dsoak.medianMs=5}
+ */
+public class FeedSoakTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private static final int PAGES = Integer.getInteger("soak.pages", 500);
+    private static final int PAGE_SIZE = Integer.getInteger("soak.pageSize", 20);
+    private static final long MEDIAN_MS = Long.getLong("soak.medianMs", 0L);
+    private static final long P99_MS = Long.getLong("soak.p99Ms", MEDIAN_MS * 5);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("soak.errorRate", "0.02"));
+
+    @Test
+    public void loadManyPages_reportsHeapGrowthAndLatency() {
+        SyntheticFeedSource source = new SyntheticFeedSource(new SyntheticFeedSource.Builder()
+                .totalItems((long) PAGES * PAGE_SIZE)
+                .pageSize(PAGE_SIZE)
+                .latency(SyntheticFeedSource.LatencyModel.LOG_NORMAL, MEDIAN_MS, P99_MS)
+                .errorRate(ERROR_RATE)
+                .resources(new int[]{1, 2, 3}, new int[]{4, 5}, new int[]{6, 7, 8, 9})
+                .build());
+        // 同步执行器：每次 loadMore 在返回前就已经完成了整个"请求 -> 入库 -> 回调"流程
+        VideoRepository repository = new VideoRepository(source, Runnable::run, Runnable::run);
+        VideoViewModel viewModel = new VideoViewModel(repository);
+
+        Set<Long> ids = new HashSet<>();
+        int[] received = new int[1];
+        viewModel.videoList.observeForever(snapshot -> {
+            received[0] = 0; // 全量刷新从头开始
+            collect(snapshot, ids, received);
+        });
+        viewModel.appendedVideos.observeForever(snapshot -> collect(snapshot, ids, received));
+
+        long heapBefore = usedHeap();
+        long[] pageNanos = new long[PAGES * 2];
+        int requests = 0;
+        int failures = 0;
+
+        viewModel.ensureFirstLoad();
+        for (int retry = 0; received[0] == 0 && retry < 10; retry++) {
+            viewModel.refresh(); // 首页遇到合成错误时重试
+        }
+        while (received[0] < PAGES * PAGE_SIZE && requests < pageNanos.length) {
+            int before = received[0];
+            long start = System.nanoTime();
+            viewModel.loadMore();
+            pageNanos[requests++] = System.nanoTime() - start;
+            if (received[0] == before) {
+                failures++; // 合成错误，ViewModel 回退页码后下一轮重试
+            }
+        }
+        long heapAfter = usedHeap();
+
+        long[] sorted = Arrays.copyOf(pageNanos, requests);
+        Arrays.sort(sorted);
+        long growth = heapAfter - heapBefore;
+        String report = received[0] + " items in " + requests + " requests (" + failures + " failed), page latency p50 "
+                + sorted[requests / 2] / 1000 + " us, p99 " + sorted[(int) (requests * 0.99)] / 1000
+                + " us, heap grew " + growth / 1024 + " KB";
+
+        assertEquals(report, PAGES * PAGE_SIZE, received[0]);
+        assertEquals("no duplicate ids should reach the UI", received[0], ids.size());
+        // Repository 的列式缓存 (ViewModel 只持有它的快照)，每条远小于 2KB
+        assertTrue(report, growth / received[0] < 2048);
+    }
+
+    /**
+     * 快照中超出已收到条目数的部分是新到达的条目。
+     */
+    private static void collect(VideoColumnStore.Snapshot snapshot, Set<Long> ids, int[] received) {
+        if (snapshot == null) return;
+        for (int i = received[0]; i < snapshot.size(); i++) {
+            ids.add(snapshot.id(i));
+        }
+        received[0] = Math.max(received[0], snapshot.size());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}